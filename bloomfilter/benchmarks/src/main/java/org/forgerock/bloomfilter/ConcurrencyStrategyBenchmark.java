@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the fixed-capacity Bloom Filters created by the {@link ConcurrencyStrategy#ATOMIC} and
+ * {@link ConcurrencyStrategy#BLOCKED} strategies on token-like string elements. The filter is filled to capacity
+ * before measurement. The smaller capacity fits in the processor caches; the larger one does not, which is where
+ * touching a single cache line per probe matters most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ConcurrencyStrategyBenchmark {
+
+    static final int ELEMENT_COUNT = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class Filter {
+
+        @Param({ "ATOMIC", "BLOCKED" })
+        public ConcurrencyStrategy strategy;
+
+        @Param({ "10000", "10000000" })
+        public int capacity;
+
+        BloomFilter<CharSequence> bloomFilter;
+        String[] present;
+        String[] absent;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            bloomFilter = strategy.<CharSequence>getFactory(Funnels.stringFunnel(StandardCharsets.UTF_8))
+                    .create(capacity, 0.01d);
+            present = new String[ELEMENT_COUNT];
+            absent = new String[ELEMENT_COUNT];
+            for (int i = 0; i < capacity; ++i) {
+                final String token = UUID.randomUUID().toString();
+                bloomFilter.add(token);
+                if (i < ELEMENT_COUNT) {
+                    present[i] = token;
+                }
+            }
+            for (int i = capacity; i < ELEMENT_COUNT; ++i) {
+                present[i] = present[i % capacity];
+            }
+            for (int i = 0; i < ELEMENT_COUNT; ++i) {
+                absent[i] = UUID.randomUUID().toString();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final Random random = new Random(Thread.currentThread().getId());
+
+        int next() {
+            return random.nextInt(ELEMENT_COUNT);
+        }
+    }
+
+    @Benchmark
+    public boolean mightContainPresent(final Filter filter, final Cursor cursor) {
+        return filter.bloomFilter.mightContain(filter.present[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean mightContainAbsent(final Filter filter, final Cursor cursor) {
+        return filter.bloomFilter.mightContain(filter.absent[cursor.next()]);
+    }
+
+    @Benchmark
+    public void add(final Filter filter, final Cursor cursor) {
+        filter.bloomFilter.add(filter.present[cursor.next()]);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(ConcurrencyStrategyBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -21,6 +21,9 @@ import com.google.common.hash.Hashing;
 import com.google.common.primitives.Longs;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
@@ -30,7 +33,7 @@ import java.util.concurrent.atomic.AtomicLongArray;
  * ensure thread safety.
  */
 @ThreadSafe
-final class AtomicBloomFilter<T> implements BloomFilter<T> {
+final class AtomicBloomFilter<T> implements BitArrayBloomFilter<T> {
     private static final int BITS_PER_WORD = 64;
 
     private final long capacity;
@@ -40,6 +43,7 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
     private final Funnel<? super T> funnel;
     private final int numHashFunctions;
     private final long bitSize;
+    private final WordChangeTracker changes;
 
     /**
      * Constructs an atomic bloom filter with the given parameters.
@@ -51,6 +55,21 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
     AtomicBloomFilter(final Funnel<? super T> funnel,
                       final long capacity,
                       final double falsePositiveProbability) {
+        this(funnel, capacity, falsePositiveProbability, null);
+    }
+
+    /**
+     * Constructs an atomic bloom filter that records changes to its bits against the given version clock.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param capacity the desired capacity of the bloom filter.
+     * @param falsePositiveProbability the overall false positive probability to maintain.
+     * @param changeClock the version clock to record changes against, or {@code null} to not record changes.
+     */
+    AtomicBloomFilter(final Funnel<? super T> funnel,
+                      final long capacity,
+                      final double falsePositiveProbability,
+                      final AtomicLong changeClock) {
         this.funnel = funnel;
         this.capacity = capacity;
         this.falsePositiveProbability = falsePositiveProbability;
@@ -59,6 +78,62 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
         int arraySize = (int) Math.ceil((double) bitSize / (double) BITS_PER_WORD);
         this.bits = new AtomicLongArray(arraySize);
         this.numHashFunctions = BloomFilterStatistics.optimalNumberOfHashFunctions(bitSize, capacity);
+        this.changes = changeClock == null ? null : new WordChangeTracker(changeClock, arraySize);
+    }
+
+    private AtomicBloomFilter(final Funnel<? super T> funnel, final long capacity,
+                              final double falsePositiveProbability, final long bitSize, final int numHashFunctions,
+                              final AtomicLongArray bits, final AtomicLong changeClock) {
+        this.funnel = funnel;
+        this.capacity = capacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bitSize = bitSize;
+        this.bits = bits;
+        this.numHashFunctions = numHashFunctions;
+        this.changes = changeClock == null ? null : new WordChangeTracker(changeClock, bits.length());
+
+        long count = 0L;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        this.bitCount.set(count);
+    }
+
+    /**
+     * Restores an atomic bloom filter from a snapshot written by {@link #writeTo(DataOutputStream)},
+     * recording changes to its bits against the given version clock.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param in the stream to read the snapshot from.
+     * @param changeClock the version clock to record changes against, or {@code null} to not record changes.
+     * @return the restored bloom filter.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    static <T> AtomicBloomFilter<T> readFrom(final Funnel<? super T> funnel, final DataInputStream in,
+            final AtomicLong changeClock) throws IOException {
+        BloomFilterSnapshots.expectRecord(in, BloomFilterSnapshots.ATOMIC);
+        BloomFilterSnapshots.expectHashFunction(in, BloomFilterSnapshots.MURMUR3_128_HASH);
+        final long capacity = in.readLong();
+        final double falsePositiveProbability = in.readDouble();
+        final long bitSize = in.readLong();
+        final int numHashFunctions = in.readInt();
+        BloomFilterSnapshots.checkSnapshot(capacity > 0L && bitSize > 0L && numHashFunctions > 0,
+                "invalid atomic bloom filter parameters");
+        final int arraySize = (int) Math.ceil((double) bitSize / (double) BITS_PER_WORD);
+        final AtomicLongArray bits = BloomFilterSnapshots.readWords(in, arraySize);
+        return new AtomicBloomFilter<T>(funnel, capacity, falsePositiveProbability, bitSize, numHashFunctions, bits,
+                changeClock);
+    }
+
+    @Override
+    public void writeTo(final DataOutputStream out) throws IOException {
+        out.writeByte(BloomFilterSnapshots.ATOMIC);
+        out.writeByte(BloomFilterSnapshots.MURMUR3_128_HASH);
+        out.writeLong(capacity);
+        out.writeDouble(falsePositiveProbability);
+        out.writeLong(bitSize);
+        out.writeInt(numHashFunctions);
+        BloomFilterSnapshots.writeWords(out, bits);
     }
 
     @Override
@@ -137,6 +212,9 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
 
         if (changed) {
             bitCount.incrementAndGet();
+            if (changes != null) {
+                changes.wordChanged(bucket);
+            }
         }
 
         return changed;
@@ -152,6 +230,52 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
         return (bits.get((int) (index >>> 6)) & 1L << (int) index) != 0L;
     }
 
+    @Override
+    public byte getLayoutType() {
+        return BloomFilterSnapshots.ATOMIC;
+    }
+
+    @Override
+    public byte getHashFunction() {
+        return BloomFilterSnapshots.MURMUR3_128_HASH;
+    }
+
+    @Override
+    public int getNumberOfHashFunctions() {
+        return numHashFunctions;
+    }
+
+    @Override
+    public int getNumberOfWords() {
+        return bits.length();
+    }
+
+    @Override
+    public long getWord(final int index) {
+        return bits.get(index);
+    }
+
+    @Override
+    public void mergeWord(final int index, final long bitsToSet) {
+        long prev, next;
+        do {
+            prev = bits.get(index);
+            next = prev | bitsToSet;
+        } while (prev != next && !bits.compareAndSet(index, prev, next));
+
+        if (prev != next) {
+            bitCount.addAndGet(Long.bitCount(next & ~prev));
+            if (changes != null) {
+                changes.wordChanged(index);
+            }
+        }
+    }
+
+    @Override
+    public WordChangeTracker getChangeTracker() {
+        return changes;
+    }
+
     private long lowerEight(byte[] bytes) {
         return Longs.fromBytes(bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
     }
@@ -0,0 +1,95 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import org.forgerock.util.Reject;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link CountingBloomFilter} that packs sixteen 4-bit counters into each element of an {@link AtomicLongArray}
+ * and updates them with compare-and-swap operations, so that adds, removes and reads never block. Elements are
+ * hashed once, to 64 bits, by a {@link LongHashSink}, and the counter positions are derived from that hash without
+ * allocating.
+ * <p/>
+ * Counters are either spread over the whole array, as in {@link AtomicBloomFilter}, or confined to a cache-line sized
+ * block chosen by the hash, as in {@link BlockedBloomFilter}. See {@link CounterArray}.
+ */
+@ThreadSafe
+final class AtomicCountingBloomFilter<T> implements CountingBloomFilter<T> {
+    private final Funnel<? super T> funnel;
+    private final CounterArray.Atomic counters;
+
+    /**
+     * Constructs a counting bloom filter with the given parameters.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param capacity the desired capacity of the bloom filter.
+     * @param falsePositiveProbability the overall false positive probability to maintain.
+     * @param overflowPolicy what to do when a counter would overflow.
+     * @param blocked whether to confine the counters of each element to a single cache-line sized block.
+     */
+    AtomicCountingBloomFilter(final Funnel<? super T> funnel,
+                              final long capacity,
+                              final double falsePositiveProbability,
+                              final CounterOverflowPolicy overflowPolicy,
+                              final boolean blocked) {
+        Reject.ifNull(funnel);
+        this.funnel = funnel;
+        this.counters = new CounterArray.Atomic(capacity, falsePositiveProbability, overflowPolicy, blocked);
+    }
+
+    @Override
+    public void add(final T element) {
+        counters.add(LongHashSink.hash(funnel, element));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * If an element is rejected due to counter overflow, the elements before it remain added.
+     */
+    @Override
+    public void addAll(final Collection<? extends T> elements) {
+        for (T element : elements) {
+            add(element);
+        }
+    }
+
+    @Override
+    public boolean remove(final T element) {
+        return counters.remove(LongHashSink.hash(funnel, element));
+    }
+
+    @Override
+    public boolean mightContain(final T element) {
+        return counters.mightContain(LongHashSink.hash(funnel, element));
+    }
+
+    @Override
+    public BloomFilterStatistics getStatistics() {
+        return counters.getStatistics();
+    }
+
+    @Override
+    public String toString() {
+        return "AtomicCountingBloomFilter{" + counters + '}';
+    }
+}
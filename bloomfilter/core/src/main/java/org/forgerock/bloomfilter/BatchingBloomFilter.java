@@ -21,13 +21,16 @@ import org.forgerock.util.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A bloom filter decorator that batches up writes in an internal buffer and applies them once the buffer is full via
@@ -35,16 +38,25 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * memory usage) of the {@link CopyOnWriteBloomFilter} by amortizing the cost of the array copy over a large number
  * of modifications. The implementation ensures that the buffer is also considered during any read requests,
  * eliminating the possibility of false negatives.
+ * <p/>
+ * Writes go to one of two fixed-size, open-addressed {@link WriteBuffer}s with a compare-and-swap, so adding an
+ * element neither locks nor allocates. The writer that fills the active buffer to the batch size swaps in the other
+ * buffer and drains the full one straight into the delegate, while other writers carry on with the new buffer. Reads
+ * probe both buffers before the delegate. A buffer is only drained once every writer that found it active has
+ * finished with it, and an element is only removed from a buffer after the delegate has been updated, so it is always
+ * visible in one or the other.
  *
  * @param <T> the type of elements stored in this bloom filter.
  */
 @ThreadSafe
-final class BatchingBloomFilter<T> implements BloomFilter<T> {
+final class BatchingBloomFilter<T> implements SnapshottableBloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(BatchingBloomFilter.class);
     private final BloomFilter<T> delegate;
     @VisibleForTesting
     final int batchSize;
-    private final Collection<T> buffer;
+    private final WriteBuffer<T> firstBuffer;
+    private final WriteBuffer<T> secondBuffer;
+    private volatile WriteBuffer<T> activeBuffer;
 
     /**
      * Indicates that a buffer flush is in progress. Ensures mutual exclusion of other writer threads.
@@ -52,6 +64,15 @@ final class BatchingBloomFilter<T> implements BloomFilter<T> {
      */
     private final AtomicBoolean bufferFlushInProgress = new AtomicBoolean(false);
 
+    /**
+     * The elements drained from a buffer during a flush, and the buffer slots that held them. Allocated once so that
+     * flushing does not create garbage.
+     */
+    @GuardedBy("bufferFlushInProgress")
+    private final Object[] drainedElements;
+    @GuardedBy("bufferFlushInProgress")
+    private final int[] drainedSlots;
+
     /**
      * Constructs the batching decorator with the given delegate and batch size.
      *
@@ -63,38 +84,100 @@ final class BatchingBloomFilter<T> implements BloomFilter<T> {
         Reject.ifFalse(batchSize > 0, "Batch size must be > 0");
         this.delegate = delegate;
         this.batchSize = batchSize;
-        this.buffer = Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>(batchSize));
+        // Leave room for writes that arrive while the other buffer is being drained
+        final int bufferCapacity = Integer.highestOneBit(batchSize) << 2;
+        this.firstBuffer = new WriteBuffer<T>(bufferCapacity);
+        this.secondBuffer = new WriteBuffer<T>(bufferCapacity);
+        this.activeBuffer = firstBuffer;
+        this.drainedElements = new Object[bufferCapacity];
+        this.drainedSlots = new int[bufferCapacity];
     }
 
     /**
      * Adds the given element to the internal buffer. If the buffer has exceeded the batch size then the contents of
-     * the buffer is flushed to the underlying bloom filter.
+     * the buffer is flushed to the underlying bloom filter. If both buffers are full, the element is written directly
+     * to the underlying bloom filter.
      *
      * @param element the element to add to this set.
      */
     @Override
     public void add(final T element) {
-        boolean changed = buffer.add(element);
-        if (changed) {
-            // Determine if the buffer needs to be flushed to the underlying bloom filter
-            if (buffer.size() >= batchSize && bufferFlushInProgress.compareAndSet(false, true)) {
-                try {
-                    // Copy the buffer into a temporary buffer so that we do not lose updates during the flush.
-                    // We use a Set here to speed up the buffer.removeAll method below, which is a hot-spot.
-                    final Set<T> tmp = new HashSet<T>(buffer);
-                    int size = tmp.size();
-                    if (size >= batchSize) {
-                        LOGGER.debug("Flushing buffer: size={}", size);
-                        delegate.addAll(tmp);
-                        buffer.removeAll(tmp);
-                    }
-                } finally {
-                    bufferFlushInProgress.set(false);
+        final int hash = spread(element.hashCode());
+        WriteBuffer<T> buffer = activeBuffer;
+        while (!buffer.enter(this)) {
+            buffer = activeBuffer;
+        }
+        final boolean added;
+        try {
+            added = buffer.add(element, hash);
+        } finally {
+            buffer.exit();
+        }
+        if (!added) {
+            delegate.add(element);
+        } else if (buffer.size() >= batchSize) {
+            flush(buffer);
+        }
+    }
+
+    /**
+     * Swaps the active buffer and drains the given buffer into the underlying bloom filter, unless another thread is
+     * already doing so.
+     */
+    private void flush(final WriteBuffer<T> buffer) {
+        if (bufferFlushInProgress.compareAndSet(false, true)) {
+            try {
+                // Another thread may have flushed this buffer since it was found full
+                if (activeBuffer == buffer && buffer.size() >= batchSize) {
+                    swapAndDrain(buffer);
                 }
+            } finally {
+                bufferFlushInProgress.set(false);
             }
         }
     }
 
+    /**
+     * Drains the buffered elements into the underlying bloom filter, waiting for any flush in progress to complete
+     * first. Elements added concurrently may remain in the buffers.
+     */
+    void flush() {
+        while (!bufferFlushInProgress.compareAndSet(false, true)) {
+            Thread.yield();
+        }
+        try {
+            // The inactive buffer is only non-empty while it is being drained, which cannot be the case here
+            swapAndDrain(activeBuffer);
+        } finally {
+            bufferFlushInProgress.set(false);
+        }
+    }
+
+    /**
+     * Makes the other buffer active, waits for writers that found the given buffer active to finish adding to it and
+     * then drains it. Clearing a slot part way along a probe sequence would hide any element added behind it, so no
+     * slot may be cleared while a writer can still add to the buffer.
+     */
+    @GuardedBy("bufferFlushInProgress")
+    private void swapAndDrain(final WriteBuffer<T> buffer) {
+        activeBuffer = (buffer == firstBuffer) ? secondBuffer : firstBuffer;
+        buffer.awaitWriters();
+        drain(buffer);
+    }
+
+    @GuardedBy("bufferFlushInProgress")
+    private void drain(final WriteBuffer<T> buffer) {
+        final int size = buffer.drainTo(drainedElements, drainedSlots);
+        LOGGER.debug("Flushing buffer: size={}", size);
+        if (size > 0) {
+            @SuppressWarnings("unchecked")
+            final List<T> drained = (List<T>) Arrays.asList(drainedElements).subList(0, size);
+            delegate.addAll(drained);
+            buffer.clear(drainedSlots, size);
+            Arrays.fill(drainedElements, 0, size, null);
+        }
+    }
+
     /**
      * Adds the entire collection of elements directly to the underlying Bloom Filter. No buffering is done in this
      * case.
@@ -109,8 +192,10 @@ final class BatchingBloomFilter<T> implements BloomFilter<T> {
 
     @Override
     public boolean mightContain(final T element) {
-        // Always check the buffer first to ensure no false negatives during a buffer flush
-        return buffer.contains(element) || delegate.mightContain(element);
+        // Always check the buffers first to ensure no false negatives during a buffer flush
+        final int hash = spread(element.hashCode());
+        return firstBuffer.contains(element, hash) || secondBuffer.contains(element, hash)
+                || delegate.mightContain(element);
     }
 
     @Override
@@ -119,11 +204,179 @@ final class BatchingBloomFilter<T> implements BloomFilter<T> {
         final BloomFilterStatistics stats = delegate.getStatistics();
         return new BloomFilterStatistics(stats.getConfiguredFalsePositiveProbability(),
                 stats.getExpectedFalsePositiveProbability(), stats.getCapacity(), stats.getBitSize(),
-                stats.getExpiryTime(), stats.getEstimatedRemainingCapacity() - buffer.size());
+                stats.getExpiryTime(),
+                stats.getEstimatedRemainingCapacity() - firstBuffer.size() - secondBuffer.size());
+    }
+
+    /**
+     * Flushes the buffered elements and writes the underlying bloom filter. Write batching is not recorded in the
+     * snapshot.
+     */
+    @Override
+    public void writeTo(final DataOutputStream out) throws IOException {
+        flush();
+        BloomFilterSnapshots.writeFilter(delegate, out);
     }
 
     @Override
     public String toString() {
         return "BatchingBloomFilter{delegate=" + delegate + ", batchSize=" + batchSize + '}';
     }
+
+    /**
+     * Spreads the bits of a hash code so that the low bits used to index a buffer depend on all of them.
+     */
+    private static int spread(final int hashCode) {
+        final int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A fixed-size set of elements waiting to be written to the underlying bloom filter. Elements are stored by open
+     * addressing with linear probing in an {@link AtomicReferenceArray} and inserted with compare-and-swap. Writers
+     * register with {@link #enter(BatchingBloomFilter)} so that the flushing thread can wait for them to finish. Only
+     * the flushing thread removes elements, once no writer can add to the buffer and the elements have been written to
+     * the underlying bloom filter. A slot emptied part way along a probe sequence can therefore only hide elements
+     * that are already in the underlying bloom filter.
+     */
+    @ThreadSafe
+    static final class WriteBuffer<T> {
+        private final AtomicReferenceArray<T> slots;
+        private final AtomicInteger size = new AtomicInteger(0);
+        private final AtomicInteger writers = new AtomicInteger(0);
+        private final int mask;
+        private final int maximumSize;
+
+        /**
+         * @param capacity the number of slots, which must be a power of two.
+         */
+        WriteBuffer(final int capacity) {
+            this.slots = new AtomicReferenceArray<T>(capacity);
+            this.mask = capacity - 1;
+            // Keep probe sequences short
+            this.maximumSize = Math.max(1, capacity - (capacity >>> 2));
+        }
+
+        /**
+         * Registers a writer, provided that this buffer is still the active buffer of the given filter. The check
+         * follows the registration, so a flushing thread that has made another buffer active and then sees no
+         * writers can be sure that no writer will add to this buffer until it is made active again.
+         *
+         * @param filter the filter that owns this buffer.
+         * @return {@code true} if the writer is registered and must call {@link #exit()} when done, or {@code false}
+         * if another buffer has become active.
+         */
+        boolean enter(final BatchingBloomFilter<T> filter) {
+            writers.incrementAndGet();
+            if (filter.activeBuffer == this) {
+                return true;
+            }
+            writers.decrementAndGet();
+            return false;
+        }
+
+        /**
+         * Deregisters a writer registered by {@link #enter(BatchingBloomFilter)}.
+         */
+        void exit() {
+            writers.decrementAndGet();
+        }
+
+        /**
+         * Waits until no writer is registered.
+         */
+        void awaitWriters() {
+            while (writers.get() != 0) {
+                Thread.yield();
+            }
+        }
+
+        /**
+         * Adds an element to the buffer if an equal element is not already present.
+         *
+         * @param element the element to add.
+         * @param hash the spread hash code of the element.
+         * @return {@code false} if the buffer is full, otherwise {@code true}.
+         */
+        boolean add(final T element, final int hash) {
+            if (size.get() >= maximumSize) {
+                return false;
+            }
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                T current = slots.get(slot);
+                if (current == null) {
+                    if (slots.compareAndSet(slot, null, element)) {
+                        size.incrementAndGet();
+                        return true;
+                    }
+                    current = slots.get(slot);
+                }
+                if (current != null && current.equals(element)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        /**
+         * Checks whether an element equal to the given one is in the buffer.
+         *
+         * @param element the element to look for.
+         * @param hash the spread hash code of the element.
+         * @return {@code true} if the element is in the buffer.
+         */
+        boolean contains(final T element, final int hash) {
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                final T current = slots.get(slot);
+                if (current == null) {
+                    return false;
+                }
+                if (current.equals(element)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        /**
+         * Copies the elements in the buffer, and the slots that hold them, without removing them.
+         *
+         * @param elements array to receive the elements.
+         * @param slotIndexes array to receive the index of the slot holding each element.
+         * @return the number of elements copied.
+         */
+        int drainTo(final Object[] elements, final int[] slotIndexes) {
+            int count = 0;
+            for (int slot = 0; slot <= mask && count < elements.length; slot++) {
+                final T current = slots.get(slot);
+                if (current != null) {
+                    elements[count] = current;
+                    slotIndexes[count] = slot;
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Empties the given slots, once their elements have been written to the underlying bloom filter.
+         *
+         * @param slotIndexes the slots to empty.
+         * @param count the number of slots to empty.
+         */
+        void clear(final int[] slotIndexes, final int count) {
+            for (int i = 0; i < count; i++) {
+                slots.set(slotIndexes[i], null);
+            }
+            size.addAndGet(-count);
+        }
+
+        int size() {
+            return size.get();
+        }
+    }
 }
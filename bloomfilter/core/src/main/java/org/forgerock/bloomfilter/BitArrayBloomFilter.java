@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+/**
+ * A bloom filter whose bits are held in an array of 64-bit words that can be read and merged word by word. Two such
+ * filters with the same layout hash every element to the same bits, so OR-ing the words of one into the other adds all
+ * of its elements.
+ *
+ * @param <T> the type of elements contained in the bloom filter.
+ * @see MergeableBloomFilter
+ */
+interface BitArrayBloomFilter<T> extends SnapshottableBloomFilter<T> {
+    /**
+     * Identifies how elements are mapped to bits, as the snapshot record type of the filter.
+     */
+    byte getLayoutType();
+
+    /**
+     * Identifies the hash function used to map elements to bits, as recorded in snapshots and deltas.
+     */
+    byte getHashFunction();
+
+    /**
+     * The number of bits set for each element.
+     */
+    int getNumberOfHashFunctions();
+
+    /**
+     * The number of words in the bit array.
+     */
+    int getNumberOfWords();
+
+    /**
+     * Reads a word of the bit array.
+     *
+     * @param index the index of the word.
+     * @return the current value of the word.
+     */
+    long getWord(int index);
+
+    /**
+     * Atomically sets the bits of a word of the bit array that are set in the given value.
+     *
+     * @param index the index of the word.
+     * @param bits the bits to set.
+     */
+    void mergeWord(int index, long bits);
+
+    /**
+     * Returns the tracker recording changes to this filter, or {@code null} if changes are not tracked.
+     */
+    WordChangeTracker getChangeTracker();
+}
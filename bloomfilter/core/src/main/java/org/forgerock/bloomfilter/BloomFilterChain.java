@@ -69,6 +69,19 @@ final class BloomFilterChain<T> implements BloomFilter<T> {
         this.clock = clock;
     }
 
+    /**
+     * Creates a filter chain holding the given buckets, which must have been taken from the pool.
+     *
+     * @param pool the pool from which to get new Bloom Filters for subsequent elements in the chain.
+     * @param clock the clock to use for determining if a bloom filter has expired.
+     * @param buckets the initial buckets in the chain, oldest first.
+     */
+    BloomFilterChain(final BloomFilterPool<T> pool, final TimeService clock, final List<BloomFilter<T>> buckets) {
+        this(pool, clock);
+        Reject.ifNull(buckets);
+        chain.addAll(buckets);
+    }
+
     /**
      * Adds the given element to the last bucket in the filter chain, acquiring a new bucket from the pool if all
      * existing buckets are saturated.
@@ -198,6 +211,39 @@ final class BloomFilterChain<T> implements BloomFilter<T> {
         return lastBucket;
     }
 
+    /**
+     * Returns the buckets currently in the chain, oldest first. None of the buckets had been released to the pool at
+     * the time of the call.
+     */
+    List<BloomFilter<T>> getBuckets() {
+        // Buckets are only released while holding the lock
+        synchronized (chain) {
+            return new ArrayList<BloomFilter<T>>(chain);
+        }
+    }
+
+    /**
+     * Returns the bucket in the chain at the given position in the pool. If there is none, it is taken from the pool
+     * and inserted before the last bucket, so that the last bucket continues to receive new elements.
+     *
+     * @param bucketNumber the position of the bucket in the pool.
+     * @return the bucket.
+     * @throws IllegalArgumentException if the position is out of range for the pool.
+     */
+    BloomFilter<T> getOrAddBucket(final int bucketNumber) {
+        synchronized (chain) {
+            for (BloomFilter<T> bucket : chain) {
+                if (pool.getBucketNumber(bucket) == bucketNumber) {
+                    return bucket;
+                }
+            }
+            LOGGER.debug("Adding bucket number {}", bucketNumber);
+            final BloomFilter<T> bucket = pool.takeBucket(bucketNumber);
+            chain.add(Math.max(chain.size() - 1, 0), bucket);
+            return bucket;
+        }
+    }
+
     @Override
     public String toString() {
         return "BloomFilterChain{size=" + chain.size() + '}';
@@ -0,0 +1,226 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import org.forgerock.util.Reject;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes to the bit arrays of a {@link MergeableBloomFilter} since some version, for applying to replicas of the
+ * filter. For each changed bucket, a delta holds the bucket's position in the geometric series of bucket sizes, its
+ * expiry time, the hash function that maps elements to its bits, and the index and value of each non-zero word in the
+ * parts of its bit array that have changed. Changes are rejected by a bucket whose hash function differs, as would be
+ * the case for a replica running a release that hashes elements differently.
+ * <p/>
+ * Deltas can be sent between nodes in a compact binary form with {@link #writeTo(OutputStream)} and
+ * {@link #readFrom(InputStream)}. Word indexes are written as variable-length differences, so each changed word takes
+ * little more than its own eight bytes.
+ */
+@Immutable
+public final class BloomFilterDelta {
+    private static final int MAGIC = 0x424C4644;
+    private static final int FORMAT_VERSION = 1;
+
+    private final long version;
+    private final List<BucketChanges> buckets;
+
+    BloomFilterDelta(final long version, final List<BucketChanges> buckets) {
+        this.version = version;
+        this.buckets = Collections.unmodifiableList(buckets);
+    }
+
+    /**
+     * The version to pass to {@link MergeableBloomFilter#getChangesSince(long)} to get the changes made after this
+     * delta was taken.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether there are no changes in this delta.
+     */
+    public boolean isEmpty() {
+        return buckets.isEmpty();
+    }
+
+    /**
+     * The total number of 64-bit words in this delta.
+     */
+    public int getNumberOfWords() {
+        int total = 0;
+        for (BucketChanges bucket : buckets) {
+            total += bucket.indexes.length;
+        }
+        return total;
+    }
+
+    List<BucketChanges> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Writes this delta to a stream.
+     *
+     * @param out the stream to write to. It is flushed but not closed.
+     * @throws IOException if the delta cannot be written.
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        Reject.ifNull(out);
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(version);
+        data.writeInt(buckets.size());
+        for (BucketChanges bucket : buckets) {
+            data.writeInt(bucket.bucketNumber);
+            data.writeByte(bucket.layoutType);
+            data.writeByte(bucket.hashFunction);
+            data.writeInt(bucket.numHashFunctions);
+            data.writeInt(bucket.numberOfWords);
+            data.writeLong(bucket.expiryTime);
+            data.writeInt(bucket.indexes.length);
+            int previousIndex = -1;
+            for (int i = 0; i < bucket.indexes.length; i++) {
+                writeVarInt(data, bucket.indexes[i] - previousIndex);
+                data.writeLong(bucket.words[i]);
+                previousIndex = bucket.indexes[i];
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a delta written by {@link #writeTo(OutputStream)}. The stream is not buffered by this method.
+     *
+     * @param in the stream to read from.
+     * @return the delta.
+     * @throws IOException if the delta cannot be read or is corrupt.
+     */
+    public static BloomFilterDelta readFrom(final InputStream in) throws IOException {
+        Reject.ifNull(in);
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a bloom filter delta");
+        }
+        final int formatVersion = data.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported bloom filter delta version: " + formatVersion);
+        }
+        final long version = data.readLong();
+        final int numberOfBuckets = data.readInt();
+        checkDelta(numberOfBuckets >= 0, "invalid number of buckets");
+        final List<BucketChanges> buckets = new ArrayList<BucketChanges>(Math.min(numberOfBuckets, 64));
+        for (int b = 0; b < numberOfBuckets; b++) {
+            final int bucketNumber = data.readInt();
+            final byte layoutType = data.readByte();
+            final byte hashFunction = data.readByte();
+            final int numHashFunctions = data.readInt();
+            final int numberOfWords = data.readInt();
+            final long expiryTime = data.readLong();
+            final int count = data.readInt();
+            checkDelta(bucketNumber >= 0 && numberOfWords > 0 && count >= 0 && count <= numberOfWords,
+                    "invalid bucket header");
+            final int[] indexes = new int[count];
+            final long[] words = new long[count];
+            int index = -1;
+            for (int i = 0; i < count; i++) {
+                index += readVarInt(data);
+                checkDelta(index >= 0 && index < numberOfWords, "word index out of range");
+                indexes[i] = index;
+                words[i] = data.readLong();
+            }
+            buckets.add(new BucketChanges(bucketNumber, layoutType, hashFunction, numHashFunctions, numberOfWords,
+                    expiryTime, indexes, words));
+        }
+        return new BloomFilterDelta(version, buckets);
+    }
+
+    private static void checkDelta(final boolean condition, final String message) throws IOException {
+        if (!condition) {
+            throw new IOException("Corrupt bloom filter delta: " + message);
+        }
+    }
+
+    private static void writeVarInt(final DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(final DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt bloom filter delta: invalid word index");
+    }
+
+    @Override
+    public String toString() {
+        return "BloomFilterDelta{" +
+                "version=" + version +
+                ", buckets=" + buckets.size() +
+                ", words=" + getNumberOfWords() +
+                '}';
+    }
+
+    /**
+     * The changed words of one bucket. The layout fields identify how elements are mapped to bits, and must match
+     * those of the bucket the changes are applied to.
+     */
+    @Immutable
+    static final class BucketChanges {
+        final int bucketNumber;
+        final byte layoutType;
+        final byte hashFunction;
+        final int numHashFunctions;
+        final int numberOfWords;
+        final long expiryTime;
+        final int[] indexes;
+        final long[] words;
+
+        BucketChanges(final int bucketNumber, final byte layoutType, final byte hashFunction,
+                      final int numHashFunctions, final int numberOfWords, final long expiryTime,
+                      final int[] indexes, final long[] words) {
+            this.bucketNumber = bucketNumber;
+            this.layoutType = layoutType;
+            this.hashFunction = hashFunction;
+            this.numHashFunctions = numHashFunctions;
+            this.numberOfWords = numberOfWords;
+            this.expiryTime = expiryTime;
+            this.indexes = indexes;
+            this.words = words;
+        }
+    }
+}
@@ -16,6 +16,9 @@
 
 package org.forgerock.bloomfilter;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+
 /**
  * Abstract factory pattern for creating individual bloom filters with the given capacity and false positive
  * probability.
@@ -31,4 +34,14 @@ interface BloomFilterFactory<T> {
      * @return a new bloom filter satisfying the requirements.
      */
     BloomFilter<T> create(long expectedInsertions, double falsePositiveProbability);
+
+    /**
+     * Restores a Bloom Filter created by this factory from a snapshot, without rehashing any elements.
+     *
+     * @param in the stream to read the snapshot of the bloom filter from.
+     * @return the restored bloom filter.
+     * @throws IOException if the snapshot cannot be read or was not taken of a bloom filter created by this factory.
+     * @see SnapshottableBloomFilter#writeTo(java.io.DataOutputStream)
+     */
+    BloomFilter<T> readFrom(DataInputStream in) throws IOException;
 }
@@ -38,6 +38,24 @@ interface BloomFilterPool<T> {
      */
     void release(BloomFilter<T> released);
 
+    /**
+     * Takes the bloom filter at the given position in the pool, for a chain holding the same bloom filters as a chain
+     * built from another instance of the pool.
+     *
+     * @param bucketNumber the position of the bloom filter in the pool.
+     * @return a new bloom filter for that position.
+     * @throws IllegalArgumentException if the position is out of range or has already been taken.
+     */
+    BloomFilter<T> takeBucket(int bucketNumber);
+
+    /**
+     * Returns the position in the pool of a bloom filter taken from it.
+     *
+     * @param bucket a bloom filter taken from this pool.
+     * @return the position of the bloom filter in the pool.
+     */
+    int getBucketNumber(BloomFilter<T> bucket);
+
     /**
      * The overall false positive probability that this pool is trying to achieve.
      */
@@ -0,0 +1,318 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import org.forgerock.util.Reject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Saves bloom filters to, and restores them from, a compact binary snapshot. A snapshot holds the bit arrays of the
+ * filter, or of each bucket of a scalable or rolling filter along with the bucket's position in the geometric series
+ * and its expiry time, so that the restored filter has the same contents and {@link BloomFilterStatistics}. Restoring a
+ * snapshot copies the bit arrays and does not rehash any elements, so it takes time proportional to the size of the
+ * filter rather than the number of elements in it.
+ * <p/>
+ * Funnels and expiry strategies cannot be saved, so a snapshot is restored with a builder configured in the same way
+ * as the one that built the saved filter:
+ * <pre>
+ *     BloomFilters.BloomFilterBuilder&lt;T&gt; builder = BloomFilters.create(funnel).rolling()...;
+ *     BloomFilter&lt;T&gt; filter = builder.build();
+ *     ...
+ *     BloomFilterSnapshots.save(filter, file);
+ *     ...
+ *     BloomFilter&lt;T&gt; restored = BloomFilterSnapshots.load(builder, file);
+ * </pre>
+ * Elements buffered by {@link BloomFilters.BloomFilterBuilder#withWriteBatchSize(int) write batching} are written to
+ * the filter before it is saved. Otherwise, elements added while a snapshot is being taken may or may not be included
+ * in it.
+ * <p/>
+ * Snapshots record the hash function that mapped elements to bits, and are rejected if it is not the one used by
+ * the filters of the builder, rather than restoring bits that would no longer be found.
+ * <p/>
+ * The snapshot format is private to this package and may change between releases. Snapshots of filters using the
+ * {@link ConcurrencyStrategy#COPY_ON_WRITE} or {@link ConcurrencyStrategy#SYNCHRONIZED} strategies also depend on the
+ * serialized form of Guava bloom filters.
+ */
+public final class BloomFilterSnapshots {
+    static final int MAGIC = 0x424C4F4D;
+    static final int VERSION = 1;
+
+    /** Record types. */
+    static final byte ATOMIC = 1;
+    static final byte BLOCKED = 2;
+    static final byte COPY_ON_WRITE = 3;
+    static final byte SYNCHRONIZED = 4;
+    static final byte EXPIRING = 5;
+    static final byte ROLLING = 6;
+
+    /**
+     * Hash functions, recorded with the bit arrays they map elements to. A restored bit array is only useful if its
+     * elements are hashed in exactly the same way, so a hash function must be given a new identifier if the hash it
+     * computes for any input ever changes.
+     */
+    static final byte MURMUR3_128_HASH = 1;
+    static final byte LONG_HASH = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
+    private BloomFilterSnapshots() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Writes a snapshot of the given bloom filter to a stream.
+     *
+     * @param filter a bloom filter built by {@link BloomFilters}.
+     * @param out the stream to write to. It is flushed but not closed.
+     * @throws IOException if the snapshot cannot be written.
+     * @throws IllegalArgumentException if the filter was not built by {@link BloomFilters}.
+     */
+    public static void writeTo(final BloomFilter<?> filter, final OutputStream out) throws IOException {
+        Reject.ifNull(filter, out);
+        Reject.ifFalse(filter instanceof SnapshottableBloomFilter, "Snapshots are not supported by " + filter);
+        final CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out, BUFFER_SIZE),
+                new CRC32());
+        final DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeFilter(filter, data);
+        data.writeLong(checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    /**
+     * Saves a snapshot of the given bloom filter to a file. The snapshot is written to a temporary file in the same
+     * directory, which is forced to disk and then moved over the target file, so that an existing snapshot is only
+     * replaced by a complete one.
+     *
+     * @param filter a bloom filter built by {@link BloomFilters}.
+     * @param file the file to save the snapshot to.
+     * @throws IOException if the snapshot cannot be written.
+     * @throws IllegalArgumentException if the filter was not built by {@link BloomFilters}.
+     */
+    public static void save(final BloomFilter<?> filter, final Path file) throws IOException {
+        Reject.ifNull(filter, file);
+        final Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            writeTo(filter, Channels.newOutputStream(channel));
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores a bloom filter from a snapshot read from a stream. The stream is not buffered by this method.
+     *
+     * @param builder a builder configured in the same way as the one that built the saved filter.
+     * @param in the stream to read the snapshot from.
+     * @param <T> the type of elements contained in the bloom filter.
+     * @return the restored bloom filter.
+     * @throws IOException if the snapshot cannot be read, is corrupt, or does not match the builder configuration.
+     */
+    public static <T> BloomFilter<T> readFrom(final BloomFilters.BloomFilterBuilder<T> builder, final InputStream in)
+            throws IOException {
+        Reject.ifNull(builder, in);
+        final CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        final DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a bloom filter snapshot");
+        }
+        final int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported bloom filter snapshot version: " + version);
+        }
+        final BloomFilter<T> filter = builder.restore(data);
+        final long checksum = checked.getChecksum().getValue();
+        if (data.readLong() != checksum) {
+            throw new IOException("Bloom filter snapshot checksum mismatch");
+        }
+        return filter;
+    }
+
+    /**
+     * Restores a bloom filter from a snapshot file, which is read through memory mappings of the file.
+     *
+     * @param builder a builder configured in the same way as the one that built the saved filter.
+     * @param file the file to load the snapshot from.
+     * @param <T> the type of elements contained in the bloom filter.
+     * @return the restored bloom filter.
+     * @throws IOException if the snapshot cannot be read, is corrupt, or does not match the builder configuration.
+     */
+    public static <T> BloomFilter<T> load(final BloomFilters.BloomFilterBuilder<T> builder, final Path file)
+            throws IOException {
+        Reject.ifNull(builder, file);
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            return readFrom(builder, new MappedFileInputStream(channel));
+        }
+    }
+
+    /**
+     * Writes the snapshot record of a bloom filter.
+     */
+    static void writeFilter(final BloomFilter<?> filter, final DataOutputStream out) throws IOException {
+        if (!(filter instanceof SnapshottableBloomFilter)) {
+            throw new IllegalArgumentException("Snapshots are not supported by " + filter);
+        }
+        ((SnapshottableBloomFilter<?>) filter).writeTo(out);
+    }
+
+    /**
+     * Reads the type of the next record and checks that it is the expected one.
+     */
+    static void expectRecord(final DataInputStream in, final byte type) throws IOException {
+        final byte actual = in.readByte();
+        if (actual != type) {
+            throw new IOException("Bloom filter snapshot does not match configuration: expected record type " + type
+                    + " but found " + actual);
+        }
+    }
+
+    /**
+     * Reads the hash function of a bit array record and checks that it is the expected one.
+     */
+    static void expectHashFunction(final DataInputStream in, final byte hashFunction) throws IOException {
+        final byte actual = in.readByte();
+        if (actual != hashFunction) {
+            throw new IOException("Bloom filter snapshot does not match configuration: expected hash function "
+                    + hashFunction + " but found " + actual);
+        }
+    }
+
+    /**
+     * Checks a condition on the contents of a snapshot.
+     */
+    static void checkSnapshot(final boolean condition, final String message) throws IOException {
+        if (!condition) {
+            throw new IOException("Corrupt bloom filter snapshot: " + message);
+        }
+    }
+
+    /**
+     * Writes the length and contents of a bit array.
+     */
+    static void writeWords(final DataOutputStream out, final AtomicLongArray words) throws IOException {
+        final int length = words.length();
+        out.writeInt(length);
+        final ByteBuffer chunk = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = 0; i < length; i++) {
+            if (!chunk.hasRemaining()) {
+                out.write(chunk.array(), 0, chunk.position());
+                chunk.clear();
+            }
+            chunk.putLong(words.get(i));
+        }
+        out.write(chunk.array(), 0, chunk.position());
+    }
+
+    /**
+     * Reads a bit array written by {@link #writeWords(DataOutputStream, AtomicLongArray)}.
+     *
+     * @param expectedLength the length the bit array must have.
+     */
+    static AtomicLongArray readWords(final DataInputStream in, final int expectedLength) throws IOException {
+        final int length = in.readInt();
+        checkSnapshot(length == expectedLength, "expected " + expectedLength + " words but found " + length);
+        final AtomicLongArray words = new AtomicLongArray(length);
+        final ByteBuffer chunk = ByteBuffer.allocate(BUFFER_SIZE);
+        int i = 0;
+        while (i < length) {
+            final int count = Math.min(length - i, BUFFER_SIZE / 8);
+            in.readFully(chunk.array(), 0, count * 8);
+            chunk.clear();
+            for (int j = 0; j < count; j++) {
+                words.set(i++, chunk.getLong());
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Reads a file through successive read-only memory mappings, so that files larger than a single mapping can be
+     * read.
+     */
+    private static final class MappedFileInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+        private MappedByteBuffer region;
+
+        MappedFileInputStream(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextRegion() ? region.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextRegion()) {
+                return -1;
+            }
+            final int count = Math.min(length, region.remaining());
+            region.get(bytes, offset, count);
+            return count;
+        }
+
+        /**
+         * Maps the next region of the file if the current one has been read.
+         *
+         * @return false if the end of the file has been reached.
+         */
+        private boolean nextRegion() throws IOException {
+            if (region != null && region.hasRemaining()) {
+                return true;
+            }
+            if (position >= size) {
+                return false;
+            }
+            final long length = Math.min(MAPPED_REGION_SIZE, size - position);
+            region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return true;
+        }
+    }
+}
@@ -30,6 +30,7 @@ public final class BloomFilterStatistics {
     private final long bitSize;
     private final long expiryTime;
     private final long estimatedRemainingCapacity;
+    private final long saturatedCounterCount;
 
     /**
      * Constructs a statistics object with the given parameters.
@@ -47,12 +48,39 @@ public final class BloomFilterStatistics {
                                  final long bitSize,
                                  final long expiryTime,
                                  final long estimatedRemainingCapacity) {
+        this(configuredFalsePositiveProbability, expectedFalsePositiveProbability, capacity, bitSize, expiryTime,
+                estimatedRemainingCapacity, 0L);
+    }
+
+    /**
+     * Constructs a statistics object for a counting bloom filter.
+     *
+     * @param configuredFalsePositiveProbability the false positive probability that was configured for this set.
+     * @param expectedFalsePositiveProbability the expected false positive probability given the current state of the
+     *                                         set.
+     * @param capacity the expected total number of insertions into the set before it becomes saturated
+     *                 (exceeds the configured false positive probability).
+     * @param bitSize the total memory size of the set in bits.
+     * @param expiryTime the time at which the last element in the set expires.
+     * @param estimatedRemainingCapacity the estimated number of elements that can be inserted before the set becomes
+     *                                   saturated.
+     * @param saturatedCounterCount the number of counters that have overflowed.
+     * @see CountingBloomFilter
+     */
+    public BloomFilterStatistics(final double configuredFalsePositiveProbability,
+                                 final double expectedFalsePositiveProbability,
+                                 final long capacity,
+                                 final long bitSize,
+                                 final long expiryTime,
+                                 final long estimatedRemainingCapacity,
+                                 final long saturatedCounterCount) {
         this.configuredFalsePositiveProbability = configuredFalsePositiveProbability;
         this.expectedFalsePositiveProbability = expectedFalsePositiveProbability;
         this.capacity = capacity;
         this.bitSize = bitSize;
         this.expiryTime = expiryTime;
         this.estimatedRemainingCapacity = estimatedRemainingCapacity;
+        this.saturatedCounterCount = saturatedCounterCount;
     }
 
     /**
@@ -164,6 +192,17 @@ public final class BloomFilterStatistics {
         return expiryTime;
     }
 
+    /**
+     * The number of counters in a counting bloom filter that have overflowed and are stuck at their largest value
+     * under the {@link CounterOverflowPolicy#SATURATE} policy. Elements that share a saturated counter are still
+     * reported as present after they are removed. This statistic is always zero for other bloom filters.
+     *
+     * @return the number of saturated counters.
+     */
+    public long getSaturatedCounterCount() {
+        return saturatedCounterCount;
+    }
+
     /**
      * Determines whether the bloom filter expected false positive probability has exceeded the configured false
      * positive probability. This happens roughly when half of the bits in the underlying bit vector have been set to 1.
@@ -189,6 +228,7 @@ public final class BloomFilterStatistics {
 
         return bitSize == that.bitSize && capacity == that.capacity
                 && expiryTime == that.expiryTime && estimatedRemainingCapacity == that.estimatedRemainingCapacity
+                && saturatedCounterCount == that.saturatedCounterCount
                 && Double.compare(that.configuredFalsePositiveProbability, configuredFalsePositiveProbability) == 0
                 && Double.compare(that.expectedFalsePositiveProbability, expectedFalsePositiveProbability) == 0;
 
@@ -206,6 +246,7 @@ public final class BloomFilterStatistics {
         result = 31 * result + (int) (bitSize ^ (bitSize >>> 32));
         result = 31 * result + (int) (expiryTime ^ (expiryTime >>> 32));
         result = 31 * result + (int) (estimatedRemainingCapacity ^ (estimatedRemainingCapacity >>> 32));
+        result = 31 * result + (int) (saturatedCounterCount ^ (saturatedCounterCount >>> 32));
         return result;
     }
 
@@ -217,8 +258,9 @@ public final class BloomFilterStatistics {
                 ", \"capacity\": %d" +
                 ", \"estimatedRemainingCapacity\": %d" +
                 ", \"bitSize\": %d" +
+                ", \"saturatedCounterCount\": %d" +
                 ", \"expiryTime\": \"%tFT%<tT.%<tLZ\" }",
                 configuredFalsePositiveProbability, expectedFalsePositiveProbability, capacity,
-                estimatedRemainingCapacity, bitSize, expiryTime);
+                estimatedRemainingCapacity, bitSize, saturatedCounterCount, expiryTime);
     }
 }
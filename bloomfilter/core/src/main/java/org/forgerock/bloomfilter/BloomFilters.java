@@ -22,6 +22,10 @@ import org.forgerock.util.Reject;
 import org.forgerock.util.annotations.VisibleForTesting;
 import org.forgerock.util.time.TimeService;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Factory methods for creating bloom filters with various requirements.
  */
@@ -68,6 +72,7 @@ public final class BloomFilters {
         double falsePositiveProbability = 0.01d;
         ConcurrencyStrategy concurrencyStrategy = ConcurrencyStrategy.COPY_ON_WRITE;
         int writeBatchSize = 0;
+        CounterOverflowPolicy counterOverflowPolicy = CounterOverflowPolicy.SATURATE;
 
         final Funnel<? super T> funnel;
 
@@ -85,6 +90,7 @@ public final class BloomFilters {
             this.falsePositiveProbability = toCopy.falsePositiveProbability;
             this.concurrencyStrategy = toCopy.concurrencyStrategy;
             this.writeBatchSize = toCopy.writeBatchSize;
+            this.counterOverflowPolicy = toCopy.counterOverflowPolicy;
         }
 
         /**
@@ -194,6 +200,19 @@ public final class BloomFilters {
             return this;
         }
 
+        /**
+         * Sets what a counting bloom filter does when one of its counters would overflow. The default is
+         * {@link CounterOverflowPolicy#SATURATE}.
+         *
+         * @param overflowPolicy the counter overflow policy to use.
+         * @see #buildCounting()
+         */
+        public BloomFilterBuilder<T> withCounterOverflowPolicy(final CounterOverflowPolicy overflowPolicy) {
+            Reject.ifNull(overflowPolicy);
+            this.counterOverflowPolicy = overflowPolicy;
+            return this;
+        }
+
         /**
          * Forces the bloom filter to be a Scalable Bloom Filter which can expand to arbitrary capacity.
          *
@@ -218,17 +237,71 @@ public final class BloomFilters {
          * @return a new bloom filter configured appropriately.
          */
         public BloomFilter<T> build() {
-            BloomFilter<T> bf = buildBloomFilter();
-            if (writeBatchSize > 0) {
-                bf = new BatchingBloomFilter<T>(bf, writeBatchSize);
-            }
-            return bf;
+            return withWriteBatching(buildBloomFilter());
         }
 
         BloomFilter<T> buildBloomFilter() {
             return concurrencyStrategy.<T>getFactory(funnel).create(initialCapacity, falsePositiveProbability);
         }
 
+        /**
+         * Builds a bloom filter with the configured options that can be kept in sync with replicas of itself on
+         * other nodes by exchanging deltas. Replicas must be built with the same options. Only the
+         * {@link ConcurrencyStrategy#ATOMIC} and {@link ConcurrencyStrategy#BLOCKED} strategies support this, and
+         * write batching must not be enabled.
+         *
+         * @return a new mergeable bloom filter configured appropriately.
+         * @throws UnsupportedOperationException if the concurrency strategy does not support mergeable filters.
+         * @throws IllegalArgumentException if write batching is enabled.
+         */
+        public MergeableBloomFilter<T> buildMergeable() {
+            Reject.ifFalse(writeBatchSize == 0, "Write batching is not supported by mergeable bloom filters");
+            final AtomicLong changeClock = new AtomicLong(1L);
+            return new DeltaReplicatedBloomFilter<T>(buildMergeableBloomFilter(changeClock), changeClock);
+        }
+
+        BloomFilter<T> buildMergeableBloomFilter(final AtomicLong changeClock) {
+            return concurrencyStrategy.<T>getMergeableFactory(funnel, changeClock)
+                    .create(initialCapacity, falsePositiveProbability);
+        }
+
+        /**
+         * Builds a fixed-capacity bloom filter with the configured options that supports removal of elements. Write
+         * batching must not be enabled, as a removal could otherwise overtake the addition it undoes.
+         *
+         * @return a new counting bloom filter configured appropriately.
+         * @throws UnsupportedOperationException if the builder is for a scalable or rolling bloom filter.
+         * @throws IllegalArgumentException if write batching is enabled.
+         */
+        public CountingBloomFilter<T> buildCounting() {
+            Reject.ifFalse(writeBatchSize == 0, "Write batching is not supported by counting bloom filters");
+            return concurrencyStrategy.<T>createCountingBloomFilter(funnel, initialCapacity, falsePositiveProbability,
+                    counterOverflowPolicy);
+        }
+
+        /**
+         * Restores a bloom filter with the configured options from a snapshot.
+         *
+         * @param in the stream to read the snapshot from.
+         * @return the restored bloom filter.
+         * @throws IOException if the snapshot cannot be read or does not match the configured options.
+         * @see BloomFilterSnapshots
+         */
+        BloomFilter<T> restore(final DataInputStream in) throws IOException {
+            return withWriteBatching(restoreBloomFilter(in));
+        }
+
+        BloomFilter<T> restoreBloomFilter(final DataInputStream in) throws IOException {
+            return concurrencyStrategy.<T>getFactory(funnel).readFrom(in);
+        }
+
+        private BloomFilter<T> withWriteBatching(final BloomFilter<T> bf) {
+            if (writeBatchSize > 0) {
+                return new BatchingBloomFilter<T>(bf, writeBatchSize);
+            }
+            return bf;
+        }
+
     }
 
     /**
@@ -280,6 +353,28 @@ public final class BloomFilters {
             return new RollingBloomFilterBuilder<T>(this).withExpiryStrategy(NeverExpires.<T>strategy())
                     .buildBloomFilter();
         }
+
+        @Override
+        BloomFilter<T> restoreBloomFilter(final DataInputStream in) throws IOException {
+            return new RollingBloomFilterBuilder<T>(this).withExpiryStrategy(NeverExpires.<T>strategy())
+                    .restoreBloomFilter(in);
+        }
+
+        @Override
+        BloomFilter<T> buildMergeableBloomFilter(final AtomicLong changeClock) {
+            return new RollingBloomFilterBuilder<T>(this).withExpiryStrategy(NeverExpires.<T>strategy())
+                    .buildMergeableBloomFilter(changeClock);
+        }
+
+        /**
+         * Not supported: an element can only be removed from the bucket it was added to, which is not known.
+         *
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public CountingBloomFilter<T> buildCounting() {
+            throw new UnsupportedOperationException("Counting bloom filters cannot be scalable or rolling");
+        }
     }
 
     /**
@@ -315,5 +410,18 @@ public final class BloomFilters {
             Reject.ifNull(expiryStrategy, "No expiry strategy specified");
             return new ConcurrentRollingBloomFilter<T>(this);
         }
+
+        @Override
+        BloomFilter<T> restoreBloomFilter(final DataInputStream in) throws IOException {
+            Reject.ifNull(expiryStrategy, "No expiry strategy specified");
+            return new ConcurrentRollingBloomFilter<T>(this, in);
+        }
+
+        @Override
+        BloomFilter<T> buildMergeableBloomFilter(final AtomicLong changeClock) {
+            Reject.ifNull(expiryStrategy, "No expiry strategy specified");
+            return new ConcurrentRollingBloomFilter<T>(this,
+                    concurrencyStrategy.<T>getMergeableFactory(funnel, changeClock));
+        }
     }
 }
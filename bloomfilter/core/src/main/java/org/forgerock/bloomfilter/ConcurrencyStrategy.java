@@ -18,6 +18,10 @@ package org.forgerock.bloomfilter;
 
 import com.google.common.hash.Funnel;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Strategy that determines how thread-safety of bloom filters should be managed. Different strategies have different
  * trade-offs in terms of memory usage and read or write performance.
@@ -39,8 +43,19 @@ public enum ConcurrencyStrategy {
                 public BloomFilter<T> create(final long expectedInsertions, final double falsePositiveProbability) {
                     return new CopyOnWriteBloomFilter<T>(funnel, expectedInsertions, falsePositiveProbability);
                 }
+
+                @Override
+                public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+                    return CopyOnWriteBloomFilter.readFrom(funnel, in);
+                }
             };
         }
+
+        @Override
+        <T> CountingBloomFilter<T> createCountingBloomFilter(final Funnel<? super T> funnel, final long capacity,
+                final double falsePositiveProbability, final CounterOverflowPolicy overflowPolicy) {
+            return new CopyOnWriteCountingBloomFilter<T>(funnel, capacity, falsePositiveProbability, overflowPolicy);
+        }
     },
     /**
      * Fully synchronizes all accesses to the bloom filter. For scalable and rolling bloom filters, each bucket in
@@ -57,8 +72,20 @@ public enum ConcurrencyStrategy {
                 public BloomFilter<T> create(final long expectedInsertions, final double falsePositiveProbability) {
                     return new SynchronizedBloomFilter<T>(funnel, expectedInsertions, falsePositiveProbability);
                 }
+
+                @Override
+                public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+                    return SynchronizedBloomFilter.readFrom(funnel, in);
+                }
             };
         }
+
+        @Override
+        <T> CountingBloomFilter<T> createCountingBloomFilter(final Funnel<? super T> funnel, final long capacity,
+                final double falsePositiveProbability, final CounterOverflowPolicy overflowPolicy) {
+            return new SynchronizedCountingBloomFilter<T>(funnel, capacity, falsePositiveProbability,
+                    overflowPolicy);
+        }
     },
 
     /**
@@ -74,8 +101,79 @@ public enum ConcurrencyStrategy {
                 public BloomFilter<T> create(final long expectedInsertions, final double falsePositiveProbability) {
                     return new AtomicBloomFilter<T>(funnel, expectedInsertions, falsePositiveProbability);
                 }
+
+                @Override
+                public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+                    return AtomicBloomFilter.readFrom(funnel, in, null);
+                }
             };
         }
+
+        @Override
+        <T> BloomFilterFactory<T> getMergeableFactory(final Funnel<? super T> funnel, final AtomicLong changeClock) {
+            return new BloomFilterFactory<T>() {
+                @Override
+                public BloomFilter<T> create(final long expectedInsertions, final double falsePositiveProbability) {
+                    return new AtomicBloomFilter<T>(funnel, expectedInsertions, falsePositiveProbability, changeClock);
+                }
+
+                @Override
+                public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+                    return AtomicBloomFilter.readFrom(funnel, in, changeClock);
+                }
+            };
+        }
+
+        @Override
+        <T> CountingBloomFilter<T> createCountingBloomFilter(final Funnel<? super T> funnel, final long capacity,
+                final double falsePositiveProbability, final CounterOverflowPolicy overflowPolicy) {
+            return new AtomicCountingBloomFilter<T>(funnel, capacity, falsePositiveProbability, overflowPolicy, false);
+        }
+    },
+
+    /**
+     * A variant of the {@link #ATOMIC} strategy in which all of the bits for an element fall within the same
+     * cache-line sized block of the bit array, and elements are hashed once with a fast 64-bit hash without
+     * allocating. Each read or write touches a single cache line, which makes this the fastest strategy for large
+     * filters that do not fit in the processor caches. The bit array is up to 20% larger than for the other strategies
+     * to maintain the same false positive probability.
+     */
+    BLOCKED {
+        @Override
+        <T> BloomFilterFactory<T> getFactory(final Funnel<? super T> funnel) {
+            return new BloomFilterFactory<T>() {
+                @Override
+                public BloomFilter<T> create(final long expectedInsertions, final double falsePositiveProbability) {
+                    return new BlockedBloomFilter<T>(funnel, expectedInsertions, falsePositiveProbability);
+                }
+
+                @Override
+                public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+                    return BlockedBloomFilter.readFrom(funnel, in, null);
+                }
+            };
+        }
+
+        @Override
+        <T> BloomFilterFactory<T> getMergeableFactory(final Funnel<? super T> funnel, final AtomicLong changeClock) {
+            return new BloomFilterFactory<T>() {
+                @Override
+                public BloomFilter<T> create(final long expectedInsertions, final double falsePositiveProbability) {
+                    return new BlockedBloomFilter<T>(funnel, expectedInsertions, falsePositiveProbability, changeClock);
+                }
+
+                @Override
+                public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+                    return BlockedBloomFilter.readFrom(funnel, in, changeClock);
+                }
+            };
+        }
+
+        @Override
+        <T> CountingBloomFilter<T> createCountingBloomFilter(final Funnel<? super T> funnel, final long capacity,
+                final double falsePositiveProbability, final CounterOverflowPolicy overflowPolicy) {
+            return new AtomicCountingBloomFilter<T>(funnel, capacity, falsePositiveProbability, overflowPolicy, true);
+        }
     }
     ;
 
@@ -88,4 +186,35 @@ public enum ConcurrencyStrategy {
      */
     abstract <T> BloomFilterFactory<T> getFactory(Funnel<? super T> funnel);
 
+    /**
+     * Returns a factory object for creating fixed-capacity bloom filters whose bit arrays can be merged, and which
+     * record changes to their bits against the given version clock. Only strategies that keep bits in arrays of
+     * 64-bit words support this.
+     *
+     * @param funnel the funnel to use for hashing elements.
+     * @param changeClock the version clock to record changes against.
+     * @param <T> the type of elements to contain.
+     * @return an appropriate factory object for this concurrency strategy.
+     * @throws UnsupportedOperationException if this strategy does not support mergeable bloom filters.
+     * @see MergeableBloomFilter
+     */
+    <T> BloomFilterFactory<T> getMergeableFactory(Funnel<? super T> funnel, AtomicLong changeClock) {
+        throw new UnsupportedOperationException(this + " does not support mergeable bloom filters");
+    }
+
+    /**
+     * Creates a fixed-capacity bloom filter that supports removal of elements, with the same concurrency trade-offs as
+     * the bloom filters of this strategy.
+     *
+     * @param funnel the funnel to use for hashing elements.
+     * @param capacity the expected number of elements in the bloom filter.
+     * @param falsePositiveProbability the false positive probability to maintain.
+     * @param overflowPolicy what to do when a counter would overflow.
+     * @param <T> the type of elements to contain.
+     * @return the counting bloom filter.
+     * @see CountingBloomFilter
+     */
+    abstract <T> CountingBloomFilter<T> createCountingBloomFilter(Funnel<? super T> funnel, long capacity,
+            double falsePositiveProbability, CounterOverflowPolicy overflowPolicy);
+
 }
@@ -21,7 +21,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A thread-safe implementation of a Bloom Filter that can expand over time to accommodate arbitrary numbers of
@@ -35,24 +39,54 @@ import java.util.Collection;
  * locking (at the cost of reducing read performance).
  */
 @ThreadSafe
-public final class ConcurrentRollingBloomFilter<T> implements BloomFilter<T> {
+public final class ConcurrentRollingBloomFilter<T> implements SnapshottableBloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentRollingBloomFilter.class);
 
     private final BloomFilterChain<T> bucketChain;
-    private final BloomFilterPool<T> bucketPool;
+    private final GeometricSeriesBloomFilterPool<T> bucketPool;
     private final ConcurrencyStrategy concurrencyStrategy;
 
     ConcurrentRollingBloomFilter(final BloomFilters.RollingBloomFilterBuilder<T> builder) {
+        this(builder, builder.concurrencyStrategy.<T>getFactory(builder.funnel));
+    }
+
+    /**
+     * Constructs a rolling bloom filter whose buckets are created by the given factory.
+     *
+     * @param builder the configuration of the filter.
+     * @param bucketFactory the factory to create buckets with, before any expiry is applied.
+     */
+    ConcurrentRollingBloomFilter(final BloomFilters.RollingBloomFilterBuilder<T> builder,
+                                 final BloomFilterFactory<T> bucketFactory) {
+        this.concurrencyStrategy = builder.concurrencyStrategy;
+        this.bucketPool = createPool(builder, bucketFactory);
+        this.bucketChain = new BloomFilterChain<T>(bucketPool, builder.clock);
+    }
+
+    /**
+     * Restores a rolling bloom filter from a snapshot written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param builder a builder configured in the same way as the one that built the saved filter.
+     * @param in the stream to read the snapshot from.
+     * @throws IOException if the snapshot cannot be read or does not match the builder configuration.
+     */
+    ConcurrentRollingBloomFilter(final BloomFilters.RollingBloomFilterBuilder<T> builder, final DataInputStream in)
+            throws IOException {
+        BloomFilterSnapshots.expectRecord(in, BloomFilterSnapshots.ROLLING);
         this.concurrencyStrategy = builder.concurrencyStrategy;
+        this.bucketPool = createPool(builder, builder.concurrencyStrategy.<T>getFactory(builder.funnel));
+        this.bucketChain = new BloomFilterChain<T>(bucketPool, builder.clock, bucketPool.readFrom(in));
+    }
 
-        BloomFilterFactory<T> factory = concurrencyStrategy.<T>getFactory(builder.funnel);
+    private static <T> GeometricSeriesBloomFilterPool<T> createPool(
+            final BloomFilters.RollingBloomFilterBuilder<T> builder, final BloomFilterFactory<T> bucketFactory) {
+        BloomFilterFactory<T> factory = bucketFactory;
         if (builder.expiryStrategy != BloomFilters.NeverExpires.strategy()) {
             factory = new ExpiringBloomFilterFactory<T>(factory, builder.expiryStrategy);
         }
-        this.bucketPool = new GeometricSeriesBloomFilterPool<T>(factory, builder.maxNumberOfBuckets,
+        return new GeometricSeriesBloomFilterPool<T>(factory, builder.maxNumberOfBuckets,
                 builder.initialCapacity, builder.capacityGrowthFactor,
                 builder.falsePositiveProbability, builder.falsePositiveProbabilityScaleFactor);
-        this.bucketChain = new BloomFilterChain<T>(bucketPool, builder.clock);
     }
 
     private static final class ExpiringBloomFilterFactory<T> implements BloomFilterFactory<T> {
@@ -70,6 +104,13 @@ public final class ConcurrentRollingBloomFilter<T> implements BloomFilter<T> {
             return new ExpiringBloomFilter<T>(factory.create(expectedInsertions, falsePositiveProbability),
                     expiryStrategy);
         }
+
+        @Override
+        public BloomFilter<T> readFrom(final DataInputStream in) throws IOException {
+            BloomFilterSnapshots.expectRecord(in, BloomFilterSnapshots.EXPIRING);
+            final long latestExpiryTime = in.readLong();
+            return new ExpiringBloomFilter<T>(factory.readFrom(in), expiryStrategy, latestExpiryTime);
+        }
     }
 
     @Override
@@ -96,6 +137,42 @@ public final class ConcurrentRollingBloomFilter<T> implements BloomFilter<T> {
         return bucketChain.getStatistics();
     }
 
+    /**
+     * Returns the buckets of this filter, oldest first.
+     */
+    List<BloomFilter<T>> getBuckets() {
+        return bucketChain.getBuckets();
+    }
+
+    /**
+     * Returns the position of one of the buckets of this filter in the geometric series of bucket sizes.
+     */
+    int getBucketNumber(final BloomFilter<T> bucket) {
+        return bucketPool.getBucketNumber(bucket);
+    }
+
+    /**
+     * Returns the bucket of this filter at the given position in the geometric series of bucket sizes, creating it
+     * if this filter does not have it.
+     *
+     * @throws IllegalArgumentException if the position is beyond the maximum number of buckets.
+     */
+    BloomFilter<T> getOrAddBucket(final int bucketNumber) {
+        return bucketChain.getOrAddBucket(bucketNumber);
+    }
+
+    /**
+     * Writes the buckets of this filter, with their positions in the geometric series of bucket sizes.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @Override
+    public void writeTo(final DataOutputStream out) throws IOException {
+        out.writeByte(BloomFilterSnapshots.ROLLING);
+        bucketPool.writeTo(out, bucketChain.getBuckets());
+    }
+
 
     @Override
     public String toString() {
@@ -21,6 +21,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicReference;
@@ -30,7 +33,7 @@ import java.util.concurrent.atomic.AtomicReference;
  * additions to the set.
  */
 @ThreadSafe
-final class CopyOnWriteBloomFilter<T> implements BloomFilter<T> {
+final class CopyOnWriteBloomFilter<T> implements SnapshottableBloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(CopyOnWriteBloomFilter.class);
     private final long capacity;
     private final double falsePositiveProbability;
@@ -40,14 +43,44 @@ final class CopyOnWriteBloomFilter<T> implements BloomFilter<T> {
     CopyOnWriteBloomFilter(final Funnel<? super T> funnel,
                            final long capacity,
                            final double falsePositiveProbability) {
+        this(capacity, falsePositiveProbability,
+                com.google.common.hash.BloomFilter.<T>create(funnel, (int) capacity, falsePositiveProbability));
+    }
+
+    private CopyOnWriteBloomFilter(final long capacity,
+                                   final double falsePositiveProbability,
+                                   final com.google.common.hash.BloomFilter<T> bf) {
         this.capacity = capacity;
         this.falsePositiveProbability = falsePositiveProbability;
-
-        final com.google.common.hash.BloomFilter<T> bf =
-                com.google.common.hash.BloomFilter.create(funnel, (int) capacity, falsePositiveProbability);
         this.bloomFilterAtomicReference = new AtomicReference<com.google.common.hash.BloomFilter<T>>(bf);
     }
 
+    /**
+     * Restores a copy-on-write bloom filter from a snapshot written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param in the stream to read the snapshot from.
+     * @return the restored bloom filter.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    static <T> CopyOnWriteBloomFilter<T> readFrom(final Funnel<? super T> funnel, final DataInputStream in)
+            throws IOException {
+        BloomFilterSnapshots.expectRecord(in, BloomFilterSnapshots.COPY_ON_WRITE);
+        final long capacity = in.readLong();
+        final double falsePositiveProbability = in.readDouble();
+        return new CopyOnWriteBloomFilter<T>(capacity, falsePositiveProbability,
+                com.google.common.hash.BloomFilter.<T>readFrom(in, funnel));
+    }
+
+    @Override
+    public void writeTo(final DataOutputStream out) throws IOException {
+        out.writeByte(BloomFilterSnapshots.COPY_ON_WRITE);
+        out.writeLong(capacity);
+        out.writeDouble(falsePositiveProbability);
+        // The current filter is never modified, so can be written without copying
+        bloomFilterAtomicReference.get().writeTo(out);
+    }
+
     @Override
     public void add(final T element) {
         addAll(Collections.singleton(element));
@@ -0,0 +1,122 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import org.forgerock.util.Reject;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link CountingBloomFilter} that treats its packed counter array, described in {@link CounterArray}, as
+ * immutable. Each update copies the array, applies the change to the copy and atomically swaps it with the original,
+ * retrying if another update got there first. Reads never block and never see a partly applied update.
+ */
+@ThreadSafe
+final class CopyOnWriteCountingBloomFilter<T> implements CountingBloomFilter<T> {
+    private final Funnel<? super T> funnel;
+    private final AtomicReference<CounterArray.Packed> countersAtomicReference;
+
+    /**
+     * Constructs a counting bloom filter with the given parameters.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param capacity the desired capacity of the bloom filter.
+     * @param falsePositiveProbability the overall false positive probability to maintain.
+     * @param overflowPolicy what to do when a counter would overflow.
+     */
+    CopyOnWriteCountingBloomFilter(final Funnel<? super T> funnel,
+                                   final long capacity,
+                                   final double falsePositiveProbability,
+                                   final CounterOverflowPolicy overflowPolicy) {
+        Reject.ifNull(funnel);
+        this.funnel = funnel;
+        this.countersAtomicReference = new AtomicReference<CounterArray.Packed>(
+                new CounterArray.Packed(capacity, falsePositiveProbability, overflowPolicy, false));
+    }
+
+    @Override
+    public void add(final T element) {
+        addAll(Collections.singleton(element));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * If an element is rejected due to counter overflow, the elements before it remain added.
+     */
+    @Override
+    public void addAll(final Collection<? extends T> elements) {
+        final long[] hashes = new long[elements.size()];
+        int count = 0;
+        for (T element : elements) {
+            hashes[count++] = LongHashSink.hash(funnel, element);
+        }
+        CounterArray.Packed prev;
+        CounterArray.Packed next;
+        IllegalStateException overflow;
+        do {
+            overflow = null;
+            prev = countersAtomicReference.get();
+            next = prev.copy();
+            for (int i = 0; i < count && overflow == null; i++) {
+                try {
+                    next.add(hashes[i]);
+                } catch (IllegalStateException e) {
+                    overflow = e;
+                }
+            }
+        } while (!countersAtomicReference.compareAndSet(prev, next));
+        if (overflow != null) {
+            throw overflow;
+        }
+    }
+
+    @Override
+    public boolean remove(final T element) {
+        final long hash = LongHashSink.hash(funnel, element);
+        CounterArray.Packed prev;
+        CounterArray.Packed next;
+        do {
+            prev = countersAtomicReference.get();
+            if (!prev.mightContain(hash)) {
+                return false;
+            }
+            next = prev.copy();
+            next.remove(hash);
+        } while (!countersAtomicReference.compareAndSet(prev, next));
+        return true;
+    }
+
+    @Override
+    public boolean mightContain(final T element) {
+        return countersAtomicReference.get().mightContain(LongHashSink.hash(funnel, element));
+    }
+
+    @Override
+    public BloomFilterStatistics getStatistics() {
+        return countersAtomicReference.get().getStatistics();
+    }
+
+    @Override
+    public String toString() {
+        return "CopyOnWriteCountingBloomFilter{" + countersAtomicReference.get() + '}';
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import org.forgerock.util.Reject;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The 4-bit counters of a {@link CountingBloomFilter}, packed sixteen to a 64-bit word, together with the sizing of
+ * the array and the choice of counters for an element from its 64-bit {@link LongHashSink} hash. Subclasses decide
+ * how the words are stored and updated: {@link Atomic} with compare-and-swap operations, and {@link Packed} in a
+ * plain array for filters that lock or copy it.
+ * <p/>
+ * Counters are either spread over the whole array, as in {@link AtomicBloomFilter}, or confined to a block of
+ * {@value #COUNTERS_PER_BLOCK} counters chosen by the hash, as in {@link BlockedBloomFilter}, so that each operation
+ * touches a single cache line. Blocked arrays are sized to maintain the same false positive probability.
+ */
+abstract class CounterArray {
+    private static final int BITS_PER_COUNTER = 4;
+    static final int COUNTERS_PER_WORD = 64 / BITS_PER_COUNTER;
+    static final long MAX_COUNT = (1L << BITS_PER_COUNTER) - 1L;
+    private static final int COUNTERS_PER_BLOCK = 8 * COUNTERS_PER_WORD;
+
+    final long capacity;
+    final double falsePositiveProbability;
+    final CounterOverflowPolicy overflowPolicy;
+    final boolean blocked;
+    final int numCounters;
+    private final int numBlocks;
+    final int numHashFunctions;
+
+    /**
+     * Sizes a counter array for the given capacity and false positive probability.
+     *
+     * @param capacity the desired capacity of the bloom filter.
+     * @param falsePositiveProbability the overall false positive probability to maintain.
+     * @param overflowPolicy what to do when a counter would overflow.
+     * @param blocked whether to confine the counters of each element to a single cache-line sized block.
+     */
+    CounterArray(final long capacity, final double falsePositiveProbability,
+            final CounterOverflowPolicy overflowPolicy, final boolean blocked) {
+        Reject.ifNull(overflowPolicy);
+        this.capacity = capacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.overflowPolicy = overflowPolicy;
+        this.blocked = blocked;
+
+        long size = Math.max(1, BloomFilterStatistics.optimumBitSize(capacity, falsePositiveProbability));
+        int hashFunctions = BloomFilterStatistics.optimalNumberOfHashFunctions(size, capacity);
+        if (blocked) {
+            // Grow in steps of 2% until the target is met, as for BlockedBloomFilter
+            long blocks = (size + COUNTERS_PER_BLOCK - 1) / COUNTERS_PER_BLOCK;
+            hashFunctions = BloomFilterStatistics.optimalNumberOfHashFunctions(blocks * COUNTERS_PER_BLOCK, capacity);
+            while (BlockedBloomFilter.falsePositiveProbability((double) capacity / blocks, hashFunctions,
+                    COUNTERS_PER_BLOCK) > falsePositiveProbability) {
+                blocks += Math.max(1, blocks / 50);
+                hashFunctions = BloomFilterStatistics.optimalNumberOfHashFunctions(blocks * COUNTERS_PER_BLOCK,
+                        capacity);
+            }
+            size = blocks * COUNTERS_PER_BLOCK;
+        }
+        Reject.ifFalse(size <= Integer.MAX_VALUE - COUNTERS_PER_BLOCK,
+                "Capacity too large for a counting bloom filter");
+
+        this.numCounters = (int) size;
+        this.numBlocks = numCounters / COUNTERS_PER_BLOCK;
+        this.numHashFunctions = hashFunctions;
+    }
+
+    /**
+     * Constructs an array with the same sizing as the given one.
+     */
+    CounterArray(final CounterArray other) {
+        this.capacity = other.capacity;
+        this.falsePositiveProbability = other.falsePositiveProbability;
+        this.overflowPolicy = other.overflowPolicy;
+        this.blocked = other.blocked;
+        this.numCounters = other.numCounters;
+        this.numBlocks = other.numBlocks;
+        this.numHashFunctions = other.numHashFunctions;
+    }
+
+    final int numberOfWords() {
+        return (numCounters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD;
+    }
+
+    /**
+     * Increments the counters of the element with the given hash.
+     *
+     * @param hash the 64-bit hash of the element.
+     * @throws IllegalStateException if a counter would overflow and the policy is to reject the element, in which
+     * case the counters are left as they were.
+     */
+    final void add(final long hash) {
+        long bitHash = hash;
+        for (int i = 0; i < numHashFunctions; ++i) {
+            bitHash = nextBitHash(bitHash);
+            if (!increment(counter(hash, bitHash, i))) {
+                // Undo the increments already made, leaving the filter as it was
+                bitHash = hash;
+                for (int j = 0; j < i; ++j) {
+                    bitHash = nextBitHash(bitHash);
+                    decrement(counter(hash, bitHash, j));
+                }
+                throw new IllegalStateException("Counter overflow in counting bloom filter");
+            }
+        }
+    }
+
+    /**
+     * Decrements the counters of the element with the given hash, unless any of them is zero.
+     *
+     * @param hash the 64-bit hash of the element.
+     * @return {@code false} if the element was definitely not present.
+     */
+    final boolean remove(final long hash) {
+        if (!mightContain(hash)) {
+            return false;
+        }
+        long bitHash = hash;
+        for (int i = 0; i < numHashFunctions; ++i) {
+            bitHash = nextBitHash(bitHash);
+            decrement(counter(hash, bitHash, i));
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether all of the counters of the element with the given hash are non-zero.
+     *
+     * @param hash the 64-bit hash of the element.
+     * @return {@code false} if the element is definitely not present.
+     */
+    final boolean mightContain(final long hash) {
+        long bitHash = hash;
+        for (int i = 0; i < numHashFunctions; ++i) {
+            bitHash = nextBitHash(bitHash);
+            if (count(counter(hash, bitHash, i)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the counter at the given index.
+     */
+    abstract long count(int index);
+
+    /**
+     * Increments the counter at the given index, unless it is at its largest value.
+     *
+     * @param index the index of the counter.
+     * @return {@code false} if the counter overflowed and the policy is to reject the element.
+     */
+    abstract boolean increment(int index);
+
+    /**
+     * Decrements the counter at the given index, unless it is zero or saturated.
+     *
+     * @param index the index of the counter.
+     */
+    abstract void decrement(int index);
+
+    abstract long nonZeroCounters();
+
+    abstract long saturatedCounters();
+
+    /**
+     * Estimates the current cardinality of the bloom filter from the number of non-zero counters.
+     */
+    private double estimatedCardinality() {
+        return -((numCounters * Math.log(1.0d - nonZeroCounters() / (double) numCounters)) / numHashFunctions);
+    }
+
+    private double expectedFpp() {
+        if (nonZeroCounters() >= numCounters) {
+            return 1.0d;
+        }
+        if (blocked) {
+            return BlockedBloomFilter.falsePositiveProbability(estimatedCardinality() / numBlocks, numHashFunctions,
+                    COUNTERS_PER_BLOCK);
+        }
+        return Math.pow((double) nonZeroCounters() / (double) numCounters, (double) numHashFunctions);
+    }
+
+    final BloomFilterStatistics getStatistics() {
+        double expectedFpp = expectedFpp();
+        long cardinality = (long) estimatedCardinality();
+
+        return new BloomFilterStatistics(falsePositiveProbability, expectedFpp, capacity,
+                (long) numCounters * BITS_PER_COUNTER, Long.MAX_VALUE, capacity - cardinality,
+                saturatedCounters());
+    }
+
+    /**
+     * Returns the index of the counter for the given hash function. Unblocked arrays derive the indexes from the two
+     * halves of the hash, as Guava's MURMUR128_MITZ_32 strategy does. Blocked arrays choose the block from the upper
+     * half of the hash and the counter within it from the top bits of the bit hash, as {@link BlockedBloomFilter}
+     * does.
+     *
+     * @param hash the 64-bit hash of the element.
+     * @param bitHash the bit hash for this hash function, from {@link #nextBitHash(long)}.
+     * @param i the hash function, from 0 to the number of hash functions.
+     * @return the index of the counter.
+     */
+    private int counter(final long hash, final long bitHash, final int i) {
+        if (blocked) {
+            final int block = (int) (((hash >>> 32) * numBlocks) >>> 32);
+            return block * COUNTERS_PER_BLOCK + (int) (bitHash >>> 57);
+        }
+        int combinedHash = (int) hash + (i + 1) * (int) (hash >>> 32);
+        if (combinedHash < 0) {
+            combinedHash = ~combinedHash;
+        }
+        return combinedHash % numCounters;
+    }
+
+    /**
+     * Steps a 64-bit linear congruential generator seeded with the element hash, as in {@link BlockedBloomFilter}.
+     */
+    private static long nextBitHash(final long bitHash) {
+        return bitHash * 0x5851F42D4C957F2DL + 0x14057B7EF767814FL;
+    }
+
+    static int shift(final int index) {
+        return (index % COUNTERS_PER_WORD) * BITS_PER_COUNTER;
+    }
+
+    @Override
+    public String toString() {
+        return "capacity=" + capacity +
+                ", falsePositiveProbability=" + falsePositiveProbability +
+                ", overflowPolicy=" + overflowPolicy +
+                ", blocked=" + blocked +
+                ", numCounters=" + numCounters +
+                ", numHashFunctions=" + numHashFunctions;
+    }
+
+    /**
+     * Counters in an {@link AtomicLongArray}, updated with compare-and-swap operations so that adds, removes and
+     * reads never block.
+     */
+    @ThreadSafe
+    static final class Atomic extends CounterArray {
+        private final AtomicLongArray counters;
+        private final AtomicLong nonZeroCounters = new AtomicLong(0);
+        private final AtomicLong saturatedCounters = new AtomicLong(0);
+
+        Atomic(final long capacity, final double falsePositiveProbability,
+                final CounterOverflowPolicy overflowPolicy, final boolean blocked) {
+            super(capacity, falsePositiveProbability, overflowPolicy, blocked);
+            this.counters = new AtomicLongArray(numberOfWords());
+        }
+
+        @Override
+        long count(final int index) {
+            return (counters.get(index / COUNTERS_PER_WORD) >>> shift(index)) & MAX_COUNT;
+        }
+
+        @Override
+        boolean increment(final int index) {
+            final int word = index / COUNTERS_PER_WORD;
+            final int shift = shift(index);
+            long prev, count;
+            do {
+                prev = counters.get(word);
+                count = (prev >>> shift) & MAX_COUNT;
+                if (count == MAX_COUNT) {
+                    return overflowPolicy == CounterOverflowPolicy.SATURATE;
+                }
+            } while (!counters.compareAndSet(word, prev, prev + (1L << shift)));
+
+            if (count == 0L) {
+                nonZeroCounters.incrementAndGet();
+            }
+            if (count + 1 == MAX_COUNT && overflowPolicy == CounterOverflowPolicy.SATURATE) {
+                // The counter may now be an underestimate, so it can never safely be decremented
+                saturatedCounters.incrementAndGet();
+            }
+            return true;
+        }
+
+        @Override
+        void decrement(final int index) {
+            final int word = index / COUNTERS_PER_WORD;
+            final int shift = shift(index);
+            long prev, count;
+            do {
+                prev = counters.get(word);
+                count = (prev >>> shift) & MAX_COUNT;
+                if (count == 0L || (count == MAX_COUNT && overflowPolicy == CounterOverflowPolicy.SATURATE)) {
+                    return;
+                }
+            } while (!counters.compareAndSet(word, prev, prev - (1L << shift)));
+
+            if (count == 1L) {
+                nonZeroCounters.decrementAndGet();
+            }
+        }
+
+        @Override
+        long nonZeroCounters() {
+            return nonZeroCounters.get();
+        }
+
+        @Override
+        long saturatedCounters() {
+            return saturatedCounters.get();
+        }
+    }
+
+    /**
+     * Counters in a plain array, for filters that lock the array or copy it before updating.
+     */
+    @NotThreadSafe
+    static final class Packed extends CounterArray {
+        private final long[] counters;
+        private long nonZeroCounters;
+        private long saturatedCounters;
+
+        Packed(final long capacity, final double falsePositiveProbability,
+                final CounterOverflowPolicy overflowPolicy, final boolean blocked) {
+            super(capacity, falsePositiveProbability, overflowPolicy, blocked);
+            this.counters = new long[numberOfWords()];
+        }
+
+        private Packed(final Packed other) {
+            super(other);
+            this.counters = Arrays.copyOf(other.counters, other.counters.length);
+            this.nonZeroCounters = other.nonZeroCounters;
+            this.saturatedCounters = other.saturatedCounters;
+        }
+
+        /**
+         * Returns an independent copy of this array.
+         */
+        Packed copy() {
+            return new Packed(this);
+        }
+
+        @Override
+        long count(final int index) {
+            return (counters[index / COUNTERS_PER_WORD] >>> shift(index)) & MAX_COUNT;
+        }
+
+        @Override
+        boolean increment(final int index) {
+            final long count = count(index);
+            if (count == MAX_COUNT) {
+                return overflowPolicy == CounterOverflowPolicy.SATURATE;
+            }
+            counters[index / COUNTERS_PER_WORD] += 1L << shift(index);
+            if (count == 0L) {
+                nonZeroCounters++;
+            }
+            if (count + 1 == MAX_COUNT && overflowPolicy == CounterOverflowPolicy.SATURATE) {
+                // The counter may now be an underestimate, so it can never safely be decremented
+                saturatedCounters++;
+            }
+            return true;
+        }
+
+        @Override
+        void decrement(final int index) {
+            final long count = count(index);
+            if (count == 0L || (count == MAX_COUNT && overflowPolicy == CounterOverflowPolicy.SATURATE)) {
+                return;
+            }
+            counters[index / COUNTERS_PER_WORD] -= 1L << shift(index);
+            if (count == 1L) {
+                nonZeroCounters--;
+            }
+        }
+
+        @Override
+        long nonZeroCounters() {
+            return nonZeroCounters;
+        }
+
+        @Override
+        long saturatedCounters() {
+            return saturatedCounters;
+        }
+    }
+}
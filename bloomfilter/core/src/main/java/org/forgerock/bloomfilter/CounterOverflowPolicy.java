@@ -0,0 +1,39 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+/**
+ * Determines what a {@link CountingBloomFilter} does when adding an element would increment one of its counters past
+ * the largest value it can hold. Counters are four bits wide, so overflow only happens when fifteen or more elements
+ * share a counter, which is very unlikely for a filter that is within its capacity unless the same element is added
+ * many times.
+ */
+public enum CounterOverflowPolicy {
+    /**
+     * Leaves the counter at its largest value and never decrements it again. The element is added, but the counter can
+     * no longer be cleared by removing elements, so elements sharing it may remain as false positives after they are
+     * removed. Removal never causes false negatives. The number of saturated counters is reported by
+     * {@link BloomFilterStatistics#getSaturatedCounterCount()}.
+     */
+    SATURATE,
+
+    /**
+     * Rejects the element with an {@link IllegalStateException}, leaving the filter unchanged. Counts remain exact, so
+     * every element that is added can later be removed.
+     */
+    REJECT
+}
@@ -0,0 +1,55 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+/**
+ * A bloom filter that supports removing elements as well as adding them. Each position in the filter holds a small
+ * counter instead of a single bit, which is incremented when an element that hashes to it is added and decremented
+ * when such an element is removed. This uses four times the memory of a bloom filter with the same false positive
+ * probability.
+ * <p/>
+ * Only elements that have been added should be removed, and each no more times than it was added. Removing an element
+ * that was never added, but which is reported as present due to a false positive, decrements counters belonging to
+ * other elements and may cause them to be reported as absent.
+ *
+ * @param <E> the type of elements contained in the bloom filter.
+ * @see BloomFilters.BloomFilterBuilder#buildCounting()
+ * @see CounterOverflowPolicy
+ */
+public interface CountingBloomFilter<E> extends BloomFilter<E> {
+
+    /**
+     * Adds the specified element to this set. Unlike other bloom filters, each addition of an element is counted,
+     * and it must be removed as many times as it was added before it is no longer reported as present.
+     *
+     * @param element the element to add to this set.
+     * @throws IllegalStateException if a counter would overflow and the overflow policy is
+     * {@link CounterOverflowPolicy#REJECT}.
+     */
+    @Override
+    void add(E element);
+
+    /**
+     * Removes one addition of the specified element from this set. If the element is definitely not in the set then
+     * the set is left unchanged.
+     *
+     * @param element the element to remove from this set.
+     * @return {@code false} if the element was definitely not in the set, or {@code true} if it might have been and
+     * has been removed.
+     */
+    boolean remove(E element);
+}
@@ -0,0 +1,200 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link MergeableBloomFilter} over either a single bit array bloom filter or a rolling bloom filter whose buckets
+ * are bit array bloom filters. All of the buckets record changes against a shared version clock, which is advanced
+ * each time a delta is taken. A fixed-capacity filter is treated as a single bucket numbered zero.
+ */
+@ThreadSafe
+final class DeltaReplicatedBloomFilter<T> implements MergeableBloomFilter<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeltaReplicatedBloomFilter.class);
+
+    private final BloomFilter<T> filter;
+    private final AtomicLong changeClock;
+
+    /**
+     * Constructs the mergeable filter.
+     *
+     * @param filter a {@link BitArrayBloomFilter} or {@link ConcurrentRollingBloomFilter} recording changes against
+     *               the given clock.
+     * @param changeClock the version clock shared by all of the buckets of the filter, starting at 1.
+     */
+    DeltaReplicatedBloomFilter(final BloomFilter<T> filter, final AtomicLong changeClock) {
+        Reject.ifNull(filter, changeClock);
+        Reject.ifFalse(filter instanceof BitArrayBloomFilter || filter instanceof ConcurrentRollingBloomFilter,
+                "Not a mergeable bloom filter: " + filter);
+        this.filter = filter;
+        this.changeClock = changeClock;
+    }
+
+    @Override
+    public void add(final T element) {
+        filter.add(element);
+    }
+
+    @Override
+    public void addAll(final Collection<? extends T> elements) {
+        filter.addAll(elements);
+    }
+
+    @Override
+    public boolean mightContain(final T element) {
+        return filter.mightContain(element);
+    }
+
+    @Override
+    public BloomFilterStatistics getStatistics() {
+        return filter.getStatistics();
+    }
+
+    @Override
+    public BloomFilterDelta getChangesSince(final long version) {
+        Reject.ifFalse(version >= 0L, "Version must be >= 0");
+        // A change is recorded after its bits are set, so one recorded before the scan below reads its version is
+        // included here. One recorded too late to be seen is recorded again at the new version by the writer, which
+        // re-reads the clock after recording, so it is included in the next delta
+        final long deltaVersion = changeClock.incrementAndGet();
+        final List<BloomFilterDelta.BucketChanges> changes = new ArrayList<BloomFilterDelta.BucketChanges>();
+        for (BloomFilter<T> bucket : buckets()) {
+            final BitArrayBloomFilter<T> bits = bitArray(bucket);
+            final WordChangeTracker tracker = bits.getChangeTracker();
+            if (tracker.changedSince(version)) {
+                changes.add(changesSince(bucketNumber(bucket), bucket, bits, tracker, version));
+            }
+        }
+        final BloomFilterDelta delta = new BloomFilterDelta(deltaVersion, changes);
+        LOGGER.debug("Changes since version {}: {}", version, delta);
+        return delta;
+    }
+
+    private BloomFilterDelta.BucketChanges changesSince(final int bucketNumber, final BloomFilter<T> bucket,
+            final BitArrayBloomFilter<T> bits, final WordChangeTracker tracker, final long version) {
+        final int numberOfWords = bits.getNumberOfWords();
+        int[] indexes = new int[Math.min(numberOfWords, 64)];
+        long[] words = new long[indexes.length];
+        int count = 0;
+        for (int i = 0; i < numberOfWords; i += WordChangeTracker.WORDS_PER_SEGMENT) {
+            if (!tracker.segmentChangedSince(i, version)) {
+                continue;
+            }
+            final int end = Math.min(i + WordChangeTracker.WORDS_PER_SEGMENT, numberOfWords);
+            for (int j = i; j < end; j++) {
+                final long word = bits.getWord(j);
+                if (word != 0L) {
+                    if (count == indexes.length) {
+                        final int capacity = Math.min(numberOfWords, indexes.length * 2);
+                        indexes = Arrays.copyOf(indexes, capacity);
+                        words = Arrays.copyOf(words, capacity);
+                    }
+                    indexes[count] = j;
+                    words[count] = word;
+                    count++;
+                }
+            }
+        }
+        return new BloomFilterDelta.BucketChanges(bucketNumber, bits.getLayoutType(), bits.getHashFunction(),
+                bits.getNumberOfHashFunctions(), numberOfWords, expiryTime(bucket),
+                Arrays.copyOf(indexes, count), Arrays.copyOf(words, count));
+    }
+
+    @Override
+    public void applyChanges(final BloomFilterDelta delta) {
+        Reject.ifNull(delta);
+        for (BloomFilterDelta.BucketChanges changes : delta.getBuckets()) {
+            final BloomFilter<T> bucket = bucket(changes.bucketNumber);
+            final BitArrayBloomFilter<T> bits = bitArray(bucket);
+            Reject.ifFalse(changes.hashFunction == bits.getHashFunction(),
+                    "Delta was taken with a different hash function");
+            Reject.ifFalse(changes.layoutType == bits.getLayoutType()
+                    && changes.numHashFunctions == bits.getNumberOfHashFunctions()
+                    && changes.numberOfWords == bits.getNumberOfWords(),
+                    "Delta is for a differently configured bloom filter");
+            // Merge the bits before the expiry time, so that the elements are never visible as already expired
+            for (int i = 0; i < changes.indexes.length; i++) {
+                bits.mergeWord(changes.indexes[i], changes.words[i]);
+            }
+            if (bucket instanceof ExpiringBloomFilter) {
+                ((ExpiringBloomFilter<T>) bucket).mergeExpiryTime(changes.expiryTime);
+            }
+        }
+        LOGGER.debug("Applied changes: {}", delta);
+    }
+
+    @Override
+    public void merge(final MergeableBloomFilter<T> other) {
+        Reject.ifNull(other);
+        applyChanges(other.getChangesSince(0L));
+    }
+
+    private List<BloomFilter<T>> buckets() {
+        if (filter instanceof ConcurrentRollingBloomFilter) {
+            return ((ConcurrentRollingBloomFilter<T>) filter).getBuckets();
+        }
+        return Collections.singletonList(filter);
+    }
+
+    private int bucketNumber(final BloomFilter<T> bucket) {
+        if (filter instanceof ConcurrentRollingBloomFilter) {
+            return ((ConcurrentRollingBloomFilter<T>) filter).getBucketNumber(bucket);
+        }
+        return 0;
+    }
+
+    private BloomFilter<T> bucket(final int bucketNumber) {
+        if (filter instanceof ConcurrentRollingBloomFilter) {
+            return ((ConcurrentRollingBloomFilter<T>) filter).getOrAddBucket(bucketNumber);
+        }
+        Reject.ifFalse(bucketNumber == 0, "Delta is for a scalable or rolling bloom filter");
+        return filter;
+    }
+
+    private static long expiryTime(final BloomFilter<?> bucket) {
+        if (bucket instanceof ExpiringBloomFilter) {
+            return ((ExpiringBloomFilter<?>) bucket).getLatestExpiryTime();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static <T> BitArrayBloomFilter<T> bitArray(final BloomFilter<T> bucket) {
+        if (bucket instanceof ExpiringBloomFilter) {
+            return bitArray(((ExpiringBloomFilter<T>) bucket).getDelegate());
+        }
+        return (BitArrayBloomFilter<T>) bucket;
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaReplicatedBloomFilter{" +
+                "filter=" + filter +
+                ", version=" + changeClock.get() +
+                '}';
+    }
+}
@@ -21,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -28,18 +30,49 @@ import java.util.concurrent.atomic.AtomicLong;
  * A Bloom Filter decorator that can expire when the youngest element within it expires.
  */
 @ThreadSafe
-final class ExpiringBloomFilter<T> implements BloomFilter<T> {
+final class ExpiringBloomFilter<T> implements SnapshottableBloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExpiringBloomFilter.class);
     private final BloomFilter<T> delegate;
     private final ExpiryStrategy<T> expiryStrategy;
 
-    private final AtomicLong latestExpiryTime = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong latestExpiryTime;
+    private final WordChangeTracker changes;
 
     ExpiringBloomFilter(final BloomFilter<T> delegate,
                         final ExpiryStrategy<T> expiryStrategy) {
+        this(delegate, expiryStrategy, Long.MIN_VALUE);
+    }
+
+    /**
+     * Constructs an expiring bloom filter whose delegate already contains elements expiring at up to the given time.
+     */
+    ExpiringBloomFilter(final BloomFilter<T> delegate,
+                        final ExpiryStrategy<T> expiryStrategy,
+                        final long latestExpiryTime) {
         Reject.ifNull(delegate, expiryStrategy);
         this.delegate = delegate;
         this.expiryStrategy = expiryStrategy;
+        this.latestExpiryTime = new AtomicLong(latestExpiryTime);
+        this.changes = delegate instanceof BitArrayBloomFilter
+                ? ((BitArrayBloomFilter<T>) delegate).getChangeTracker() : null;
+    }
+
+    BloomFilter<T> getDelegate() {
+        return delegate;
+    }
+
+    long getLatestExpiryTime() {
+        return latestExpiryTime.get();
+    }
+
+    /**
+     * Raises the latest expiry time to that of a replica of this bloom filter, whose elements have been merged into
+     * the delegate.
+     *
+     * @param expiryTime the latest expiry time of the replica.
+     */
+    void mergeExpiryTime(final long expiryTime) {
+        updateExpiryTime(expiryTime);
     }
 
     @Override
@@ -70,6 +103,13 @@ final class ExpiringBloomFilter<T> implements BloomFilter<T> {
                 stats.getEstimatedRemainingCapacity());
     }
 
+    @Override
+    public void writeTo(final DataOutputStream out) throws IOException {
+        out.writeByte(BloomFilterSnapshots.EXPIRING);
+        out.writeLong(latestExpiryTime.get());
+        BloomFilterSnapshots.writeFilter(delegate, out);
+    }
+
     /**
      * Atomic update of the latest expiry time.
      * @param newExpiryTime the candidate new latest expiry time.
@@ -84,6 +124,10 @@ final class ExpiringBloomFilter<T> implements BloomFilter<T> {
             changed = newExpiryTime > oldExpiryTime;
         } while (changed && !latestExpiryTime.compareAndSet(oldExpiryTime, newExpiryTime));
 
+        if (changed && changes != null) {
+            changes.bucketChanged();
+        }
+
         LOGGER.debug("Updated expiry timestamp after {} attempts: new={}, old={}, changed?={}", attempts, newExpiryTime,
                 oldExpiryTime, changed);
     }
@@ -24,8 +24,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.TreeSet;
@@ -131,6 +136,21 @@ final class GeometricSeriesBloomFilterPool<T> implements BloomFilterPool<T> {
             bucketNumbers.set(bucketNumber);
         }
 
+        return createBucket(bucketNumber);
+    }
+
+    @Override
+    public BloomFilter<T> takeBucket(final int bucketNumber) {
+        Reject.ifFalse(bucketNumber >= 0 && bucketNumber < maxBuckets, "Bucket number out of range: " + bucketNumber);
+        synchronized (bucketNumbers) {
+            Reject.ifTrue(bucketNumbers.get(bucketNumber), "Bucket number already taken: " + bucketNumber);
+            bucketNumbers.set(bucketNumber);
+        }
+
+        return createBucket(bucketNumber);
+    }
+
+    private BloomFilter<T> createBucket(final int bucketNumber) {
         final long capacity = (long) (initialCapacity * pow(capacityGrowthFactor, bucketNumber));
         final double fpp =
                 initialFalsePositiveProbability * pow(falsePositiveProbabilityScaleFactor, bucketNumber);
@@ -143,6 +163,11 @@ final class GeometricSeriesBloomFilterPool<T> implements BloomFilterPool<T> {
         return bucket;
     }
 
+    @Override
+    public int getBucketNumber(final BloomFilter<T> bucket) {
+        return takenBucketNumbers.get(bucket);
+    }
+
     /**
      * Releases a Bloom Filter back into the pool.
      *
@@ -157,6 +182,62 @@ final class GeometricSeriesBloomFilterPool<T> implements BloomFilterPool<T> {
         }
     }
 
+    /**
+     * Writes the parameters of the pool, and the position in the geometric series and snapshot of each of the given
+     * buckets, which must have been taken from this pool.
+     *
+     * @param out the stream to write to.
+     * @param buckets the buckets to write, in chain order.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    void writeTo(final DataOutputStream out, final List<BloomFilter<T>> buckets) throws IOException {
+        out.writeInt(maxBuckets);
+        out.writeLong(initialCapacity);
+        out.writeDouble(capacityGrowthFactor);
+        out.writeDouble(initialFalsePositiveProbability);
+        out.writeDouble(falsePositiveProbabilityScaleFactor);
+        out.writeInt(buckets.size());
+        for (BloomFilter<T> bucket : buckets) {
+            out.writeInt(getBucketNumber(bucket));
+            BloomFilterSnapshots.writeFilter(bucket, out);
+        }
+    }
+
+    /**
+     * Restores buckets written by {@link #writeTo(DataOutputStream, List)} and marks their positions in the
+     * geometric series as taken. The pool parameters in the snapshot must match those of this pool.
+     *
+     * @param in the stream to read from.
+     * @return the restored buckets, in chain order.
+     * @throws IOException if the snapshot cannot be read or does not match this pool.
+     */
+    List<BloomFilter<T>> readFrom(final DataInputStream in) throws IOException {
+        if (in.readInt() != maxBuckets
+                || in.readLong() != initialCapacity
+                || in.readDouble() != capacityGrowthFactor
+                || in.readDouble() != initialFalsePositiveProbability
+                || in.readDouble() != falsePositiveProbabilityScaleFactor) {
+            throw new IOException("Bloom filter snapshot does not match configuration: " + this);
+        }
+        final int numberOfBuckets = in.readInt();
+        BloomFilterSnapshots.checkSnapshot(numberOfBuckets >= 0 && numberOfBuckets <= maxBuckets,
+                "invalid number of buckets " + numberOfBuckets);
+        final List<BloomFilter<T>> buckets = new ArrayList<BloomFilter<T>>(numberOfBuckets);
+        for (int i = 0; i < numberOfBuckets; i++) {
+            final int bucketNumber = in.readInt();
+            synchronized (bucketNumbers) {
+                BloomFilterSnapshots.checkSnapshot(bucketNumber >= 0 && bucketNumber < maxBuckets
+                        && !bucketNumbers.get(bucketNumber), "invalid bucket number " + bucketNumber);
+                bucketNumbers.set(bucketNumber);
+            }
+            final BloomFilter<T> bucket = factory.readFrom(in);
+            takenBucketNumbers.put(bucket, bucketNumber);
+            buckets.add(bucket);
+        }
+        LOGGER.debug("Restored {} buckets: {}", numberOfBuckets, this);
+        return buckets;
+    }
+
     @Override
     public double getOverallFalsePositiveProbability() {
         return initialFalsePositiveProbability / (1.0d - falsePositiveProbabilityScaleFactor);
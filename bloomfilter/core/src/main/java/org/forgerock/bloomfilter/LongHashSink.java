@@ -0,0 +1,222 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable {@link PrimitiveSink} that computes a 64-bit hash of everything written to it without allocating.
+ * Bytes are gathered into 64-bit little-endian words, each of which is mixed into the running hash as it fills, and
+ * the result is finished with the MurmurHash3 64-bit finalizer. Strings written in UTF-8 are encoded on the fly.
+ * <p/>
+ * The hash is part of the snapshot and delta formats of blocked bloom filters, which identify it as
+ * {@link BloomFilterSnapshots#LONG_HASH}. It must not change for any input without also changing that identifier, so
+ * that bits saved or sent by an older release are rejected rather than giving false negatives. Use
+ * {@link #hash(Funnel, Object)} to hash an object with a sink owned by the calling thread.
+ */
+@NotThreadSafe
+final class LongHashSink implements PrimitiveSink {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+
+    private static final ThreadLocal<LongHashSink> SINKS = new ThreadLocal<LongHashSink>() {
+        @Override
+        protected LongHashSink initialValue() {
+            return new LongHashSink();
+        }
+    };
+
+    private long hash;
+    private long word;
+    private int wordBytes;
+    private long length;
+
+    /**
+     * Computes the 64-bit hash of the given object using a sink owned by the calling thread.
+     *
+     * @param funnel the funnel to use to write the object to the sink.
+     * @param element the object to hash.
+     * @param <T> the type of the object.
+     * @return the 64-bit hash of the object.
+     */
+    static <T> long hash(final Funnel<? super T> funnel, final T element) {
+        final LongHashSink sink = SINKS.get();
+        sink.reset();
+        funnel.funnel(element, sink);
+        return sink.finish();
+    }
+
+    /**
+     * Discards everything written since the last reset.
+     */
+    void reset() {
+        hash = PRIME_3;
+        word = 0L;
+        wordBytes = 0;
+        length = 0L;
+    }
+
+    /**
+     * Returns the hash of everything written since the last reset.
+     */
+    long finish() {
+        long h = hash ^ (length * PRIME_1);
+        if (wordBytes > 0) {
+            h = mix(h, word);
+        }
+        // MurmurHash3 fmix64
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(final long h, final long k) {
+        return Long.rotateLeft(h ^ Long.rotateLeft(k * PRIME_2, 31) * PRIME_1, 27) * PRIME_1 + PRIME_3;
+    }
+
+    @Override
+    public LongHashSink putByte(final byte b) {
+        word |= (b & 0xFFL) << (wordBytes << 3);
+        length++;
+        if (++wordBytes == 8) {
+            hash = mix(hash, word);
+            word = 0L;
+            wordBytes = 0;
+        }
+        return this;
+    }
+
+    @Override
+    public LongHashSink putBytes(final byte[] bytes) {
+        return putBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public LongHashSink putBytes(final byte[] bytes, final int off, final int len) {
+        for (int i = off; i < off + len; i++) {
+            putByte(bytes[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public LongHashSink putBytes(final ByteBuffer bytes) {
+        while (bytes.hasRemaining()) {
+            putByte(bytes.get());
+        }
+        return this;
+    }
+
+    @Override
+    public LongHashSink putShort(final short s) {
+        return putBits(s, 2);
+    }
+
+    @Override
+    public LongHashSink putInt(final int i) {
+        return putBits(i, 4);
+    }
+
+    @Override
+    public LongHashSink putLong(final long l) {
+        if (wordBytes == 0) {
+            hash = mix(hash, l);
+            length += 8;
+            return this;
+        }
+        return putBits(l, 8);
+    }
+
+    @Override
+    public LongHashSink putFloat(final float f) {
+        return putInt(Float.floatToRawIntBits(f));
+    }
+
+    @Override
+    public LongHashSink putDouble(final double d) {
+        return putLong(Double.doubleToRawLongBits(d));
+    }
+
+    @Override
+    public LongHashSink putBoolean(final boolean b) {
+        return putByte(b ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public LongHashSink putChar(final char c) {
+        return putBits(c, 2);
+    }
+
+    @Override
+    public LongHashSink putUnencodedChars(final CharSequence charSequence) {
+        for (int i = 0; i < charSequence.length(); i++) {
+            putChar(charSequence.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public LongHashSink putString(final CharSequence charSequence, final Charset charset) {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return putBytes(charSequence.toString().getBytes(charset));
+        }
+        // Same bytes as String.getBytes(UTF_8), including '?' for unpaired surrogates
+        for (int i = 0; i < charSequence.length(); i++) {
+            final char c = charSequence.charAt(i);
+            if (c < 0x80) {
+                putByte((byte) c);
+            } else if (c < 0x800) {
+                putByte((byte) (0xC0 | (c >>> 6)));
+                putByte((byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                putByte((byte) (0xE0 | (c >>> 12)));
+                putByte((byte) (0x80 | ((c >>> 6) & 0x3F)));
+                putByte((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < charSequence.length()
+                    && Character.isLowSurrogate(charSequence.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, charSequence.charAt(++i));
+                putByte((byte) (0xF0 | (codePoint >>> 18)));
+                putByte((byte) (0x80 | ((codePoint >>> 12) & 0x3F)));
+                putByte((byte) (0x80 | ((codePoint >>> 6) & 0x3F)));
+                putByte((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                putByte((byte) '?');
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the low {@code bytes} bytes of the given value in little-endian order.
+     */
+    private LongHashSink putBits(final long value, final int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            putByte((byte) (value >>> (i << 3)));
+        }
+        return this;
+    }
+}
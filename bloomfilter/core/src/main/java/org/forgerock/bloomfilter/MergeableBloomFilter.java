@@ -0,0 +1,72 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+/**
+ * A bloom filter that can be kept in sync with replicas of itself on other nodes by exchanging only the parts of its
+ * bit arrays that have changed. Replicas must be built with the same configuration, so that they hash each element to
+ * the same bits. Applying changes sets bits and never clears them, so replicas converge on the union of their elements
+ * whatever order changes are applied in, and changes can safely be applied more than once.
+ * <p/>
+ * A replica sends its changes to a peer by calling {@link #getChangesSince(long)} with the version of the last changes
+ * it sent to that peer, or {@code 0} the first time, and remembering the version of the returned delta for next time:
+ * <pre>
+ *     BloomFilterDelta delta = filter.getChangesSince(lastVersionSentToPeer);
+ *     lastVersionSentToPeer = delta.getVersion();
+ *     delta.writeTo(connectionToPeer);
+ *     ...
+ *     peerFilter.applyChanges(BloomFilterDelta.readFrom(connectionFromPeer));
+ * </pre>
+ * The size of a delta is proportional to the number of bits changed since the given version rather than to the size
+ * of the filter. Changes applied from other replicas are included in later deltas, so changes also propagate between
+ * replicas that do not exchange deltas directly.
+ * <p/>
+ * For scalable and rolling bloom filters, the changes of each bucket are identified by the bucket's position in the
+ * geometric series of bucket sizes. A bucket that a replica does not have is created when changes to it are applied. A
+ * merged bucket has the union of the elements of the replicas and expires when the last of them expires.
+ *
+ * @param <T> the type of elements contained in the bloom filter.
+ * @see BloomFilters.BloomFilterBuilder#buildMergeable()
+ */
+public interface MergeableBloomFilter<T> extends BloomFilter<T> {
+    /**
+     * Returns the changes to this filter since the given version, or all of its contents if the version is
+     * {@code 0}. Changes made while the delta is being taken may be included, and are always included in the next
+     * delta taken from the version of this one.
+     *
+     * @param version the version of the last delta sent to the replica, or {@code 0} for all of the contents.
+     * @return the changes since the given version.
+     */
+    BloomFilterDelta getChangesSince(long version);
+
+    /**
+     * Adds the elements in a delta taken from a replica of this filter.
+     *
+     * @param delta the changes to apply.
+     * @throws IllegalArgumentException if the delta was not taken from a filter with the same configuration.
+     */
+    void applyChanges(BloomFilterDelta delta);
+
+    /**
+     * Adds all of the elements of another replica of this filter, by OR-ing its bit arrays into the bit arrays of this
+     * filter.
+     *
+     * @param other the filter to merge into this one.
+     * @throws IllegalArgumentException if the other filter does not have the same configuration.
+     */
+    void merge(MergeableBloomFilter<T> other);
+}
@@ -0,0 +1,38 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A bloom filter that can write its state to a snapshot, from which the {@link BloomFilterFactory} that created it can
+ * restore it.
+ *
+ * @param <T> the type of elements contained in the bloom filter.
+ * @see BloomFilterSnapshots
+ */
+interface SnapshottableBloomFilter<T> extends BloomFilter<T> {
+    /**
+     * Writes the state of this bloom filter, starting with its record type. Elements added while the snapshot is
+     * being written may or may not be included.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    void writeTo(DataOutputStream out) throws IOException;
+}
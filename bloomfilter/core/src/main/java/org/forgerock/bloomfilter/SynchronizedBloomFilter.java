@@ -21,13 +21,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 
 /**
  * A fully synchronized bloom filter implementation.
  */
 @ThreadSafe
-final class SynchronizedBloomFilter<T> implements BloomFilter<T> {
+final class SynchronizedBloomFilter<T> implements SnapshottableBloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SynchronizedBloomFilter.class);
     private final long capacity;
     private final double falsePositiveProbability;
@@ -36,10 +39,41 @@ final class SynchronizedBloomFilter<T> implements BloomFilter<T> {
     SynchronizedBloomFilter(final Funnel<? super T> funnel,
                                    final long capacity,
                                    final double falsePositiveProbability) {
+        this(capacity, falsePositiveProbability,
+                com.google.common.hash.BloomFilter.<T>create(funnel, (int) capacity, falsePositiveProbability));
+    }
+
+    private SynchronizedBloomFilter(final long capacity,
+                                    final double falsePositiveProbability,
+                                    final com.google.common.hash.BloomFilter<T> bloomFilter) {
         this.falsePositiveProbability = falsePositiveProbability;
         this.capacity = capacity;
+        this.bloomFilter = bloomFilter;
+    }
 
-        this.bloomFilter = com.google.common.hash.BloomFilter.create(funnel, (int) capacity, falsePositiveProbability);
+    /**
+     * Restores a synchronized bloom filter from a snapshot written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param in the stream to read the snapshot from.
+     * @return the restored bloom filter.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    static <T> SynchronizedBloomFilter<T> readFrom(final Funnel<? super T> funnel, final DataInputStream in)
+            throws IOException {
+        BloomFilterSnapshots.expectRecord(in, BloomFilterSnapshots.SYNCHRONIZED);
+        final long capacity = in.readLong();
+        final double falsePositiveProbability = in.readDouble();
+        return new SynchronizedBloomFilter<T>(capacity, falsePositiveProbability,
+                com.google.common.hash.BloomFilter.<T>readFrom(in, funnel));
+    }
+
+    @Override
+    public synchronized void writeTo(final DataOutputStream out) throws IOException {
+        out.writeByte(BloomFilterSnapshots.SYNCHRONIZED);
+        out.writeLong(capacity);
+        out.writeDouble(falsePositiveProbability);
+        bloomFilter.writeTo(out);
     }
 
     @Override
@@ -0,0 +1,98 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import org.forgerock.util.Reject;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collection;
+
+/**
+ * A fully synchronized {@link CountingBloomFilter}, with its counters packed into a plain array as described in
+ * {@link CounterArray}. Elements are hashed before the lock is taken.
+ */
+@ThreadSafe
+final class SynchronizedCountingBloomFilter<T> implements CountingBloomFilter<T> {
+    private final Funnel<? super T> funnel;
+    @GuardedBy("this")
+    private final CounterArray.Packed counters;
+
+    /**
+     * Constructs a counting bloom filter with the given parameters.
+     *
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param capacity the desired capacity of the bloom filter.
+     * @param falsePositiveProbability the overall false positive probability to maintain.
+     * @param overflowPolicy what to do when a counter would overflow.
+     */
+    SynchronizedCountingBloomFilter(final Funnel<? super T> funnel,
+                                    final long capacity,
+                                    final double falsePositiveProbability,
+                                    final CounterOverflowPolicy overflowPolicy) {
+        Reject.ifNull(funnel);
+        this.funnel = funnel;
+        this.counters = new CounterArray.Packed(capacity, falsePositiveProbability, overflowPolicy, false);
+    }
+
+    @Override
+    public void add(final T element) {
+        final long hash = LongHashSink.hash(funnel, element);
+        synchronized (this) {
+            counters.add(hash);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * If an element is rejected due to counter overflow, the elements before it remain added.
+     */
+    @Override
+    public synchronized void addAll(final Collection<? extends T> elements) {
+        for (T element : elements) {
+            counters.add(LongHashSink.hash(funnel, element));
+        }
+    }
+
+    @Override
+    public boolean remove(final T element) {
+        final long hash = LongHashSink.hash(funnel, element);
+        synchronized (this) {
+            return counters.remove(hash);
+        }
+    }
+
+    @Override
+    public boolean mightContain(final T element) {
+        final long hash = LongHashSink.hash(funnel, element);
+        synchronized (this) {
+            return counters.mightContain(hash);
+        }
+    }
+
+    @Override
+    public synchronized BloomFilterStatistics getStatistics() {
+        return counters.getStatistics();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SynchronizedCountingBloomFilter{" + counters + '}';
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the version at which each segment of a bit array, and the bucket as a whole, last changed, so that the
+ * changes since some version can be sent to other replicas. Versions are read from a clock shared by all of the
+ * buckets of a filter, which is advanced each time a set of changes is taken.
+ * <p/>
+ * Versions are kept per segment of {@value #WORDS_PER_SEGMENT} words rather than per word to limit the memory
+ * overhead to one eighth of the bit array. The words of a changed segment that are still zero are not sent.
+ */
+@ThreadSafe
+final class WordChangeTracker {
+    static final int WORDS_PER_SEGMENT = 8;
+
+    private final AtomicLong clock;
+    private final AtomicLongArray segmentVersions;
+    private final AtomicLong bucketVersion = new AtomicLong(0L);
+
+    /**
+     * Constructs a tracker for a bit array of the given size.
+     *
+     * @param clock the version clock shared by all buckets of the filter.
+     * @param numberOfWords the number of words in the bit array.
+     */
+    WordChangeTracker(final AtomicLong clock, final int numberOfWords) {
+        this.clock = clock;
+        this.segmentVersions = new AtomicLongArray((numberOfWords + WORDS_PER_SEGMENT - 1) / WORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Records that the given word has changed. Must be called after the change is made.
+     *
+     * @param word the index of the word that changed.
+     */
+    void wordChanged(final int word) {
+        record(word / WORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Records that the bucket has changed other than in its bit array, for example its expiry time.
+     */
+    void bucketChanged() {
+        record(-1);
+    }
+
+    /**
+     * Records a change at the current version, and again at any later version that the clock has been advanced to
+     * meanwhile. A set of changes taken after the clock was advanced may have been scanned before the earlier version
+     * was recorded, so the change must also be recorded at a version that the next set of changes will include.
+     */
+    private void record(final int segment) {
+        long version = clock.get();
+        while (true) {
+            if (segment >= 0) {
+                advance(segmentVersions, segment, version);
+            }
+            bucketChanged(version);
+            final long latest = clock.get();
+            if (latest == version) {
+                return;
+            }
+            version = latest;
+        }
+    }
+
+    private void bucketChanged(final long version) {
+        long current;
+        do {
+            current = bucketVersion.get();
+        } while (current < version && !bucketVersion.compareAndSet(current, version));
+    }
+
+    private static void advance(final AtomicLongArray versions, final int index, final long version) {
+        long current;
+        do {
+            current = versions.get(index);
+        } while (current < version && !versions.compareAndSet(index, current, version));
+    }
+
+    /**
+     * Whether the bucket has changed at or after the given version.
+     */
+    boolean changedSince(final long version) {
+        return bucketVersion.get() >= version;
+    }
+
+    /**
+     * Whether the segment containing the given word has changed at or after the given version.
+     */
+    boolean segmentChangedSince(final int word, final long version) {
+        return segmentVersions.get(word / WORDS_PER_SEGMENT) >= version;
+    }
+}
@@ -65,6 +65,15 @@
  * org.forgerock.bloomfilter.BloomFilters.BloomFilterBuilder#withExpiryStrategy(org.forgerock.bloomfilter.ExpiryStrategy)}
  * method to configure how elements in your Bloom Filter will expire. By default, elements do not expire.
  *
+ * <h2>Counting Bloom Filters</h2>
+ * Elements cannot be removed from a normal Bloom Filter, other than by expiry. A
+ * {@link org.forgerock.bloomfilter.CountingBloomFilter} keeps a 4-bit counter in place of each bit, at four times the
+ * memory cost, so that elements can be removed again. Use
+ * {@link org.forgerock.bloomfilter.BloomFilters.BloomFilterBuilder#buildCounting()} to create one with any
+ * concurrency strategy, and
+ * {@link org.forgerock.bloomfilter.BloomFilters.BloomFilterBuilder#withCounterOverflowPolicy(org.forgerock.bloomfilter.CounterOverflowPolicy)}
+ * to choose what happens if a counter overflows.
+ *
  * <h2>Concurrency Strategies</h2>
  * The implementations provided are currently all thread-safe, and adopt a flexible approach to concurrency control.
  * Two concurrency strategies are currently supported:
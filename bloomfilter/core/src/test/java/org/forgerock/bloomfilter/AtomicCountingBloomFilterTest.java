@@ -0,0 +1,264 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AtomicCountingBloomFilterTest {
+    private static final Funnel<Integer> FUNNEL = Funnels.integerFunnel();
+    private static final int CAPACITY = 10000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01d;
+
+    @DataProvider
+    public static Object[][] layouts() {
+        return new Object[][] {
+                { false },
+                { true }
+        };
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldNotContainRemovedElements(boolean blocked) {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.SATURATE);
+        for (int i = 0; i < CAPACITY; ++i) {
+            bf.add(i);
+        }
+
+        // When
+        for (int i = 0; i < CAPACITY; ++i) {
+            assertThat(bf.remove(i)).isTrue();
+        }
+
+        // Then
+        for (int i = 0; i < CAPACITY; ++i) {
+            assertThat(bf.mightContain(i)).as("element %d", i).isFalse();
+        }
+        assertThat(bf.getStatistics().getExpectedFalsePositiveProbability()).isEqualTo(0.0d);
+        assertThat(bf.getStatistics().getEstimatedRemainingCapacity()).isEqualTo(CAPACITY);
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldKeepOtherElementsWhenRemoving(boolean blocked) {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.SATURATE);
+        for (int i = 0; i < CAPACITY; ++i) {
+            bf.add(i);
+        }
+
+        // When
+        for (int i = 0; i < CAPACITY; i += 2) {
+            bf.remove(i);
+        }
+
+        // Then
+        for (int i = 1; i < CAPACITY; i += 2) {
+            assertThat(bf.mightContain(i)).as("element %d", i).isTrue();
+        }
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldNotRemoveElementsThatAreDefinitelyAbsent(boolean blocked) {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.SATURATE);
+        bf.add(1);
+
+        // When
+        final boolean removed = bf.remove(2);
+
+        // Then
+        assertThat(removed).isFalse();
+        assertThat(bf.mightContain(1)).isTrue();
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldCountRepeatedAdditions(boolean blocked) {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.SATURATE);
+        bf.add(42);
+        bf.add(42);
+
+        // When
+        bf.remove(42);
+
+        // Then
+        assertThat(bf.mightContain(42)).isTrue();
+        bf.remove(42);
+        assertThat(bf.mightContain(42)).isFalse();
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldSaturateOverflowingCounters(boolean blocked) {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.SATURATE);
+
+        // When
+        for (int i = 0; i < 20; ++i) {
+            bf.add(42);
+        }
+        for (int i = 0; i < 20; ++i) {
+            bf.remove(42);
+        }
+
+        // Then
+        assertThat(bf.mightContain(42)).isTrue();
+        assertThat(bf.getStatistics().getSaturatedCounterCount()).isGreaterThan(0L);
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldRejectElementsThatOverflowCounters(boolean blocked) {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.REJECT);
+        for (int i = 0; i < 15; ++i) {
+            bf.add(42);
+        }
+
+        // When
+        try {
+            bf.add(42);
+            throw new AssertionError("Expected counter overflow");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+
+        // Then
+        for (int i = 0; i < 15; ++i) {
+            assertThat(bf.remove(42)).isTrue();
+        }
+        assertThat(bf.mightContain(42)).isFalse();
+        assertThat(bf.getStatistics().getSaturatedCounterCount()).isEqualTo(0L);
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldMaintainFalsePositiveProbabilityAtCapacity(boolean blocked) {
+        // Given
+        final int capacity = 100000;
+        final AtomicCountingBloomFilter<CharSequence> bf = new AtomicCountingBloomFilter<CharSequence>(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, FALSE_POSITIVE_PROBABILITY,
+                CounterOverflowPolicy.SATURATE, blocked);
+        for (int i = 0; i < capacity; ++i) {
+            bf.add("token-" + i);
+        }
+
+        // When
+        final int trials = 200000;
+        int falsePositives = 0;
+        for (int i = 0; i < trials; ++i) {
+            if (bf.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat((double) falsePositives / trials).as("measured fpp")
+                .isLessThan(FALSE_POSITIVE_PROBABILITY * 1.3d);
+        assertThat(bf.getStatistics().getExpectedFalsePositiveProbability()).as("expected fpp")
+                .isBetween(FALSE_POSITIVE_PROBABILITY * 0.7d, FALSE_POSITIVE_PROBABILITY * 1.01d);
+        assertThat(bf.getStatistics().getBitSize() % (blocked ? 512 : 4)).isEqualTo(0L);
+    }
+
+    @Test(dataProvider = "layouts")
+    public void shouldNotLoseConcurrentUpdates(boolean blocked) throws Exception {
+        // Given
+        final AtomicCountingBloomFilter<Integer> bf = filter(blocked, CounterOverflowPolicy.SATURATE);
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        // When
+        for (int t = 0; t < threads; ++t) {
+            final int thread = t;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // Each thread keeps the non-negative elements it adds and removes the negative ones
+                        for (int i = thread; i < CAPACITY; i += threads) {
+                            bf.add(i);
+                            bf.add(-i - 1);
+                            assertThat(bf.remove(-i - 1)).isTrue();
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        assertThat(error.get()).isNull();
+        for (int i = 0; i < CAPACITY; ++i) {
+            assertThat(bf.mightContain(i)).as("element %d", i).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 1; i <= CAPACITY; ++i) {
+            if (bf.mightContain(-i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / CAPACITY).isLessThan(FALSE_POSITIVE_PROBABILITY * 1.5d);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void shouldRejectScalableCountingFilters() {
+        BloomFilters.create(FUNNEL).withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC).scalable().buildCounting();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectWriteBatching() {
+        BloomFilters.create(FUNNEL).withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC).withWriteBatchSize(10)
+                .buildCounting();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldBuildWithConfiguredOverflowPolicy() {
+        // Given
+        final CountingBloomFilter<Integer> bf = BloomFilters.create(FUNNEL)
+                .withConcurrencyStrategy(ConcurrencyStrategy.BLOCKED)
+                .withCounterOverflowPolicy(CounterOverflowPolicy.REJECT)
+                .buildCounting();
+
+        // When
+        for (int i = 0; i < 16; ++i) {
+            bf.add(42);
+        }
+    }
+
+    private static AtomicCountingBloomFilter<Integer> filter(final boolean blocked,
+            final CounterOverflowPolicy overflowPolicy) {
+        return new AtomicCountingBloomFilter<Integer>(FUNNEL, CAPACITY, FALSE_POSITIVE_PROBABILITY, overflowPolicy,
+                blocked);
+    }
+}
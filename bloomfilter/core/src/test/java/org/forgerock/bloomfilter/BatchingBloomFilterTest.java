@@ -22,6 +22,7 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import com.google.common.hash.Funnels;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -32,6 +33,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 @SuppressWarnings("unchecked")
 public class BatchingBloomFilterTest {
@@ -96,6 +106,153 @@ public class BatchingBloomFilterTest {
         verify(mockDelegate).mightContain(1);
     }
 
+    @Test
+    public void shouldNotLoseElementsAddedConcurrentlyWithFlushes() throws Exception {
+        // Given
+        final int threads = 4;
+        final int elementsPerThread = 20000;
+        final BatchingBloomFilter<Integer> filter = new BatchingBloomFilter<Integer>(
+                new AtomicBloomFilter<Integer>(Funnels.integerFunnel(), threads * elementsPerThread, 0.01d), 64);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            final int first = t * elementsPerThread;
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int falseNegatives = 0;
+                    for (int i = first; i < first + elementsPerThread; i++) {
+                        filter.add(i);
+                        if (!filter.mightContain(i)) {
+                            falseNegatives++;
+                        }
+                    }
+                    return falseNegatives;
+                }
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        for (Future<Integer> result : results) {
+            assertThat(result.get()).isEqualTo(0);
+        }
+        for (int i = 0; i < threads * elementsPerThread; i++) {
+            assertThat(filter.mightContain(i)).as("element %d", i).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldNotHideElementsFromReadersDuringExplicitFlushes() throws Exception {
+        // Given
+        final int writers = 4;
+        final int readers = 2;
+        final int elementsPerWriter = 50000;
+        final BatchingBloomFilter<Integer> filter = new BatchingBloomFilter<Integer>(
+                new AtomicBloomFilter<Integer>(Funnels.integerFunnel(), writers * elementsPerWriter, 0.01d), 16);
+        final AtomicIntegerArray published = new AtomicIntegerArray(writers);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(writers + readers + 1);
+        final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+        // When
+        for (int t = 0; t < writers; t++) {
+            final int writer = t;
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    for (int i = 0; i < elementsPerWriter; i++) {
+                        filter.add(i * writers + writer);
+                        published.set(writer, i + 1);
+                    }
+                    return 0;
+                }
+            }));
+        }
+        for (int t = 0; t < readers; t++) {
+            final Random random = new Random(t);
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int falseNegatives = 0;
+                    while (writing.get()) {
+                        final int writer = random.nextInt(writers);
+                        final int count = published.get(writer);
+                        if (count > 0 && !filter.mightContain((count - 1) * writers + writer)) {
+                            falseNegatives++;
+                        }
+                    }
+                    return falseNegatives;
+                }
+            }));
+        }
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                start.await();
+                while (writing.get()) {
+                    filter.flush();
+                }
+                return null;
+            }
+        });
+        start.countDown();
+        for (Future<Integer> result : results.subList(0, writers)) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        writing.set(false);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        for (Future<Integer> result : results) {
+            assertThat(result.get()).isEqualTo(0);
+        }
+        for (int i = 0; i < writers * elementsPerWriter; i++) {
+            assertThat(filter.mightContain(i)).as("element %d", i).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldRejectWritesWhenWriteBufferIsFull() {
+        // Given
+        final BatchingBloomFilter.WriteBuffer<Integer> buffer = new BatchingBloomFilter.WriteBuffer<Integer>(8);
+        for (int i = 0; i < 6; i++) {
+            assertThat(buffer.add(i, i)).isTrue();
+        }
+
+        // When
+        boolean added = buffer.add(6, 6);
+
+        // Then
+        assertThat(added).isFalse();
+        assertThat(buffer.contains(6, 6)).isFalse();
+        assertThat(buffer.size()).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldIgnoreDuplicatesInWriteBuffer() {
+        // Given
+        final BatchingBloomFilter.WriteBuffer<Integer> buffer = new BatchingBloomFilter.WriteBuffer<Integer>(8);
+        buffer.add(42, 3);
+
+        // When
+        buffer.add(42, 3);
+
+        // Then
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.contains(42, 3)).isTrue();
+    }
+
     /**
      * Wrapper to ensure that arguments to the addAll method are copied before passing to the delegate. This is
      * because Mockito only captures arguments by reference, so we can otherwise only verify the final state of the
@@ -0,0 +1,123 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class BlockedBloomFilterTest {
+    private static final Funnel<Integer> FUNNEL = Funnels.integerFunnel();
+    private static final long CAPACITY = 100;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.02d;
+
+    private BlockedBloomFilter<Integer> bloomFilter;
+
+    @BeforeClass
+    public void createBloomFilter() {
+        bloomFilter = new BlockedBloomFilter<Integer>(FUNNEL, CAPACITY, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    @Test
+    public void shouldUseSpecifiedFalsePositiveProbability() {
+        assertThat(bloomFilter.getStatistics().getConfiguredFalsePositiveProbability())
+                .isEqualTo(FALSE_POSITIVE_PROBABILITY);
+    }
+
+    @Test
+    public void shouldUseSpecifiedCapacity() {
+        assertThat(bloomFilter.getStatistics().getCapacity()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    public void shouldUseWholeBlocks() {
+        assertThat(bloomFilter.getStatistics().getBitSize() % 512).isEqualTo(0L);
+    }
+
+    @Test(dataProvider = "randomInts", invocationCount = 16, threadPoolSize = 16)
+    public void shouldNotLoseUpdates(int value) {
+        bloomFilter.add(value);
+        assertThat(bloomFilter.mightContain(value)).isTrue();
+    }
+
+    @Test(dataProvider = "falsePositiveProbabilities")
+    public void shouldMaintainFalsePositiveProbabilityAtCapacity(double fpp) {
+        // Given
+        final int capacity = 100000;
+        final BlockedBloomFilter<CharSequence> bf = new BlockedBloomFilter<CharSequence>(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, fpp);
+        for (int i = 0; i < capacity; ++i) {
+            bf.add("token-" + i);
+        }
+
+        // When
+        final int trials = 200000;
+        int falsePositives = 0;
+        for (int i = 0; i < trials; ++i) {
+            if (bf.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat((double) falsePositives / trials).as("measured fpp").isLessThan(fpp * 1.3d);
+        assertThat(bf.getStatistics().getExpectedFalsePositiveProbability()).as("expected fpp")
+                .isBetween(fpp * 0.7d, fpp * 1.01d);
+        assertThat(bf.getStatistics().isSaturated()).as("saturated").isFalse();
+    }
+
+    @Test
+    public void shouldBecomeSaturatedPastCapacity() {
+        // Given
+        final BlockedBloomFilter<Integer> bf = new BlockedBloomFilter<Integer>(FUNNEL, 1000, 0.01d);
+
+        // When
+        for (int i = 0; i < 1500; ++i) {
+            bf.add(i);
+        }
+
+        // Then
+        assertThat(bf.getStatistics().isSaturated()).isTrue();
+        assertThat(bf.getStatistics().getEstimatedRemainingCapacity()).isLessThan(0L);
+    }
+
+    @DataProvider
+    public Object[][] falsePositiveProbabilities() {
+        return new Object[][] {
+                { 0.1d },
+                { 0.01d },
+                { 0.001d }
+        };
+    }
+
+    @DataProvider
+    public Object[][] randomInts() {
+        final Random random = new Random();
+        final Object[][] results = new Object[100][1];
+        for (int i = 0; i < results.length; ++i) {
+            results[i][0] = random.nextInt();
+        }
+        return results;
+    }
+}
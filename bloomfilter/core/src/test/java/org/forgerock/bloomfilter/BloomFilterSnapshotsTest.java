@@ -0,0 +1,278 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Funnels;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+public class BloomFilterSnapshotsTest {
+    private static final int ELEMENTS = 2000;
+    private static final long EXPIRY_BASE = 4000000000000L;
+
+    private static final ExpiryStrategy<Integer> EXPIRY_STRATEGY = new ExpiryStrategy<Integer>() {
+        @Override
+        public long expiryTime(final Integer element) {
+            return EXPIRY_BASE + element;
+        }
+    };
+
+    @DataProvider
+    public static Object[][] strategies() {
+        return new Object[][] {
+                {ConcurrencyStrategy.COPY_ON_WRITE},
+                {ConcurrencyStrategy.SYNCHRONIZED},
+                {ConcurrencyStrategy.ATOMIC},
+                {ConcurrencyStrategy.BLOCKED}
+        };
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldRestoreFixedCapacityFilters(final ConcurrencyStrategy strategy) throws Exception {
+        // Given
+        final BloomFilters.BloomFilterBuilder<Integer> builder = BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(strategy)
+                .withInitialCapacity(ELEMENTS);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS / 2);
+
+        // When
+        final BloomFilter<Integer> restored = roundTrip(filter, builder);
+
+        // Then
+        assertSameContents(restored, filter);
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldRestoreRollingFilterBucketsAndExpiryTimes(final ConcurrencyStrategy strategy)
+            throws Exception {
+        // Given
+        final BloomFilters.RollingBloomFilterBuilder<Integer> builder = rollingBuilder(strategy);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS);
+
+        // When
+        final BloomFilter<Integer> restored = roundTrip(filter, builder);
+
+        // Then
+        assertSameContents(restored, filter);
+        assertThat(restored.getStatistics().getExpiryTime()).isEqualTo(EXPIRY_BASE + ELEMENTS - 1);
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldContinueAddingBucketsToRestoredRollingFilter(final ConcurrencyStrategy strategy)
+            throws Exception {
+        // Given
+        final BloomFilters.RollingBloomFilterBuilder<Integer> builder = rollingBuilder(strategy);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS);
+        final BloomFilter<Integer> restored = roundTrip(filter, builder);
+
+        // When
+        addElements(filter, ELEMENTS, 4 * ELEMENTS);
+        addElements(restored, ELEMENTS, 4 * ELEMENTS);
+
+        // Then
+        assertSameContents(restored, filter);
+    }
+
+    @Test
+    public void shouldRestoreScalableFilter() throws Exception {
+        // Given
+        final BloomFilters.ScalableBloomFilterBuilder<Integer> builder = BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                .withInitialCapacity(100)
+                .scalable();
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS);
+
+        // When
+        final BloomFilter<Integer> restored = roundTrip(filter, builder);
+
+        // Then
+        assertSameContents(restored, filter);
+    }
+
+    @Test
+    public void shouldFlushBatchedWritesIntoSnapshot() throws Exception {
+        // Given
+        final BloomFilters.BloomFilterBuilder<Integer> builder = BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                .withWriteBatchSize(ELEMENTS);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, 10);
+
+        // When
+        final BloomFilter<Integer> restored = roundTrip(filter, builder);
+
+        // Then
+        assertThat(restored).isInstanceOf(BatchingBloomFilter.class);
+        for (int i = 0; i < 10; i++) {
+            assertThat(restored.mightContain(i)).as("element %d", i).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldSaveAndLoadThroughFile() throws Exception {
+        // Given
+        final BloomFilters.RollingBloomFilterBuilder<Integer> builder = rollingBuilder(ConcurrencyStrategy.BLOCKED);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS);
+        final Path directory = Files.createTempDirectory("bloomfilter");
+        final Path file = directory.resolve("filter.snapshot");
+
+        try {
+            // When
+            BloomFilterSnapshots.save(filter, file);
+            final BloomFilter<Integer> restored = BloomFilterSnapshots.load(builder, file);
+
+            // Then
+            assertSameContents(restored, filter);
+            assertThat(Files.exists(directory.resolve("filter.snapshot.tmp"))).isFalse();
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*checksum.*")
+    public void shouldRejectCorruptSnapshot() throws Exception {
+        // Given
+        final BloomFilters.BloomFilterBuilder<Integer> builder = BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                .withInitialCapacity(ELEMENTS);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS);
+        final byte[] snapshot = snapshot(filter);
+        snapshot[snapshot.length - 100] ^= 0x10;
+
+        // When
+        BloomFilterSnapshots.readFrom(builder, new ByteArrayInputStream(snapshot));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*does not match.*")
+    public void shouldRejectSnapshotOfDifferentConcurrencyStrategy() throws Exception {
+        // Given
+        final BloomFilter<Integer> filter = rollingBuilder(ConcurrencyStrategy.ATOMIC).build();
+        addElements(filter, 0, ELEMENTS);
+
+        // When
+        BloomFilterSnapshots.readFrom(rollingBuilder(ConcurrencyStrategy.BLOCKED),
+                new ByteArrayInputStream(snapshot(filter)));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*does not match.*")
+    public void shouldRejectSnapshotOfDifferentlyConfiguredRollingFilter() throws Exception {
+        // Given
+        final BloomFilter<Integer> filter = rollingBuilder(ConcurrencyStrategy.ATOMIC).build();
+        addElements(filter, 0, ELEMENTS);
+
+        // When
+        BloomFilterSnapshots.readFrom(rollingBuilder(ConcurrencyStrategy.ATOMIC).withInitialCapacity(200),
+                new ByteArrayInputStream(snapshot(filter)));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*hash function.*")
+    public void shouldRejectSnapshotWrittenWithDifferentHashFunction() throws Exception {
+        // Given
+        final BloomFilters.BloomFilterBuilder<Integer> builder = BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(ConcurrencyStrategy.BLOCKED)
+                .withInitialCapacity(ELEMENTS);
+        final BloomFilter<Integer> filter = builder.build();
+        addElements(filter, 0, ELEMENTS);
+        final byte[] snapshot = snapshot(filter);
+        // The hash function follows the magic number, version and record type
+        snapshot[9] = BloomFilterSnapshots.MURMUR3_128_HASH;
+
+        // When
+        BloomFilterSnapshots.readFrom(builder, new ByteArrayInputStream(snapshot));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Not a bloom filter snapshot")
+    public void shouldRejectOtherData() throws Exception {
+        BloomFilterSnapshots.readFrom(rollingBuilder(ConcurrencyStrategy.ATOMIC),
+                new ByteArrayInputStream(new byte[64]));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectFiltersNotBuiltByBloomFilters() throws Exception {
+        final BloomFilter<Integer> filter = new BloomFilter<Integer>() {
+            @Override
+            public void add(final Integer element) {
+            }
+
+            @Override
+            public void addAll(final Collection<? extends Integer> elements) {
+            }
+
+            @Override
+            public boolean mightContain(final Integer element) {
+                return false;
+            }
+
+            @Override
+            public BloomFilterStatistics getStatistics() {
+                return null;
+            }
+        };
+        BloomFilterSnapshots.writeTo(filter, new ByteArrayOutputStream());
+    }
+
+    private static BloomFilters.RollingBloomFilterBuilder<Integer> rollingBuilder(final ConcurrencyStrategy strategy) {
+        return BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(strategy)
+                .withInitialCapacity(100)
+                .withExpiryStrategy(EXPIRY_STRATEGY);
+    }
+
+    private static void addElements(final BloomFilter<Integer> filter, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            filter.add(i);
+        }
+    }
+
+    private static byte[] snapshot(final BloomFilter<Integer> filter) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BloomFilterSnapshots.writeTo(filter, out);
+        return out.toByteArray();
+    }
+
+    private static BloomFilter<Integer> roundTrip(final BloomFilter<Integer> filter,
+            final BloomFilters.BloomFilterBuilder<Integer> builder) throws IOException {
+        return BloomFilterSnapshots.readFrom(builder, new ByteArrayInputStream(snapshot(filter)));
+    }
+
+    /**
+     * Checks that the filters have the same statistics and give the same answers for elements that were added and
+     * elements that were not, which they will only do if their bits are the same.
+     */
+    private static void assertSameContents(final BloomFilter<Integer> actual, final BloomFilter<Integer> expected) {
+        assertThat(actual.getStatistics()).isEqualTo(expected.getStatistics());
+        for (int i = -10 * ELEMENTS; i < 10 * ELEMENTS; i++) {
+            assertThat(actual.mightContain(i)).as("element %d", i).isEqualTo(expected.mightContain(i));
+        }
+    }
+}
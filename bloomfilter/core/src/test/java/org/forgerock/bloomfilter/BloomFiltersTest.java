@@ -189,6 +189,9 @@ public class BloomFiltersTest {
             case ATOMIC:
                 assertThat(bf).isInstanceOf(AtomicBloomFilter.class);
                 break;
+            case BLOCKED:
+                assertThat(bf).isInstanceOf(BlockedBloomFilter.class);
+                break;
             default:
                 throw new IllegalArgumentException("Unknown strategy: " + strategy);
         }
@@ -284,7 +287,8 @@ public class BloomFiltersTest {
         return new Object[][] {
                 { ConcurrencyStrategy.COPY_ON_WRITE },
                 { ConcurrencyStrategy.SYNCHRONIZED },
-                { ConcurrencyStrategy.ATOMIC }
+                { ConcurrencyStrategy.ATOMIC },
+                { ConcurrencyStrategy.BLOCKED }
         };
     }
 
@@ -39,11 +39,14 @@ public class ConcurrencyStrategyTest {
                 .create(capacity, fpp);
         BloomFilter<Integer> atomicBf = ConcurrencyStrategy.ATOMIC.<Integer>getFactory(funnel)
                 .create(capacity, fpp);
+        BloomFilter<Integer> blockedBf = ConcurrencyStrategy.BLOCKED.<Integer>getFactory(funnel)
+                .create(capacity, fpp);
 
         // Then
         assertThat(cowBf).isInstanceOf(CopyOnWriteBloomFilter.class);
         assertThat(syncBf).isInstanceOf(SynchronizedBloomFilter.class);
         assertThat(atomicBf).isInstanceOf(AtomicBloomFilter.class);
+        assertThat(blockedBf).isInstanceOf(BlockedBloomFilter.class);
     }
 
     @Test(dataProvider = "strategies")
@@ -68,7 +71,8 @@ public class ConcurrencyStrategyTest {
         return new Object[][] {
                 { ConcurrencyStrategy.COPY_ON_WRITE },
                 { ConcurrencyStrategy.SYNCHRONIZED },
-                { ConcurrencyStrategy.ATOMIC }
+                { ConcurrencyStrategy.ATOMIC },
+                { ConcurrencyStrategy.BLOCKED }
         };
     }
 }
\ No newline at end of file
@@ -49,7 +49,8 @@ public class ConcurrentRollingBloomFilterTest {
         return new Object[][] {
                 {ConcurrencyStrategy.COPY_ON_WRITE},
                 {ConcurrencyStrategy.SYNCHRONIZED},
-                {ConcurrencyStrategy.ATOMIC}
+                {ConcurrencyStrategy.ATOMIC},
+                {ConcurrencyStrategy.BLOCKED}
         };
     }
 
@@ -0,0 +1,160 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CountingBloomFilterTest {
+    private static final Funnel<Integer> FUNNEL = Funnels.integerFunnel();
+    private static final int CAPACITY = 2000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01d;
+
+    @DataProvider
+    public static Object[][] strategies() {
+        final ConcurrencyStrategy[] strategies = ConcurrencyStrategy.values();
+        final Object[][] result = new Object[strategies.length][];
+        for (int i = 0; i < strategies.length; ++i) {
+            result[i] = new Object[] { strategies[i] };
+        }
+        return result;
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldRemoveOnlyRemovedElements(ConcurrencyStrategy strategy) {
+        // Given
+        final CountingBloomFilter<Integer> bf = filter(strategy, CounterOverflowPolicy.SATURATE);
+        for (int i = 0; i < CAPACITY; ++i) {
+            bf.add(i);
+        }
+
+        // When
+        for (int i = 0; i < CAPACITY; i += 2) {
+            assertThat(bf.remove(i)).isTrue();
+        }
+
+        // Then
+        for (int i = 1; i < CAPACITY; i += 2) {
+            assertThat(bf.mightContain(i)).as("element %d", i).isTrue();
+        }
+        for (int i = 1; i < CAPACITY; i += 2) {
+            bf.remove(i);
+        }
+        for (int i = 0; i < CAPACITY; ++i) {
+            assertThat(bf.mightContain(i)).as("element %d", i).isFalse();
+        }
+        assertThat(bf.getStatistics().getExpectedFalsePositiveProbability()).isEqualTo(0.0d);
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldCountRepeatedAdditions(ConcurrencyStrategy strategy) {
+        // Given
+        final CountingBloomFilter<Integer> bf = filter(strategy, CounterOverflowPolicy.SATURATE);
+        bf.addAll(Arrays.asList(42, 42));
+
+        // When
+        bf.remove(42);
+
+        // Then
+        assertThat(bf.mightContain(42)).isTrue();
+        assertThat(bf.remove(42)).isTrue();
+        assertThat(bf.mightContain(42)).isFalse();
+        assertThat(bf.remove(42)).isFalse();
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldRejectElementsThatOverflowCounters(ConcurrencyStrategy strategy) {
+        // Given
+        final CountingBloomFilter<Integer> bf = filter(strategy, CounterOverflowPolicy.REJECT);
+        for (int i = 0; i < 15; ++i) {
+            bf.add(42);
+        }
+
+        // When
+        try {
+            bf.add(42);
+            throw new AssertionError("Expected counter overflow");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+
+        // Then
+        for (int i = 0; i < 15; ++i) {
+            assertThat(bf.remove(42)).isTrue();
+        }
+        assertThat(bf.mightContain(42)).isFalse();
+    }
+
+    @Test(dataProvider = "strategies")
+    public void shouldNotLoseConcurrentUpdates(ConcurrencyStrategy strategy) throws Exception {
+        // Given
+        final CountingBloomFilter<Integer> bf = filter(strategy, CounterOverflowPolicy.SATURATE);
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        // When
+        for (int t = 0; t < threads; ++t) {
+            final int thread = t;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // Each thread keeps the non-negative elements it adds and removes the negative ones
+                        for (int i = thread; i < CAPACITY; i += threads) {
+                            bf.add(i);
+                            bf.add(-i - 1);
+                            assertThat(bf.remove(-i - 1)).isTrue();
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        assertThat(error.get()).isNull();
+        for (int i = 0; i < CAPACITY; ++i) {
+            assertThat(bf.mightContain(i)).as("element %d", i).isTrue();
+        }
+    }
+
+    private static CountingBloomFilter<Integer> filter(final ConcurrencyStrategy strategy,
+            final CounterOverflowPolicy overflowPolicy) {
+        return BloomFilters.create(FUNNEL).withConcurrencyStrategy(strategy).withInitialCapacity(CAPACITY)
+                .withFalsePositiveProbability(FALSE_POSITIVE_PROBABILITY).withCounterOverflowPolicy(overflowPolicy)
+                .buildCounting();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Funnels;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+public class LongHashSinkTest {
+
+    @Test(dataProvider = "strings")
+    public void shouldHashUtf8StringsAsTheirEncodedBytes(String value) {
+        assertThat(LongHashSink.hash(Funnels.stringFunnel(StandardCharsets.UTF_8), value))
+                .isEqualTo(LongHashSink.hash(Funnels.byteArrayFunnel(), value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void shouldHashPrimitivesAsTheirLittleEndianBytes() {
+        // Given
+        final LongHashSink sink = new LongHashSink();
+        sink.reset();
+        sink.putLong(0x0807060504030201L).putByte((byte) 9).putShort((short) 0x0B0A).putInt(0x0F0E0D0C)
+                .putChar((char) 0x1110).putLong(0x1918171615141312L);
+        final long primitives = sink.finish();
+
+        // When
+        sink.reset();
+        for (int i = 1; i <= 0x19; ++i) {
+            sink.putByte((byte) i);
+        }
+
+        // Then
+        assertThat(sink.finish()).isEqualTo(primitives);
+    }
+
+    @Test
+    public void shouldDistinguishInputsOfDifferentLengths() {
+        final Set<Long> hashes = new HashSet<Long>();
+        final LongHashSink sink = new LongHashSink();
+        for (int length = 0; length < 100; ++length) {
+            sink.reset();
+            for (int i = 0; i < length; ++i) {
+                sink.putByte((byte) 0);
+            }
+            hashes.add(sink.finish());
+        }
+        assertThat(hashes.size()).isEqualTo(100);
+    }
+
+    @DataProvider
+    public Object[][] strings() {
+        return new Object[][] {
+                { "" },
+                { "ascii session token" },
+                { "café €" },
+                { "😀 supplementary" },
+                { "unpaired \ud83d surrogate" },
+                { "unpaired \ude00 low surrogate" }
+        };
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Funnels;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MergeableBloomFilterTest {
+    private static final int NODES = 4;
+    private static final int ELEMENTS_PER_NODE = 5000;
+    private static final long EXPIRY_BASE = 4000000000000L;
+
+    private static final ExpiryStrategy<Integer> EXPIRY_STRATEGY = new ExpiryStrategy<Integer>() {
+        @Override
+        public long expiryTime(final Integer element) {
+            return EXPIRY_BASE + element;
+        }
+    };
+
+    @DataProvider
+    public static Object[][] configurations() {
+        return new Object[][] {
+                {fixed(ConcurrencyStrategy.ATOMIC)},
+                {fixed(ConcurrencyStrategy.BLOCKED)},
+                {rolling(ConcurrencyStrategy.ATOMIC)},
+                {rolling(ConcurrencyStrategy.BLOCKED)},
+                {BloomFilters.create(Funnels.integerFunnel()).withConcurrencyStrategy(ConcurrencyStrategy.BLOCKED)
+                        .withInitialCapacity(500).scalable()}
+        };
+    }
+
+    @Test(dataProvider = "configurations")
+    public void shouldConvergeWhenReplicasExchangeDeltas(final BloomFilters.BloomFilterBuilder<Integer> builder)
+            throws Exception {
+        // Given
+        final Cluster cluster = new Cluster(builder);
+
+        // When
+        cluster.addConcurrentlyWhileSynchronizing(0, ELEMENTS_PER_NODE);
+        cluster.synchronize();
+
+        // Then
+        cluster.assertConverged(ELEMENTS_PER_NODE);
+    }
+
+    @Test(dataProvider = "configurations")
+    public void shouldPropagateChangesThroughIntermediateReplicas(
+            final BloomFilters.BloomFilterBuilder<Integer> builder) throws Exception {
+        // Given
+        final Cluster cluster = new Cluster(builder);
+        for (int node = 0; node < NODES; node++) {
+            cluster.addElements(node, 0, ELEMENTS_PER_NODE);
+        }
+
+        // When
+        for (int round = 0; round < NODES; round++) {
+            for (int node = 0; node < NODES; node++) {
+                cluster.send(node, (node + 1) % NODES);
+            }
+        }
+
+        // Then
+        cluster.assertConverged(ELEMENTS_PER_NODE);
+    }
+
+    @Test
+    public void shouldOnlySendChangedWords() throws Exception {
+        // Given
+        final MergeableBloomFilter<Integer> filter = fixed(ConcurrencyStrategy.ATOMIC).withInitialCapacity(100000)
+                .buildMergeable();
+        for (int i = 0; i < 50000; i++) {
+            filter.add(i);
+        }
+        final BloomFilterDelta full = filter.getChangesSince(0L);
+
+        // When
+        filter.add(-1);
+        filter.add(-2);
+        final BloomFilterDelta changes = filter.getChangesSince(full.getVersion());
+
+        // Then
+        // At most one segment for each of the (fewer than ten) bits set by each new element
+        final int maxWords = 2 * 10 * WordChangeTracker.WORDS_PER_SEGMENT;
+        assertThat(changes.getNumberOfWords()).isGreaterThan(0).isLessThanOrEqualTo(maxWords);
+        assertThat(full.getNumberOfWords()).isGreaterThan(100 * changes.getNumberOfWords());
+        assertThat(filter.getChangesSince(changes.getVersion()).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldMergeBitArrays() {
+        // Given
+        final BloomFilters.BloomFilterBuilder<Integer> builder = rolling(ConcurrencyStrategy.BLOCKED);
+        final MergeableBloomFilter<Integer> first = builder.buildMergeable();
+        final MergeableBloomFilter<Integer> second = builder.buildMergeable();
+        for (int i = 0; i < 2000; i++) {
+            first.add(i);
+            second.add(-i - 1);
+        }
+
+        // When
+        first.merge(second);
+
+        // Then
+        for (int i = -2000; i < 2000; i++) {
+            assertThat(first.mightContain(i)).as("element %d", i).isTrue();
+        }
+        assertThat(first.getStatistics().getExpiryTime()).isEqualTo(EXPIRY_BASE + 1999);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void shouldRejectStrategiesWithoutBitArrays() {
+        fixed(ConcurrencyStrategy.COPY_ON_WRITE).buildMergeable();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectWriteBatching() {
+        fixed(ConcurrencyStrategy.ATOMIC).withWriteBatchSize(100).buildMergeable();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectDeltaFromDifferentlyConfiguredFilter() {
+        // Given
+        final MergeableBloomFilter<Integer> filter = fixed(ConcurrencyStrategy.ATOMIC).buildMergeable();
+        final MergeableBloomFilter<Integer> other = fixed(ConcurrencyStrategy.ATOMIC).withInitialCapacity(5000)
+                .buildMergeable();
+        other.add(1);
+
+        // When
+        filter.applyChanges(other.getChangesSince(0L));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*hash function.*")
+    public void shouldRejectDeltaTakenWithDifferentHashFunction() throws Exception {
+        // Given
+        final MergeableBloomFilter<Integer> filter = fixed(ConcurrencyStrategy.BLOCKED).buildMergeable();
+        final MergeableBloomFilter<Integer> other = fixed(ConcurrencyStrategy.BLOCKED).buildMergeable();
+        other.add(1);
+        final byte[] bytes = serialize(other.getChangesSince(0L));
+        // The hash function of the first bucket follows the delta header, bucket number and layout type
+        bytes[25] = BloomFilterSnapshots.MURMUR3_128_HASH;
+
+        // When
+        filter.applyChanges(BloomFilterDelta.readFrom(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldRejectCorruptDelta() throws Exception {
+        // Given
+        final MergeableBloomFilter<Integer> filter = fixed(ConcurrencyStrategy.ATOMIC).buildMergeable();
+        filter.add(1);
+        final byte[] bytes = serialize(filter.getChangesSince(0L));
+
+        // When
+        BloomFilterDelta.readFrom(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+    }
+
+    private static BloomFilters.BloomFilterBuilder<Integer> fixed(final ConcurrencyStrategy strategy) {
+        return BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(strategy)
+                .withInitialCapacity(NODES * ELEMENTS_PER_NODE);
+    }
+
+    private static BloomFilters.BloomFilterBuilder<Integer> rolling(final ConcurrencyStrategy strategy) {
+        return BloomFilters.create(Funnels.integerFunnel())
+                .withConcurrencyStrategy(strategy)
+                .withInitialCapacity(500)
+                .withExpiryStrategy(EXPIRY_STRATEGY);
+    }
+
+    private static byte[] serialize(final BloomFilterDelta delta) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        delta.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * A set of replicas of the same filter that exchange deltas serialized as they would be over the network. Each
+     * replica remembers the version of the last delta it sent to each of the others.
+     */
+    private static final class Cluster {
+        private final List<MergeableBloomFilter<Integer>> nodes = new ArrayList<MergeableBloomFilter<Integer>>();
+        private final long[][] lastSent = new long[NODES][NODES];
+
+        Cluster(final BloomFilters.BloomFilterBuilder<Integer> builder) {
+            for (int i = 0; i < NODES; i++) {
+                nodes.add(builder.buildMergeable());
+            }
+        }
+
+        void addElements(final int node, final int from, final int to) {
+            for (int i = from; i < to; i++) {
+                nodes.get(node).add(element(node, i));
+            }
+        }
+
+        void addConcurrentlyWhileSynchronizing(final int from, final int to) throws Exception {
+            final ExecutorService executor = Executors.newFixedThreadPool(NODES);
+            final CountDownLatch done = new CountDownLatch(NODES);
+            try {
+                for (int node = 0; node < NODES; node++) {
+                    final int writer = node;
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                addElements(writer, from, to);
+                            } finally {
+                                done.countDown();
+                            }
+                        }
+                    });
+                }
+                while (done.getCount() > 0) {
+                    synchronize();
+                }
+            } finally {
+                executor.shutdown();
+                assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+            }
+        }
+
+        void synchronize() throws IOException {
+            for (int from = 0; from < NODES; from++) {
+                for (int to = 0; to < NODES; to++) {
+                    if (from != to) {
+                        send(from, to);
+                    }
+                }
+            }
+        }
+
+        void send(final int from, final int to) throws IOException {
+            final BloomFilterDelta delta = nodes.get(from).getChangesSince(lastSent[from][to]);
+            lastSent[from][to] = delta.getVersion();
+            nodes.get(to).applyChanges(BloomFilterDelta.readFrom(new ByteArrayInputStream(serialize(delta))));
+        }
+
+        void assertConverged(final int elementsPerNode) throws IOException {
+            for (MergeableBloomFilter<Integer> node : nodes) {
+                for (int writer = 0; writer < NODES; writer++) {
+                    for (int i = 0; i < elementsPerNode; i++) {
+                        assertThat(node.mightContain(element(writer, i))).as("element %d of node %d", i, writer)
+                                .isTrue();
+                    }
+                }
+                assertThat(node.getStatistics().getExpiryTime())
+                        .isEqualTo(nodes.get(0).getStatistics().getExpiryTime());
+            }
+            // Converged replicas have identical bit arrays
+            final int numberOfWords = nodes.get(0).getChangesSince(0L).getNumberOfWords();
+            for (MergeableBloomFilter<Integer> node : nodes) {
+                assertThat(node.getChangesSince(0L).getNumberOfWords()).isEqualTo(numberOfWords);
+            }
+        }
+
+        private static int element(final int node, final int i) {
+            return i * NODES + node;
+        }
+    }
+}
@@ -30,4 +30,5 @@ public interface BloomFilterMXBean {
     long getEstimatedRemainingCapacity();
     long getMemorySizeKB();
     Date getExpiryTime();
+    long getSaturatedCounterCount();
 }
@@ -38,16 +38,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.management.ManagementFactory;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Generic Bloom Filter JMX monitoring.
+ * Generic Bloom Filter JMX monitoring. Use {@link CountingBloomFilterMonitor} to also monitor removal of elements
+ * from a {@link org.forgerock.bloomfilter.CountingBloomFilter}.
  */
-public final class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilter<T> {
+public class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterMonitor.class);
 
     private static final String LOG_CHARSET = "UTF-8";
@@ -73,12 +76,10 @@ public final class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilt
         final ObjectName objectName = objectName(packageName, "BloomFilterMonitor", instanceName);
         try {
             // Register the method-call mbeans
-            mBeanServer.registerMBean(addStats, objectName(packageName,
-                    "BloomFilterMonitor.MethodCallStatistics", instanceName + ",method=add"));
-            mBeanServer.registerMBean(addAllStats, objectName(packageName,
-                    "BloomFilterMonitor.MethodCallStatistics", instanceName + ",method=addAll"));
-            mBeanServer.registerMBean(mightContainStats, objectName(packageName,
-                    "BloomFilterMonitor.MethodCallStatistics", instanceName + ",method=mightContain"));
+            for (LiveMethodCallStatistics stats : methodStatistics()) {
+                mBeanServer.registerMBean(stats, objectName(packageName,
+                        "BloomFilterMonitor.MethodCallStatistics", instanceName + ",method=" + stats.name));
+            }
 
             return mBeanServer.registerMBean(this, objectName);
         } catch (NotCompliantMBeanException ex) {
@@ -135,6 +136,14 @@ public final class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilt
         }
     }
 
+    /**
+     * Returns the statistics of each monitored method, which are registered as mbeans and included in
+     * {@link #toString()}.
+     */
+    List<LiveMethodCallStatistics> methodStatistics() {
+        return Arrays.asList(addStats, addAllStats, mightContainStats);
+    }
+
     @Override
     public BloomFilterStatistics getStatistics() {
         return delegate.getStatistics();
@@ -170,6 +179,11 @@ public final class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilt
         return new Date(getStatistics().getExpiryTime());
     }
 
+    @Override
+    public long getSaturatedCounterCount() {
+        return getStatistics().getSaturatedCounterCount();
+    }
+
     /**
      * Maintains live on-going statistics on method call timing latencies. An HdrHistogram {@link Recorder} is used
      * to keep track of live performance data. A snapshot is taken periodically according to the update interval and
@@ -178,7 +192,7 @@ public final class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilt
      * No attempt is currently made to compensate for coordinated omission, so the worst case latencies may be
      * over-optimistic under heavy load (i.e., when the latency exceeds the expected interval between operations).
      */
-    private static final class LiveMethodCallStatistics implements MethodCallStatisticsMXBean {
+    static final class LiveMethodCallStatistics implements MethodCallStatisticsMXBean {
 
         private final String name;
         private final Recorder recorder;
@@ -361,11 +375,10 @@ public final class BloomFilterMonitor<T> implements BloomFilterMXBean, BloomFilt
 
     @Override
     public String toString() {
-        return "{ " +
-                "\"statistics\": " + delegate.getStatistics() +
-                ", \"add\": " + addStats +
-                ", \"addAll\": " + addAllStats +
-                ", \"mightContain\": " + mightContainStats +
-                " }";
+        final StringBuilder sb = new StringBuilder("{ \"statistics\": ").append(delegate.getStatistics());
+        for (LiveMethodCallStatistics stats : methodStatistics()) {
+            sb.append(", \"").append(stats.name).append("\": ").append(stats);
+        }
+        return sb.append(" }").toString();
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.bloomfilter.monitoring;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.forgerock.bloomfilter.CountingBloomFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JMX monitoring of a {@link CountingBloomFilter}, which also records the timing of {@link #remove(Object)}.
+ */
+public final class CountingBloomFilterMonitor<T> extends BloomFilterMonitor<T> implements CountingBloomFilter<T> {
+    private final CountingBloomFilter<T> delegate;
+
+    private final LiveMethodCallStatistics removeStats = new LiveMethodCallStatistics("remove");
+
+    public CountingBloomFilterMonitor(final CountingBloomFilter<T> delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean remove(final T element) {
+        final long startTime = System.nanoTime();
+        try {
+            return delegate.remove(element);
+        } finally {
+            removeStats.recordValue(System.nanoTime() - startTime, NANOSECONDS);
+        }
+    }
+
+    @Override
+    List<LiveMethodCallStatistics> methodStatistics() {
+        final List<LiveMethodCallStatistics> stats = new ArrayList<LiveMethodCallStatistics>(super.methodStatistics());
+        stats.add(removeStats);
+        return stats;
+    }
+}
@@ -16,11 +16,15 @@
 
 package org.forgerock.bloomfilter.monitoring;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import org.forgerock.bloomfilter.BloomFilter;
 import org.forgerock.bloomfilter.BloomFilters;
 import org.forgerock.bloomfilter.ConcurrencyStrategy;
+import org.forgerock.bloomfilter.CounterOverflowPolicy;
+import org.forgerock.bloomfilter.CountingBloomFilter;
 import com.google.common.hash.Funnels;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -88,4 +92,23 @@ public class BloomFilterMonitorTest {
             throw error.get();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRemoveFromCountingBloomFilter() {
+        final CountingBloomFilterMonitor<Integer> monitor = new CountingBloomFilterMonitor<Integer>(
+                BloomFilters.<Integer>create(Funnels.integerFunnel())
+                        .withConcurrencyStrategy(ConcurrencyStrategy.BLOCKED)
+                        .withCounterOverflowPolicy(CounterOverflowPolicy.SATURATE)
+                        .buildCounting());
+
+        monitor.add(42);
+        assertTrue(monitor.remove(42));
+        assertFalse(monitor.mightContain(42));
+        assertEquals(monitor.getSaturatedCounterCount(), 0L);
+    }
+
+    @Test
+    public void testMonitorOfNonCountingBloomFilterIsNotCounting() {
+        assertFalse(testMonitor instanceof CountingBloomFilter);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.persistit.Accumulator.MaxAccumulator;
+import com.persistit.Accumulator.SeqAccumulator;
+import com.persistit.Accumulator.SumAccumulator;
+import com.persistit.Transaction.CommitPolicy;
+
+/**
+ * Measures {@link Accumulator} updates by four threads sharing one
+ * accumulator of the type selected by the <code>type</code> parameter. Each
+ * transaction applies {@value #UPDATES} updates and commits with
+ * {@link CommitPolicy#SOFT}, so that the score reflects the cost of the
+ * update rather than of the commit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class AccumulatorBenchmark {
+
+    final static int UPDATES = 100;
+
+    @State(Scope.Benchmark)
+    public static class Accumulators {
+
+        @Param({ "sum", "max", "seq" })
+        public String type;
+
+        PersistitBenchmarkFixture fixture;
+        SumAccumulator sum;
+        MaxAccumulator max;
+        SeqAccumulator seq;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(4096);
+            final Exchange ex = fixture.getExchange();
+            sum = ex.getTree().getSumAccumulator(0);
+            max = ex.getTree().getMaxAccumulator(1);
+            seq = ex.getTree().getSeqAccumulator(2);
+            fixture.getPersistit().releaseExchange(ex);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public long update(final Accumulators accumulators) throws Exception {
+        final Transaction txn = accumulators.fixture.getPersistit().getTransaction();
+        long result = 0;
+        txn.begin();
+        try {
+            for (int i = 0; i < UPDATES; i++) {
+                if ("sum".equals(accumulators.type)) {
+                    accumulators.sum.add(1);
+                } else if ("max".equals(accumulators.type)) {
+                    accumulators.max.maximum(i);
+                } else {
+                    result += accumulators.seq.allocate();
+                }
+            }
+            txn.commit(CommitPolicy.SOFT);
+        } finally {
+            txn.end();
+        }
+        return result;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(AccumulatorBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of {@link BufferPool#get} on pages that are already
+ * resident, with the unlocked lookup enabled and disabled. With
+ * <code>hotPages=1</code> every thread reads the same page, as happens with the
+ * root page of a busy tree; with a larger hot set the threads spread over many
+ * hash buckets. Run {@link #main} to repeat the comparison at 1 to 64 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class BufferPoolGetBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({ "true", "false" })
+        public boolean unlocked;
+
+        @Param({ "1", "256" })
+        public int hotPages;
+
+        PersistitBenchmarkFixture fixture;
+        BufferPool pool;
+        Volume volume;
+        long[] pages;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(4096);
+            volume = fixture.getVolume();
+            fixture.populate(200000);
+            pool = volume.getPool();
+            pool.setUnlockedLookup(unlocked);
+            pages = fixture.residentPages(hotPages);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = (int) (Thread.currentThread().getId() * 31);
+        }
+    }
+
+    @Benchmark
+    public long readerClaim(final Pool pool, final Cursor cursor) throws Exception {
+        final long page = pool.pages[(cursor.next++ & Integer.MAX_VALUE) % pool.pages.length];
+        final Buffer buffer = pool.pool.get(pool.volume, page, false, true);
+        final long timestamp = buffer.getTimestamp();
+        buffer.release();
+        return timestamp;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final Options opt = new OptionsBuilder().include(BufferPoolGetBenchmark.class.getSimpleName())
+                    .threads(threads).build();
+            new Runner(opt).run();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link BufferPool#get} on the miss path: random pages of a tree
+ * many times larger than a pool of {@value #BUFFER_COUNT} buffers, so that
+ * nearly every call evicts a page and reads another from the volume file or
+ * the journal. The files are small enough to stay in the operating system's
+ * page cache. See {@link BufferPoolGetBenchmark} for the hit path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class BufferPoolMissBenchmark {
+
+    final static int BUFFER_COUNT = 64;
+
+    final static int KEY_COUNT = 1000000;
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        PersistitBenchmarkFixture fixture;
+        BufferPool pool;
+        Volume volume;
+        long[] pages;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(BUFFER_COUNT);
+            volume = fixture.getVolume();
+            fixture.populate(KEY_COUNT);
+            pool = volume.getPool();
+            pages = fixture.residentPages(Integer.MAX_VALUE);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public long readerClaim(final Pool pool, final Cursor cursor) throws Exception {
+        final long page = pool.pages[cursor.random.nextInt(pool.pages.length)];
+        final Buffer buffer = pool.pool.get(pool.volume, page, false, true);
+        final long timestamp = buffer.getTimestamp();
+        buffer.release();
+        return timestamp;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(BufferPoolMissBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.persistit.KeyFilter.Term;
+
+/**
+ * Measures the basic {@link Exchange} operations on a resident tree of
+ * integer keys: {@link #fetch} and {@link #store} of random keys,
+ * {@link #traverse} of {@value #RANGE} consecutive keys from a random starting
+ * point, and {@link #keyFilterScan}, which visits the keys selected by a
+ * {@link KeyFilter} of {@value #FILTER_RANGES} ranges spread across the tree
+ * and so must skip from each range to the next.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ExchangeBenchmark {
+
+    final static int KEY_COUNT = 200000;
+
+    final static int RANGE = 100;
+
+    final static int FILTER_RANGES = 10;
+
+    @State(Scope.Benchmark)
+    public static class Records {
+
+        PersistitBenchmarkFixture fixture;
+        KeyFilter filter;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(4096);
+            fixture.populate(KEY_COUNT);
+            final Term[] terms = new Term[FILTER_RANGES];
+            final int spacing = KEY_COUNT / FILTER_RANGES;
+            final int width = RANGE / FILTER_RANGES;
+            for (int i = 0; i < FILTER_RANGES; i++) {
+                terms[i] = KeyFilter.rangeTerm(i * spacing, i * spacing + width - 1);
+            }
+            filter = new KeyFilter(new Term[] { KeyFilter.orTerm(terms) });
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final Random random = new Random(Thread.currentThread().getId());
+        Exchange exchange;
+
+        @Setup(Level.Trial)
+        public void setUp(final Records records) throws Exception {
+            exchange = records.fixture.getExchange();
+        }
+
+        int next() {
+            return random.nextInt(KEY_COUNT);
+        }
+    }
+
+    @Benchmark
+    public boolean fetch(final Cursor cursor) throws Exception {
+        return cursor.exchange.to(cursor.next()).fetch().getValue().isDefined();
+    }
+
+    @Benchmark
+    public void store(final Cursor cursor) throws Exception {
+        final int key = cursor.next();
+        cursor.exchange.getValue().put(key);
+        cursor.exchange.to(key).store();
+    }
+
+    @Benchmark
+    public int traverse(final Cursor cursor) throws Exception {
+        final Exchange ex = cursor.exchange;
+        ex.to(cursor.next());
+        int count = 0;
+        while (count < RANGE && ex.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int keyFilterScan(final Records records, final Cursor cursor) throws Exception {
+        final Exchange ex = cursor.exchange;
+        ex.clear().append(Key.BEFORE);
+        int count = 0;
+        while (ex.next(records.filter)) {
+            count++;
+        }
+        return count;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(ExchangeBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures in-page key search and key comparison for three key shapes:
+ * <dl>
+ * <dt>uuid</dt>
+ * <dd>random UUID strings, which differ early and share little prefix</dd>
+ * <dt>composite</dt>
+ * <dd>(string, string, long, int) keys as produced by a typical table index</dd>
+ * <dt>prefix</dt>
+ * <dd>an integer following a 56-character path shared by every key, so that
+ * comparisons must scan a long common prefix</dd>
+ * </dl>
+ * {@link #pointLookup} fetches resident records in random order, which is
+ * dominated by {@link Buffer#findKey}. {@link #compareAdjacent} compares keys
+ * with their neighbors in key order using {@link Key#compareTo};
+ * {@link #compareAdjacentBytewise} repeats the same comparisons with a
+ * byte-at-a-time loop as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class KeySearchBenchmark {
+
+    final static int KEY_COUNT = 200000;
+
+    @State(Scope.Benchmark)
+    public static class Keys {
+
+        @Param({ "uuid", "composite", "prefix" })
+        public String shape;
+
+        PersistitBenchmarkFixture fixture;
+        Key[] shuffled;
+        Key[] sorted;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(4096);
+            final Random random = new Random(1);
+            final Exchange ex = fixture.getExchange();
+            shuffled = new Key[KEY_COUNT];
+            for (int i = 0; i < KEY_COUNT; i++) {
+                final Key key = new Key(fixture.getPersistit());
+                if ("uuid".equals(shape)) {
+                    key.append(new UUID(random.nextLong(), random.nextLong()).toString());
+                } else if ("composite".equals(shape)) {
+                    key.append("customer").append("region" + random.nextInt(8))
+                            .append(random.nextLong() & 0xFFFFFFFFL).append(random.nextInt(100));
+                } else {
+                    key.append("/var/lib/persistit/volumes/data/segments/partition-0007/").append(i);
+                }
+                shuffled[i] = key;
+                key.copyTo(ex.getKey());
+                ex.getValue().put(i);
+                ex.store();
+            }
+            fixture.getPersistit().releaseExchange(ex);
+            sorted = shuffled.clone();
+            Arrays.sort(sorted);
+            for (int i = KEY_COUNT - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final Key t = shuffled[i];
+                shuffled[i] = shuffled[j];
+                shuffled[j] = t;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        Exchange exchange;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(final Keys keys) throws Exception {
+            exchange = keys.fixture.getExchange();
+            next = (int) (Thread.currentThread().getId() * 31);
+        }
+
+        int next() {
+            return (next++ & Integer.MAX_VALUE) % KEY_COUNT;
+        }
+    }
+
+    @Benchmark
+    public int pointLookup(final Keys keys, final Cursor cursor) throws Exception {
+        final Exchange ex = cursor.exchange;
+        keys.shuffled[cursor.next()].copyTo(ex.getKey());
+        return ex.fetch().getValue().getInt();
+    }
+
+    @Benchmark
+    public int compareAdjacent(final Keys keys, final Cursor cursor) {
+        final int index = cursor.next();
+        return keys.sorted[index].compareTo(keys.sorted[index == 0 ? 1 : index - 1]);
+    }
+
+    @Benchmark
+    public int compareAdjacentBytewise(final Keys keys, final Cursor cursor) {
+        final int index = cursor.next();
+        final Key k1 = keys.sorted[index];
+        final Key k2 = keys.sorted[index == 0 ? 1 : index - 1];
+        final byte[] bytes1 = k1.getEncodedBytes();
+        final byte[] bytes2 = k2.getEncodedBytes();
+        final int size = Math.min(k1.getEncodedSize(), k2.getEncodedSize());
+        for (int i = 0; i < size; i++) {
+            final int b1 = bytes1[i] & 0xFF;
+            final int b2 = bytes2[i] & 0xFF;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+        return k1.getEncodedSize() - k2.getEncodedSize();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(KeySearchBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
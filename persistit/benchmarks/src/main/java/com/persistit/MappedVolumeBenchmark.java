@@ -0,0 +1,101 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures random point lookups in a read-only volume several times larger
+ * than the buffer pool, so that most lookups read at least one page from the
+ * volume. The <code>storage</code> parameter selects {@link VolumeStorageV2},
+ * which reads pages through the <code>FileChannel</code>, or
+ * {@link VolumeStorageM2}, which copies them from a memory-mapped image of the
+ * file. The volume file is small enough to stay in the operating system's page
+ * cache, which is the case memory mapping is intended for.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class MappedVolumeBenchmark {
+
+    final static int KEY_COUNT = 1000000;
+
+    @State(Scope.Benchmark)
+    public static class Volumes {
+
+        @Param({ "channel", "mapped" })
+        public String storage;
+
+        PersistitBenchmarkFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(256);
+            fixture.populate(KEY_COUNT);
+            fixture.reopenReadOnly("mapped".equals(storage) ? "mapped" : "");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        final Random random = new Random(Thread.currentThread().getId());
+        Exchange exchange;
+
+        @Setup(Level.Trial)
+        public void setUp(final Volumes volumes) throws Exception {
+            exchange = volumes.fixture.getExchange();
+        }
+    }
+
+    @Benchmark
+    public Object fetch(final Lookup lookup) throws Exception {
+        return lookup.exchange.to(lookup.random.nextInt(KEY_COUNT)).fetch().getValue().get();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(MappedVolumeBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
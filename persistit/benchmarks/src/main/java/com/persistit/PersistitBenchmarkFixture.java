@@ -0,0 +1,175 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import com.persistit.exception.PersistitException;
+
+/**
+ * A Persistit instance in a scratch directory with one volume and one tree,
+ * shared by the benchmarks in this module. The directory is deleted by
+ * {@link #close()}.
+ */
+class PersistitBenchmarkFixture {
+
+    final static String VOLUME_NAME = "bench";
+
+    final static String TREE_NAME = "bench";
+
+    private final File _directory;
+
+    private final Properties _properties = new Properties();
+
+    private Persistit _persistit;
+
+    PersistitBenchmarkFixture(final int bufferCount) throws IOException, PersistitException {
+        this(bufferCount, new Properties());
+    }
+
+    /**
+     * @param bufferCount
+     *            Number of 16K buffers
+     * @param extra
+     *            Additional properties, which override the defaults
+     */
+    PersistitBenchmarkFixture(final int bufferCount, final Properties extra) throws IOException,
+            PersistitException {
+        _directory = Files.createTempDirectory("persistit_bench").toFile();
+        final Properties p = _properties;
+        p.setProperty("datapath", _directory.getAbsolutePath());
+        p.setProperty("buffer.count.16384", Integer.toString(bufferCount));
+        p.setProperty("volume.1", "${datapath}/" + VOLUME_NAME + ",create,"
+                + "pageSize:16384,initialPages:100,extensionPages:1000,maximumPages:10000000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("logfile", "${datapath}/persistit_${timestamp}.log");
+        p.setProperty("tmpvoldir", "${datapath}");
+        p.putAll(extra);
+        _persistit = new Persistit(p);
+    }
+
+    /**
+     * Close the Persistit instance and open a new one on the same directory,
+     * then copy pages back from the journal and reload the benchmark volume
+     * read-only.
+     *
+     * @param attributes
+     *            Additional volume specification attributes, such as
+     *            <code>mapped</code>, or an empty string
+     */
+    void reopenReadOnly(final String attributes) throws Exception {
+        _persistit.close();
+        _persistit = new Persistit(_properties);
+        _persistit.copyBackPages();
+        final Volume volume = getVolume();
+        volume.close();
+        _persistit.removeVolume(volume);
+        _persistit.loadVolume("${datapath}/" + VOLUME_NAME + ",readOnly,pageSize:16384"
+                + (attributes.isEmpty() ? "" : "," + attributes));
+    }
+
+    /**
+     * Stop the Persistit instance abruptly, leaving the volume and journal
+     * files as they would be after a failure.
+     */
+    void crash() {
+        _persistit.crash();
+    }
+
+    /**
+     * Open a new Persistit instance on the same directory, recovering from
+     * the journal.
+     */
+    void restart() throws PersistitException {
+        _persistit = new Persistit(_properties);
+    }
+
+    Persistit getPersistit() {
+        return _persistit;
+    }
+
+    File getDirectory() {
+        return _directory;
+    }
+
+    Volume getVolume() throws PersistitException {
+        return _persistit.getVolume(VOLUME_NAME);
+    }
+
+    Exchange getExchange() throws PersistitException {
+        return _persistit.getExchange(VOLUME_NAME, TREE_NAME, true);
+    }
+
+    /**
+     * Store <code>count</code> records with integer keys and short string
+     * values.
+     */
+    void populate(final int count) throws PersistitException {
+        final Exchange ex = getExchange();
+        for (int i = 0; i < count; i++) {
+            ex.getValue().put("value" + i);
+            ex.to(i).store();
+        }
+        _persistit.releaseExchange(ex);
+    }
+
+    /**
+     * @return Addresses of up to <code>count</code> distinct pages of the
+     *         benchmark tree: the root page first, followed by data pages in
+     *         key order. Every page is made resident by the time this method
+     *         returns.
+     */
+    long[] residentPages(final int count) throws PersistitException {
+        final Set<Long> pages = new LinkedHashSet<Long>();
+        final Exchange ex = getExchange();
+        pages.add(ex.getTree().getRootPageAddr());
+        ex.clear().append(Key.BEFORE);
+        while (pages.size() < count && ex.next()) {
+            pages.add(ex.fetchBufferCopy(0).getPageAddress());
+        }
+        _persistit.releaseExchange(ex);
+        final long[] result = new long[pages.size()];
+        int index = 0;
+        for (final Long page : pages) {
+            result[index++] = page;
+        }
+        return result;
+    }
+
+    void close() throws PersistitException {
+        try {
+            _persistit.close(false);
+        } finally {
+            delete(_directory);
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>
+ * Entry point of the benchmarks jar. Accepts the same arguments as the JMH
+ * command line and runs every benchmark in this module unless benchmarks are
+ * selected by name. Results are written in JSON, to
+ * {@value #DEFAULT_RESULT_FILE} unless another file is named with
+ * <code>-rff</code>, so that runs of different releases can be compared by
+ * tools. Another format may be requested with <code>-rf</code>. As with the
+ * JMH command line, <code>-h</code> prints help and <code>-l</code>,
+ * <code>-lprof</code> and <code>-lrf</code> list the benchmarks, profilers
+ * and result formats instead of running anything.
+ * </p>
+ * <ul>
+ * <li>{@link ExchangeBenchmark}: point fetch and store, range traverse and
+ * KeyFilter scans</li>
+ * <li>{@link TransactionCommitBenchmark}: commit under each CommitPolicy</li>
+ * <li>{@link AccumulatorBenchmark}: Accumulator updates</li>
+ * <li>{@link BufferPoolGetBenchmark} and {@link BufferPoolMissBenchmark}:
+ * BufferPool hit and miss paths</li>
+ * <li>{@link RecoveryBenchmark}: recovery time against journal size</li>
+ * <li>{@link KeySearchBenchmark}, {@link ValueCoderBenchmark},
+ * {@link PersistitMapBenchmark} and {@link MappedVolumeBenchmark}</li>
+ * </ul>
+ */
+public class PersistitBenchmarks {
+
+    final static String DEFAULT_RESULT_FILE = "persistit-benchmarks.json";
+
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException,
+            IOException {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldListProfilers()) {
+            commandLine.listProfilers();
+            return;
+        }
+        if (commandLine.shouldListResultFormats()) {
+            commandLine.listResultFormats();
+            return;
+        }
+        final ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(PersistitBenchmarks.class.getPackage().getName() + "\\..*Benchmark");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+            if (!commandLine.getResult().hasValue()) {
+                builder.result(DEFAULT_RESULT_FILE);
+            }
+        }
+        final Runner runner = new Runner(builder.build());
+        if (commandLine.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures a map shared by four threads as a read-mostly cache: nine reads to
+ * each write, over keys that are all resident. The <code>map</code> parameter
+ * selects {@link PersistitMap}, whose methods are synchronized on one
+ * <code>Exchange</code>, or {@link ConcurrentPersistitMap}. {@link #getAll}
+ * fetches batches of random keys from the concurrent map in key order, and
+ * {@link #getEach} fetches the same batches one key at a time as a baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class PersistitMapBenchmark {
+
+    final static int KEY_COUNT = 100000;
+
+    final static int BATCH_SIZE = 64;
+
+    @State(Scope.Benchmark)
+    public static class Maps {
+
+        @Param({ "synchronized", "concurrent" })
+        public String map;
+
+        PersistitBenchmarkFixture fixture;
+        Map<Integer, String> shared;
+        ConcurrentPersistitMap<Integer, String> concurrent;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(4096);
+            final Exchange ex = fixture.getExchange();
+            concurrent = new ConcurrentPersistitMap<Integer, String>(ex);
+            shared = "synchronized".equals(map) ? new PersistitMap<Integer, String>(ex) : concurrent;
+            fixture.getPersistit().releaseExchange(ex);
+            for (int i = 0; i < KEY_COUNT; i++) {
+                shared.put(i, "value" + i);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        final Random random = new Random(Thread.currentThread().getId());
+        final List<Integer> batch = new ArrayList<Integer>(BATCH_SIZE);
+
+        int next() {
+            return random.nextInt(KEY_COUNT);
+        }
+
+        List<Integer> nextBatch() {
+            batch.clear();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(next());
+            }
+            return batch;
+        }
+    }
+
+    @Benchmark
+    public Object readMostly(final Maps maps, final Keys keys) {
+        final int key = keys.next();
+        if (key % 10 == 0) {
+            return maps.shared.put(key, "value" + key);
+        }
+        return maps.shared.get(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int getAll(final Maps maps, final Keys keys) {
+        return maps.concurrent.getAll(keys.nextBatch()).size();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int getEach(final Maps maps, final Keys keys) {
+        int found = 0;
+        for (final Integer key : keys.nextBatch()) {
+            if (maps.concurrent.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(PersistitMapBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.persistit.Transaction.CommitPolicy;
+
+/**
+ * Measures the time to open a Persistit instance after a crash as a function
+ * of the amount of journal to recover. Before each measurement a fresh
+ * instance commits <code>transactions</code> transactions of one record each
+ * and then crashes before a checkpoint can be taken, so that recovery must
+ * replay every transaction.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecoveryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+
+        @Param({ "10000", "100000" })
+        public int transactions;
+
+        PersistitBenchmarkFixture fixture;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws Exception {
+            final Properties properties = new Properties();
+            properties.setProperty("checkpointinterval", "3600");
+            fixture = new PersistitBenchmarkFixture(4096, properties);
+            final Exchange ex = fixture.getExchange();
+            final Transaction txn = ex.getTransaction();
+            for (int i = 0; i < transactions; i++) {
+                txn.begin();
+                try {
+                    ex.getValue().put("value" + i);
+                    ex.to(i).store();
+                    txn.commit(CommitPolicy.SOFT);
+                } finally {
+                    txn.end();
+                }
+            }
+            fixture.getPersistit().getJournalManager().force();
+            fixture.crash();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @Benchmark
+    public long recover(final Journal journal) throws Exception {
+        journal.fixture.restart();
+        return journal.fixture.getPersistit().getRecoveryManager().getAppliedTransactionCount();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(RecoveryBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.persistit.Transaction.CommitPolicy;
+import com.persistit.exception.RollbackException;
+
+/**
+ * Measures transactions that each store one record, committed under the
+ * {@link CommitPolicy} selected by the <code>policy</code> parameter. Four
+ * threads commit concurrently so that GROUP commits have company to share a
+ * journal flush with; a transaction rolled back by a write-write conflict is
+ * retried.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class TransactionCommitBenchmark {
+
+    final static int KEY_COUNT = 100000;
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({ "SOFT", "GROUP", "HARD" })
+        public CommitPolicy policy;
+
+        PersistitBenchmarkFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(4096);
+            fixture.populate(KEY_COUNT);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        final Random random = new Random(Thread.currentThread().getId());
+        Exchange exchange;
+
+        @Setup(Level.Trial)
+        public void setUp(final Database database) throws Exception {
+            exchange = database.fixture.getExchange();
+        }
+    }
+
+    @Benchmark
+    public void commit(final Database database, final Session session) throws Exception {
+        final Exchange ex = session.exchange;
+        final Transaction txn = ex.getTransaction();
+        final int key = session.random.nextInt(KEY_COUNT);
+        for (;;) {
+            txn.begin();
+            try {
+                ex.getValue().put(key);
+                ex.to(key).store();
+                txn.commit(database.policy);
+                return;
+            } catch (final RollbackException e) {
+                // write-write conflict with another thread - retry
+            } finally {
+                txn.end();
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(TransactionCommitBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
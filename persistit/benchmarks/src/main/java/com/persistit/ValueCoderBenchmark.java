@@ -0,0 +1,130 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.persistit.encoding.SerialValueCoder;
+import com.persistit.encoding.ValueCoder;
+
+/**
+ * Compares {@link DefaultValueCoder}, {@link MethodHandleValueCoder} and
+ * {@link SerialValueCoder} encoding and decoding a small domain object with a
+ * mix of primitive and String fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ValueCoderBenchmark {
+
+    public static class Customer implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int id;
+        short region;
+        boolean active;
+        long created;
+        double balance;
+        String name;
+        String email;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Coders {
+
+        @Param({ "default", "methodHandle", "serial" })
+        public String coder;
+
+        PersistitBenchmarkFixture fixture;
+        Customer customer;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            fixture = new PersistitBenchmarkFixture(256);
+            final Persistit persistit = fixture.getPersistit();
+            final ValueCoder valueCoder;
+            if ("default".equals(coder)) {
+                valueCoder = new DefaultValueCoder(persistit, Customer.class);
+            } else if ("methodHandle".equals(coder)) {
+                valueCoder = new MethodHandleValueCoder(persistit, Customer.class);
+            } else {
+                valueCoder = new SerialValueCoder(Customer.class);
+            }
+            persistit.getCoderManager().registerValueCoder(Customer.class, valueCoder);
+            customer = new Customer();
+            customer.id = 42;
+            customer.region = 7;
+            customer.active = true;
+            customer.created = 1700000000000L;
+            customer.balance = 1234.5;
+            customer.name = "Jane Doe";
+            customer.email = "jane.doe@example.com";
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Encoded {
+        Value value;
+
+        @Setup(Level.Trial)
+        public void setUp(final Coders coders) {
+            value = new Value(coders.fixture.getPersistit());
+            value.put(coders.customer);
+        }
+    }
+
+    @Benchmark
+    public int put(final Coders coders, final Encoded encoded) {
+        encoded.value.put(coders.customer);
+        return encoded.value.getEncodedSize();
+    }
+
+    @Benchmark
+    public Object get(final Encoded encoded) {
+        return encoded.value.get();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder().include(ValueCoderBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+}
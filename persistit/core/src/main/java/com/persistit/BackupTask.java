@@ -18,14 +18,23 @@ package com.persistit;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -33,7 +42,7 @@ import com.persistit.CLI.Arg;
 import com.persistit.CLI.Cmd;
 import com.persistit.CheckpointManager.Checkpoint;
 import com.persistit.Management.JournalInfo;
-import com.persistit.Management.VolumeInfo;
+import com.persistit.exception.PersistitInterruptedException;
 import com.persistit.util.Util;
 
 /**
@@ -58,6 +67,19 @@ import com.persistit.util.Util;
  * form a complete backup, and as a convenience, a mechanism to compress and
  * copy them.
  * </p>
+ * <p>
+ * An archive written by this class begins with a manifest entry that records
+ * the volumes it covers and a timestamp such that every page modified after
+ * the backup started carries a later timestamp. Given the path of an earlier
+ * archive as its <code>since</code> argument, the task writes an
+ * <em>incremental</em> archive: instead of entire volume files it writes only
+ * the pages whose timestamps are later than the one recorded in the earlier
+ * archive, along with the current journal files. When the earlier backup was
+ * taken while the same volume was open, the pages are found from a record of
+ * the pages written to the volume file since it was opened; otherwise the
+ * volume file is scanned. To restore, apply the full backup and then each
+ * incremental backup in the order they were taken with {@link #doRestore}.
+ * </p>
  * 
  * @author peter
  * 
@@ -66,6 +88,13 @@ public class BackupTask extends Task {
 
     private final static int BUFFER_SIZE = 1024 * 1024;
     private final static int PROGRESS_MARK_AT = 100 * 1000 * 1000;
+    private final static int RUN_PAGES = 64;
+
+    final static String MANIFEST_ENTRY = "META-INF/persistit-backup.properties";
+    final static String PAGES_SUFFIX = ".pages";
+    final static String KIND_FULL = "full";
+    final static String KIND_INCREMENTAL = "incremental";
+
     private boolean _start;
     private boolean _end;
     private boolean _showFiles;
@@ -73,7 +102,14 @@ public class BackupTask extends Task {
     private boolean _checkpoint;
     private boolean _copyback;
     private String _toFile;
+    private String _since;
+    private long _timestamp;
+    private long _sinceTimestamp;
+    private final Map<String, Long> _sinceSessions = new HashMap<String, Long>();
+    private long _restoredTimestamp = -1;
+    private long _changedPageCount;
     final List<String> _files = new ArrayList<String>();
+    final List<Volume> _volumes = new ArrayList<Volume>();
     private volatile String _backupStatus;
 
     @Cmd("backup")
@@ -83,9 +119,12 @@ public class BackupTask extends Task {
             @Arg("_flag|c|Request checkpoint before backup") final boolean checkpoint,
             @Arg("_flag|z|Compress output to ZIP format") final boolean compressed,
             @Arg("_flag|f|Emit a list of files that need to be copied") final boolean showFiles,
-            @Arg("_flag|y|Copyback pages before starting") final boolean copyback) throws Exception {
+            @Arg("_flag|y|Copyback pages before starting") final boolean copyback,
+            @Arg("since|string|Archive of an earlier backup; back up only pages changed after it") final String since)
+            throws Exception {
         final BackupTask task = new BackupTask();
         task._toFile = file;
+        task._since = since;
         task._start = start;
         task._end = end;
         task._showFiles = showFiles;
@@ -99,6 +138,13 @@ public class BackupTask extends Task {
         if (_toFile == null) {
             _toFile = "";
         }
+        if (_since == null) {
+            _since = "";
+        }
+    }
+
+    private boolean isIncremental() {
+        return !_since.isEmpty();
     }
 
     @Override
@@ -125,8 +171,13 @@ public class BackupTask extends Task {
         try {
             if (_showFiles || !_toFile.isEmpty()) {
                 management.setAppendOnly(true);
+                waitForCopier();
+                if (isIncremental()) {
+                    readSinceManifest();
+                }
                 populateBackupFiles();
                 if (!_toFile.isEmpty()) {
+                    _timestamp = changedAfterTimestamp();
                     doBackup();
                 }
             }
@@ -143,11 +194,71 @@ public class BackupTask extends Task {
         _backupStatus = message;
     }
 
+    /**
+     * Wait for a copy cycle that began before <code>appendOnly</code> mode
+     * took effect to finish writing pages to the volume files. Once the
+     * copier has been seen idle, later cycles do not write.
+     */
+    private void waitForCopier() throws Exception {
+        final JournalManager journalManager = _persistit.getJournalManager();
+        while (journalManager.isCopying()) {
+            Util.sleep(10);
+            poll();
+        }
+    }
+
+    /**
+     * Compute a timestamp such that every page image written to a volume file
+     * from now on - by the copier or during recovery from the journal files
+     * being backed up - has a later timestamp. Called once
+     * <code>appendOnly</code> mode is in effect, so that pages already being
+     * copied are still present in the journal's page map.
+     * 
+     * @return the timestamp
+     * @throws PersistitInterruptedException
+     */
+    private long changedAfterTimestamp() throws PersistitInterruptedException {
+        long timestamp = _persistit.getCurrentTimestamp();
+        for (final BufferPool pool : _persistit.getBufferPoolHashMap().values()) {
+            timestamp = Math.min(timestamp, pool.scanEarliestDirtyTimestamp());
+        }
+        timestamp = Math.min(timestamp, _persistit.getJournalManager().getEarliestPageTimestamp());
+        return timestamp - 1;
+    }
+
+    private void readSinceManifest() throws IOException {
+        final Properties manifest;
+        final ZipFile zipFile = new ZipFile(_since);
+        try {
+            final ZipEntry ze = zipFile.getEntry(MANIFEST_ENTRY);
+            if (ze == null) {
+                throw new IOException("Archive " + _since + " has no backup manifest");
+            }
+            manifest = new Properties();
+            final InputStream is = zipFile.getInputStream(ze);
+            try {
+                manifest.load(is);
+            } finally {
+                is.close();
+            }
+        } finally {
+            zipFile.close();
+        }
+        _sinceTimestamp = Long.parseLong(manifest.getProperty("timestamp"));
+        final int count = Integer.parseInt(manifest.getProperty("volume.count"));
+        for (int index = 0; index < count; index++) {
+            _sinceSessions.put(manifest.getProperty("volume." + index + ".path"),
+                    Long.parseLong(manifest.getProperty("volume." + index + ".session")));
+        }
+    }
+
     private void populateBackupFiles() throws Exception {
-        final VolumeInfo[] volumes = _persistit.getManagement().getVolumeInfoArray();
-        for (final VolumeInfo info : volumes) {
-            if (!info.isTransient()) {
-                _files.add(info.getPath());
+        for (final Volume volume : _persistit.getVolumes()) {
+            if (!volume.isTemporary()) {
+                _volumes.add(volume);
+                if (!isIncremental()) {
+                    _files.add(volume.getPath());
+                }
             }
         }
         final JournalInfo info = _persistit.getManagement().getJournalInfo();
@@ -160,6 +271,12 @@ public class BackupTask extends Task {
             _files.add(file.getAbsolutePath());
         }
         final StringBuilder sb = new StringBuilder();
+        if (isIncremental()) {
+            for (final Volume volume : _volumes) {
+                sb.append(volume.getPath()).append(" (changed pages)");
+                sb.append(Util.NEW_LINE);
+            }
+        }
         for (final String file : _files) {
             sb.append(file);
             sb.append(Util.NEW_LINE);
@@ -185,6 +302,28 @@ public class BackupTask extends Task {
                 size += new File(file).length();
             }
             postMessage("Total size of files in backup set: " + formatedSize(size), 0);
+            final Properties manifest = new Properties();
+            manifest.setProperty("kind", isIncremental() ? KIND_INCREMENTAL : KIND_FULL);
+            manifest.setProperty("timestamp", Long.toString(_timestamp));
+            if (isIncremental()) {
+                manifest.setProperty("since", Long.toString(_sinceTimestamp));
+            }
+            manifest.setProperty("volume.count", Integer.toString(_volumes.size()));
+            for (int index = 0; index < _volumes.size(); index++) {
+                final Volume volume = _volumes.get(index);
+                final String prefix = "volume." + index + ".";
+                manifest.setProperty(prefix + "path", volume.getPath());
+                manifest.setProperty(prefix + "pageSize", Integer.toString(volume.getStructure().getPageSize()));
+                manifest.setProperty(prefix + "session", Long.toString(volume.getStorage().getWriteSession()));
+            }
+            zos.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+            manifest.store(zos, "Persistit backup");
+            zos.closeEntry();
+            if (isIncremental()) {
+                for (final Volume volume : _volumes) {
+                    backupChangedPages(zos, volume);
+                }
+            }
             for (final String path : _files) {
                 final File file = new File(path);
                 postMessage("Backing up " + path + " size=" + formatedSize(file.length()), 1);
@@ -217,10 +356,80 @@ public class BackupTask extends Task {
         }
     }
 
+    /**
+     * Write an entry containing the pages of a volume file having timestamps
+     * later than the one recorded by the earlier backup, plus the head page.
+     * The entry holds the page size and file length followed by runs of
+     * consecutive pages, each preceded by the address of its first page and
+     * its page count, and ends with an address of -1.
+     */
+    private void backupChangedPages(final ZipOutputStream zos, final Volume volume) throws Exception {
+        final String path = volume.getPath();
+        final int pageSize = volume.getStructure().getPageSize();
+        final Long session = _sinceSessions.get(path);
+        final BitSet candidates = session == null ? null : volume.getStorage().getPagesWritten(session);
+        final RandomAccessFile raf = new RandomAccessFile(path, "r");
+        try {
+            final long fileLength = raf.length();
+            final long pageCount = fileLength / pageSize;
+            postMessage("Backing up pages of " + path + " changed since timestamp " + _sinceTimestamp
+                    + (candidates == null ? " by scanning " + pageCount + " pages" : ""), 1);
+            zos.putNextEntry(new ZipEntry(path + PAGES_SUFFIX));
+            final DataOutputStream out = new DataOutputStream(zos);
+            out.writeInt(pageSize);
+            out.writeLong(fileLength);
+            final byte[] run = new byte[RUN_PAGES * pageSize];
+            long runStart = 0;
+            int runCount = 0;
+            long changed = 0;
+            long page = 0;
+            while (page >= 0 && page < pageCount) {
+                final int offset = runCount * pageSize;
+                raf.seek(page * pageSize);
+                raf.readFully(run, offset, pageSize);
+                if (page == 0 || Util.getLong(run, offset + Buffer.TIMESTAMP_OFFSET) > _sinceTimestamp) {
+                    if (runCount == 0) {
+                        runStart = page;
+                    }
+                    runCount++;
+                    changed++;
+                }
+                final long next = candidates == null ? page + 1 : candidates.nextSetBit((int) page + 1);
+                if (runCount > 0 && (runCount == RUN_PAGES || next != runStart + runCount)) {
+                    writeRun(out, run, runStart, runCount, pageSize);
+                    runCount = 0;
+                }
+                page = next;
+                poll();
+            }
+            if (runCount > 0) {
+                writeRun(out, run, runStart, runCount, pageSize);
+            }
+            out.writeLong(-1);
+            out.flush();
+            zos.closeEntry();
+            _changedPageCount += changed;
+            postMessage("Backed up " + changed + " changed pages of " + path, 1);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void writeRun(final DataOutputStream out, final byte[] run, final long runStart, final int runCount,
+            final int pageSize) throws IOException {
+        out.writeLong(runStart);
+        out.writeInt(runCount);
+        out.write(run, 0, runCount * pageSize);
+    }
+
     /**
      * A convenience method for unit tests to unzip a backup created by
      * {@link #doBackup()}. In production it is expected a backup produced by
      * {@link #doBackup()} will be restored via an external unzip utility.
+     * Changed pages held in an incremental backup are written into the volume
+     * files already restored from the backup it was taken after; restore a
+     * chain of backups by calling this method on the same
+     * <code>BackupTask</code> for each archive in turn.
      * 
      * @throws Exception
      */
@@ -230,29 +439,84 @@ public class BackupTask extends Task {
         postMessage("Unzipping files from " + zipFile + " size=" + formatedSize(zipFile.length()), 0);
         final ZipInputStream zis = new ZipInputStream(
                 new BufferedInputStream(new FileInputStream(zipFile), BUFFER_SIZE));
-        ZipEntry ze;
-        while ((ze = zis.getNextEntry()) != null) {
-            postMessage("Unzipping " + ze, 0);
-            final File file = new File(ze.getName());
-            if (file.exists()) {
-                rename(file);
-            }
-            long progress = 0;
-            long fileSize = 0;
-            final OutputStream os = new BufferedOutputStream(new FileOutputStream(file, false));
-            int writeCount = 0;
-            while ((writeCount = zis.read(buffer)) != -1) {
-                os.write(buffer, 0, writeCount);
-                progress += writeCount;
-                fileSize += writeCount;
-                if (progress > PROGRESS_MARK_AT) {
-                    progress -= PROGRESS_MARK_AT;
-                    appendMessage(" " + formatedSize(fileSize), 1);
+        try {
+            Properties manifest = null;
+            final Map<String, String> pageEntries = new HashMap<String, String>();
+            ZipEntry ze;
+            while ((ze = zis.getNextEntry()) != null) {
+                if (MANIFEST_ENTRY.equals(ze.getName())) {
+                    manifest = new Properties();
+                    manifest.load(zis);
+                    if (KIND_INCREMENTAL.equals(manifest.getProperty("kind"))) {
+                        final long since = Long.parseLong(manifest.getProperty("since"));
+                        if (_restoredTimestamp != -1 && _restoredTimestamp != since) {
+                            throw new IOException("Incremental backup " + path
+                                    + " does not follow the backup previously restored");
+                        }
+                        final int count = Integer.parseInt(manifest.getProperty("volume.count"));
+                        for (int index = 0; index < count; index++) {
+                            final String volumePath = manifest.getProperty("volume." + index + ".path");
+                            pageEntries.put(volumePath + PAGES_SUFFIX, volumePath);
+                        }
+                    }
+                    continue;
+                }
+                final String volumePath = pageEntries.get(ze.getName());
+                if (volumePath != null) {
+                    restoreChangedPages(zis, volumePath);
+                    continue;
                 }
+                postMessage("Unzipping " + ze, 0);
+                final File file = new File(ze.getName());
+                if (file.exists()) {
+                    rename(file);
+                }
+                long progress = 0;
+                long fileSize = 0;
+                final OutputStream os = new BufferedOutputStream(new FileOutputStream(file, false));
+                int writeCount = 0;
+                while ((writeCount = zis.read(buffer)) != -1) {
+                    os.write(buffer, 0, writeCount);
+                    progress += writeCount;
+                    fileSize += writeCount;
+                    if (progress > PROGRESS_MARK_AT) {
+                        progress -= PROGRESS_MARK_AT;
+                        appendMessage(" " + formatedSize(fileSize), 1);
+                    }
+                }
+                os.close();
             }
-            os.close();
+            _restoredTimestamp = manifest == null ? -1 : Long.parseLong(manifest.getProperty("timestamp"));
+        } finally {
+            zis.close();
         }
-        zis.close();
+    }
+
+    private void restoreChangedPages(final InputStream is, final String path) throws Exception {
+        final File file = new File(path);
+        if (!file.exists()) {
+            throw new IOException("Volume file " + path + " not found: restore the earlier backup first");
+        }
+        final DataInputStream in = new DataInputStream(is);
+        final int pageSize = in.readInt();
+        final long fileLength = in.readLong();
+        final byte[] run = new byte[RUN_PAGES * pageSize];
+        long changed = 0;
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long runStart;
+            while ((runStart = in.readLong()) != -1) {
+                final int runCount = in.readInt();
+                in.readFully(run, 0, runCount * pageSize);
+                raf.seek(runStart * pageSize);
+                raf.write(run, 0, runCount * pageSize);
+                changed += runCount;
+            }
+            raf.setLength(fileLength);
+        } finally {
+            raf.close();
+        }
+        postMessage("Restored " + changed + " changed pages of " + path, 0);
     }
 
     private void rename(final File file) throws Exception {
@@ -285,4 +549,11 @@ public class BackupTask extends Task {
     public List<String> getFileList() {
         return _files;
     }
+
+    /**
+     * @return the number of volume pages written by an incremental backup
+     */
+    public long getChangedPageCount() {
+        return _changedPageCount;
+    }
 }
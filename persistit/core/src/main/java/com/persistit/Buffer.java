@@ -46,6 +46,7 @@ import com.persistit.exception.RebalanceException;
 import com.persistit.exception.VolumeClosedException;
 import com.persistit.policy.JoinPolicy;
 import com.persistit.policy.SplitPolicy;
+import com.persistit.util.Bytes;
 import com.persistit.util.Debug;
 import com.persistit.util.Util;
 
@@ -376,9 +377,10 @@ public class Buffer extends SharedResource {
 
     /**
      * Singly-linked list of Buffers current having the same hash code.
-     * (Maintained by BufferPool.)
+     * (Maintained by BufferPool.) Volatile because BufferPool traverses
+     * chains without locking on its lookup fast path.
      */
-    private Buffer _next = null;
+    private volatile Buffer _next = null;
 
     private volatile long _lastPrunedTime;
 
@@ -943,36 +945,33 @@ public class Buffer extends SharedResource {
                                 }
                             }
                             //
-                            // Perform binary search
+                            // Perform binary search for the first key block
+                            // in (left, right] having db >= kb. The db at left
+                            // is known to be less than kb and the db at right
+                            // greater than kb. The loop runs a fixed number of
+                            // times for a given span and its only
+                            // data-dependent choice is a conditional move of
+                            // the base, so it does not suffer the branch
+                            // mispredictions of a search that exits early on
+                            // an exact match.
                             //
-                            while (right > left) {
-                                p = ((left + right) >> 1) & P_MASK;
-                                if (p == left) {
-                                    //
-                                    // This is true because if p == left then
-                                    // right must be left + 1. We already know
-                                    // that kb > db and less than db2, so the
-                                    // final answer is know to be in right.
-                                    //
-                                    final int result = right | (depth << DEPTH_SHIFT);
-                                    return result;
-                                }
+                            int base = left;
+                            int span = (right - left) >> 2;
+                            while (span > 1) {
+                                final int half = span >> 1;
+                                final int probe = base + (half << 2);
+                                base = getDb(probe) < kb ? probe : base;
+                                span -= half;
+                            }
+                            p = base + KEYBLOCK_LENGTH;
+                            db = getDb(p);
+                            if (db != kb) {
                                 //
-                                // Otherwise perform a probe and the current
-                                // mid-point and
-                                // adjust the ends depending on the comparison.
+                                // The key falls between the key blocks at
+                                // base and p.
                                 //
-                                final int db1 = getDb(p);
-
-                                if (db1 == kb) {
-                                    db = db1;
-                                    break;
-                                } else if (db1 > kb) {
-                                    right = p;
-                                } else {
-                                    left = p;
-                                    db = db1;
-                                }
+                                final int result = p | (depth << DEPTH_SHIFT);
+                                return result;
                             }
                         } else if (db2 < kb) {
                             //
@@ -1019,18 +1018,15 @@ public class Buffer extends SharedResource {
                 //
                 boolean matched = true;
                 if (++depth < qlength) {
-                    int q = tail + tailHeaderSize;
-                    kb = kbytes[depth];
-                    db = _bytes[q++];
-
-                    while (kb == db && ++depth < qlength) {
-                        kb = kbytes[depth];
-                        db = _bytes[q++];
-                    }
+                    final int q = tail + tailHeaderSize;
+                    final int mismatch = Bytes.mismatch(kbytes, depth, _bytes, q, qlength - depth);
 
-                    if (kb != db) {
-                        kb = kb & 0xFF;
-                        db = db & 0xFF;
+                    if (mismatch < 0) {
+                        depth = qlength;
+                    } else {
+                        kb = kbytes[depth + mismatch] & 0xFF;
+                        db = _bytes[q + mismatch] & 0xFF;
+                        depth += mismatch;
 
                         if (kb < db) {
                             //
@@ -4195,16 +4191,29 @@ public class Buffer extends SharedResource {
         info.updateAcquisitonTime();
     }
 
-    void enqueuePruningAction(final int treeHandle) {
+    /**
+     * Called by a reader that found an MVV with <code>versions</code>
+     * versions on this page. If the chain is long enough to be worth pruning
+     * and the page has not been offered within the minimum pruning delay,
+     * offer it to the CleanupManager, which prunes pages with the longest
+     * chains first.
+     *
+     * @param treeHandle
+     *            handle of the tree containing this page
+     * @param versions
+     *            number of versions in the MVV
+     */
+    void enqueuePruningAction(final int treeHandle, final int versions) {
         if (_mvvCount > 0) {
-            final long delay = _persistit.getCleanupManager().getMinimumPruningDelay();
-            if (delay > 0) {
+            final CleanupManager cleanupManager = _persistit.getCleanupManager();
+            final long delay = cleanupManager.getMinimumPruningDelay();
+            if (delay > 0 && versions >= cleanupManager.getMinimumPrunableVersions()) {
                 final long last = _lastPrunedTime;
                 final long now = System.currentTimeMillis();
                 if (now - last > delay) {
                     _lastPrunedTime = now;
-                    _persistit.getCleanupManager().offer(
-                            new CleanupManager.CleanupPruneAction(treeHandle, getPageAddress()));
+                    cleanupManager.offerHotPage(new CleanupManager.CleanupPruneAction(treeHandle, getPageAddress(),
+                            versions));
                 }
             }
         }
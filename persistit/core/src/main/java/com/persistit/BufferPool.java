@@ -85,6 +85,12 @@ public class BufferPool {
      */
     private final static int HASH_LOCKS = 4096;
 
+    /**
+     * Maximum number of hash chain links visited by an unlocked lookup before
+     * it defers to the locked path
+     */
+    private final static int UNLOCKED_CHAIN_LIMIT = 16;
+
     /**
      * Ratio determines which of two volume invalidation algorithms to invoke.
      */
@@ -121,6 +127,12 @@ public class BufferPool {
      */
     private final ReentrantLock[] _hashLocks;
 
+    /**
+     * Whether {@link #get} first attempts to find and claim a resident page
+     * without locking its hash bucket
+     */
+    private volatile boolean _unlockedLookup = true;
+
     /**
      * All Buffers in this pool
      */
@@ -174,6 +186,21 @@ public class BufferPool {
      */
     private final AtomicLong _evictCounter = new AtomicLong();
 
+    /**
+     * Count of pages read into this pool ahead of a sequential traversal
+     */
+    private final AtomicLong _prefetchCounter = new AtomicLong();
+
+    /**
+     * Count of prefetched pages that were used before being evicted
+     */
+    private final AtomicLong _prefetchHitCounter = new AtomicLong();
+
+    /**
+     * Count of prefetched pages that were evicted without being used
+     */
+    private final AtomicLong _prefetchWasteCounter = new AtomicLong();
+
     /**
      * Count of dirty pages
      */
@@ -221,6 +248,17 @@ public class BufferPool {
      */
     private PageWriter _writer;
 
+    /**
+     * Optional second-level cache of evicted page images held outside the Java
+     * heap, or <code>null</code>
+     */
+    private final OffHeapPageCache _offHeapCache;
+
+    /**
+     * Policy that selects pages to evict
+     */
+    private final EvictionPolicy _policy;
+
     /**
      * Construct a BufferPool with the specified count of <code>Buffer</code>s
      * of the specified size.
@@ -231,7 +269,32 @@ public class BufferPool {
      *            The size (in bytes) of each buffer
      */
     BufferPool(final int count, final int size, final Persistit persistit) {
+        this(count, size, null, null, persistit);
+    }
+
+    /**
+     * Construct a BufferPool with the specified count of <code>Buffer</code>s
+     * of the specified size, backed by an optional off-heap page cache.
+     *
+     * @param count
+     *            The number of buffers in the pool
+     * @param size
+     *            The size (in bytes) of each buffer
+     * @param offHeapCache
+     *            An {@link OffHeapPageCache} of the same page size to receive
+     *            evicted page images, or <code>null</code>
+     * @param evictionPolicy
+     *            Name of the {@link EvictionPolicy}, or <code>null</code> for
+     *            the default
+     */
+    BufferPool(final int count, final int size, final OffHeapPageCache offHeapCache, final String evictionPolicy,
+            final Persistit persistit) {
         _persistit = persistit;
+        if (offHeapCache != null && offHeapCache.getPageSize() != size) {
+            throw new IllegalArgumentException("Off-heap page cache size " + offHeapCache.getPageSize()
+                    + " does not match buffer size " + size);
+        }
+        _offHeapCache = offHeapCache;
         if (count < MINIMUM_POOL_COUNT) {
             throw new IllegalArgumentException("Buffer pool count too small: " + count);
         }
@@ -252,6 +315,7 @@ public class BufferPool {
 
         _bufferCount = count;
         _bufferSize = size;
+        _policy = EvictionPolicy.create(evictionPolicy, count);
         _buffers = new Buffer[_bufferCount];
         _availablePagesBits = new AtomicLongArray((count + 63) / 64);
         _hashTable = new Buffer[_bufferCount * HASH_MULTIPLE];
@@ -301,6 +365,9 @@ public class BufferPool {
         _closed.set(true);
         _persistit.waitForIOTaskStop(_writer);
         _writer = null;
+        if (_offHeapCache != null) {
+            _offHeapCache.close();
+        }
     }
 
     /**
@@ -309,6 +376,9 @@ public class BufferPool {
      */
     void crash() {
         IOTaskRunnable.crash(_writer);
+        if (_offHeapCache != null) {
+            _offHeapCache.close();
+        }
     }
 
     void flush(final long timestamp) throws PersistitInterruptedException {
@@ -350,6 +420,16 @@ public class BufferPool {
         info.writeCount = _writeCounter.get();
         info.forcedCheckpointWriteCount = _forcedCheckpointWriteCounter.get();
         info.forcedWriteCount = _forcedWriteCounter.get();
+        info.offHeapMemory = getOffHeapMemory();
+        info.offHeapHitCount = getOffHeapHitCounter();
+        info.offHeapMissCount = getOffHeapMissCounter();
+        info.offHeapEvictCount = getOffHeapEvictCounter();
+        info.evictionPolicy = getEvictionPolicy();
+        info.policyHitCount = getPolicyHitCounter();
+        info.policyMissCount = getPolicyMissCounter();
+        info.policyProtectedHitCount = getPolicyProtectedHitCounter();
+        info.policyPromoteCount = getPolicyPromoteCounter();
+        info.policyProtectedCount = getPolicyProtectedCount();
         int validPages = 0;
         int readerClaimedPages = 0;
         int writerClaimedPages = 0;
@@ -473,6 +553,114 @@ public class BufferPool {
         return _forcedCheckpointWriteCounter.get();
     }
 
+    /**
+     * @return The size in bytes of the off-heap page cache attached to this
+     *         pool, or zero if there is none
+     */
+    public long getOffHeapMemory() {
+        return _offHeapCache == null ? 0 : (long) _offHeapCache.getFrameCount() * _bufferSize;
+    }
+
+    /**
+     * @return The count of pool misses satisfied by copying a page image from
+     *         the off-heap page cache rather than reading it from disk
+     */
+    public long getOffHeapHitCounter() {
+        return _offHeapCache == null ? 0 : _offHeapCache.getHitCounter();
+    }
+
+    /**
+     * @return The count of pool misses that were not found in the off-heap
+     *         page cache either
+     */
+    public long getOffHeapMissCounter() {
+        return _offHeapCache == null ? 0 : _offHeapCache.getMissCounter();
+    }
+
+    /**
+     * @return The count of page images discarded from the off-heap page cache
+     *         to make room for more recently evicted pages
+     */
+    public long getOffHeapEvictCounter() {
+        return _offHeapCache == null ? 0 : _offHeapCache.getEvictCounter();
+    }
+
+    /**
+     * @return The count of pages read into this pool by read-ahead
+     */
+    public long getPrefetchCounter() {
+        return _prefetchCounter.get();
+    }
+
+    /**
+     * @return The count of pages read into this pool by read-ahead that were
+     *         subsequently used
+     */
+    public long getPrefetchHitCounter() {
+        return _prefetchHitCounter.get();
+    }
+
+    /**
+     * @return The count of pages read into this pool by read-ahead that were
+     *         evicted without being used
+     */
+    public long getPrefetchWasteCounter() {
+        return _prefetchWasteCounter.get();
+    }
+
+    OffHeapPageCache getOffHeapCache() {
+        return _offHeapCache;
+    }
+
+    /**
+     * @return The name of the policy this pool uses to select pages to evict
+     */
+    public String getEvictionPolicy() {
+        return _policy.getName();
+    }
+
+    /**
+     * @return The count of hits recorded by the eviction policy
+     */
+    public long getPolicyHitCounter() {
+        return _policy.getHitCount();
+    }
+
+    /**
+     * @return The count of pages admitted to the pool by the eviction policy
+     */
+    public long getPolicyMissCounter() {
+        return _policy.getMissCount();
+    }
+
+    /**
+     * @return The count of hits on pages the eviction policy protects from
+     *         eviction; always zero for a policy without a protected set
+     */
+    public long getPolicyProtectedHitCounter() {
+        return _policy.getProtectedHitCount();
+    }
+
+    /**
+     * @return The count of pages the eviction policy has promoted to its
+     *         protected set
+     */
+    public long getPolicyPromoteCounter() {
+        return _policy.getPromoteCount();
+    }
+
+    /**
+     * @return The number of buffers currently in the eviction policy's
+     *         protected set
+     */
+    public int getPolicyProtectedCount() {
+        return _policy.getProtectedCount();
+    }
+
+    EvictionPolicy getPolicy() {
+        return _policy;
+    }
+
     /**
      * Resets the get and hit counters to zero.
      */
@@ -481,6 +669,13 @@ public class BufferPool {
         _hitCounter.set(0);
         _newCounter.set(0);
         _evictCounter.set(0);
+        _prefetchCounter.set(0);
+        _prefetchHitCounter.set(0);
+        _prefetchWasteCounter.set(0);
+        if (_offHeapCache != null) {
+            _offHeapCache.resetCounters();
+        }
+        _policy.resetCounters();
     }
 
     int getMaxKeys() {
@@ -544,16 +739,35 @@ public class BufferPool {
      * @throws PersistitInterruptedException
      */
     boolean invalidate(final Volume volume) throws PersistitException {
+        invalidateOffHeap(volume);
         final float ratio = (float) volume.getStorage().getNextAvailablePage() / (float) _bufferCount;
+        final boolean result;
         if (ratio < SMALL_VOLUME_RATIO) {
-            return invalidateSmallVolume(volume, false);
+            result = invalidateSmallVolume(volume, false);
         } else {
-            return invalidateLargeVolume(volume, false);
+            result = invalidateLargeVolume(volume, false);
         }
+        invalidateOffHeap(volume);
+        return result;
     }
 
     boolean evict(final Volume volume) throws PersistitException {
-        return invalidateSmallVolume(volume, true);
+        invalidateOffHeap(volume);
+        final boolean result = invalidateSmallVolume(volume, true);
+        invalidateOffHeap(volume);
+        return result;
+    }
+
+    /**
+     * Discard the off-heap page images of a volume. Called both before and
+     * after the volume's buffers are invalidated: a buffer of the volume
+     * evicted in between is deposited in the off-heap cache and would
+     * otherwise survive there as a stale page image.
+     */
+    private void invalidateOffHeap(final Volume volume) {
+        if (_offHeapCache != null) {
+            _offHeapCache.invalidate(volume);
+        }
     }
 
     boolean invalidateSmallVolume(final Volume volume, final boolean mustWrite) throws PersistitException {
@@ -662,7 +876,9 @@ public class BufferPool {
         }
         buffer.clearValid();
         buffer.clearDirty();
+        discardPrefetched(buffer);
         buffer.setPageAddressAndVolume(0, null);
+        _policy.discard(buffer);
     }
 
     private boolean detach(final Buffer buffer) {
@@ -741,8 +957,40 @@ public class BufferPool {
      */
     Buffer get(final Volume vol, final long page, final boolean writer, final boolean wantRead, final long timeout)
             throws PersistitException {
+        return get(vol, page, writer, wantRead, timeout, false);
+    }
+
+    /**
+     * Read a page into the pool ahead of its use by a sequential traversal.
+     * Does nothing if the page is already resident or is claimed by another
+     * thread. A page loaded by this method is marked so that its first use is
+     * counted as a prefetch hit, and its eviction before any use as prefetch
+     * waste.
+     *
+     * @param vol
+     *            The Volume
+     * @param page
+     *            The address of the page
+     * @return <code>true</code> if the page was read into the pool
+     * @throws PersistitException
+     */
+    boolean prefetch(final Volume vol, final long page) throws PersistitException {
+        final Buffer buffer = get(vol, page, false, true, 0, true);
+        if (buffer == null) {
+            return false;
+        }
+        buffer.release();
+        return true;
+    }
+
+    private Buffer get(final Volume vol, final long page, final boolean writer, final boolean wantRead,
+            final long timeout, final boolean prefetch) throws PersistitException {
         final int hash = hashIndex(vol, page);
-        Buffer buffer = null;
+        Buffer buffer = _unlockedLookup && !prefetch ? getUnlocked(vol, page, writer, hash) : null;
+        if (buffer != null) {
+            recordHit(vol, buffer);
+            return buffer;
+        }
 
         for (;;) {
             boolean mustClaim = false;
@@ -758,10 +1006,11 @@ public class BufferPool {
                         //
                         // Found it - now claim it.
                         //
+                        if (prefetch) {
+                            return null;
+                        }
                         if (buffer.claim(writer, 0)) {
-                            vol.getStatistics().bumpGetCounter();
-                            bumpHitCounter();
-                            assert !buffer.isOwnedAsWriterByOther();
+                            recordHit(vol, buffer);
                             return buffer;
                         } else {
                             mustClaim = true;
@@ -782,8 +1031,10 @@ public class BufferPool {
                     Debug.$assert0.t(buffer.getNext() != buffer);
 
                     buffer.setPageAddressAndVolume(page, vol);
+                    buffer.clearPrefetched();
                     buffer.setNext(_hashTable[hash]);
                     _hashTable[hash] = buffer;
+                    _policy.admit(buffer);
                     //
                     // It's not really valid yet, but it does have a writer
                     // claim on it so no other Thread can access it. In the
@@ -827,9 +1078,7 @@ public class BufferPool {
                         //
                         // If so, then we're done.
                         //
-                        vol.getStatistics().bumpGetCounter();
-                        bumpHitCounter();
-                        assert !buffer.isOwnedAsWriterByOther();
+                        recordHit(vol, buffer);
                         return buffer;
                     } else {
                         throw new InUseException("Thread " + Thread.currentThread().getName() + " failed to acquire "
@@ -859,10 +1108,18 @@ public class BufferPool {
                     try {
                         Debug.$assert0.t(buffer.getPageAddress() == page && buffer.getVolume() == vol
                                 && hashIndex(buffer.getVolume(), buffer.getPageAddress()) == hash);
-                        buffer.load(vol, page);
+                        if (_offHeapCache != null && !buffer.isTemporary() && _offHeapCache.load(buffer)) {
+                            buffer.load();
+                        } else {
+                            buffer.load(vol, page);
+                        }
                         loaded = true;
                         vol.getStatistics().bumpGetCounter();
                         bumpMissCounter();
+                        if (prefetch) {
+                            buffer.setPrefetched();
+                            _prefetchCounter.incrementAndGet();
+                        }
                     } finally {
                         if (!loaded) {
                             invalidate(buffer);
@@ -882,6 +1139,75 @@ public class BufferPool {
         }
     }
 
+    private void recordHit(final Volume vol, final Buffer buffer) {
+        vol.getStatistics().bumpGetCounter();
+        bumpHitCounter();
+        _policy.hit(buffer);
+        if (buffer.isPrefetched() && buffer.clearPrefetched()) {
+            _prefetchHitCounter.incrementAndGet();
+        }
+        assert !buffer.isOwnedAsWriterByOther();
+    }
+
+    private void discardPrefetched(final Buffer buffer) {
+        if (buffer.isPrefetched() && buffer.clearPrefetched()) {
+            _prefetchWasteCounter.incrementAndGet();
+        }
+    }
+
+    /**
+     * <p>
+     * Attempt to find and claim a resident page without locking its hash
+     * bucket. The chain is traversed optimistically: a concurrent thread may
+     * be detaching or inserting Buffers, so the traversal may miss the page or
+     * wander onto another chain. That is harmless because a Buffer's volume,
+     * page address and valid bit are changed only by a thread holding its
+     * writer claim. Once this method has acquired a claim it therefore sees a
+     * stable identity, and re-checking the identity after the claim serves the
+     * same purpose as the version check of a seqlock.
+     * </p>
+     * <p>
+     * Returns <code>null</code> rather than waiting whenever the page is not
+     * found within {@value #UNLOCKED_CHAIN_LIMIT} links, the claim is not
+     * immediately available, or the claimed Buffer no longer holds the page;
+     * the caller then falls back to the locked path.
+     * </p>
+     *
+     * @return the claimed Buffer, or <code>null</code>
+     */
+    private Buffer getUnlocked(final Volume vol, final long page, final boolean writer, final int hash)
+            throws PersistitInterruptedException {
+        Buffer buffer = _hashTable[hash];
+        for (int links = 0; buffer != null && links < UNLOCKED_CHAIN_LIMIT; links++) {
+            if (buffer.getPageAddress() == page && buffer.getVolume() == vol) {
+                if (buffer.claim(writer, 0)) {
+                    if (buffer.isValid() && buffer.getPageAddress() == page && buffer.getVolume() == vol) {
+                        return buffer;
+                    }
+                    buffer.release();
+                }
+                return null;
+            }
+            buffer = buffer.getNext();
+        }
+        return null;
+    }
+
+    boolean isUnlockedLookup() {
+        return _unlockedLookup;
+    }
+
+    /**
+     * Enable or disable the unlocked lookup attempted by {@link #get} before it
+     * locks a hash bucket. Intended for benchmarks and tests that compare the
+     * two paths.
+     *
+     * @param unlockedLookup
+     */
+    void setUnlockedLookup(final boolean unlockedLookup) {
+        _unlockedLookup = unlockedLookup;
+    }
+
     /**
      * Returns a copy of Buffer. The returned buffer is newly created, is not a
      * member of the buffer pool, and is not claimed. There is no guarantee that
@@ -1001,16 +1327,14 @@ public class BufferPool {
         //
         // Look for a page to evict.
         //
-        for (int retry = 0; retry < _bufferCount * 2;) {
+        for (int retry = 0; retry < _bufferCount * _policy.getSweepLimit();) {
             final int clock = _clock.get();
             assert clock < _bufferCount;
             if (!_clock.compareAndSet(clock, (clock + 1) % _bufferCount)) {
                 continue;
             }
             final Buffer buffer = _buffers[clock];
-            if (buffer.isTouched()) {
-                buffer.clearTouched();
-            } else {
+            if (_policy.sweep(buffer)) {
                 //
                 // Note: need to verify that there are no claims - including
                 // those of the current thread.
@@ -1030,6 +1354,8 @@ public class BufferPool {
                         try {
                             buffer.writePage();
                             if (detach(buffer)) {
+                                retainOffHeap(buffer);
+                                discardPrefetched(buffer);
                                 buffer.clearValid();
                                 _forcedWriteCounter.incrementAndGet();
                                 _evictCounter.incrementAndGet();
@@ -1045,6 +1371,8 @@ public class BufferPool {
                         }
                     } else {
                         if (buffer.isValid() && detach(buffer)) {
+                            retainOffHeap(buffer);
+                            discardPrefetched(buffer);
                             buffer.clearValid();
                             _evictCounter.incrementAndGet();
                             _persistit.getIOMeter().chargeEvictPageFromPool(buffer.getVolume(),
@@ -1063,6 +1391,21 @@ public class BufferPool {
         throw new IllegalStateException("No available Buffers");
     }
 
+    /**
+     * Deposit the image of a clean page that is being evicted into the
+     * off-heap page cache, if there is one. Pages of temporary volumes and
+     * pages that were allocated but never written are not retained.
+     *
+     * @param buffer
+     *            The evicted buffer; must have a writer claim
+     */
+    private void retainOffHeap(final Buffer buffer) {
+        if (_offHeapCache != null && !buffer.isTemporary() && !buffer.isDirty()
+                && buffer.getPageType() != Buffer.PAGE_TYPE_UNALLOCATED) {
+            _offHeapCache.store(buffer);
+        }
+    }
+
     enum Result {
         WRITTEN, UNAVAILABLE, ERROR
     };
@@ -1075,6 +1418,38 @@ public class BufferPool {
         return _earliestDirtyTimestamp;
     }
 
+    /**
+     * Scan the pool for the earliest timestamp of any dirty page, or of any
+     * page currently claimed by another thread, which may yet become dirty.
+     * Unlike {@link #getEarliestDirtyTimestamp()}, which is refreshed only as
+     * the page writer selects pages to write, the result is a lower bound on
+     * the timestamp of every page image this pool writes after the scan
+     * begins.
+     * 
+     * @return the earliest timestamp, or the current timestamp if no page is
+     *         dirty
+     * @throws PersistitInterruptedException
+     */
+    long scanEarliestDirtyTimestamp() throws PersistitInterruptedException {
+        long earliestDirtyTimestamp = _persistit.getCurrentTimestamp();
+        for (int index = 0; index < _bufferCount; index++) {
+            final Buffer buffer = _buffers[index];
+            final long timestamp = buffer.getTimestamp();
+            if (!buffer.claim(false, 0)) {
+                earliestDirtyTimestamp = Math.min(earliestDirtyTimestamp, timestamp);
+            } else {
+                try {
+                    if (buffer.isDirty() && !buffer.isTemporary()) {
+                        earliestDirtyTimestamp = Math.min(earliestDirtyTimestamp, buffer.getTimestamp());
+                    }
+                } finally {
+                    buffer.release();
+                }
+            }
+        }
+        return earliestDirtyTimestamp;
+    }
+
     void setFlushTimestamp(final long timestamp) {
         while (true) {
             final long current = _flushTimestamp.get();
@@ -244,4 +244,64 @@ class BufferPoolMXBeanImpl implements BufferPoolMXBean {
         return recent().getEarliestDirtyTimestamp();
     }
 
+    @Override
+    @Description("Size in bytes of the off-heap page cache")
+    public long getOffHeapMemory() {
+        return recent().getOffHeapMemory();
+    }
+
+    @Override
+    @Description("Count of pool misses satisfied from the off-heap page cache")
+    public long getOffHeapHitCount() {
+        return recent().getOffHeapHitCount();
+    }
+
+    @Override
+    @Description("Count of pool misses not found in the off-heap page cache")
+    public long getOffHeapMissCount() {
+        return recent().getOffHeapMissCount();
+    }
+
+    @Override
+    @Description("Count of page images discarded from the off-heap page cache")
+    public long getOffHeapEvictCount() {
+        return recent().getOffHeapEvictCount();
+    }
+
+    @Override
+    @Description("Name of the policy that selects pages to evict")
+    public String getEvictionPolicy() {
+        return recent().getEvictionPolicy();
+    }
+
+    @Override
+    @Description("Count of hits recorded by the eviction policy")
+    public long getPolicyHitCount() {
+        return recent().getPolicyHitCount();
+    }
+
+    @Override
+    @Description("Count of pages admitted by the eviction policy")
+    public long getPolicyMissCount() {
+        return recent().getPolicyMissCount();
+    }
+
+    @Override
+    @Description("Count of hits on pages in the eviction policy's protected set")
+    public long getPolicyProtectedHitCount() {
+        return recent().getPolicyProtectedHitCount();
+    }
+
+    @Override
+    @Description("Count of pages promoted to the eviction policy's protected set")
+    public long getPolicyPromoteCount() {
+        return recent().getPolicyPromoteCount();
+    }
+
+    @Override
+    @Description("Number of buffers in the eviction policy's protected set")
+    public int getPolicyProtectedCount() {
+        return recent().getPolicyProtectedCount();
+    }
+
 }
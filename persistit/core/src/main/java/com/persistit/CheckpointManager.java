@@ -247,6 +247,7 @@ class CheckpointManager extends IOTaskRunnable implements CheckpointManagerMXBea
                 _persistit.getTransactionIndex().checkpointAccumulatorSnapshots(txn.getStartTimestamp(), accumulators);
                 Accumulator.saveAccumulatorCheckpointValues(accumulators);
                 _persistit.flushStatistics();
+                _persistit.flushBloomFilters(txn.getStartTimestamp());
                 txn.commit(CommitPolicy.HARD);
                 _currentCheckpoint = new Checkpoint(txn.getStartTimestamp(), System.currentTimeMillis());
                 _outstandingCheckpoints.add(_currentCheckpoint);
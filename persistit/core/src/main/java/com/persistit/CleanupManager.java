@@ -20,16 +20,25 @@ package com.persistit;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.persistit.AlertMonitor.AlertLevel;
 import com.persistit.AlertMonitor.Event;
 import com.persistit.exception.PersistitException;
 import com.persistit.mxbeans.CleanupManagerMXBean;
+import com.persistit.util.Util;
 
 class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
@@ -50,8 +59,36 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
     private final static long DEFAULT_MINIMUM_PRUNING_DELAY_NS = 1_000;
 
+    final static int DEFAULT_HOT_PAGE_LIMIT = 10_000;
+
+    final static int DEFAULT_MINIMUM_PRUNABLE_VERSIONS = 2;
+
+    final static int MAXIMUM_THREAD_COUNT = 64;
+
+    /**
+     * Backlog of enqueued actions that justifies each additional worker
+     * thread.
+     */
+    final static int BACKLOG_PER_THREAD = WORKLIST_LENGTH * 4;
+
+    final static int HISTOGRAM_BUCKETS = 32;
+
+    private final static Comparator<CleanupPruneAction> LONGEST_CHAIN_FIRST = new Comparator<CleanupPruneAction>() {
+        @Override
+        public int compare(final CleanupPruneAction a, final CleanupPruneAction b) {
+            return b._versions - a._versions;
+        }
+    };
+
     private final BlockingQueue<CleanupAction> _cleanupActionQueue = new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE);
 
+    /**
+     * Pages found by readers to hold long version chains, keyed by page so
+     * that repeated reports of the same page raise its priority rather than
+     * enqueueing it again.
+     */
+    private final ConcurrentHashMap<CleanupPruneAction, CleanupPruneAction> _hotPages = new ConcurrentHashMap<>();
+
     private final AtomicBoolean _closed = new AtomicBoolean();
 
     private final AtomicLong _accepted = new AtomicLong();
@@ -64,6 +101,20 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
     private final AtomicLong _minimumPruningDelay = new AtomicLong(DEFAULT_MINIMUM_PRUNING_DELAY_NS);
 
+    private final Log2Histogram _mvvLengthHistogram = new Log2Histogram(HISTOGRAM_BUCKETS);
+
+    private final Log2Histogram _pruningLagHistogram = new Log2Histogram(HISTOGRAM_BUCKETS);
+
+    private volatile int _minimumPrunableVersions = DEFAULT_MINIMUM_PRUNABLE_VERSIONS;
+
+    private volatile int _maximumThreadCount = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private volatile int _threadCount;
+
+    private ExecutorService _workers;
+
+    private int _workerCount;
+
     private long _lastMaintenance;
 
     private long _lastPruneObsoleteTransactions;
@@ -82,6 +133,13 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
     public void close(final boolean flush) throws PersistitException {
         _closed.set(true);
+        shutdownWorkers();
+    }
+
+    @Override
+    protected void crash() {
+        super.crash();
+        shutdownWorkers();
     }
 
     @Override
@@ -105,6 +163,42 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
         return accepted;
     }
 
+    /**
+     * Offer a page whose readers found an MVV with <code>versions</code>
+     * versions. Pages offered this way are pruned ahead of the regular queue,
+     * longest chains first. A page that is already pending keeps a single
+     * entry whose priority is raised to the longest chain reported.
+     *
+     * @param action
+     *            the pruning action for the page
+     * @return <code>true</code> if the page is pending
+     */
+    boolean offerHotPage(final CleanupPruneAction action) {
+        final CleanupPruneAction pending = _hotPages.putIfAbsent(action, action);
+        if (pending != null) {
+            pending.raiseVersions(action._versions);
+            return true;
+        }
+        if (_hotPages.size() > DEFAULT_HOT_PAGE_LIMIT) {
+            _hotPages.remove(action, action);
+            _refused.incrementAndGet();
+            kick();
+            return false;
+        }
+        _accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record the length of a version chain seen by a reader.
+     *
+     * @param versions
+     *            number of versions in the MVV
+     */
+    void recordMvvLength(final int versions) {
+        _mvvLengthHistogram.record(versions);
+    }
+
     @Override
     public long getAcceptedCount() {
         return _accepted.get();
@@ -127,7 +221,47 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
     @Override
     public long getEnqueuedCount() {
-        return _cleanupActionQueue.size();
+        return _cleanupActionQueue.size() + _hotPages.size();
+    }
+
+    @Override
+    public long getHotPageCount() {
+        return _hotPages.size();
+    }
+
+    @Override
+    public long[] getMvvLengthHistogram() {
+        return _mvvLengthHistogram.snapshot();
+    }
+
+    @Override
+    public long[] getPruningLagHistogram() {
+        return _pruningLagHistogram.snapshot();
+    }
+
+    @Override
+    public int getMinimumPrunableVersions() {
+        return _minimumPrunableVersions;
+    }
+
+    @Override
+    public void setMinimumPrunableVersions(final int versions) {
+        _minimumPrunableVersions = Util.rangeCheck(versions, 2, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getMaximumThreadCount() {
+        return _maximumThreadCount;
+    }
+
+    @Override
+    public void setMaximumThreadCount(final int count) {
+        _maximumThreadCount = Util.rangeCheck(count, 1, MAXIMUM_THREAD_COUNT);
+    }
+
+    @Override
+    public int getThreadCount() {
+        return _threadCount;
     }
 
     @Override
@@ -142,7 +276,7 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
     @Override
     public long pollInterval() {
-        if (_cleanupActionQueue.size() < DEFAULT_QUEUE_SIZE / 4) {
+        if (_cleanupActionQueue.size() < DEFAULT_QUEUE_SIZE / 4 && _hotPages.size() < DEFAULT_HOT_PAGE_LIMIT / 4) {
             return super.getPollInterval();
         }
         return 0;
@@ -163,14 +297,64 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
             _lastPruneObsoleteTransactions = now;
         }
 
-        final List<CleanupAction> workList = new ArrayList<>(WORKLIST_LENGTH);
-        _cleanupActionQueue.drainTo(workList, WORKLIST_LENGTH);
-        Collections.sort(workList);
+        /*
+         * One thread per BACKLOG_PER_THREAD pending actions, each taking up
+         * to WORKLIST_LENGTH of them in this cycle.
+         */
+        final long backlog = getEnqueuedCount();
+        final int threads = (int) Math.max(1, Math.min(_maximumThreadCount, backlog / BACKLOG_PER_THREAD));
+        final int limit = WORKLIST_LENGTH * threads;
+        final List<CleanupAction> workList = new ArrayList<>(Math.min(limit, (int) backlog));
+
+        if (!_hotPages.isEmpty()) {
+            final List<CleanupPruneAction> hot = new ArrayList<>(_hotPages.keySet());
+            Collections.sort(hot, LONGEST_CHAIN_FIRST);
+            for (final CleanupPruneAction action : hot) {
+                if (workList.size() >= limit) {
+                    break;
+                }
+                if (_hotPages.remove(action, action)) {
+                    workList.add(action);
+                }
+            }
+        }
+        final int hotCount = workList.size();
+        _cleanupActionQueue.drainTo(workList, limit - hotCount);
+        Collections.sort(workList.subList(hotCount, workList.size()));
+
+        if (threads == 1 || workList.size() <= WORKLIST_LENGTH) {
+            _threadCount = 1;
+            perform(workList);
+        } else {
+            _threadCount = threads;
+            final int partition = (workList.size() + threads - 1) / threads;
+            final List<Future<?>> futures = new ArrayList<>(threads - 1);
+            final ExecutorService workers = workers();
+            for (int from = partition; from < workList.size(); from += partition) {
+                final List<CleanupAction> part = workList.subList(from, Math.min(workList.size(), from + partition));
+                futures.add(workers.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        perform(part);
+                    }
+                }));
+            }
+            perform(workList.subList(0, partition));
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
 
+    private void perform(final List<CleanupAction> workList) {
         for (final CleanupAction action : workList) {
             try {
                 action.performAction(_persistit, null);
                 _performed.incrementAndGet();
+                if (action instanceof CleanupTreePage) {
+                    final long lag = System.nanoTime() - ((CleanupTreePage) action)._enqueuedAt;
+                    _pruningLagHistogram.record(lag / 1_000_000L);
+                }
             } catch (final PersistitException e) {
                 lastException(e);
                 _persistit.getAlertMonitor().post(
@@ -181,9 +365,38 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
         }
     }
 
+    private synchronized ExecutorService workers() {
+        final int threads = _maximumThreadCount - 1;
+        if (_workers == null || _workerCount != threads) {
+            if (_workers != null) {
+                _workers.shutdown();
+            }
+            _workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger _counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "CLEANUP_WORKER_" + _counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            _workerCount = threads;
+        }
+        return _workers;
+    }
+
+    private synchronized void shutdownWorkers() {
+        if (_workers != null) {
+            _workers.shutdownNow();
+            _workers = null;
+        }
+    }
+
     @Override
     public synchronized void clear() {
         _cleanupActionQueue.clear();
+        _hotPages.clear();
     }
 
     @Override
@@ -205,6 +418,7 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
         final int _treeHandle;
         final long _page;
+        final long _enqueuedAt = System.nanoTime();
 
         protected CleanupTreePage(final int treeHandle, final long page) {
             _treeHandle = treeHandle;
@@ -282,8 +496,24 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
 
     static class CleanupPruneAction extends CleanupTreePage {
 
+        /**
+         * Length of the longest version chain reported on the page
+         */
+        volatile int _versions;
+
         CleanupPruneAction(final int treeHandle, final long page) {
+            this(treeHandle, page, 0);
+        }
+
+        CleanupPruneAction(final int treeHandle, final long page, final int versions) {
             super(treeHandle, page);
+            _versions = versions;
+        }
+
+        void raiseVersions(final int versions) {
+            if (versions > _versions) {
+                _versions = versions;
+            }
         }
 
         @Override
@@ -314,4 +544,36 @@ class CleanupManager extends IOTaskRunnable implements CleanupManagerMXBean {
         }
     }
 
+    /**
+     * Counts of recorded values in power-of-two ranges: bucket 0 counts zero,
+     * and bucket <i>i</i> counts values from 2<sup><i>i</i>-1</sup> to
+     * 2<sup><i>i</i></sup>-1. The last bucket also counts everything larger.
+     * Buckets are <code>LongAdder</code>s so that readers on many threads can
+     * record without contending on one counter.
+     */
+    static class Log2Histogram {
+
+        private final LongAdder[] _buckets;
+
+        Log2Histogram(final int size) {
+            _buckets = new LongAdder[size];
+            for (int i = 0; i < size; i++) {
+                _buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(final long value) {
+            final int bucket = value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+            _buckets[Math.min(bucket, _buckets.length - 1)].increment();
+        }
+
+        long[] snapshot() {
+            final long[] counts = new long[_buckets.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = _buckets[i].sum();
+            }
+            return counts;
+        }
+    }
+
 }
@@ -0,0 +1,567 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import com.persistit.PersistitMap.PersistitMapException;
+import com.persistit.exception.PersistitException;
+import com.persistit.util.Util;
+
+/**
+ * <p>
+ * A <code>java.util.concurrent.ConcurrentMap</code> backed by a Persistit
+ * tree that may be shared by any number of threads. Where {@link PersistitMap}
+ * synchronizes every method on a single {@link Exchange}, this class gives
+ * each thread its own <code>Exchange</code>, created on first use from the
+ * one supplied to the constructor and kept in a <code>ThreadLocal</code>.
+ * Retrievals take no lock at all. Updates lock one of a fixed set of stripes
+ * chosen by the hash of the encoded key, so that the read-modify-write
+ * operations of <code>ConcurrentMap</code> - {@link #putIfAbsent},
+ * {@link #replace(Object, Object, Object)} and so on - are atomic with respect
+ * to other updates made through this map while updates of different keys
+ * proceed in parallel. Updates made to the same tree by other means are not
+ * serialized against the stripes.
+ * </p>
+ * <p>
+ * {@link #putAll(Map)} and {@link #getAll(Collection)} encode the keys of a
+ * batch and process them in key order. Successive keys then usually fall on
+ * the leaf page the thread's <code>Exchange</code> visited last, which it can
+ * reuse without descending the tree again.
+ * </p>
+ * <p>
+ * As with <code>ConcurrentHashMap</code>, neither keys nor values may be
+ * <code>null</code>, iterators are weakly consistent and never throw
+ * <code>ConcurrentModificationException</code>, and {@link #size()} and
+ * {@link #clear()} are not atomic. <code>size()</code> counts the records in
+ * the tree on each call. Like <code>PersistitMap</code>, this class throws
+ * any {@link PersistitException} wrapped in a
+ * {@link PersistitMap.PersistitMapException}.
+ * </p>
+ * <p>
+ * A thread's <code>Exchange</code> lives as long as the thread does, and
+ * through it the <code>Persistit</code> instance remains reachable even after
+ * the map is discarded. A long-lived thread that has finished with a map
+ * should call {@link #releaseExchange()}.
+ * </p>
+ *
+ * @param <K>
+ *            the type of keys
+ * @param <V>
+ *            the type of values
+ */
+public class ConcurrentPersistitMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    /**
+     * Default number of lock stripes
+     */
+    public final static int DEFAULT_STRIPE_COUNT = 64;
+
+    private final static int MAX_STRIPE_COUNT = 65536;
+
+    private final Exchange _prototype;
+
+    private final Object[] _stripes;
+
+    private final ThreadLocal<Exchange> _exchangeThreadLocal = new ThreadLocal<Exchange>() {
+        @Override
+        public Exchange initialValue() {
+            return new Exchange(_prototype);
+        }
+    };
+
+    private transient volatile Set<Map.Entry<K, V>> _entrySet;
+
+    /**
+     * Construct a <code>ConcurrentPersistitMap</code> over a particular
+     * Exchange with {@value #DEFAULT_STRIPE_COUNT} lock stripes.
+     *
+     * @param ex
+     *            A <code>Exchange</code> that serves as the parent of the Map's
+     *            keys. This constructor makes a copy of the
+     *            <code>Exchange</code>. The original Exchange is unchanged, and
+     *            may be reused by the caller.
+     */
+    public ConcurrentPersistitMap(final Exchange ex) {
+        this(ex, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Construct a <code>ConcurrentPersistitMap</code> over a particular
+     * Exchange.
+     *
+     * @param ex
+     *            A <code>Exchange</code> that serves as the parent of the Map's
+     *            keys. This constructor makes a copy of the
+     *            <code>Exchange</code>. The original Exchange is unchanged, and
+     *            may be reused by the caller.
+     * @param stripeCount
+     *            Number of locks among which updates are distributed
+     */
+    public ConcurrentPersistitMap(final Exchange ex, final int stripeCount) {
+        Util.rangeCheck(stripeCount, 1, MAX_STRIPE_COUNT);
+        _prototype = new Exchange(ex);
+        _prototype.append(Key.BEFORE);
+        _stripes = new Object[stripeCount];
+        for (int index = 0; index < stripeCount; index++) {
+            _stripes[index] = new Object();
+        }
+    }
+
+    /**
+     * @return the number of lock stripes
+     */
+    public int getStripeCount() {
+        return _stripes.length;
+    }
+
+    /**
+     * Discard the <code>Exchange</code> belonging to the calling thread. The
+     * thread may continue to use the map; a new <code>Exchange</code> is
+     * created on its next operation.
+     */
+    public void releaseExchange() {
+        _exchangeThreadLocal.remove();
+    }
+
+    /**
+     * @return the <code>Exchange</code> belonging to the current thread
+     */
+    private Exchange exchange() {
+        return _exchangeThreadLocal.get();
+    }
+
+    private Exchange exchange(final Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        final Exchange ex = exchange();
+        ex.to(key);
+        return ex;
+    }
+
+    private Object stripe(final Key key) {
+        final int hash = key.hashCode();
+        return _stripes[(hash ^ (hash >>> 16)) % _stripes.length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(final Exchange ex) {
+        return ex.getValue().isDefined() ? (V) ex.getValue().get() : null;
+    }
+
+    private static void checkValue(final Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+    }
+
+    @Override
+    public V get(final Object key) {
+        final Exchange ex = exchange(key);
+        try {
+            ex.fetch();
+            return value(ex);
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        final Exchange ex = exchange(key);
+        try {
+            return ex.isValueDefined();
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        checkValue(value);
+        final Exchange ex = exchange(key);
+        try {
+            synchronized (stripe(ex.getKey())) {
+                ex.getValue().put(value);
+                ex.fetchAndStore();
+                return value(ex);
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        checkValue(value);
+        final Exchange ex = exchange(key);
+        try {
+            synchronized (stripe(ex.getKey())) {
+                ex.fetch();
+                if (ex.getValue().isDefined()) {
+                    return value(ex);
+                }
+                ex.getValue().put(value);
+                ex.store();
+                return null;
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final Exchange ex = exchange(key);
+        try {
+            synchronized (stripe(ex.getKey())) {
+                if (ex.fetchAndRemove()) {
+                    return value(ex);
+                }
+                return null;
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        if (value == null) {
+            return false;
+        }
+        final Exchange ex = exchange(key);
+        try {
+            synchronized (stripe(ex.getKey())) {
+                ex.fetch();
+                if (ex.getValue().isDefined() && value.equals(value(ex))) {
+                    return ex.remove();
+                }
+                return false;
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public V replace(final K key, final V value) {
+        checkValue(value);
+        final Exchange ex = exchange(key);
+        try {
+            synchronized (stripe(ex.getKey())) {
+                ex.fetch();
+                if (!ex.getValue().isDefined()) {
+                    return null;
+                }
+                final V result = value(ex);
+                ex.getValue().put(value);
+                ex.store();
+                return result;
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public boolean replace(final K key, final V oldValue, final V newValue) {
+        checkValue(oldValue);
+        checkValue(newValue);
+        final Exchange ex = exchange(key);
+        try {
+            synchronized (stripe(ex.getKey())) {
+                ex.fetch();
+                if (!ex.getValue().isDefined() || !oldValue.equals(value(ex))) {
+                    return false;
+                }
+                ex.getValue().put(newValue);
+                ex.store();
+                return true;
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    /**
+     * Store every mapping in the supplied map. The keys are encoded and sorted
+     * first so that records are stored in key order. The mappings are stored
+     * individually; the batch as a whole is not atomic.
+     *
+     * @param map
+     *            mappings to be stored in this map
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final List<Item<K, V>> items = new ArrayList<Item<K, V>>(map.size());
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            checkValue(entry.getValue());
+            items.add(new Item<K, V>(encode(entry.getKey()), entry.getKey(), entry.getValue()));
+        }
+        Collections.sort(items);
+        final Exchange ex = exchange();
+        try {
+            for (final Item<K, V> item : items) {
+                item._encoded.copyTo(ex.getKey());
+                synchronized (stripe(ex.getKey())) {
+                    ex.getValue().put(item._value);
+                    ex.store();
+                }
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    /**
+     * Fetch the values of a collection of keys. The keys are encoded and
+     * sorted first so that records are fetched in key order.
+     *
+     * @param keys
+     *            the keys to look up
+     * @return a map, in key order, from each of the supplied keys that is
+     *         present in this map to its value
+     */
+    public Map<K, V> getAll(final Collection<? extends K> keys) {
+        final List<Item<K, V>> items = new ArrayList<Item<K, V>>(keys.size());
+        for (final K key : keys) {
+            items.add(new Item<K, V>(encode(key), key, null));
+        }
+        Collections.sort(items);
+        final Map<K, V> result = new LinkedHashMap<K, V>();
+        final Exchange ex = exchange();
+        try {
+            for (final Item<K, V> item : items) {
+                item._encoded.copyTo(ex.getKey());
+                ex.fetch();
+                if (ex.getValue().isDefined()) {
+                    result.put(item._key, value(ex));
+                }
+            }
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+        return result;
+    }
+
+    private Key encode(final Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        final Key encoded = new Key(_prototype.getKey());
+        encoded.to(key);
+        return encoded;
+    }
+
+    /**
+     * Count the records in this map. This method traverses every key in the
+     * map.
+     *
+     * @return the number of records
+     */
+    @Override
+    public int size() {
+        final Exchange ex = exchange();
+        ex.to(Key.BEFORE);
+        try {
+            int size = 0;
+            while (ex.traverse(Key.GT, false, 0)) {
+                size++;
+            }
+            return size;
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final Exchange ex = exchange();
+        ex.to(Key.BEFORE);
+        try {
+            return !ex.traverse(Key.GT, false, 0);
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public void clear() {
+        final Exchange ex = exchange();
+        ex.to(Key.BEFORE);
+        final Key key = new Key(ex.getKey());
+        key.to(Key.AFTER);
+        try {
+            ex.removeKeyRange(ex.getKey(), key);
+        } catch (final PersistitException de) {
+            throw new PersistitMapException(de);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (_entrySet == null) {
+            _entrySet = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return ConcurrentPersistitMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return ConcurrentPersistitMap.this.isEmpty();
+                }
+
+                @Override
+                public boolean contains(final Object o) {
+                    if (!(o instanceof Map.Entry)) {
+                        return false;
+                    }
+                    final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                    final Object value = get(entry.getKey());
+                    return value != null && value.equals(entry.getValue());
+                }
+
+                @Override
+                public boolean remove(final Object o) {
+                    if (!(o instanceof Map.Entry)) {
+                        return false;
+                    }
+                    final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                    return ConcurrentPersistitMap.this.remove(entry.getKey(), entry.getValue());
+                }
+
+                @Override
+                public void clear() {
+                    ConcurrentPersistitMap.this.clear();
+                }
+            };
+        }
+        return _entrySet;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentPersistitMap(" + _prototype + ")";
+    }
+
+    /**
+     * A key with its encoded form, and the value to store for it, ordered by
+     * the encoded key.
+     */
+    private static class Item<K, V> implements Comparable<Item<K, V>> {
+        private final Key _encoded;
+        private final K _key;
+        private final V _value;
+
+        private Item(final Key encoded, final K key, final V value) {
+            _encoded = encoded;
+            _key = key;
+            _value = value;
+        }
+
+        @Override
+        public int compareTo(final Item<K, V> item) {
+            return _encoded.compareTo(item._encoded);
+        }
+    }
+
+    /**
+     * Map entry returned by the iterators. Setting its value stores the new
+     * value in the map.
+     */
+    private class Entry extends AbstractMap.SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private Entry(final K key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Weakly consistent iterator over the records of the map in key order. Each
+     * iterator has its own <code>Exchange</code> and may be used by only one
+     * thread at a time.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final Exchange _iteratorExchange = new Exchange(_prototype);
+        private Entry _next;
+        private Entry _last;
+        private boolean _done;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            if (_next == null && !_done) {
+                try {
+                    if (_iteratorExchange.next()) {
+                        final K key = (K) _iteratorExchange.getKey().indexTo(-1).decode();
+                        _next = new Entry(key, value(_iteratorExchange));
+                    } else {
+                        _done = true;
+                    }
+                } catch (final PersistitException de) {
+                    throw new PersistitMapException(de);
+                }
+            }
+            return _next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _last = _next;
+            _next = null;
+            return _last;
+        }
+
+        @Override
+        public void remove() {
+            if (_last == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentPersistitMap.this.remove(_last.getKey());
+            _last = null;
+        }
+    }
+}
@@ -46,6 +46,7 @@ import com.persistit.exception.PersistitException;
 import com.persistit.exception.PersistitIOException;
 import com.persistit.exception.PropertiesNotFoundException;
 import com.persistit.logging.DefaultPersistitLogger;
+import com.persistit.mxbeans.JournalManagerMXBean;
 import com.persistit.policy.JoinPolicy;
 import com.persistit.policy.SplitPolicy;
 import com.persistit.util.Util;
@@ -141,6 +142,30 @@ public class Configuration {
      * specified memory allocation, including overhead for FastIndex elements.
      */
     public final static String BUFFER_MEM_PROPERTY_NAME = "buffer.memory.";
+    /**
+     * Property name prefix for specifying an off-heap page cache. The full
+     * property name should be one of "1024", "2048", "4096", "8192" or "16384"
+     * appended to this string, e.g., "buffer.offheap.16384". The value is a
+     * memory size such as "20G". Pages evicted from the {@link BufferPool} of
+     * the same size are retained in direct memory outside of the Java heap and
+     * are copied back into the pool on demand, avoiding a disk read.
+     */
+    public final static String BUFFER_OFFHEAP_PROPERTY_NAME = "buffer.offheap.";
+    /**
+     * Property name for specifying a directory in which memory-mapped files
+     * back the off-heap page caches. If not specified, off-heap page caches
+     * are allocated as direct memory.
+     */
+    public final static String OFFHEAP_DIRECTORY_PROPERTY_NAME = "offheapdir";
+    /**
+     * Property name prefix for selecting the page eviction policy of a
+     * {@link BufferPool}. The full property name should be one of "1024",
+     * "2048", "4096", "8192" or "16384" appended to this string, e.g.,
+     * "buffer.policy.16384". The value is "CLOCK" (the default) or "2Q". The
+     * 2Q policy keeps frequently used pages resident while large range scans
+     * pass through the pool.
+     */
+    public final static String BUFFER_POLICY_PROPERTY_NAME = "buffer.policy.";
     /**
      * Property name prefix for specifying Volumes. The full property name
      * should be a unique ordinal number appended to this string, e.g.,
@@ -231,6 +256,13 @@ public class Configuration {
      */
     public final static String CONSTRUCTOR_OVERRIDE_PROPERTY_NAME = "constructorOverride";
 
+    /**
+     * Property name to specify whether DefaultCoderManager should create a
+     * {@link MethodHandleValueCoder} rather than a {@link DefaultValueCoder}
+     * for classes that have no registered ValueCoder.
+     */
+    public final static String METHOD_HANDLE_CODERS_PROPERTY_NAME = "methodHandleCoders";
+
     /**
      * Property name for specifying whether Persistit should attempt to launch a
      * diagnostic utility for viewing internal state.
@@ -307,6 +339,30 @@ public class Configuration {
      */
     public final static String JOIN_POLICY_PROPERTY_NAME = "joinpolicy";
 
+    /**
+     * Property name to specify the number of leaf pages read ahead of a
+     * sequential traversal.
+     */
+    public final static String READ_AHEAD_DEPTH_PROPERTY_NAME = "readahead";
+
+    /**
+     * Property name to specify the number of threads that replay recovered
+     * transactions during startup.
+     */
+    public final static String RECOVERY_THREADS_PROPERTY_NAME = "recoverythreads";
+
+    /**
+     * Property name to specify the number of threads that write pages copied
+     * from the journal to their volumes.
+     */
+    public final static String COPIER_THREADS_PROPERTY_NAME = "copierthreads";
+
+    /**
+     * Property name to specify the maximum rate in MBytes/second at which
+     * pages are copied from the journal to their volumes.
+     */
+    public final static String COPIER_BUDGET_PROPERTY_NAME = "copierbudget";
+
     private final static SplitPolicy DEFAULT_SPLIT_POLICY = SplitPolicy.PACK_BIAS;
     private final static JoinPolicy DEFAULT_JOIN_POLICY = JoinPolicy.EVEN_BIAS;
     private final static CommitPolicy DEFAULT_TRANSACTION_COMMIT_POLICY = CommitPolicy.SOFT;
@@ -379,6 +435,8 @@ public class Configuration {
         private long maximumMemory;
         private long reservedMemory;
         private float fraction;
+        private long offHeapMemory;
+        private String evictionPolicy;
 
         private void reset() {
             minimumCount = 0;
@@ -387,6 +445,8 @@ public class Configuration {
             maximumMemory = Long.MAX_VALUE;
             reservedMemory = 0;
             fraction = 1.0f;
+            offHeapMemory = 0;
+            evictionPolicy = null;
         }
 
         private BufferPoolConfiguration(final int size) {
@@ -504,9 +564,57 @@ public class Configuration {
             this.fraction = fraction;
         }
 
+        /**
+         * @return the offHeapMemory
+         */
+        public long getOffHeapMemory() {
+            return offHeapMemory;
+        }
+
+        /**
+         * Set the size of the off-heap page cache that backs the buffer pool.
+         * This memory is allocated in addition to, and is not constrained by,
+         * the heap-based memory parameters. Direct allocations are limited by
+         * the JVM's <code>-XX:MaxDirectMemorySize</code> setting; use
+         * {@link Configuration#setOffHeapDirectory(String)} to allocate
+         * memory-mapped files instead. A value of zero disables the off-heap
+         * page cache.
+         * 
+         * @param offHeapMemory
+         *            the offHeapMemory to set
+         */
+        public void setOffHeapMemory(final long offHeapMemory) {
+            Util.rangeCheck(offHeapMemory, 0, Long.MAX_VALUE);
+            this.offHeapMemory = offHeapMemory;
+        }
+
+        /**
+         * @return the name of the eviction policy, or <code>null</code> for
+         *         the default
+         */
+        public String getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        /**
+         * Select the policy by which the buffer pool chooses pages to evict:
+         * "CLOCK" or "2Q". See {@link Configuration#BUFFER_POLICY_PROPERTY_NAME}.
+         * 
+         * @param evictionPolicy
+         *            the policy name, case-insensitive, or <code>null</code>
+         *            for the default
+         * @throws IllegalArgumentException
+         *             if the name is not recognized
+         */
+        public void setEvictionPolicy(final String evictionPolicy) {
+            this.evictionPolicy = evictionPolicy == null ? null : EvictionPolicy.canonicalName(evictionPolicy);
+        }
+
         private final static String SIMPLE_COUNT_FORMAT = "count=%d";
         private final static String MIN_MAX_COUNT_FORMAT = "minCount=%d,maxCount=%d";
         private final static String MIN_MAX_MEMORY_FORMAT = "minMem=%s,maxMem=%s,reserved=%s,fraction=%s";
+        private final static String OFF_HEAP_FORMAT = ",offHeap=%s";
+        private final static String POLICY_FORMAT = ",policy=%s";
         private final static Pattern SIMPLE_COUNT_PATTERN = Pattern.compile("count=([0-9]+[KMGT]?)",
                 Pattern.CASE_INSENSITIVE);
         private final static Pattern MIN_MAX_COUNT_PATTERN = Pattern.compile(
@@ -514,6 +622,10 @@ public class Configuration {
         private final static Pattern MIN_MAX_MEMORY_PATTERN = Pattern.compile(
                 "minMem=([0-9]+[KMGT]?),maxMem=([0-9]+[KMGT]?),reserved=([0-9]+[KMGT]?),fraction=([0-9\\.]+)",
                 Pattern.CASE_INSENSITIVE);
+        private final static Pattern OFF_HEAP_PATTERN = Pattern.compile("(.+),offHeap=([0-9]+[KMGT]?)",
+                Pattern.CASE_INSENSITIVE);
+        private final static Pattern POLICY_PATTERN = Pattern.compile("(.+),policy=([A-Za-z0-9]+)",
+                Pattern.CASE_INSENSITIVE);
 
         /**
          * Compute the buffer count determined by the constraints of this
@@ -558,6 +670,12 @@ public class Configuration {
                 sb.append(String.format(MIN_MAX_MEMORY_FORMAT, displayableLongValue(minimumMemory),
                         displayableLongValue(maximumMemory), displayableLongValue(reservedMemory), fraction));
             }
+            if (offHeapMemory != 0) {
+                sb.append(String.format(OFF_HEAP_FORMAT, displayableLongValue(offHeapMemory)));
+            }
+            if (evictionPolicy != null) {
+                sb.append(String.format(POLICY_FORMAT, evictionPolicy));
+            }
             return sb.toString();
         }
 
@@ -571,13 +689,24 @@ public class Configuration {
          * 
          * where propertyNames are <code>count</code>, <code>minCount</code>,
          * <code>maxCount</code>, <code>minMemory</code>, <code>maxMemory</code>
-         * , <code>reserved</code> or <code>fraction</code>
+         * , <code>reserved</code> or <code>fraction</code>, optionally
+         * followed by <code>offHeap</code> and <code>policy</code>
          */
         public void parse(final String string) {
             final String[] terms = string.split(",", 2);
             if (terms.length > 1) {
                 checkBufferSize((int) parseLongProperty(string, terms[0]), string);
                 Matcher matcher;
+                matcher = POLICY_PATTERN.matcher(terms[1]);
+                if (matcher.matches()) {
+                    setEvictionPolicy(matcher.group(2));
+                    terms[1] = matcher.group(1);
+                }
+                matcher = OFF_HEAP_PATTERN.matcher(terms[1]);
+                if (matcher.matches()) {
+                    setOffHeapMemory(parseLongProperty(string, matcher.group(2)));
+                    terms[1] = matcher.group(1);
+                }
                 matcher = SIMPLE_COUNT_PATTERN.matcher(terms[1]);
                 if (matcher.matches()) {
                     setCount((int) parseLongProperty(string, matcher.group(1)));
@@ -706,6 +835,7 @@ public class Configuration {
     private SplitPolicy splitPolicy = DEFAULT_SPLIT_POLICY;
     private String serialOverride;
     private boolean constructorOverride;
+    private boolean methodHandleCoders;
     private boolean showGUI;
     private String logging;
     private String logFile;
@@ -716,8 +846,13 @@ public class Configuration {
     private boolean appendOnly;
     private boolean bufferInventoryEnabled;
     private boolean bufferPreloadEnabled;
+    private int readAheadDepth;
+    private int recoveryThreads = 1;
+    private int copierThreads = JournalManagerMXBean.DEFAULT_COPIER_THREADS;
+    private int copierBudget;
     private boolean ignoreMissingVolumes;
     private String tmpVolDir;
+    private String offHeapDirectory;
     private int tmpVolPageSize;
     private long tmpVolMaxSize;
     private boolean useOldVSpec;
@@ -798,6 +933,7 @@ public class Configuration {
         setAppendOnly(getBooleanProperty(APPEND_ONLY_PROPERTY_NAME, false));
         setCommitPolicy(getProperty(COMMIT_POLICY_PROPERTY_NAME));
         setConstructorOverride(getBooleanProperty(CONSTRUCTOR_OVERRIDE_PROPERTY_NAME, false));
+        setMethodHandleCoders(getBooleanProperty(METHOD_HANDLE_CODERS_PROPERTY_NAME, false));
         setIgnoreMissingVolumes(getBooleanProperty(IGNORE_MISSING_VOLUMES_PROPERTY, false));
         setJmxEnabled(getBooleanProperty(ENABLE_JMX_PROPERTY_NAME, true));
         setJoinPolicy(getProperty(JOIN_POLICY_PROPERTY_NAME));
@@ -806,6 +942,7 @@ public class Configuration {
         setLogFile(getProperty(LOGFILE_PROPERTY_NAME));
         setLogging(getProperty(LOGGING_PROPERTIES_NAME));
         setTmpVolDir(getProperty(TEMPORARY_VOLUME_DIR_PROPERTY_NAME));
+        setOffHeapDirectory(getProperty(OFFHEAP_DIRECTORY_PROPERTY_NAME));
         setTmpVolPageSize(getIntegerProperty(TEMPORARY_VOLUME_PAGE_SIZE_PROPERTY_NAME, 0));
         setTmpVolMaxSize(getLongProperty(TEMPORARY_VOLUME_MAX_SIZE_PROPERTY_NAME, MAXIMUM_TEMP_VOL_MAX_SIZE));
         setRmiHost(getProperty(RMI_REGISTRY_HOST_PROPERTY_NAME));
@@ -817,6 +954,11 @@ public class Configuration {
         setSysVolume(getProperty(SYSTEM_VOLUME_PROPERTY_NAME, DEFAULT_SYSTEM_VOLUME_NAME));
         setBufferInventoryEnabled(getBooleanProperty(BUFFER_INVENTORY_PROPERTY_NAME, false));
         setBufferPreloadEnabled(getBooleanProperty(BUFFER_PRELOAD_PROPERTY_NAME, false));
+        setReadAheadDepth(getIntegerProperty(READ_AHEAD_DEPTH_PROPERTY_NAME, 0));
+        setRecoveryThreads(getIntegerProperty(RECOVERY_THREADS_PROPERTY_NAME, 1));
+        setCopierThreads(getIntegerProperty(COPIER_THREADS_PROPERTY_NAME,
+                JournalManagerMXBean.DEFAULT_COPIER_THREADS));
+        setCopierBudget(getIntegerProperty(COPIER_BUDGET_PROPERTY_NAME, 0));
         setUseOldVSpec(getBooleanProperty(USE_OLD_VSPEC, false));
 
         loadPropertiesBufferSpecifications();
@@ -829,9 +971,13 @@ public class Configuration {
 
             final String countPropertyName = BUFFERS_PROPERTY_NAME + size;
             final String memPropertyName = BUFFER_MEM_PROPERTY_NAME + size;
+            final String offHeapPropertyName = BUFFER_OFFHEAP_PROPERTY_NAME + size;
+            final String policyPropertyName = BUFFER_POLICY_PROPERTY_NAME + size;
 
             final String countSpec = getProperty(countPropertyName);
             final String memSpec = getProperty(memPropertyName);
+            final String offHeapSpec = getProperty(offHeapPropertyName);
+            final String policySpec = getProperty(policyPropertyName);
             int count = 0;
             final BufferPoolConfiguration bpc = bufferPoolMap.get(size);
 
@@ -850,6 +996,12 @@ public class Configuration {
             } else if (count == 0) {
                 bpc.reset();
             }
+            if (offHeapSpec != null) {
+                bpc.setOffHeapMemory(parseLongProperty(offHeapPropertyName, offHeapSpec));
+            }
+            if (policySpec != null) {
+                bpc.setEvictionPolicy(policySpec);
+            }
         }
     }
 
@@ -872,7 +1024,9 @@ public class Configuration {
     }
 
     final static int bufferSizeFromPropertyName(final String propertyName) {
-        if (propertyName.startsWith(BUFFERS_PROPERTY_NAME) || propertyName.startsWith(BUFFER_MEM_PROPERTY_NAME)) {
+        if (propertyName.startsWith(BUFFERS_PROPERTY_NAME) || propertyName.startsWith(BUFFER_MEM_PROPERTY_NAME)
+                || propertyName.startsWith(BUFFER_OFFHEAP_PROPERTY_NAME)
+                || propertyName.startsWith(BUFFER_POLICY_PROPERTY_NAME)) {
             final String[] s = propertyName.split("\\.");
             try {
                 final int size = Integer.parseInt(s[2]);
@@ -1500,6 +1654,35 @@ public class Configuration {
         this.tmpVolDir = tmpVolDir;
     }
 
+    /**
+     * Return the value defined by {@link #setOffHeapDirectory}
+     * 
+     * @return the off-heap page cache directory
+     */
+    public String getOffHeapDirectory() {
+        return offHeapDirectory;
+    }
+
+    /**
+     * <p>
+     * Set the name of a directory in which memory-mapped files are created to
+     * back the off-heap page caches configured by
+     * {@link BufferPoolConfiguration#setOffHeapMemory(long)}. The files are
+     * deleted when Persistit closes. Placing this directory on a RAM-backed
+     * file system such as <code>/dev/shm</code> avoids both the Java heap and
+     * the JVM's direct memory limit.
+     * </p>
+     * Default value is <code>null</code> meaning the off-heap page caches are
+     * allocated as direct memory<br />
+     * Property name is {@value #OFFHEAP_DIRECTORY_PROPERTY_NAME}
+     * 
+     * @param offHeapDirectory
+     *            the off-heap page cache directory to set
+     */
+    public void setOffHeapDirectory(final String offHeapDirectory) {
+        this.offHeapDirectory = offHeapDirectory;
+    }
+
     /**
      * Return the value defined by {@link #setTmpVolPageSize}
      * 
@@ -1761,6 +1944,34 @@ public class Configuration {
         this.constructorOverride = constructorOverride;
     }
 
+    /**
+     * Return the value defined by {@link #setMethodHandleCoders}.
+     * 
+     * @return whether method handle coders are used
+     */
+    public boolean isMethodHandleCoders() {
+        return methodHandleCoders;
+    }
+
+    /**
+     * <p>
+     * Control whether the {@link DefaultCoderManager} creates a
+     * {@link MethodHandleValueCoder} rather than a {@link DefaultValueCoder}
+     * for each serializable class that has no registered
+     * <code>ValueCoder</code>. Both coders produce the same serialized form.
+     * </p>
+     * <p>
+     * Default value is <code>false</code><br />
+     * Property name is {@value #METHOD_HANDLE_CODERS_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param methodHandleCoders
+     *            <code>true</code> to use method handle coders
+     */
+    public void setMethodHandleCoders(final boolean methodHandleCoders) {
+        this.methodHandleCoders = methodHandleCoders;
+    }
+
     /**
      * Return the value defined by {@link #setShowGUI}
      * 
@@ -2037,6 +2248,134 @@ public class Configuration {
         this.bufferPreloadEnabled = bufferPreloadEnabled;
     }
 
+    /**
+     * Return the value defined by {@link #setReadAheadDepth(int)}
+     * 
+     * @return the number of leaf pages read ahead of a sequential traversal
+     */
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
+
+    /**
+     * <p>
+     * Set the number of leaf pages Persistit reads in the background ahead of
+     * an {@link Exchange} that is traversing a tree in ascending key order.
+     * Read-ahead begins once the Exchange has stepped to the right sibling of
+     * a data page twice in succession. A value of zero disables read-ahead.
+     * Use {@link com.persistit.mxbeans.ReadAheadManagerMXBean#setDepth(int)}
+     * to change the depth while the system is running.
+     * </p>
+     * <p>
+     * Default value is 0<br />
+     * Property name is {@value #READ_AHEAD_DEPTH_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param readAheadDepth
+     *            the number of pages, between 0 and
+     *            {@value com.persistit.ReadAheadManager#MAXIMUM_DEPTH}
+     */
+    public void setReadAheadDepth(final int readAheadDepth) {
+        Util.rangeCheck(readAheadDepth, 0, ReadAheadManager.MAXIMUM_DEPTH);
+        this.readAheadDepth = readAheadDepth;
+    }
+
+    /**
+     * Return the value defined by {@link #setRecoveryThreads(int)}
+     * 
+     * @return the number of threads that replay recovered transactions
+     */
+    public int getRecoveryThreads() {
+        return recoveryThreads;
+    }
+
+    /**
+     * <p>
+     * Set the number of threads that replay committed transactions recovered
+     * from the journal during startup. With a value greater than one,
+     * recovered transactions are partitioned so that transactions touching a
+     * common tree fall in the same partition; partitions are replayed
+     * concurrently, each in commit order. A value of one replays every
+     * transaction serially on the thread that initializes Persistit.
+     * </p>
+     * <p>
+     * Default value is 1<br />
+     * Property name is {@value #RECOVERY_THREADS_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param recoveryThreads
+     *            the number of threads, between 1 and
+     *            {@value com.persistit.RecoveryManager#MAXIMUM_RECOVERY_THREADS}
+     */
+    public void setRecoveryThreads(final int recoveryThreads) {
+        Util.rangeCheck(recoveryThreads, 1, RecoveryManager.MAXIMUM_RECOVERY_THREADS);
+        this.recoveryThreads = recoveryThreads;
+    }
+
+    /**
+     * Return the value defined by {@link #setCopierThreads(int)}
+     * 
+     * @return the number of threads that write copied pages to volumes
+     */
+    public int getCopierThreads() {
+        return copierThreads;
+    }
+
+    /**
+     * <p>
+     * Set the number of threads that write pages copied from the journal back
+     * to their volumes. Each cycle of the JOURNAL_COPIER sorts the pages it
+     * has read by volume and page address and writes each run of consecutive
+     * pages with one gather write. With a value greater than one, the runs of
+     * different volumes are written concurrently, one thread per volume. Use
+     * {@link com.persistit.mxbeans.JournalManagerMXBean#setCopierThreads(int)}
+     * to change the value while the system is running.
+     * </p>
+     * <p>
+     * Default value is 1<br />
+     * Property name is {@value #COPIER_THREADS_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param copierThreads
+     *            the number of threads, between 1 and
+     *            {@value com.persistit.mxbeans.JournalManagerMXBean#MAXIMUM_COPIER_THREADS}
+     */
+    public void setCopierThreads(final int copierThreads) {
+        Util.rangeCheck(copierThreads, 1, JournalManagerMXBean.MAXIMUM_COPIER_THREADS);
+        this.copierThreads = copierThreads;
+    }
+
+    /**
+     * Return the value defined by {@link #setCopierBudget(int)}
+     * 
+     * @return the copier I/O budget in MBytes/second
+     */
+    public int getCopierBudget() {
+        return copierBudget;
+    }
+
+    /**
+     * <p>
+     * Set the maximum rate in MBytes/second at which pages are copied from
+     * the journal back to their volumes, or zero for no limit. A budget keeps
+     * copying from competing with foreground I/O. It is ignored while the
+     * number of journal files is high enough to risk throttling commits, so
+     * it never causes the journal to grow without bound.
+     * </p>
+     * <p>
+     * Default value is 0<br />
+     * Property name is {@value #COPIER_BUDGET_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param copierBudget
+     *            the budget, between 0 and
+     *            {@value com.persistit.mxbeans.JournalManagerMXBean#MAXIMUM_COPIER_BUDGET}
+     */
+    public void setCopierBudget(final int copierBudget) {
+        Util.rangeCheck(copierBudget, 0, JournalManagerMXBean.MAXIMUM_COPIER_BUDGET);
+        this.copierBudget = copierBudget;
+    }
+
     /**
      * Return the value defined by {@link #setIgnoreMissingVolumes(boolean)}
      * 
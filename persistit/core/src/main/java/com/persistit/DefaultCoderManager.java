@@ -74,6 +74,7 @@ public final class DefaultCoderManager implements CoderManager {
     private final Map<Class<?>, KeyCoder> _keyCodersByClass = new ConcurrentHashMap<Class<?>, KeyCoder>();
     private final Map<Class<?>, ValueCoder> _valueCodersByClass = new ConcurrentHashMap<Class<?>, ValueCoder>();
     private ClassSelector[] _serialOverrides = new ClassSelector[0];
+    private volatile boolean _methodHandleCoders;
 
     /**
      * Construct a new <code>DefaultCoderManager</code>, using the
@@ -89,6 +90,7 @@ public final class DefaultCoderManager implements CoderManager {
      */
     public DefaultCoderManager(final Persistit persistit) {
         this(persistit, persistit.getConfiguration().getSerialOverride());
+        _methodHandleCoders = persistit.getConfiguration().isMethodHandleCoders();
     }
 
     /**
@@ -334,7 +336,9 @@ public final class DefaultCoderManager implements CoderManager {
     /**
      * Return a <code>ValueCoder</code> for the supplied <code>Class</code>. If
      * there is none registered, implicitly create either a
-     * {@link DefaultValueCoder} or a {@link SerialValueCoder} and register it.
+     * {@link DefaultValueCoder} (or a {@link MethodHandleValueCoder} if
+     * {@link #isMethodHandleCoders()} is <code>true</code>) or a
+     * {@link SerialValueCoder} and register it.
      * 
      * @param clazz
      *            The class for which a <code>ValueCoder</code> is needed
@@ -349,6 +353,8 @@ public final class DefaultCoderManager implements CoderManager {
                 coder = new SerialValueCoder(clazz);
             } else if (ENUM_CLASS != null && ENUM_VALUE_CODER != null && ENUM_CLASS.isAssignableFrom(clazz)) {
                 coder = ENUM_VALUE_CODER;
+            } else if (_methodHandleCoders) {
+                coder = new MethodHandleValueCoder(_persistit, clazz);
             } else {
                 coder = new DefaultValueCoder(_persistit, clazz);
             }
@@ -357,6 +363,29 @@ public final class DefaultCoderManager implements CoderManager {
         return coder;
     }
 
+    /**
+     * @return whether {@link #getValueCoder(Class)} creates
+     *         {@link MethodHandleValueCoder}s
+     * @see #setMethodHandleCoders(boolean)
+     */
+    public boolean isMethodHandleCoders() {
+        return _methodHandleCoders;
+    }
+
+    /**
+     * Control whether {@link #getValueCoder(Class)} creates a
+     * {@link MethodHandleValueCoder} rather than a {@link DefaultValueCoder}
+     * for a class that has no registered <code>ValueCoder</code>. Coders that
+     * have already been created are not affected. The initial value is
+     * specified by the <code>methodHandleCoders</code> configuration property.
+     * 
+     * @param methodHandleCoders
+     *            <code>true</code> to create method handle coders
+     */
+    public void setMethodHandleCoders(final boolean methodHandleCoders) {
+        _methodHandleCoders = methodHandleCoders;
+    }
+
     /**
      * <p>
      * Returns the serialization override pattern specified by the
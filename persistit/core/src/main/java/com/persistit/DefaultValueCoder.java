@@ -1159,6 +1159,34 @@ public class DefaultValueCoder implements ValueRenderer, HandleCache {
         }
     }
 
+    /**
+     * @return <code>true</code> if instances are serialized only by writing
+     *         and reading the default fields, i.e., the class is not
+     *         <code>Externalizable</code> and defines neither
+     *         <code>writeObject</code> nor <code>readObject</code>
+     */
+    boolean isDefaultFieldsOnly() {
+        return !_externalizable && _writeObjectMethod == null && _readObjectMethod == null;
+    }
+
+    /**
+     * @return the <code>ValueRenderer</code> that writes and reads the fields
+     *         of the nearest serializable superclass, or <code>null</code> if
+     *         there is none
+     */
+    ValueRenderer getSuperClassValueRenderer() {
+        return _superClassValueRenderer;
+    }
+
+    /**
+     * @return the no-argument constructor used by {@link #newInstance()}, or
+     *         <code>null</code> if instances are constructed through the
+     *         serialization mechanism
+     */
+    Constructor<?> getNewInstanceConstructor() {
+        return _newInstanceConstructor;
+    }
+
     /**
      * Return the <code>Builder</code> that copies data values between a
      * <code>Value</code> and a client object.
@@ -0,0 +1,342 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Decides which valid pages a {@link BufferPool} may evict. The pool advances
+ * a clock hand over its buffers and offers each one to {@link #sweep(Buffer)};
+ * the policy ages the buffer and answers whether the pool should try to evict
+ * it. The pool also reports every hit and every page it admits so that a
+ * policy can track reference history.
+ * </p>
+ * <p>
+ * Two policies are available, selected per pool by name:
+ * <dl>
+ * <dt>{@value #CLOCK}</dt>
+ * <dd>The classic second-chance clock. A buffer is evicted when the hand finds
+ * it untouched. This is the default.</dd>
+ * <dt>{@value #TWO_QUEUE}</dt>
+ * <dd>A scan-resistant variant of 2Q built on the same clock hand. Newly
+ * admitted pages are on probation. A page is promoted to the protected set
+ * only if it is referenced again after the hand has passed it once, so the
+ * burst of references a range scan makes to each page does not count. The
+ * hand evicts only probationary pages; protected pages are demoted to
+ * probation only when the protected set exceeds
+ * {@value #PROTECTED_PERCENT}% of the pool. A long scan therefore recycles
+ * the probationary buffers among its own pages and leaves the protected
+ * working set in place.</dd>
+ * </dl>
+ * </p>
+ */
+abstract class EvictionPolicy {
+
+    final static String CLOCK = "CLOCK";
+
+    final static String TWO_QUEUE = "2Q";
+
+    /**
+     * Maximum percentage of a pool's buffers the 2Q policy may protect
+     */
+    final static int PROTECTED_PERCENT = 75;
+
+    private final AtomicLong _hitCounter = new AtomicLong();
+
+    private final AtomicLong _missCounter = new AtomicLong();
+
+    /**
+     * Construct the policy with the supplied name.
+     *
+     * @param name
+     *            {@value #CLOCK} or {@value #TWO_QUEUE}, case-insensitive, or
+     *            <code>null</code> for the default
+     * @param bufferCount
+     *            Number of buffers in the pool
+     * @return the policy
+     * @throws IllegalArgumentException
+     *             if the name is not recognized
+     */
+    static EvictionPolicy create(final String name, final int bufferCount) {
+        final String canonical = canonicalName(name);
+        if (TWO_QUEUE.equals(canonical)) {
+            return new TwoQueue(bufferCount);
+        }
+        return new Clock();
+    }
+
+    /**
+     * @param name
+     *            a policy name, case-insensitive, or <code>null</code>
+     * @return the canonical form of the name
+     * @throws IllegalArgumentException
+     *             if the name is not recognized
+     */
+    static String canonicalName(final String name) {
+        if (name == null || CLOCK.equalsIgnoreCase(name)) {
+            return CLOCK;
+        }
+        if (TWO_QUEUE.equalsIgnoreCase(name)) {
+            return TWO_QUEUE;
+        }
+        throw new IllegalArgumentException("Unknown eviction policy: " + name);
+    }
+
+    /**
+     * @return the name of this policy
+     */
+    abstract String getName();
+
+    /**
+     * Examine a buffer under the clock hand, aging it as the policy requires.
+     *
+     * @param buffer
+     *            the buffer, which may be claimed by another thread
+     * @return <code>true</code> if the pool should try to evict the buffer
+     */
+    abstract boolean sweep(Buffer buffer);
+
+    /**
+     * @return Number of full revolutions of the clock hand after which the
+     *         pool gives up looking for a buffer to evict
+     */
+    abstract int getSweepLimit();
+
+    /**
+     * Record a reference to a page that was found in the pool.
+     *
+     * @param buffer
+     *            the buffer, claimed by the caller
+     */
+    void hit(final Buffer buffer) {
+        _hitCounter.incrementAndGet();
+    }
+
+    /**
+     * Record that a buffer has been assigned to a page that was not in the
+     * pool.
+     *
+     * @param buffer
+     *            the buffer, on which the caller holds a writer claim
+     */
+    void admit(final Buffer buffer) {
+        _missCounter.incrementAndGet();
+    }
+
+    /**
+     * Record that a buffer no longer holds a page.
+     *
+     * @param buffer
+     *            the buffer, on which the caller holds a writer claim
+     */
+    void discard(final Buffer buffer) {
+    }
+
+    /**
+     * @return Number of references to pages found in the pool
+     */
+    long getHitCount() {
+        return _hitCounter.get();
+    }
+
+    /**
+     * @return Number of pages admitted to the pool
+     */
+    long getMissCount() {
+        return _missCounter.get();
+    }
+
+    /**
+     * @return Number of hits on pages in the protected set
+     */
+    long getProtectedHitCount() {
+        return 0;
+    }
+
+    /**
+     * @return Number of pages promoted to the protected set
+     */
+    long getPromoteCount() {
+        return 0;
+    }
+
+    /**
+     * @return Number of buffers currently in the protected set
+     */
+    int getProtectedCount() {
+        return 0;
+    }
+
+    void resetCounters() {
+        _hitCounter.set(0);
+        _missCounter.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    static final class Clock extends EvictionPolicy {
+
+        @Override
+        String getName() {
+            return CLOCK;
+        }
+
+        @Override
+        boolean sweep(final Buffer buffer) {
+            if (buffer.isTouched()) {
+                buffer.clearTouched();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        int getSweepLimit() {
+            return 2;
+        }
+    }
+
+    static final class TwoQueue extends EvictionPolicy {
+
+        private final static int NEW = 0;
+        private final static int PROBATION = 1;
+        private final static int PROTECTED = 2;
+
+        /*
+         * State of each buffer, indexed by Buffer#getIndex()
+         */
+        private final AtomicIntegerArray _states;
+
+        private final AtomicInteger _protectedCount = new AtomicInteger();
+
+        private final int _protectedLimit;
+
+        private final AtomicLong _protectedHitCounter = new AtomicLong();
+
+        private final AtomicLong _promoteCounter = new AtomicLong();
+
+        TwoQueue(final int bufferCount) {
+            _states = new AtomicIntegerArray(bufferCount);
+            _protectedLimit = (int) ((long) bufferCount * PROTECTED_PERCENT / 100);
+        }
+
+        @Override
+        String getName() {
+            return TWO_QUEUE;
+        }
+
+        @Override
+        void hit(final Buffer buffer) {
+            super.hit(buffer);
+            if (_states.get(buffer.getIndex()) == PROTECTED) {
+                _protectedHitCounter.incrementAndGet();
+            }
+            buffer.setTouched();
+        }
+
+        @Override
+        void admit(final Buffer buffer) {
+            super.admit(buffer);
+            reset(buffer);
+        }
+
+        @Override
+        void discard(final Buffer buffer) {
+            reset(buffer);
+        }
+
+        private void reset(final Buffer buffer) {
+            if (_states.getAndSet(buffer.getIndex(), NEW) == PROTECTED) {
+                _protectedCount.decrementAndGet();
+            }
+        }
+
+        @Override
+        boolean sweep(final Buffer buffer) {
+            if (!buffer.isValid()) {
+                return true;
+            }
+            final int index = buffer.getIndex();
+            final boolean touched = buffer.isTouched();
+            if (touched) {
+                buffer.clearTouched();
+            }
+            switch (_states.get(index)) {
+            case NEW:
+                /*
+                 * References made before the hand first passes are one
+                 * correlated burst; discard them.
+                 */
+                _states.compareAndSet(index, NEW, PROBATION);
+                return false;
+            case PROBATION:
+                if (!touched) {
+                    return true;
+                }
+                if (_states.compareAndSet(index, PROBATION, PROTECTED)) {
+                    _protectedCount.incrementAndGet();
+                    _promoteCounter.incrementAndGet();
+                }
+                return false;
+            default:
+                if (!touched && _protectedCount.get() > _protectedLimit
+                        && _states.compareAndSet(index, PROTECTED, PROBATION)) {
+                    _protectedCount.decrementAndGet();
+                }
+                return false;
+            }
+        }
+
+        @Override
+        int getSweepLimit() {
+            /*
+             * An unreferenced buffer becomes probationary within one
+             * revolution and is evicted on the next; allow one more for
+             * buffers that were claimed when the hand passed.
+             */
+            return 3;
+        }
+
+        @Override
+        long getProtectedHitCount() {
+            return _protectedHitCounter.get();
+        }
+
+        @Override
+        long getPromoteCount() {
+            return _promoteCounter.get();
+        }
+
+        @Override
+        int getProtectedCount() {
+            return _protectedCount.get();
+        }
+
+        @Override
+        void resetCounters() {
+            super.resetCounters();
+            _protectedHitCounter.set(0);
+            _promoteCounter.set(0);
+        }
+    }
+}
@@ -42,6 +42,7 @@ import com.persistit.util.Util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.persistit.Buffer.EXACT_MASK;
 import static com.persistit.Buffer.HEADER_SIZE;
@@ -157,6 +158,7 @@ public class Exchange implements ReadOnlyExchange {
     private int _foundLength;
     private long _foundVersion;
     private int _foundStep;
+    private int _versionCount;
     private Usage _usage;
 
     private MvvVisitor(final TransactionIndex ti, final Exchange exchange) {
@@ -193,16 +195,22 @@ public class Exchange implements ReadOnlyExchange {
       return _foundVersion != MVV.VERSION_NOT_FOUND;
     }
 
+    public int getVersionCount() {
+      return _versionCount;
+    }
+
     @Override
     public void init() {
       _foundVersion = MVV.VERSION_NOT_FOUND;
       _foundOffset = -1;
       _foundLength = -1;
       _foundStep = 0;
+      _versionCount = 0;
     }
 
     @Override
     public void sawVersion(final long version, final int offset, final int valueLength) throws PersistitException {
+      _versionCount++;
       try {
         switch (_usage) {
           case FETCH:
@@ -294,6 +302,14 @@ public class Exchange implements ReadOnlyExchange {
   private boolean _storeCausedSplit;
   private int _keysVisitedDuringTraverse;
 
+  /*
+   * Number of consecutive steps to a right sibling data page since the last
+   * search from the root, and the level-1 index page from which the
+   * ReadAheadManager reads the pages that follow.
+   */
+  private int _sequentialSteps;
+  private final AtomicLong _readAheadParent = new AtomicLong();
+
   private Object _appCache;
 
   private ReentrantResourceHolder _treeHolder;
@@ -1174,6 +1190,7 @@ public class Exchange implements ReadOnlyExchange {
     Buffer oldBuffer = null;
     int currentLevel;
     int foundAt = -1;
+    _sequentialSteps = 0;
 
     if (!_treeHolder.claim(false)) {
       Debug.$assert0.t(false);
@@ -1409,6 +1426,8 @@ public class Exchange implements ReadOnlyExchange {
     assert !(doMVCC & value == spareValue || doFetch && value == _spareValue) : "storeInternal may use the supplied Value: "
       + value;
 
+    final TreeBloomFilter bloomFilter = level == 0 ? _tree.addToBloomFilter(key) : null;
+
     //
     // First insert the record in the data page
     //
@@ -1792,6 +1811,9 @@ public class Exchange implements ReadOnlyExchange {
         }
       }
     }
+    if (level == 0) {
+      _tree.addToPendingBloomFilter(key, bloomFilter);
+    }
     _volume.getStatistics().bumpStoreCounter();
     _tree.getStatistics().bumpStoreCounter();
     if (doFetch || doMVCC) {
@@ -2182,6 +2204,7 @@ public class Exchange implements ReadOnlyExchange {
 
             Debug.$assert0.t(rightSiblingPage >= 0 && rightSiblingPage <= MAX_VALID_PAGE_ADDR);
             if (rightSiblingPage > 0) {
+              readAhead(rightSiblingPage);
               final Buffer rightSibling = _pool.get(_volume, rightSiblingPage, false, true,
                 _timeoutMillis);
               buffer.releaseTouched();
@@ -2358,6 +2381,32 @@ public class Exchange implements ReadOnlyExchange {
     }
   }
 
+  /**
+   * Called each time a forward traversal steps to the right sibling of a data
+   * page. Once the steps form a sequential run, ask the
+   * {@link ReadAheadManager} to load the pages that follow
+   * <code>nextPage</code>, renewing the request every half depth so that the
+   * pages are resident by the time the traversal reaches them.
+   *
+   * @param nextPage
+   *            the data page the traversal is about to visit
+   */
+  private void readAhead(final long nextPage) {
+    final ReadAheadManager manager = _persistit.getReadAheadManager();
+    final int depth = manager.getDepth();
+    if (depth == 0 || _cacheDepth < 2) {
+      return;
+    }
+    final int steps = ++_sequentialSteps - ReadAheadManager.SEQUENTIAL_THRESHOLD;
+    if (steps < 0 || steps % Math.max(1, depth / 2) != 0) {
+      return;
+    }
+    if (steps == 0) {
+      _readAheadParent.set(_levelCache[1]._page);
+    }
+    manager.offer(new ReadAheadManager.Request(_volume, _readAheadParent, nextPage, depth));
+  }
+
   /**
    * <p>
    * Performs generalized tree traversal using a {@link TraverseVisitor}. The
@@ -2733,6 +2782,9 @@ public class Exchange implements ReadOnlyExchange {
    * @throws PersistitException
    */
   public boolean isValueDefined() throws PersistitException {
+    if (_tree.isExcludedByBloomFilter(_key)) {
+      return false;
+    }
     return traverse(EQ, true, -1);
   }
 
@@ -3055,6 +3107,12 @@ public class Exchange implements ReadOnlyExchange {
     if (minimumBytes < 0) {
       minimumBytes = 0;
     }
+    if (_tree.isExcludedByBloomFilter(_key)) {
+      value.clear();
+      _volume.getStatistics().bumpFetchCounter();
+      _tree.getStatistics().bumpFetchCounter();
+      return this;
+    }
     searchAndFetchInternal(value, minimumBytes);
     return this;
   }
@@ -3093,7 +3151,7 @@ public class Exchange implements ReadOnlyExchange {
    *            <code>value</code> will contain just the descriptor portion.
    * @param bufferForPruning
    *            If not <code>null</code> and <code>Value</code> did contain an
-   *            MVV, call {@link Buffer#enqueuePruningAction(int)}.
+   *            MVV, call {@link Buffer#enqueuePruningAction(int, int)}.
    * @throws PersistitException
    *             As thrown from any internal method.
    * @return <code>true</code> if the value was visible.
@@ -3114,6 +3172,11 @@ public class Exchange implements ReadOnlyExchange {
       fetchFixupForLongRecords(value, Integer.MAX_VALUE);
       if (MVV.isArrayMVV(value.getEncodedBytes(), 0, value.getEncodedSize())) {
         visible = mvccFetch(value, minimumBytes);
+        final int versions = _mvvVisitor.getVersionCount();
+        _persistit.getCleanupManager().recordMvvLength(versions);
+        if (bufferForPruning != null && _tree.getHandle() != 0) {
+          bufferForPruning.enqueuePruningAction(_tree.getHandle(), versions);
+        }
         fetchFixupForLongRecords(value, minimumBytes);
       }
       if (value.isDefined() && value.isAntiValue()) {
@@ -89,6 +89,13 @@ class IOMeter implements IOMeterMXBean {
     private final AtomicLong[] _totalCounts = new AtomicLong[ITEM_COUNT];
     private final AtomicLong[] _totalSums = new AtomicLong[ITEM_COUNT];
 
+    private final AtomicLong _compressedPageCount = new AtomicLong();
+    private final AtomicLong _compressionInputBytes = new AtomicLong();
+    private final AtomicLong _compressionOutputBytes = new AtomicLong();
+    private final AtomicLong _compressionNanos = new AtomicLong();
+    private final AtomicLong _decompressedPageCount = new AtomicLong();
+    private final AtomicLong _decompressionNanos = new AtomicLong();
+
     volatile int _currentBucket;
 
     private static class Counter {
@@ -357,6 +364,67 @@ class IOMeter implements IOMeterMXBean {
         log(GET_PAGE, volume, pageAddress, size, 0, bufferIndex);
     }
 
+    /**
+     * Record an attempt to compress a page image.
+     * 
+     * @param size
+     *            number of bytes presented to the compressor
+     * @param compressedSize
+     *            number of compressed bytes, or -1 if the page was stored
+     *            uncompressed because compression did not make it smaller
+     * @param nanos
+     *            elapsed time
+     */
+    public void chargeCompressPage(final int size, final int compressedSize, final long nanos) {
+        _compressionNanos.addAndGet(nanos);
+        if (compressedSize >= 0) {
+            _compressedPageCount.incrementAndGet();
+            _compressionInputBytes.addAndGet(size);
+            _compressionOutputBytes.addAndGet(compressedSize);
+        }
+    }
+
+    public void chargeDecompressPage(final int size, final long nanos) {
+        _decompressedPageCount.incrementAndGet();
+        _decompressionNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public long getCompressedPageCount() {
+        return _compressedPageCount.get();
+    }
+
+    @Override
+    public long getCompressionInputBytes() {
+        return _compressionInputBytes.get();
+    }
+
+    @Override
+    public long getCompressionOutputBytes() {
+        return _compressionOutputBytes.get();
+    }
+
+    @Override
+    public double getCompressionRatio() {
+        final long output = _compressionOutputBytes.get();
+        return output == 0 ? 1.0 : (double) _compressionInputBytes.get() / output;
+    }
+
+    @Override
+    public long getCompressionNanos() {
+        return _compressionNanos.get();
+    }
+
+    @Override
+    public long getDecompressedPageCount() {
+        return _decompressedPageCount.get();
+    }
+
+    @Override
+    public long getDecompressionNanos() {
+        return _decompressionNanos.get();
+    }
+
     @Override
     public long totalOperations(final String opName) {
         return totalOperations(op(opName));
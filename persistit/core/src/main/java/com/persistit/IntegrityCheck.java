@@ -17,7 +17,19 @@
 package com.persistit;
 
 import java.util.ArrayList;
-import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.persistit.Buffer.VerifyVisitor;
 import com.persistit.CLI.Arg;
@@ -25,6 +37,7 @@ import com.persistit.CLI.Cmd;
 import com.persistit.CleanupManager.CleanupIndexHole;
 import com.persistit.exception.InUseException;
 import com.persistit.exception.PersistitException;
+import com.persistit.exception.PersistitInterruptedException;
 import com.persistit.util.Debug;
 import com.persistit.util.Util;
 
@@ -47,6 +60,17 @@ import com.persistit.util.Util;
  * <code>Tree</code> while <code>IntegrityCheck</code> is reviewing its
  * structure, spurious faults are likely to be detected.
  * </p>
+ * <p>
+ * By default all pages are visited by the thread that invokes
+ * <code>checkVolume</code> or <code>checkTree</code>. After
+ * {@link #setThreadCount(int)} with a value greater than one, separate trees
+ * are checked concurrently and each tree having an index root page is divided
+ * into ranges of the root page's children that are walked by separate
+ * threads. The pages at the edges of adjacent ranges are checked against each
+ * other once both ranges are done, and the counts and <code>Fault</code>s
+ * gathered by each thread are merged into the results of this
+ * <code>IntegrityCheck</code>.
+ * </p>
  * 
  * @version 1.0
  */
@@ -55,12 +79,13 @@ public class IntegrityCheck extends Task {
     final static int MAX_HOLES_TO_FIX = 1000;
     final static int MAX_WALK_RIGHT = 1000;
     final static int MAX_PRUNING_ERRORS = 50;
+    final static int MAX_THREAD_COUNT = 256;
 
     private Volume _currentVolume;
     private Tree _currentTree;
     private LongBitSet _usedPageBits = new LongBitSet();
     private long _totalPages = 0;
-    private long _pagesVisited = 0;
+    private AtomicLong _pagesVisited = new AtomicLong();
 
     private final Counters _counters = new Counters();
     private final Buffer[] _edgeBuffers = new Buffer[Exchange.MAX_TREE_DEPTH];
@@ -75,6 +100,16 @@ public class IntegrityCheck extends Task {
     private boolean _prune;
     private boolean _pruneAndClear;
     private boolean _csv;
+    private int _threadCount = 1;
+
+    /*
+     * Set in the workers of a parallel check
+     */
+    private IntegrityCheck _parent;
+    private long[] _firstPages;
+    private Key[] _firstKeys;
+    private List<Key> _rootKeys;
+    private List<Long> _rootChildren;
 
     private final ArrayList<Fault> _faults = new ArrayList<Fault>();
     private final ArrayList<CleanupIndexHole> _holes = new ArrayList<CleanupIndexHole>();
@@ -138,6 +173,23 @@ public class IntegrityCheck extends Task {
             _garbagePageCount = counters._garbagePageCount - _garbagePageCount;
         }
 
+        void add(final Counters counters) {
+            _indexPageCount += counters._indexPageCount;
+            _dataPageCount += counters._dataPageCount;
+            _indexBytesInUse += counters._indexBytesInUse;
+            _dataBytesInUse += counters._dataBytesInUse;
+            _longRecordPageCount += counters._longRecordPageCount;
+            _longRecordBytesInUse += counters._longRecordBytesInUse;
+            _indexHoleCount += counters._indexHoleCount;
+            _mvvPageCount += counters._mvvPageCount;
+            _mvvCount += counters._mvvCount;
+            _mvvOverhead += counters._mvvOverhead;
+            _mvvAntiValues += counters._mvvAntiValues;
+            _pruningErrorCount += counters._pruningErrorCount;
+            _prunedPageCount += counters._prunedPageCount;
+            _garbagePageCount += counters._garbagePageCount;
+        }
+
         @Override
         public String toString() {
             return String.format("Index pages/bytes: %,d / %,d Data pages/bytes: %,d / %,d"
@@ -197,6 +249,12 @@ public class IntegrityCheck extends Task {
         }
     };
 
+    public static IntegrityCheck icheck(final String treeSelectorString, final boolean regex,
+            final boolean dontSuspendUpdates, final boolean fixHoles, final boolean prune, final boolean pruneAndClear,
+            final boolean verbose, final boolean csv) throws Exception {
+        return icheck(treeSelectorString, regex, dontSuspendUpdates, fixHoles, prune, pruneAndClear, verbose, csv, 1);
+    }
+
     @Cmd("icheck")
     public static IntegrityCheck icheck(
             @Arg("trees|string|Tree selector: Volumes/Trees to check") final String treeSelectorString,
@@ -205,7 +263,8 @@ public class IntegrityCheck extends Task {
             @Arg("_flag|h|Fix index holes") final boolean fixHoles,
             @Arg("_flag|p|Prune MVV values") final boolean prune,
             @Arg("_flag|P|Prune MVV values and clear TransactionIndex") final boolean pruneAndClear,
-            @Arg("_flag|v|Verbose results") final boolean verbose, @Arg("_flag|c|Format as CSV") final boolean csv)
+            @Arg("_flag|v|Verbose results") final boolean verbose, @Arg("_flag|c|Format as CSV") final boolean csv,
+            @Arg("threads|int:1:1:256|Number of threads checking trees concurrently") final int threads)
             throws Exception {
         final IntegrityCheck task = new IntegrityCheck();
         task._treeSelector = TreeSelector.parseSelector(treeSelectorString, regex, '\\');
@@ -214,6 +273,7 @@ public class IntegrityCheck extends Task {
         task._pruneAndClear = pruneAndClear;
         task._suspendUpdates = !dontSuspendUpdates;
         task._csv = csv;
+        task.setThreadCount(threads);
         task.setMessageLogVerbosity(verbose ? LOG_VERBOSE : LOG_NORMAL);
         return task;
     }
@@ -256,10 +316,12 @@ public class IntegrityCheck extends Task {
                 }
             }
             Volume previousVolume = null;
+            final List<Tree> batch = new ArrayList<Tree>();
             for (final Tree tree : _persistit.getSelectedTrees(_treeSelector)) {
                 final Volume volume = tree.getVolume();
                 boolean checkWholeVolume = false;
                 if (volume != previousVolume) {
+                    checkBatch(batch);
                     reset();
                     if (tree == volume.getDirectoryTree()) {
                         checkWholeVolume = true;
@@ -279,6 +341,8 @@ public class IntegrityCheck extends Task {
                     }
                     if (checkWholeVolume) {
                         checkVolume(volume);
+                    } else if (_threadCount > 1) {
+                        batch.add(tree);
                     } else {
                         checkTree(tree);
                     }
@@ -286,6 +350,7 @@ public class IntegrityCheck extends Task {
                     postMessage(pe.toString(), LOG_NORMAL);
                 }
             }
+            checkBatch(batch);
             _currentVolume = null;
             _currentTree = null;
             final int faults = _faults.size();
@@ -315,6 +380,17 @@ public class IntegrityCheck extends Task {
         }
     }
 
+    private void checkBatch(final List<Tree> batch) {
+        if (!batch.isEmpty()) {
+            try {
+                checkTrees(batch);
+            } catch (final PersistitException pe) {
+                postMessage(pe.toString(), LOG_NORMAL);
+            }
+            batch.clear();
+        }
+    }
+
     private String resourceName() {
         return _currentTree == null ? _currentVolume.getName() : _currentVolume.getName() + ":"
                 + _currentTree.getName();
@@ -340,14 +416,23 @@ public class IntegrityCheck extends Task {
         final Fault fault = new Fault(resourceName(), this, description, page, _treeDepth, level, position);
         if (_faults.size() < MAX_FAULTS)
             _faults.add(fault);
-        postMessage(fault.toString(), LOG_VERBOSE);
+        root().postMessage(fault.toString(), LOG_VERBOSE);
     }
 
     private void addGarbageFault(final String description, final long page, final int level, final int position) {
         final Fault fault = new Fault(resourceName(), this, description, page, 3, level, position);
         if (_faults.size() < MAX_FAULTS)
             _faults.add(fault);
-        postMessage(fault.toString(), LOG_VERBOSE);
+        root().postMessage(fault.toString(), LOG_VERBOSE);
+    }
+
+    /**
+     * @return the <code>IntegrityCheck</code> that owns the message log and
+     *         controls stopping and suspension: the parent of a worker, or else
+     *         this one
+     */
+    private IntegrityCheck root() {
+        return _parent == null ? this : _parent;
     }
 
     private void initTree(final Tree tree) {
@@ -448,6 +533,26 @@ public class IntegrityCheck extends Task {
         _prune = prune;
     }
 
+    /**
+     * @return Number of threads used to check trees concurrently
+     */
+    public int getThreadCount() {
+        return _threadCount;
+    }
+
+    /**
+     * Set the number of threads used to check trees. With a value of one, the
+     * default, all pages are visited by the calling thread. With a larger value
+     * separate trees are checked concurrently and large trees are divided into
+     * ranges of pages checked concurrently.
+     *
+     * @param threadCount
+     *            Number of threads, between 1 and {@value #MAX_THREAD_COUNT}
+     */
+    public void setThreadCount(final int threadCount) {
+        _threadCount = Util.rangeCheck(threadCount, 1, MAX_THREAD_COUNT);
+    }
+
     /**
      * Indicates whether fault have been detected
      * 
@@ -590,7 +695,7 @@ public class IntegrityCheck extends Task {
         if (_totalPages == 0) {
             return 1;
         } else {
-            return ((double) _pagesVisited) / ((double) _totalPages);
+            return ((double) _pagesVisited.get()) / ((double) _totalPages);
         }
     }
 
@@ -619,7 +724,7 @@ public class IntegrityCheck extends Task {
         if (_currentVolume == null) {
             return null;
         } else {
-            return _pagesVisited + "/" + _totalPages + " (" + resourceName() + ")";
+            return _pagesVisited.get() + "/" + _totalPages + " (" + resourceName() + ")";
         }
     }
 
@@ -726,30 +831,70 @@ public class IntegrityCheck extends Task {
 
     /**
      * Implements a bit set that operates on long- rather than int- valued
-     * indexes.
+     * indexes. Bits are held in segments allocated on first use and are
+     * updated atomically so that the workers of a parallel check can share one
+     * instance.
      */
     private static class LongBitSet {
         //
-        // Temporary implementation uses integers. This limits its use to
-        // volumes with fewer than Integer.MAX_VALUE pages.
+        // Limited to volumes with fewer than Integer.MAX_VALUE pages.
         //
-        BitSet _bitSet = new BitSet();
+        private final static int SEGMENT_SHIFT = 18;
+        private final static int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+        private final static int SEGMENT_COUNT = (Integer.MAX_VALUE >>> SEGMENT_SHIFT) + 1;
+
+        private final AtomicReferenceArray<AtomicLongArray> _segments = new AtomicReferenceArray<AtomicLongArray>(
+                SEGMENT_COUNT);
 
         public void set(final long index, final boolean value) {
-            if (index > Integer.MAX_VALUE) {
-                throw new RuntimeException("Large page addresses not implemented yet.");
+            final AtomicLongArray segment = segment(index, true);
+            final int word = ((int) index & SEGMENT_MASK) >>> 6;
+            final long mask = 1L << index;
+            for (;;) {
+                final long bits = segment.get(word);
+                final long update = value ? bits | mask : bits & ~mask;
+                if (bits == update || segment.compareAndSet(word, bits, update)) {
+                    return;
+                }
             }
-            if (value)
-                _bitSet.set((int) index);
-            else
-                _bitSet.clear((int) index);
         }
 
         public boolean get(final long index) {
+            final AtomicLongArray segment = segment(index, false);
+            return segment != null && (segment.get(((int) index & SEGMENT_MASK) >>> 6) & (1L << index)) != 0;
+        }
+
+        /**
+         * Set the bit at the supplied index.
+         *
+         * @return the previous value of the bit
+         */
+        public boolean getAndSet(final long index) {
+            final AtomicLongArray segment = segment(index, true);
+            final int word = ((int) index & SEGMENT_MASK) >>> 6;
+            final long mask = 1L << index;
+            for (;;) {
+                final long bits = segment.get(word);
+                if ((bits & mask) != 0) {
+                    return true;
+                }
+                if (segment.compareAndSet(word, bits, bits | mask)) {
+                    return false;
+                }
+            }
+        }
+
+        private AtomicLongArray segment(final long index, final boolean create) {
             if (index > Integer.MAX_VALUE) {
                 throw new RuntimeException("Large page addresses not implemented yet.");
             }
-            return _bitSet.get((int) index);
+            final int which = (int) (index >> SEGMENT_SHIFT);
+            AtomicLongArray segment = _segments.get(which);
+            if (segment == null && create) {
+                _segments.compareAndSet(which, null, new AtomicLongArray(1 << (SEGMENT_SHIFT - 6)));
+                segment = _segments.get(which);
+            }
+            return segment;
         }
     }
 
@@ -764,7 +909,7 @@ public class IntegrityCheck extends Task {
         _currentTree = null;
         _usedPageBits = new LongBitSet();
         _totalPages = 0;
-        _pagesVisited = 0;
+        _pagesVisited.set(0);
     }
 
     /**
@@ -789,13 +934,27 @@ public class IntegrityCheck extends Task {
         // This is just for the progress counter.
         _totalPages = volume.getStorage().getNextAvailablePage();
         final Tree directoryTree = volume.getDirectoryTree();
-        if (directoryTree != null) {
-            checkTree(directoryTree);
-        }
-        for (int index = 0; index < treeNames.length; index++) {
-            final Tree tree = volume.getTree(treeNames[index], false);
-            if (tree != null)
-                checkTree(tree);
+        if (_threadCount > 1) {
+            final List<Tree> trees = new ArrayList<Tree>();
+            if (directoryTree != null) {
+                trees.add(directoryTree);
+            }
+            for (int index = 0; index < treeNames.length; index++) {
+                final Tree tree = volume.getTree(treeNames[index], false);
+                if (tree != null)
+                    trees.add(tree);
+            }
+            checkTrees(trees);
+            _currentVolume = volume;
+        } else {
+            if (directoryTree != null) {
+                checkTree(directoryTree);
+            }
+            for (int index = 0; index < treeNames.length; index++) {
+                final Tree tree = volume.getTree(treeNames[index], false);
+                if (tree != null)
+                    checkTree(tree);
+            }
         }
         final long garbageRoot = volume.getStructure().getGarbageRoot();
         checkGarbage(garbageRoot);
@@ -823,11 +982,8 @@ public class IntegrityCheck extends Task {
      * @throws PersistitException
      */
     public boolean checkTree(final Tree tree) throws PersistitException {
-        final String messageStart;
-        if (_csv) {
-            messageStart = String.format("\"%s\",\"%s\"", tree.getVolume().getName(), tree.getName());
-        } else {
-            messageStart = "  Tree " + resourceName(tree);
+        if (_threadCount > 1) {
+            return checkTrees(Collections.singletonList(tree));
         }
         final Counters treeCounters = new Counters(_counters);
         int faults = _faults.size();
@@ -835,29 +991,375 @@ public class IntegrityCheck extends Task {
             throw new InUseException("Unable to acquire claim on " + this);
         }
         try {
+            walkTree(tree);
+        } finally {
+            tree.release();
+        }
+
+        faults = _faults.size() - faults;
+        treeCounters.difference(_counters);
+        reportTree(tree, faults, treeCounters);
+        return faults == 0;
+    }
+
+    /**
+     * Performs the integrity checking process on a list of {@link Tree}s. Up to
+     * {@link #getThreadCount()} trees are checked concurrently, and each tree
+     * whose root is an index page is divided into as many ranges of the root
+     * page's children. Logs any detected Faults for subsequent review.
+     * 
+     * @param trees
+     *            The <code>Tree</code>s to check
+     * @return <i>true</i> if the trees are clean (have no Faults).
+     * @throws PersistitException
+     *             the first exception thrown while checking any of the trees
+     */
+    public boolean checkTrees(final List<Tree> trees) throws PersistitException {
+        final int faults = _faults.size();
+        final ExecutorService executor = newExecutor();
+        final LinkedList<TreeCheck> pending = new LinkedList<TreeCheck>();
+        PersistitException exception = null;
+        try {
+            for (final Tree tree : trees) {
+                if (pending.size() >= _threadCount) {
+                    exception = finish(pending.removeFirst(), exception);
+                }
+                final TreeCheck check = new TreeCheck(tree);
+                pending.add(check);
+                try {
+                    check.start(executor);
+                } catch (final PersistitException e) {
+                    pending.removeLast();
+                    check.abandon();
+                    exception = failed(e, exception);
+                }
+            }
+            while (!pending.isEmpty()) {
+                exception = finish(pending.removeFirst(), exception);
+            }
+        } finally {
+            for (final TreeCheck check : pending) {
+                check.abandon();
+            }
+            executor.shutdown();
+            _currentTree = null;
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return _faults.size() == faults;
+    }
+
+    private PersistitException finish(final TreeCheck check, final PersistitException exception) {
+        try {
+            check.finish();
+            return exception;
+        } catch (final PersistitException e) {
+            return failed(e, exception);
+        }
+    }
+
+    /**
+     * Keep the first exception thrown by a tree to be thrown once all trees
+     * are done; report any others.
+     */
+    private PersistitException failed(final PersistitException e, final PersistitException first) {
+        if (first == null) {
+            return e;
+        }
+        postMessage(e.toString(), LOG_NORMAL);
+        return first;
+    }
+
+    private ExecutorService newExecutor() {
+        return Executors.newFixedThreadPool(_threadCount, new ThreadFactory() {
+            private final AtomicInteger _counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "INTEGRITY_CHECK_" + _counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Create an <code>IntegrityCheck</code> that checks part of the current
+     * volume on behalf of this one. It shares the set of visited pages and the
+     * progress counter, and posts its messages to this one.
+     */
+    private IntegrityCheck newWorker() {
+        final IntegrityCheck worker = new IntegrityCheck(_persistit);
+        worker._parent = this;
+        worker._usedPageBits = _usedPageBits;
+        worker._pagesVisited = _pagesVisited;
+        worker._fixHoles = _fixHoles;
+        worker._prune = _prune;
+        worker._csv = _csv;
+        return worker;
+    }
+
+    /**
+     * Checks one tree on behalf of {@link IntegrityCheck#checkTrees(List)}. The
+     * calling thread claims the tree, reads its root page and submits a
+     * {@link Partition} for each range of the root's children. Once they are
+     * done it checks the sibling links between the pages at the edges of
+     * adjacent ranges, merges the results and releases the tree.
+     */
+    private class TreeCheck {
+        private final Tree _tree;
+        private final List<Partition> _partitions = new ArrayList<Partition>();
+        private final List<Future<Void>> _futures = new ArrayList<Future<Void>>();
+        private IntegrityCheck _root;
+        private boolean _claimed;
+
+        TreeCheck(final Tree tree) {
+            _tree = tree;
+        }
+
+        void start(final ExecutorService executor) throws PersistitException {
+            if (!_tree.claim(true)) {
+                throw new InUseException("Unable to acquire claim on " + IntegrityCheck.this);
+            }
+            _claimed = true;
+            _currentVolume = _tree.getVolume();
+            if (_tree.getDepth() > 1) {
+                _root = newWorker();
+                _root._rootKeys = new ArrayList<Key>();
+                _root._rootChildren = new ArrayList<Long>();
+                _root.walkTree(_tree);
+                final int children = _root._rootChildren.size();
+                final int count = Math.min(children, _threadCount);
+                for (int index = 0; index < count; index++) {
+                    final int from = (int) ((long) children * index / count);
+                    final int to = (int) ((long) children * (index + 1) / count);
+                    _partitions.add(new Partition(_tree, _tree.getRootPageAddr(), _root._rootKeys.subList(from, to),
+                            _root._rootChildren.subList(from, to)));
+                }
+            } else {
+                _partitions.add(new Partition(_tree, 0, null, null));
+            }
+            for (final Partition partition : _partitions) {
+                _futures.add(executor.submit(partition));
+            }
+        }
+
+        void finish() throws PersistitException {
+            final Counters treeCounters = new Counters();
+            int faults = 0;
             try {
-                initTree(tree);
-                checkTree(new Key(_persistit), 0, tree.getRootPageAddr(), _treeDepth - 1, tree);
+                join();
+                if (_root != null) {
+                    _root.checkBoundaries(_tree, _partitions);
+                }
             } finally {
-                //
-                // Release all the buffers.
-                //
-                for (int index = 0; index < Exchange.MAX_TREE_DEPTH; index++) {
-                    final Buffer buffer = _edgeBuffers[index];
-                    if (buffer != null) {
-                        buffer.release();
-                        _edgeBuffers[index] = null;
-                        _edgePages[index] = 0;
+                release();
+                _holes.clear();
+                if (_root != null) {
+                    faults += merge(_root, treeCounters);
+                }
+                for (final Partition partition : _partitions) {
+                    faults += merge(partition._worker, treeCounters);
+                }
+                _counters.add(treeCounters);
+            }
+            reportTree(_tree, faults, treeCounters);
+        }
+
+        void abandon() {
+            try {
+                join();
+            } catch (final Exception e) {
+                // ignore - already failed
+            } finally {
+                release();
+            }
+        }
+
+        private void join() throws PersistitException {
+            PersistitException exception = null;
+            for (final Future<Void> future : _futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    throw new PersistitInterruptedException(e);
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof PersistitException) {
+                        if (exception == null) {
+                            exception = (PersistitException) cause;
+                        }
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    } else {
+                        throw new RuntimeException(cause);
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        private void release() {
+            if (_claimed) {
+                _claimed = false;
+                _tree.release();
+            }
+        }
+
+        private int merge(final IntegrityCheck worker, final Counters treeCounters) {
+            treeCounters.add(worker._counters);
+            for (final Fault fault : worker._faults) {
+                if (_faults.size() < MAX_FAULTS) {
+                    _faults.add(fault);
+                }
+            }
+            for (final CleanupIndexHole hole : worker._holes) {
+                if (_holes.size() < MAX_HOLES_TO_FIX) {
+                    _holes.add(hole);
+                }
+            }
+            return worker._faults.size();
+        }
+    }
+
+    /**
+     * Checks the subtrees of a range of a root page's children, or an entire
+     * tree, in a worker thread.
+     */
+    private class Partition implements Callable<Void> {
+        private final IntegrityCheck _worker = newWorker();
+        private final Tree _tree;
+        private final long _rootPage;
+        private final List<Key> _keys;
+        private final List<Long> _children;
+        private final long[] _lastPages = new long[Exchange.MAX_TREE_DEPTH];
+        private final Key[] _lastKeys = new Key[Exchange.MAX_TREE_DEPTH];
+
+        Partition(final Tree tree, final long rootPage, final List<Key> keys, final List<Long> children) {
+            _tree = tree;
+            _rootPage = rootPage;
+            _keys = keys;
+            _children = children;
+        }
+
+        @Override
+        public Void call() throws PersistitException {
+            final IntegrityCheck worker = _worker;
+            if (_children == null) {
+                worker.walkTree(_tree);
+                return null;
+            }
+            worker._firstPages = new long[Exchange.MAX_TREE_DEPTH];
+            worker._firstKeys = new Key[Exchange.MAX_TREE_DEPTH];
+            try {
+                worker.initTree(_tree);
+                final int level = worker._treeDepth - 1;
+                worker._edgePages[level] = _rootPage;
+                for (int index = 0; index < _children.size(); index++) {
+                    worker.checkTree(_keys.get(index), _rootPage, _children.get(index), level - 1, _tree);
+                }
+                for (int index = 0; index < level; index++) {
+                    if (worker._edgeBuffers[index] != null) {
+                        _lastPages[index] = worker._edgePages[index];
+                        _lastKeys[index] = new Key(worker._edgeKeys[index]);
                     }
                 }
-                _currentTree = null;
+            } finally {
+                worker.releaseEdgeBuffers();
+                worker._currentTree = null;
             }
+            return null;
+        }
+    }
+
+    /**
+     * Walks a tree whose claim is held by the caller.
+     */
+    private void walkTree(final Tree tree) throws PersistitException {
+        try {
+            initTree(tree);
+            checkTree(new Key(_persistit), 0, tree.getRootPageAddr(), _treeDepth - 1, tree);
         } finally {
-            tree.release();
+            releaseEdgeBuffers();
+            _currentTree = null;
         }
+    }
 
-        faults = _faults.size() - faults;
-        treeCounters.difference(_counters);
+    private void releaseEdgeBuffers() {
+        for (int index = 0; index < Exchange.MAX_TREE_DEPTH; index++) {
+            final Buffer buffer = _edgeBuffers[index];
+            if (buffer != null) {
+                buffer.release();
+                _edgeBuffers[index] = null;
+                _edgePages[index] = 0;
+            }
+        }
+    }
+
+    /**
+     * Performs the checks a sequential walk would have made when first visiting
+     * each page at the left edge of a partition: walk right from the last page
+     * of the preceding partition at the same level, counting any unindexed
+     * pages, and verify that the key at the end of that walk matches the key
+     * in the parent page.
+     */
+    private void checkBoundaries(final Tree tree, final List<Partition> partitions) throws PersistitException {
+        _currentTree = tree;
+        try {
+            for (int level = _treeDepth - 1; --level >= 0;) {
+                long leftPage = 0;
+                Key leftKey = null;
+                for (final Partition partition : partitions) {
+                    final long page = partition._worker._firstPages[level];
+                    if (leftPage != 0 && page != 0) {
+                        checkBoundary(level, leftPage, leftKey, page, partition._worker._firstKeys[level], tree);
+                    }
+                    if (partition._lastPages[level] != 0) {
+                        leftPage = partition._lastPages[level];
+                        leftKey = partition._lastKeys[level];
+                    }
+                }
+            }
+        } finally {
+            _currentTree = null;
+        }
+    }
+
+    private void checkBoundary(final int level, final long leftPage, final Key key, final long page,
+            final Key parentKey, final Tree tree) throws PersistitException {
+        _edgeBuffers[level] = getPage(leftPage);
+        _edgePages[level] = leftPage;
+        Buffer leftSibling = null;
+        try {
+            leftSibling = walkRight(level, page, key, tree);
+            final int compare = key.compareTo(parentKey);
+            if (compare != 0) {
+                addFault("left sibling final key is " + (compare < 0 ? "less than" : "greater than") + " parent key",
+                        page, level, 0);
+            }
+        } finally {
+            if (leftSibling != null) {
+                leftSibling.release();
+            } else {
+                _edgeBuffers[level].release();
+            }
+            _edgeBuffers[level] = null;
+            _edgePages[level] = 0;
+        }
+    }
+
+    private void reportTree(final Tree tree, final int faults, final Counters treeCounters) {
+        final String messageStart;
+        if (_csv) {
+            messageStart = String.format("\"%s\",\"%s\"", tree.getVolume().getName(), tree.getName());
+        } else {
+            messageStart = "  Tree " + resourceName(tree);
+        }
 
         if (_counters._indexHoleCount > 0) {
             postMessage(
@@ -879,7 +1381,6 @@ public class IntegrityCheck extends Task {
         } else {
             postMessage(String.format("%s - Faults:%,3d ", messageStart, faults) + treeCounters.toString(), LOG_VERBOSE);
         }
-        return faults == 0;
     }
 
     /**
@@ -898,7 +1399,7 @@ public class IntegrityCheck extends Task {
         if (level >= Exchange.MAX_TREE_DEPTH) {
             addFault("Tree is too deep", page, level, 0);
         }
-        if (_usedPageBits.get(page)) {
+        if (_usedPageBits.getAndSet(page)) {
             addFault("Page has more than one parent", page, level, 0);
         }
 
@@ -906,10 +1407,8 @@ public class IntegrityCheck extends Task {
             addFault("Page 0 not allowed in tree structure", page, level, 0);
         }
 
-        _usedPageBits.set(page, true);
-
         Buffer buffer = getPage(page);
-        _pagesVisited++;
+        _pagesVisited.incrementAndGet();
 
         try {
             if (parent == 0 && buffer.getRightSibling() != 0) {
@@ -934,6 +1433,10 @@ public class IntegrityCheck extends Task {
             } else {
                 key = new Key(parentKey);
                 _edgeKeys[level] = key;
+                if (_firstPages != null && _firstPages[level] == 0) {
+                    _firstPages[level] = page;
+                    _firstKeys[level] = new Key(parentKey);
+                }
             }
 
             Debug.$assert0.t(leftSibling != buffer);
@@ -982,8 +1485,14 @@ public class IntegrityCheck extends Task {
                             addFault("Invalid index pointer value " + child, page, level, foundAt);
                         }
 
-                        // Recursively check the subtree.
-                        checkTree(key, page, child, level - 1, tree);
+                        if (_rootChildren != null && level == _treeDepth - 1) {
+                            // Leave the subtree to a Partition
+                            _rootKeys.add(new Key(key));
+                            _rootChildren.add(child);
+                        } else {
+                            // Recursively check the subtree.
+                            checkTree(key, page, child, level - 1, tree);
+                        }
                     }
                 } else {
                     throw new RuntimeException("should never happen!");
@@ -1013,7 +1522,7 @@ public class IntegrityCheck extends Task {
                 first = false;
             }
             checkGarbagePage(garbageBuffer);
-            _pagesVisited++;
+            _pagesVisited.incrementAndGet();
             garbagePageAddress = garbageBuffer.getRightSibling();
             garbageBuffer.release();
         }
@@ -1064,7 +1573,7 @@ public class IntegrityCheck extends Task {
                 addGarbageFault("Page of type " + buffer.getPageTypeName() + " found on garbage page", page, 0, 0);
             }
             _counters._garbagePageCount++;
-            _pagesVisited++;
+            _pagesVisited.incrementAndGet();
             page = buffer.getRightSibling();
             buffer.release();
         }
@@ -1138,7 +1647,7 @@ public class IntegrityCheck extends Task {
                     oldBuffer = buffer;
                     return startingBuffer;
                 }
-                _pagesVisited++;
+                _pagesVisited.incrementAndGet();
             }
             if (startingBuffer != buffer) {
                 startingBuffer.release();
@@ -1206,11 +1715,10 @@ public class IntegrityCheck extends Task {
         longSize -= Buffer.LONGREC_PREFIX_SIZE;
 
         for (long longPage = pointer; longPage != 0;) {
-            if (_usedPageBits.get(longPage)) {
+            if (_usedPageBits.getAndSet(longPage)) {
                 addFault("Long record page " + longPage + " is multiply linked", page, 0, foundAt);
                 break;
             }
-            _usedPageBits.set(longPage, true);
             if (longSize <= 0) {
                 addFault("Long record chain too long at page " + longPage + " pointed to by " + fromPage, page, 0,
                         foundAt);
@@ -1247,7 +1755,7 @@ public class IntegrityCheck extends Task {
     }
 
     private Buffer getPage(final long page) throws PersistitException {
-        poll();
+        root().poll();
         final BufferPool pool = _currentVolume.getPool();
         try {
             final Buffer buffer = pool
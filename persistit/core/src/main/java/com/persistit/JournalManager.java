@@ -22,6 +22,7 @@ import static com.persistit.util.SequencerConstants.PAGE_MAP_READ_INVALIDATE_A;
 import static com.persistit.util.SequencerConstants.RECOVERY_PRUNING_B;
 import static com.persistit.util.ThreadSequencer.sequence;
 import static com.persistit.util.Util.NS_PER_MS;
+import static com.persistit.util.Util.NS_PER_S;
 
 import java.io.File;
 import java.io.IOException;
@@ -39,8 +40,17 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -85,9 +95,24 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     final static int URGENT_COMMIT_DELAY_MILLIS = 50;
     final static int GENTLE_COMMIT_DELAY_MILLIS = 12;
     private final static int IO_MEASUREMENT_CYCLES = 8;
+    /**
+     * Interval in nanoseconds at which a group commit leader checks whether
+     * to end its gathering window
+     */
+    private final static long GROUP_COMMIT_POLL_NANOS = 20_000;
+    /**
+     * Longest interval in milliseconds a group commit follower waits before
+     * checking again whether its commit is durable
+     */
+    private final static long GROUP_COMMIT_MAX_WAIT_MS = 10;
     private final static int TOO_MANY_WARN_THRESHOLD = 5;
     private final static int TOO_MANY_ERROR_THRESHOLD = 10;
     private final static long KILO = 1024;
+    private final static long MEGA = KILO * KILO;
+    /**
+     * Maximum number of pages the JOURNAL_COPIER writes with one gather write
+     */
+    private final static int MAXIMUM_COPY_RUN_PAGES = 64;
 
     /**
      * REGEX expression that recognizes the name of a journal file.
@@ -96,11 +121,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private long _journalCreatedTime;
 
-    private final Map<PageNode, PageNode> _pageMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _pageMap = new PageMap();
 
-    private final RangeRemovingArrayList<PageNode> _pageList = new RangeRemovingArrayList<PageNode>();
+    private final PageMap.PageList _pageList = new PageMap.PageList();
 
-    private final Map<PageNode, PageNode> _branchMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _branchMap = new PageMap();
 
     private final Map<Volume, Integer> _volumeToHandleMap = new HashMap<Volume, Integer>();
 
@@ -182,6 +207,17 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private volatile long _droppedPageCount = 0;
 
+    /*
+     * Per-thread work areas for compressing and expanding page images: [0]
+     * holds an uncompressed payload, [1] a compressed one.
+     */
+    private final ThreadLocal<byte[][]> _pageScratch = new ThreadLocal<byte[][]>() {
+        @Override
+        protected byte[][] initialValue() {
+            return new byte[2][Buffer.MAX_BUFFER_SIZE];
+        }
+    };
+
     private final AtomicLong _totalCommits = new AtomicLong();
 
     private final AtomicLong _totalCommitWaitTime = new AtomicLong();
@@ -190,6 +226,10 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private final AtomicLong _totalFlushIoTime = new AtomicLong();
 
+    private final AtomicLong _totalGroupCommitBatches = new AtomicLong();
+
+    private final AtomicLong _totalGroupCommitBatchedCommits = new AtomicLong();
+
     private volatile long _flushInterval = DEFAULT_FLUSH_INTERVAL_MS;
 
     private volatile long _slowIoAlertThreshold = DEFAULT_SLOW_IO_ALERT_THRESHOLD_MS;
@@ -215,6 +255,18 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private volatile long _copierTimestampLimit = Long.MAX_VALUE;
 
+    private volatile int _copierThreads = DEFAULT_COPIER_THREADS;
+
+    private volatile int _copierBudget;
+
+    private final AtomicLong _copierBudgetClock = new AtomicLong();
+
+    private final AtomicLong _copiedRunCount = new AtomicLong();
+
+    private ExecutorService _copyWriters;
+
+    private int _copyWriterCount;
+
     private volatile long _earliestCommittedTimestamp = Long.MAX_VALUE;
 
     private volatile long _earliestAbortedTimestamp = Long.MAX_VALUE;
@@ -267,7 +319,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             _baseAddress = rman.getBaseAddress();
             _journalCreatedTime = rman.getJournalCreatedTime();
             _lastValidCheckpoint = rman.getLastValidCheckpoint();
-            rman.collectRecoveredPages(_pageMap, _branchMap);
+            final Map<PageNode, PageNode> pageMap = new HashMap<PageNode, PageNode>();
+            final Map<PageNode, PageNode> branchMap = new HashMap<PageNode, PageNode>();
+            rman.collectRecoveredPages(pageMap, branchMap);
+            _pageMap.putAll(pageMap);
+            _branchMap.putAll(branchMap);
             rman.collectRecoveredVolumeMaps(_handleToVolumeMap, _volumeToHandleMap);
             rman.collectRecoveredTreeMaps(_handleToTreeMap, _treeToHandleMap);
             rman.collectRecoveredTransactionMap(_liveTransactionMap);
@@ -354,10 +410,53 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     @Override
-    public synchronized int getPageMapSize() {
+    public int getPageMapSize() {
         return _pageMap.size();
     }
 
+    @Override
+    public int getVolumePageMapSize(final String volumeName) {
+        int handle = 0;
+        synchronized (this) {
+            for (final Map.Entry<Integer, Volume> entry : _handleToVolumeMap.entrySet()) {
+                if (entry.getValue().getName().equals(volumeName)) {
+                    handle = entry.getKey();
+                }
+            }
+        }
+        return handle == 0 ? 0 : _pageMap.size(handle);
+    }
+
+    @Override
+    public long getPageMapLookupCount() {
+        return _pageMap.getLookupCount();
+    }
+
+    @Override
+    public long getPageMapLookupTime() {
+        return _pageMap.getAverageLookupTime();
+    }
+
+    /**
+     * @return the earliest timestamp of any page image held in the journal,
+     *         including superseded versions and uncommitted branch pages, or
+     *         <code>Long.MAX_VALUE</code> if there is none. Every page the
+     *         copier writes to a volume after this call has a timestamp no
+     *         earlier than the result or was written to the journal after it.
+     */
+    synchronized long getEarliestPageTimestamp() {
+        long earliest = Long.MAX_VALUE;
+        for (final PageNode pageNode : _pageMap.values()) {
+            for (PageNode pn = pageNode; pn != null; pn = pn.getPrevious()) {
+                earliest = Math.min(earliest, pn.getTimestamp());
+            }
+        }
+        for (final PageNode pageNode : _branchMap.values()) {
+            earliest = Math.min(earliest, pageNode.getTimestamp());
+        }
+        return earliest;
+    }
+
     @Override
     public synchronized int getPageListSize() {
         return _pageList.size();
@@ -428,6 +527,31 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         _copier.setPollInterval(copierInterval);
     }
 
+    @Override
+    public int getCopierThreads() {
+        return _copierThreads;
+    }
+
+    @Override
+    public void setCopierThreads(final int copierThreads) {
+        _copierThreads = Util.rangeCheck(copierThreads, 1, MAXIMUM_COPIER_THREADS);
+    }
+
+    @Override
+    public int getCopierBudget() {
+        return _copierBudget;
+    }
+
+    @Override
+    public void setCopierBudget(final int copierBudget) {
+        _copierBudget = Util.rangeCheck(copierBudget, 0, MAXIMUM_COPIER_BUDGET);
+    }
+
+    @Override
+    public long getCopiedRunCount() {
+        return _copiedRunCount.get();
+    }
+
     @Override
     public void setRollbackPruningEnabled(final boolean rollbackPruning) {
         _rollbackPruning.set(rollbackPruning);
@@ -539,6 +663,22 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _totalCommitWaitTime.get() / NS_PER_MS;
     }
 
+    @Override
+    public long getGroupCommitBatchCount() {
+        return _totalGroupCommitBatches.get();
+    }
+
+    @Override
+    public long getGroupCommitBatchedCommitCount() {
+        return _totalGroupCommitBatchedCommits.get();
+    }
+
+    @Override
+    public long getGroupCommitWindow() {
+        final JournalFlusher flusher = _flusher;
+        return flusher == null ? 0 : flusher._groupCommitWindow / 1000;
+    }
+
     @Override
     public long getCurrentTimestamp() {
         return _persistit.getCurrentTimestamp();
@@ -777,13 +917,25 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     PageNode lookupUpPageNode(final long pageAddress, final Volume volume) {
-        PageNode pnLookup = null;
-        synchronized (this) {
-            final Integer volumeHandle = _volumeToHandleMap.get(volume);
-            if (volumeHandle != null) {
-                pnLookup = _pageMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+        int volumeHandle = volume.getHandle();
+        if (volumeHandle == 0) {
+            /*
+             * A volume opened after recovery has no handle until it is first
+             * needed; its recovered pages are indexed under the handle in the
+             * journal's volume map.
+             */
+            synchronized (this) {
+                volumeHandle = volume.getHandle();
+                if (volumeHandle == 0) {
+                    final Integer handle = _volumeToHandleMap.get(volume);
+                    if (handle == null) {
+                        return null;
+                    }
+                    volumeHandle = volume.setHandle(handle.intValue());
+                }
             }
         }
+        final PageNode pnLookup = _pageMap.lookup(volumeHandle, pageAddress);
 
         if (pnLookup == null) {
             return null;
@@ -815,18 +967,19 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this) + " is incomplete");
         }
         final int type = JournalRecord.getType(bb);
-        final int payloadSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
+        final int recordSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
         final int leftSize = PA.getLeftSize(bb);
         final int bufferSize = PA.getBufferSize(bb);
         final long pageAddress = PA.getPageAddress(bb);
+        final int compression = PA.getCompression(bb);
 
         if (type != PA.TYPE) {
             throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this) + " is not a PAGE record");
         }
 
-        if (leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
+        if (leftSize < 0 || recordSize > bufferSize || compression == 0 && recordSize < leftSize) {
             throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
-                    + " invalid sizes: recordSize= " + payloadSize + " leftSize=" + leftSize + " bufferSize="
+                    + " invalid sizes: recordSize= " + recordSize + " leftSize=" + leftSize + " bufferSize="
                     + bufferSize);
         }
 
@@ -835,8 +988,24 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     + " mismatched page address: expected/actual=" + pn.getPageAddress() + "/" + pageAddress);
         }
 
-        bb.limit(at + payloadSize).position(at);
-        readFully(bb, pn.getJournalAddress() + PA.OVERHEAD);
+        final int payloadSize;
+        if (compression == 0) {
+            bb.limit(at + recordSize).position(at);
+            readFully(bb, pn.getJournalAddress() + PA.OVERHEAD);
+            payloadSize = recordSize;
+        } else {
+            final byte[] compressed = _pageScratch.get()[1];
+            final ByteBuffer cb = ByteBuffer.wrap(compressed, 0, recordSize);
+            readFully(cb, pn.getJournalAddress() + PA.OVERHEAD);
+            final long start = System.nanoTime();
+            payloadSize = PA.expand(compression, compressed, 0, recordSize, bb.array(), at, bufferSize);
+            if (payloadSize < leftSize) {
+                throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                        + " has invalid compressed payload: compression=" + compression + " recordSize="
+                        + recordSize);
+            }
+            _persistit.getIOMeter().chargeDecompressPage(payloadSize, System.nanoTime() - start);
+        }
 
         final int rightSize = payloadSize - leftSize;
         System.arraycopy(bb.array(), leftSize + at, bb.array(), bufferSize - rightSize + at, rightSize);
@@ -863,13 +1032,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             return null;
         }
         final int type = JournalRecord.getType(bb);
-        final int payloadSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
+        final int recordSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
         final int leftSize = PA.getLeftSize(bb);
         final int bufferSize = PA.getBufferSize(bb);
         final long pageAddress = PA.getPageAddress(bb);
         final int volumeHandle = PA.getVolumeHandle(bb);
+        final int compression = PA.getCompression(bb);
 
-        if (type != PA.TYPE || leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
+        if (type != PA.TYPE || leftSize < 0 || recordSize > bufferSize || compression == 0 && recordSize < leftSize) {
             return null;
         }
 
@@ -877,8 +1047,18 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         final Buffer buffer = new Buffer(bufferSize, -1, pool, _persistit);
         buffer.setPageAddressAndVolume(pageAddress, volumeForHandle(volumeHandle));
         bb = buffer.getByteBuffer();
-        bb.limit(payloadSize).position(0);
-        readFully(bb, address + PA.OVERHEAD);
+        int payloadSize = recordSize;
+        if (compression == 0) {
+            bb.limit(recordSize).position(0);
+            readFully(bb, address + PA.OVERHEAD);
+        } else {
+            final ByteBuffer cb = ByteBuffer.allocate(recordSize);
+            readFully(cb, address + PA.OVERHEAD);
+            payloadSize = PA.expand(compression, cb.array(), 0, recordSize, bb.array(), 0, bufferSize);
+            if (payloadSize < leftSize) {
+                return null;
+            }
+        }
 
         if (leftSize > 0) {
             final int rightSize = payloadSize - leftSize;
@@ -1073,8 +1253,44 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     void writePageToJournal(final Buffer buffer) throws PersistitException {
 
-        final Volume volume;
+        final Volume volume = buffer.getVolume();
         final int recordSize;
+        final int leftSize;
+        final int rightSize;
+        if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
+            leftSize = buffer.getKeyBlockEnd();
+            rightSize = buffer.getBufferSize() - buffer.getAlloc();
+        } else {
+            leftSize = 0;
+            rightSize = buffer.getBufferSize();
+        }
+        /*
+         * Compress outside of the monitor: the buffer is claimed by this
+         * thread, so its content cannot change.
+         */
+        final PageCompression compression = volume.getPageCompression();
+        byte[] compressed = null;
+        int compressedSize = -1;
+        if (compression != PageCompression.NONE) {
+            final long start = System.nanoTime();
+            final byte[][] scratch = _pageScratch.get();
+            final byte[] bytes = buffer.getBytes();
+            final int uncompressedSize = leftSize + rightSize - Buffer.HEADER_SIZE;
+            if (leftSize > 0) {
+                System.arraycopy(bytes, Buffer.HEADER_SIZE, scratch[0], 0, leftSize - Buffer.HEADER_SIZE);
+                System.arraycopy(bytes, buffer.getBufferSize() - rightSize, scratch[0], leftSize
+                        - Buffer.HEADER_SIZE, rightSize);
+            } else {
+                System.arraycopy(bytes, Buffer.HEADER_SIZE, scratch[0], 0, uncompressedSize);
+            }
+            compressedSize = compression.compress(scratch[0], 0, uncompressedSize, scratch[1], 0,
+                    uncompressedSize - 1);
+            if (compressedSize >= 0) {
+                compressed = scratch[1];
+            }
+            _persistit.getIOMeter().chargeCompressPage(uncompressedSize + Buffer.HEADER_SIZE,
+                    compressed == null ? -1 : compressedSize + Buffer.HEADER_SIZE, System.nanoTime() - start);
+        }
 
         synchronized (this) {
 
@@ -1082,19 +1298,10 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 _persistit.getLogBase().lateWrite.log(_lastValidCheckpoint, buffer);
             }
 
-            volume = buffer.getVolume();
             final int handle = handleForVolume(volume);
-            int leftSize;
-            int rightSize;
-            if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
-                leftSize = buffer.getKeyBlockEnd();
-                rightSize = buffer.getBufferSize() - buffer.getAlloc();
-            } else {
-                leftSize = 0;
-                rightSize = buffer.getBufferSize();
-            }
 
-            recordSize = PA.OVERHEAD + leftSize + rightSize;
+            recordSize = PA.OVERHEAD
+                    + (compressed == null ? leftSize + rightSize : Buffer.HEADER_SIZE + compressedSize);
 
             prepareWriteBuffer(recordSize);
             Debug.$assert1.t(_writeBuffer.remaining() >= recordSize);
@@ -1107,11 +1314,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             PA.putType(_writeBuffer);
             JournalRecord.putTimestamp(_writeBuffer, buffer.isTemporary() ? -1 : buffer.getTimestamp());
             PA.putLeftSize(_writeBuffer, leftSize);
-            PA.putBufferSize(_writeBuffer, buffer.getBufferSize());
+            PA.putBufferSize(_writeBuffer, buffer.getBufferSize(), compressed == null ? 0 : compression.getCode());
             PA.putPageAddress(_writeBuffer, buffer.getPageAddress());
             advance(PA.OVERHEAD);
 
-            if (leftSize > 0) {
+            if (compressed != null) {
+                _writeBuffer.put(buffer.getBytes(), 0, Buffer.HEADER_SIZE);
+                _writeBuffer.put(compressed, 0, compressedSize);
+            } else if (leftSize > 0) {
                 _writeBuffer.put(buffer.getBytes(), 0, leftSize);
                 _writeBuffer.put(buffer.getBytes(), buffer.getBufferSize() - rightSize, rightSize);
             } else {
@@ -1122,7 +1332,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
             final PageNode pageNode = new PageNode(handle, buffer.getPageAddress(), address, buffer.getTimestamp());
             _pageList.add(pageNode);
-            PageNode oldPageNode = _pageMap.put(pageNode, pageNode);
+            PageNode oldPageNode = _pageMap.put(pageNode);
 
             if (oldPageNode != null) {
                 assert oldPageNode.getTimestamp() <= pageNode.getTimestamp();
@@ -1304,6 +1514,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         if (copier != null) {
             _persistit.waitForIOTaskStop(copier);
         }
+        shutdownCopyWriters();
 
         final JournalFlusher flusher = _flusher;
         _flusher = null;
@@ -1350,6 +1561,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     void crash() throws IOException {
         IOTaskRunnable.crash(_flusher);
         IOTaskRunnable.crash(_copier);
+        shutdownCopyWriters();
         //
         // Even when simulating a crash do this to release
         // channels and therefore allow disk space to be returned to
@@ -1815,6 +2027,15 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * General method used to wait for durability. This method is used by all
      * three commit modes: SOFT, HARD and GROUP. The two parameters represent
      * time intervals in milliseconds.
+     * <p>
+     * When <code>leadTime</code> is zero (HARD and GROUP) the caller joins the
+     * group commit pipeline: the first thread to find no flush cycle in
+     * progress becomes the leader and performs one flush and
+     * <code>FileChannel.force()</code> on behalf of every thread waiting at
+     * that time. The leader may first wait briefly to gather more commits; the
+     * length of that window adapts to the recent arrival rate of commits, the
+     * size of recent batches and the measured duration of the force operation.
+     * </p>
      *
      * @param flushedTimestamp
      *            a timestamp taken after the transaction buffer belonging to
@@ -1829,7 +2050,9 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      *            wait for I/O completion. If if the JOURNAL_FLUSHER is
      *            currently pausing, the pause time may be shortened to try to
      *            complete the I/O when requested. In particular, a value of
-     *            zero indicates the I/O should start immediately.
+     *            zero indicates the I/O should start immediately. For a group
+     *            commit this is the upper bound on the gathering window; zero
+     *            bounds it by half the expected I/O time.
      * @throws PersistitInterruptedException
      */
 
@@ -1907,7 +2130,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
         final long _timestamp;
 
-        long _journalAddress;
+        volatile long _journalAddress;
 
         int _offset;
 
@@ -2256,6 +2479,23 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         volatile long _startTimestamp;
         volatile long _endTimestamp;
 
+        /*
+         * Group commit state. A flush cycle, whether run by this thread or by
+         * a committing thread acting as leader, holds _cycleLock. Every commit
+         * with a flushed timestamp below _durableTimestamp is known durable.
+         * The arrival and batch estimates are updated without synchronization;
+         * they only steer the gathering window.
+         */
+        final ReentrantLock _cycleLock = new ReentrantLock();
+        final Object _cycleMonitor = new Object();
+        final AtomicInteger _waitingCommitters = new AtomicInteger();
+        volatile long _durableTimestamp;
+        volatile long _cycleCount;
+        volatile long _lastArrivalTime = System.nanoTime();
+        volatile long _arrivalInterval = Long.MAX_VALUE / 2;
+        volatile int _expectedBatchSize = 1;
+        volatile long _groupCommitWindow;
+
         JournalFlusher() {
             super(JournalManager.this._persistit);
         }
@@ -2272,6 +2512,10 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
          */
         private void waitForDurability(final long flushedTimestamp, final long leadTime, final long stallTime)
                 throws PersistitException {
+            if (leadTime == 0) {
+                groupCommit(flushedTimestamp, stallTime);
+                return;
+            }
             /*
              * Commit is known durable once the JOURNAL_FLUSHER thread has
              * posted an _endTimestamp larger than flushedTimestamp.
@@ -2370,64 +2614,164 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             _totalCommitWaitTime.addAndGet(System.nanoTime() - now);
         }
 
-        @Override
-        protected void runTask() {
-            _flushing.set(true);
+        /**
+         * Wait until the journal has been forced beyond the supplied
+         * timestamp, leading a flush cycle if none is in progress.
+         */
+        private void groupCommit(final long flushedTimestamp, final long stallTime) throws PersistitException {
+            final long now = System.nanoTime();
+            final long interval = now - _lastArrivalTime;
+            _lastArrivalTime = now;
+            _arrivalInterval += (Math.min(interval, Long.MAX_VALUE / 2) - _arrivalInterval) / 8;
+            _waitingCommitters.incrementAndGet();
             try {
-                try {
-                    /*
-                     * This lock is intended only to help other threads in
-                     * waitForDurability to know when the I/O operation has
-                     * finished.
-                     */
-                    try {
-                        _startTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
-                        _startTime = System.nanoTime();
-                        /*
-                         * Flush the write buffer and call FileChannel.force().
-                         */
-                        force();
-
-                    } finally {
-                        _endTime = System.nanoTime();
-                        _endTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
+                while (_durableTimestamp <= flushedTimestamp) {
+                    final long cycle = _cycleCount;
+                    if (_cycleLock.tryLock()) {
+                        try {
+                            if (_durableTimestamp <= flushedTimestamp) {
+                                gather(stallTime);
+                                flushCycle();
+                            }
+                        } finally {
+                            _cycleLock.unlock();
+                        }
+                    } else {
+                        awaitCycle(cycle);
                     }
+                }
+            } finally {
+                _waitingCommitters.decrementAndGet();
+            }
+            _totalCommits.incrementAndGet();
+            _totalCommitWaitTime.addAndGet(System.nanoTime() - now);
+        }
 
-                    final long elapsed = _endTime - _startTime;
-                    _totalFlushCycles.incrementAndGet();
-                    _totalFlushIoTime.addAndGet(elapsed);
-                    _ioTimes[_ioCycle] = elapsed;
-                    _ioCycle = (_ioCycle + 1) % IO_MEASUREMENT_CYCLES;
-
-                    long avg = 0;
-                    for (int index = 0; index < IO_MEASUREMENT_CYCLES; index++) {
-                        avg += _ioTimes[index];
+        /**
+         * Called by a group commit leader before starting a flush cycle. Wait
+         * until as many committers as joined recent batches are waiting, until
+         * commits stop arriving, or until the window expires. The window is
+         * zero when the next commit is not expected to arrive within it, so a
+         * lone committer never waits.
+         */
+        private void gather(final long stallTime) {
+            final long limit = stallTime > 0 ? stallTime * NS_PER_MS : _expectedIoTime / 2;
+            final long interval = _arrivalInterval;
+            final int expected = _expectedBatchSize;
+            long window = 0;
+            if (interval < limit && _waitingCommitters.get() < expected) {
+                window = Math.min(limit, interval * expected);
+            }
+            _groupCommitWindow = window;
+            if (window > 0) {
+                final long start = System.nanoTime();
+                while (true) {
+                    LockSupport.parkNanos(GROUP_COMMIT_POLL_NANOS);
+                    final long now = System.nanoTime();
+                    if (now - start >= window || _waitingCommitters.get() >= expected
+                            || now - _lastArrivalTime > 2 * interval) {
+                        break;
                     }
-                    avg /= IO_MEASUREMENT_CYCLES;
+                }
+            }
+        }
 
-                    _expectedIoTime = avg;
-                    if (elapsed > _slowIoAlertThreshold * NS_PER_MS) {
-                        _persistit.getLogBase().longJournalIO.log(elapsed / NS_PER_MS, IO_MEASUREMENT_CYCLES, avg
-                                / NS_PER_MS);
+        /**
+         * Called by a group commit follower. Wait until the flush cycle
+         * following the one numbered <code>cycle</code> has finished.
+         */
+        private void awaitCycle(final long cycle) throws PersistitInterruptedException {
+            synchronized (_cycleMonitor) {
+                if (_cycleCount == cycle && _cycleLock.isLocked()) {
+                    try {
+                        _cycleMonitor.wait(GROUP_COMMIT_MAX_WAIT_MS);
+                    } catch (final InterruptedException e) {
+                        throw new PersistitInterruptedException(e);
                     }
+                }
+            }
+        }
 
-                } catch (final Exception e) {
-                    if (e instanceof InterruptedException || e instanceof FatalErrorException) {
-                        _closed.set(true);
-                    } else if (e instanceof PersistitException) {
-                        _persistit.getAlertMonitor().post(
-                                new Event(AlertLevel.ERROR, _persistit.getLogBase().journalWriteError, e,
-                                        addressToFile(_writeBufferAddress), addressToOffset(_writeBufferAddress)),
-                                AlertMonitor.JOURNAL_CATEGORY);
-                    } else {
-                        _persistit.getLogBase().journalWriteError.log(e, addressToFile(_writeBufferAddress),
-                                addressToOffset(_writeBufferAddress));
-                    }
+        /**
+         * Flush the write buffer and call FileChannel.force(). The caller must
+         * hold _cycleLock. Threads waiting for durability are released when
+         * the cycle completes successfully.
+         */
+        private void flushCycle() throws PersistitException {
+            _flushing.set(true);
+            final int batch = _waitingCommitters.get();
+            boolean forced = false;
+            try {
+                try {
+                    _startTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
+                    _startTime = System.nanoTime();
+                    force();
+                    forced = true;
+                } finally {
+                    _endTime = System.nanoTime();
+                    _endTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
+                }
+
+                final long elapsed = _endTime - _startTime;
+                _totalFlushCycles.incrementAndGet();
+                _totalFlushIoTime.addAndGet(elapsed);
+                _ioTimes[_ioCycle] = elapsed;
+                _ioCycle = (_ioCycle + 1) % IO_MEASUREMENT_CYCLES;
+
+                long avg = 0;
+                for (int index = 0; index < IO_MEASUREMENT_CYCLES; index++) {
+                    avg += _ioTimes[index];
+                }
+                avg /= IO_MEASUREMENT_CYCLES;
+
+                _expectedIoTime = avg;
+                if (elapsed > _slowIoAlertThreshold * NS_PER_MS) {
+                    _persistit.getLogBase().longJournalIO.log(elapsed / NS_PER_MS, IO_MEASUREMENT_CYCLES, avg
+                            / NS_PER_MS);
+                }
+                if (batch > 0) {
+                    _totalGroupCommitBatches.incrementAndGet();
+                    _totalGroupCommitBatchedCommits.addAndGet(batch);
+                    /*
+                     * Grow the expected batch size at once but let it decay
+                     * slowly so that one short batch does not end the next
+                     * gathering window early.
+                     */
+                    final int expected = _expectedBatchSize;
+                    _expectedBatchSize = batch >= expected ? batch : expected - (expected - batch + 7) / 8;
                 }
             } finally {
                 _flushing.set(false);
+                synchronized (_cycleMonitor) {
+                    if (forced) {
+                        _durableTimestamp = _startTimestamp;
+                    }
+                    _cycleCount++;
+                    _cycleMonitor.notifyAll();
+                }
             }
+        }
 
+        @Override
+        protected void runTask() {
+            _cycleLock.lock();
+            try {
+                flushCycle();
+            } catch (final Exception e) {
+                if (e instanceof InterruptedException || e instanceof FatalErrorException) {
+                    _closed.set(true);
+                } else if (e instanceof PersistitException) {
+                    _persistit.getAlertMonitor().post(
+                            new Event(AlertLevel.ERROR, _persistit.getLogBase().journalWriteError, e,
+                                    addressToFile(_writeBufferAddress), addressToOffset(_writeBufferAddress)),
+                            AlertMonitor.JOURNAL_CATEGORY);
+                } else {
+                    _persistit.getLogBase().journalWriteError.log(e, addressToFile(_writeBufferAddress),
+                            addressToOffset(_writeBufferAddress));
+                }
+            } finally {
+                _cycleLock.unlock();
+            }
         }
 
         @Override
@@ -2521,7 +2865,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         Collections.sort(list, PageNode.WRITE_COMPARATOR);
         Volume volume = null;
         int handle = -1;
-        final Set<Volume> volumes = new HashSet<Volume>();
+        /*
+         * Runs of consecutive pages, grouped by volume
+         */
+        final List<List<CopyRun>> volumeRuns = new ArrayList<List<CopyRun>>();
+        CopyRun run = null;
 
         for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
             final PageNode pageNode = iterator.next();
@@ -2560,30 +2908,174 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 continue;
             }
 
-            final long pageAddress = pageNode.getPageAddress();
-            volume.getStorage().extend(pageAddress);
-            final int pageSize = volume.getPageSize();
-            final int at = pageNode.getOffset();
-            bb.limit(bb.capacity()).position(at).limit(at + pageSize);
+            if (run == null || !run.append(volume, pageNode)) {
+                if (run == null || run._volume != volume) {
+                    volumeRuns.add(new ArrayList<CopyRun>());
+                }
+                run = new CopyRun(volume, pageNode);
+                volumeRuns.get(volumeRuns.size() - 1).add(run);
+            }
+        }
 
+        int copied = 0;
+        final int threads = Math.min(_copierThreads, volumeRuns.size());
+        if (threads <= 1) {
+            for (final List<CopyRun> runs : volumeRuns) {
+                copied += writeRunsForCopy(runs, bb);
+            }
+        } else {
+            /*
+             * Each volume is written by one task so that its runs are
+             * written in ascending page order.
+             */
+            final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            final ExecutorService writers = copyWriters(threads);
+            for (final List<CopyRun> runs : volumeRuns) {
+                futures.add(writers.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws PersistitException {
+                        return writeRunsForCopy(runs, bb);
+                    }
+                }));
+            }
+            PersistitException exception = null;
+            for (final Future<Integer> future : futures) {
+                try {
+                    copied += future.get();
+                } catch (final InterruptedException e) {
+                    throw new PersistitInterruptedException(e);
+                } catch (final ExecutionException e) {
+                    if (exception == null) {
+                        exception = e.getCause() instanceof PersistitException ? (PersistitException) e.getCause()
+                                : new PersistitException(e.getCause());
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+        _copiedPageCount += copied;
+    }
+
+    /**
+     * Write runs of pages of one volume to the volume file, one gather write
+     * per run, and then force the volume.
+     *
+     * @return the number of pages written
+     */
+    private int writeRunsForCopy(final List<CopyRun> runs, final ByteBuffer bb) throws PersistitException {
+        int copied = 0;
+        final Volume volume = runs.get(0)._volume;
+        final int pageSize = volume.getPageSize();
+        for (final CopyRun run : runs) {
+            final int count = run._pageNodes.size();
+            final ByteBuffer[] buffers = new ByteBuffer[count];
+            for (int index = 0; index < count; index++) {
+                final PageNode pageNode = run._pageNodes.get(index);
+                volume.getStorage().extend(pageNode.getPageAddress());
+                final int at = pageNode.getOffset();
+                final ByteBuffer buffer = bb.duplicate();
+                buffer.clear();
+                buffer.position(at).limit(at + pageSize);
+                buffers[index] = buffer;
+            }
+            chargeCopierBudget((long) count * pageSize);
             try {
-                volume.getStorage().writePage(bb, pageAddress);
-                volumes.add(volume);
+                volume.getStorage().writePages(buffers, run._firstPage);
             } catch (final PersistitException ioe) {
+                final PageNode pageNode = run._pageNodes.get(0);
                 _persistit.getLogBase().copyException.log(ioe, volume, pageNode.getPageAddress(),
                         pageNode.getJournalAddress());
                 throw ioe;
             }
+            _copiedRunCount.incrementAndGet();
+            for (final PageNode pageNode : run._pageNodes) {
+                _persistit.getIOMeter().chargeCopyPageToVolume(volume, pageNode.getPageAddress(), pageSize,
+                        pageNode.getJournalAddress(), urgency());
+            }
+            copied += count;
+        }
+        volume.getStorage().force();
+        return copied;
+    }
 
-            _copiedPageCount++;
-            _persistit.getIOMeter().chargeCopyPageToVolume(volume, pageAddress, volume.getPageSize(),
-                    pageNode.getJournalAddress(), urgency());
+    /**
+     * Delay the caller as needed to keep page copying within the configured
+     * budget. The budget is ignored once the journal is close to urgent,
+     * because then throttled commits cost more than copier I/O.
+     */
+    private void chargeCopierBudget(final long bytes) throws PersistitInterruptedException {
+        final long budget = _copierBudget;
+        if (budget == 0 || _copyFast.get() || urgency() > HALF_URGENT) {
+            return;
         }
+        final long cost = bytes * NS_PER_S / (budget * MEGA);
+        while (true) {
+            final long now = System.nanoTime();
+            final long clock = _copierBudgetClock.get();
+            final long start = Math.max(clock, now);
+            if (_copierBudgetClock.compareAndSet(clock, start + cost)) {
+                if (start > now) {
+                    Util.sleep((start - now) / NS_PER_MS);
+                }
+                return;
+            }
+        }
+    }
 
-        for (final Volume vol : volumes) {
-            vol.getStorage().force();
+    private synchronized ExecutorService copyWriters(final int threads) {
+        if (_copyWriters == null || _copyWriterCount != threads) {
+            if (_copyWriters != null) {
+                _copyWriters.shutdown();
+            }
+            _copyWriters = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger _counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "JOURNAL_COPIER_WRITER_" + _counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            _copyWriterCount = threads;
         }
+        return _copyWriters;
+    }
 
+    private synchronized void shutdownCopyWriters() {
+        if (_copyWriters != null) {
+            _copyWriters.shutdownNow();
+            _copyWriters = null;
+        }
+    }
+
+    /**
+     * Consecutive pages of one volume selected for copying
+     */
+    private static class CopyRun {
+
+        final Volume _volume;
+
+        final long _firstPage;
+
+        final List<PageNode> _pageNodes = new ArrayList<PageNode>();
+
+        CopyRun(final Volume volume, final PageNode pageNode) {
+            _volume = volume;
+            _firstPage = pageNode.getPageAddress();
+            _pageNodes.add(pageNode);
+        }
+
+        boolean append(final Volume volume, final PageNode pageNode) {
+            if (volume == _volume && _pageNodes.size() < MAXIMUM_COPY_RUN_PAGES
+                    && pageNode.getPageAddress() == _firstPage + _pageNodes.size()) {
+                _pageNodes.add(pageNode);
+                return true;
+            }
+            return false;
+        }
     }
 
     private void cleanupForCopy(final List<PageNode> list) throws PersistitException {
@@ -2721,28 +3213,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @return Count of removed PageNode instances.
      */
     int cleanupPageList() {
-        final int size = _pageList.size();
-        int from;
-        for (from = 0; from < size && !_pageList.get(from).isInvalid(); from++)
-            ;
-        int to = from;
-        for (from = from + 1; from < size; from++) {
-            final PageNode pn = _pageList.get(from);
-            if (!pn.isInvalid()) {
-                _pageList.set(to++, pn);
-            }
-        }
-        if (size > to) {
-            _pageList.removeRange(to, size);
-        }
-        return size - to;
+        return _pageList.removeInvalid();
     }
 
     synchronized void truncate(final Volume volume, final long timestamp) {
-        for (final PageNode lastPageNode : _pageMap.values()) {
+        for (final PageNode lastPageNode : _pageMap.values(volume.getHandle())) {
             PageNode pageNode = lastPageNode;
             while (pageNode != null) {
-                if (volume.getHandle() == pageNode.getVolumeHandle() && pageNode.getTimestamp() < timestamp) {
+                if (pageNode.getTimestamp() < timestamp) {
                     pageNode.invalidate();
                 }
                 pageNode = pageNode.getPrevious();
@@ -2942,17 +3420,6 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     }
 
-    /**
-     * Extend ArrayList to export the removeRange method.
-     */
-    @SuppressWarnings("serial")
-    static class RangeRemovingArrayList<T> extends ArrayList<T> {
-        @Override
-        public void removeRange(final int fromIndex, final int toIndex) {
-            super.removeRange(fromIndex, toIndex);
-        }
-    }
-
     private long rolloverThreshold() {
         return _closed.get() ? 0 : ROLLOVER_THRESHOLD;
     }
@@ -3031,7 +3498,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     public PageNode queryPageNode(final int volumeHandle, final long pageAddress) {
-        final PageNode pn = _pageMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+        final PageNode pn = _pageMap.get(volumeHandle, pageAddress);
         if (pn != null) {
             return new PageNode(pn);
         } else {
@@ -3040,7 +3507,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     public PageNode queryBranchNode(final int volumeHandle, final long pageAddress) {
-        final PageNode pn = _branchMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+        final PageNode pn = _branchMap.get(volumeHandle, pageAddress);
         if (pn != null) {
             return new PageNode(pn);
         } else {
@@ -22,7 +22,10 @@ import java.io.File;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Properties;
 
+import com.persistit.Transaction.CommitPolicy;
 import com.persistit.util.ArgParser;
 
 /**
@@ -41,6 +44,13 @@ import com.persistit.util.ArgParser;
  * journal file will be written (default = /tmp/persistit_test_data) buffersize
  * - emulated journal buffer size (default = 64M)
  * 
+ * With mode=commit the benchmark instead runs short transactions against a
+ * real Persistit instance in datapath, committing them with the selected
+ * policy from each of the listed numbers of threads in turn, and reports
+ * commits per second and the median and 99th percentile commit latency for
+ * each thread count. This measures the group commit pipeline in
+ * {@link JournalManager}.
+ * 
  * 
  * @author peter
  * 
@@ -56,7 +66,9 @@ public class JournalManagerBench {
             "extension|int:0:0:1024|MBytes by which to extend file when full",
             "prealloc|int:0:0:1024|Preallocated file size in MBytes",
             "align|int:1:1:65536|Blocking factor for I/O size",
-            "recsize|int:123:64:65536|Emulated transaction record size" };
+            "recsize|int:123:64:65536|Emulated transaction record size",
+            "mode|String:io|io: emulate journal I/O, commit: commit Persistit transactions",
+            "threads|String:1,2,4,8,16,32|Thread counts to run in commit mode" };
 
     final ByteBuffer buffer;
     final ArgParser ap;
@@ -75,7 +87,11 @@ public class JournalManagerBench {
 
     public static void main(final String[] args) throws Exception {
         final JournalManagerBench jmb = new JournalManagerBench(args);
-        jmb.runTest();
+        if ("commit".equalsIgnoreCase(jmb.ap.getStringValue("mode"))) {
+            jmb.runCommitTest();
+        } else {
+            jmb.runTest();
+        }
     }
 
     private JournalManagerBench(final String[] args) throws Exception {
@@ -112,6 +128,123 @@ public class JournalManagerBench {
 
     }
 
+    private void runCommitTest() throws Exception {
+        final CommitPolicy policy = CommitPolicy.forName(ap.getStringValue("policy"));
+        final long duration = ap.getIntValue("duration") * NS_PER_S;
+        final File directory = new File(ap.getStringValue("datapath"), "JManBench_Commit");
+        for (final String threadCount : ap.getStringValue("threads").split(",")) {
+            final int threads = Integer.parseInt(threadCount.trim());
+            delete(directory);
+            directory.mkdirs();
+            final Properties properties = new Properties();
+            properties.setProperty("datapath", directory.getAbsolutePath());
+            properties.setProperty("buffer.count.16384", "1000");
+            properties.setProperty("volume.1", "${datapath}/bench,create,pageSize:16384,initialPages:100,"
+                    + "extensionPages:1000,maximumPages:10000000");
+            properties.setProperty("journalpath", "${datapath}/persistit_journal");
+            properties.setProperty("logfile", "${datapath}/persistit.log");
+            final Persistit persistit = new Persistit(properties);
+            try {
+                final CommitThread[] committers = new CommitThread[threads];
+                final long start = System.nanoTime();
+                for (int i = 0; i < threads; i++) {
+                    committers[i] = new CommitThread(persistit, policy, i, start + duration);
+                    committers[i].start();
+                }
+                int count = 0;
+                for (final CommitThread committer : committers) {
+                    committer.join();
+                    if (committer.error != null) {
+                        throw committer.error;
+                    }
+                    count += committer.count;
+                }
+                final long elapsed = System.nanoTime() - start;
+                final long[] latencies = new long[count];
+                int index = 0;
+                for (final CommitThread committer : committers) {
+                    System.arraycopy(committer.latencies, 0, latencies, index, committer.count);
+                    index += committer.count;
+                }
+                Arrays.sort(latencies);
+                final JournalManager jman = persistit.getJournalManager();
+                final long batches = jman.getGroupCommitBatchCount();
+                System.out.printf("%s threads=%,d commits=%,d rate=%,d/second p50=%,dus p99=%,dus "
+                        + "average batch=%.1f\n", policy, threads, count, count * NS_PER_S / elapsed,
+                        percentile(latencies, 50) / 1000, percentile(latencies, 99) / 1000,
+                        batches == 0 ? 0.0 : (double) jman.getGroupCommitBatchedCommitCount() / batches);
+            } finally {
+                persistit.close(false);
+            }
+        }
+        delete(directory);
+    }
+
+    private static long percentile(final long[] sorted, final int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * percent / 100))];
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class CommitThread extends Thread {
+
+        private final Persistit persistit;
+        private final CommitPolicy policy;
+        private final int id;
+        private final long expires;
+
+        long[] latencies = new long[65536];
+        int count;
+        Exception error;
+
+        CommitThread(final Persistit persistit, final CommitPolicy policy, final int id, final long expires) {
+            super("COMMITTER_" + id);
+            this.persistit = persistit;
+            this.policy = policy;
+            this.id = id;
+            this.expires = expires;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final Exchange exchange = persistit.getExchange("bench", "bench", true);
+                final Transaction txn = persistit.getTransaction();
+                long now = System.nanoTime();
+                while (now < expires) {
+                    txn.begin();
+                    try {
+                        exchange.getValue().put(now);
+                        exchange.clear().append(id).append(count).store();
+                        txn.commit(policy);
+                    } finally {
+                        txn.end();
+                    }
+                    final long then = System.nanoTime();
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = then - now;
+                    now = then;
+                }
+                persistit.releaseExchange(exchange);
+            } catch (final Exception e) {
+                error = e;
+            }
+        }
+    }
+
     private void preallocateFile(final long size) throws Exception {
         if (size > 0 && fc.size() > size) {
             System.out.printf("Truncating file %s from %,d to %,d\n", file, fc.size(), size);
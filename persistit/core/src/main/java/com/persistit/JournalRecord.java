@@ -185,9 +185,16 @@ import com.persistit.util.Util;
  * </tr>
  * <tr valign="top">
  * <td>+32</td>
+ * <td>bufferSize (char) in the low 16 bits; {@link PageCompression} code in
+ * the high 16 bits</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+36</td>
  * <td>bytes: the first leftSize bytes will go into the page at offset 0 the
  * remaining bytes will go to the end of the page; the middle of the page will
- * be cleared</td>
+ * be cleared. If the compression code is non-zero, the first
+ * {@link Buffer#HEADER_SIZE} bytes are stored as is and the remaining bytes
+ * are compressed.</td>
  * </tr>
  * </table>
  * </td>
@@ -845,11 +852,40 @@ public class JournalRecord {
         }
 
         public static int getBufferSize(final ByteBuffer bb) {
-            return getInt(bb, 32);
+            return getInt(bb, 32) & 0xFFFF;
         }
 
         public static void putBufferSize(final ByteBuffer bb, final int bufferSize) {
-            putInt(bb, 32, (char) bufferSize);
+            putBufferSize(bb, bufferSize, 0);
+        }
+
+        public static int getCompression(final ByteBuffer bb) {
+            return getInt(bb, 32) >>> 16;
+        }
+
+        public static void putBufferSize(final ByteBuffer bb, final int bufferSize, final int compression) {
+            putInt(bb, 32, compression << 16 | (char) bufferSize);
+        }
+
+        /**
+         * Expand the payload of a compressed PA record. The page header is
+         * copied as is and the remainder is decompressed after it. The result
+         * has the same form as an uncompressed payload: leftSize bytes
+         * followed by the right part of the page.
+         *
+         * @return size of the expanded payload, or -1 if the compression code
+         *         is unknown or the payload is malformed
+         */
+        static int expand(final int compression, final byte[] src, final int srcOffset, final int payloadSize,
+                final byte[] dest, final int destOffset, final int bufferSize) {
+            final PageCompression algorithm = PageCompression.forCode(compression);
+            if (algorithm == null || payloadSize < Buffer.HEADER_SIZE) {
+                return -1;
+            }
+            System.arraycopy(src, srcOffset, dest, destOffset, Buffer.HEADER_SIZE);
+            final int size = algorithm.decompress(src, srcOffset + Buffer.HEADER_SIZE, payloadSize
+                    - Buffer.HEADER_SIZE, dest, destOffset + Buffer.HEADER_SIZE, bufferSize - Buffer.HEADER_SIZE);
+            return size < 0 ? -1 : size + Buffer.HEADER_SIZE;
         }
 
     }
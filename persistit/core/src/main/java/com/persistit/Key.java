@@ -30,6 +30,7 @@ import com.persistit.exception.ConversionException;
 import com.persistit.exception.InvalidKeyException;
 import com.persistit.exception.KeyTooLongException;
 import com.persistit.exception.MissingKeySegmentException;
+import com.persistit.util.Bytes;
 import com.persistit.util.Util;
 
 /**
@@ -1144,12 +1145,9 @@ public final class Key implements Comparable<Object> {
         int size = size1;
         if (size2 < size1)
             size = size2;
-        for (int i = 0; i < size; i++) {
-            final int b1 = bytes1[i] & 0xFF;
-            final int b2 = bytes2[i] & 0xFF;
-            if (b1 != b2)
-                return b1 - b2;
-        }
+        final int i = Bytes.mismatch(bytes1, 0, bytes2, 0, size);
+        if (i >= 0)
+            return (bytes1[i] & 0xFF) - (bytes2[i] & 0xFF);
         if (size1 > size)
             return Integer.MAX_VALUE;
         if (size2 > size1)
@@ -1188,11 +1186,10 @@ public final class Key implements Comparable<Object> {
         if (size > fragmentSize + fragmentStart) {
             size = fragmentSize + fragmentStart;
         }
-        for (int i = fragmentStart; i < size; i++) {
-            final int b1 = bytes1[i] & 0xFF;
-            final int b2 = bytes2[i] & 0xFF;
-            if (b1 != b2) {
-                return b1 - b2;
+        if (size > fragmentStart) {
+            final int i = Bytes.mismatch(bytes1, fragmentStart, bytes2, fragmentStart, size - fragmentStart);
+            if (i >= 0) {
+                return (bytes1[fragmentStart + i] & 0xFF) - (bytes2[fragmentStart + i] & 0xFF);
             }
         }
         if (size == fragmentSize + fragmentStart)
@@ -1227,16 +1224,19 @@ public final class Key implements Comparable<Object> {
         final int count2 = key.getEncodedSize() - key.getIndex();
         final int count = Math.min(count1, count2);
 
-        for (int i = 0; i < count; i++) {
-            final int b1 = bytes1[i + index1] & 0xFF;
-            final int b2 = bytes2[i + index2] & 0xFF;
-            if (b1 != b2) {
-                return b1 - b2;
-            }
-            if (b1 == 0) {
+        final int mismatch = count > 0 ? Bytes.mismatch(bytes1, index1, bytes2, index2, count) : -1;
+        /*
+         * The segments are equal if both end before the first unequal byte.
+         */
+        final int end = index1 + (mismatch >= 0 ? mismatch : count);
+        for (int i = index1; i < end; i++) {
+            if (bytes1[i] == 0) {
                 return 0;
             }
         }
+        if (mismatch >= 0) {
+            return (bytes1[index1 + mismatch] & 0xFF) - (bytes2[index2 + mismatch] & 0xFF);
+        }
         return count1 - count2;
     }
 
@@ -1257,12 +1257,8 @@ public final class Key implements Comparable<Object> {
         if (end > key._size) {
             end = key._size;
         }
-        for (int index = 0; index < end; index++) {
-            if (key._bytes[index] != _bytes[index]) {
-                return index;
-            }
-        }
-        return end;
+        final int index = Bytes.mismatch(key._bytes, 0, _bytes, 0, end);
+        return index >= 0 ? index : end;
     }
 
     /**
@@ -943,6 +943,16 @@ public interface Management extends Remote, ManagementMXBean {
         int readerClaimedPageCount;
         int writerClaimedPageCount;
         long earliestDirtyTimestamp;
+        long offHeapMemory;
+        long offHeapHitCount;
+        long offHeapMissCount;
+        long offHeapEvictCount;
+        String evictionPolicy;
+        long policyHitCount;
+        long policyMissCount;
+        long policyProtectedHitCount;
+        long policyPromoteCount;
+        int policyProtectedCount;
 
         public BufferPoolInfo() {
 
@@ -1124,6 +1134,87 @@ public interface Management extends Remote, ManagementMXBean {
         public long getEarliestDirtyTimestamp() {
             return earliestDirtyTimestamp;
         }
+
+        /**
+         * @return Size in bytes of the off-heap page cache backing this pool,
+         *         or zero if there is none
+         */
+        public long getOffHeapMemory() {
+            return offHeapMemory;
+        }
+
+        /**
+         * Return the count of pool misses that were satisfied from the
+         * off-heap page cache without a disk read.
+         * 
+         * @return The off-heap hit count
+         */
+        public long getOffHeapHitCount() {
+            return offHeapHitCount;
+        }
+
+        /**
+         * Return the count of pool misses that were not found in the off-heap
+         * page cache and therefore required a disk read.
+         * 
+         * @return The off-heap miss count
+         */
+        public long getOffHeapMissCount() {
+            return offHeapMissCount;
+        }
+
+        /**
+         * Return the count of page images discarded from the off-heap page
+         * cache to make room for others.
+         * 
+         * @return The off-heap evict count
+         */
+        public long getOffHeapEvictCount() {
+            return offHeapEvictCount;
+        }
+
+        /**
+         * @return Name of the policy that selects pages to evict
+         */
+        public String getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        /**
+         * @return Count of hits recorded by the eviction policy
+         */
+        public long getPolicyHitCount() {
+            return policyHitCount;
+        }
+
+        /**
+         * @return Count of pages admitted to the pool by the eviction policy
+         */
+        public long getPolicyMissCount() {
+            return policyMissCount;
+        }
+
+        /**
+         * @return Count of hits on pages in the eviction policy's protected set
+         */
+        public long getPolicyProtectedHitCount() {
+            return policyProtectedHitCount;
+        }
+
+        /**
+         * @return Count of pages promoted to the eviction policy's protected
+         *         set
+         */
+        public long getPolicyPromoteCount() {
+            return policyPromoteCount;
+        }
+
+        /**
+         * @return Number of buffers in the eviction policy's protected set
+         */
+        public int getPolicyProtectedCount() {
+            return policyProtectedCount;
+        }
     }
 
     /**
@@ -77,6 +77,8 @@ class MediatedFileChannel extends FileChannel {
     volatile FileChannel _channel;
     volatile FileChannel _lockChannel;
 
+    private final Object _gatherLock = new Object();
+
     MediatedFileChannel(final String path, final String mode) throws IOException {
         this(new File(path), mode);
     }
@@ -233,6 +235,42 @@ class MediatedFileChannel extends FileChannel {
         }
     }
 
+    /**
+     * Write a sequence of buffers to consecutive positions starting at the
+     * supplied file position using a single gather write. <code>FileChannel</code>
+     * has no positional gather write, so this method sets the position of the
+     * inner channel, which no other method of this class uses, while holding
+     * a lock that serializes callers.
+     * 
+     * @return the number of bytes written
+     */
+    public long write(final ByteBuffer[] byteBuffers, final long position) throws IOException {
+        final int[] offsets = new int[byteBuffers.length];
+        long remaining = 0;
+        for (int index = 0; index < byteBuffers.length; index++) {
+            offsets[index] = byteBuffers[index].position();
+            remaining += byteBuffers[index].remaining();
+        }
+        synchronized (_gatherLock) {
+            while (true) {
+                try {
+                    final FileChannel channel = _channel;
+                    channel.position(position);
+                    long written = 0;
+                    while (written < remaining) {
+                        written += channel.write(byteBuffers);
+                    }
+                    return written;
+                } catch (final ClosedChannelException e) {
+                    handleClosedChannelException(e);
+                }
+                for (int index = 0; index < byteBuffers.length; index++) {
+                    byteBuffers[index].position(offsets[index]);
+                }
+            }
+        }
+    }
+
     /**
      * Implement closing of this <code>MediatedFileChannel</code> by closing the
      * real channel and setting the <code>_reallyClosed</code> flag. The flag
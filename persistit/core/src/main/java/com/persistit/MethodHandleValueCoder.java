@@ -0,0 +1,260 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.persistit.encoding.CoderContext;
+import com.persistit.encoding.ValueRenderer;
+import com.persistit.exception.ConversionException;
+
+/**
+ * <p>
+ * A {@link DefaultValueCoder} that copies fields between objects and
+ * {@link Value}s through a <code>MethodHandle</code> composed for its class
+ * when the coder is constructed, rather than through
+ * <code>java.lang.reflect.Field</code> on every call. The composed handle
+ * reads each field with a direct getter and passes it to the
+ * <code>Value.put</code> overload for the field's type, so primitive fields
+ * are neither boxed nor dispatched through a per-field accessor object.
+ * </p>
+ * <p>
+ * The serialized form is identical to that of <code>DefaultValueCoder</code>:
+ * the fields of serializable superclasses come first and the fields of each
+ * class are written in the same order. Records written by either coder can be
+ * read by the other. Classes that are <code>Externalizable</code> or define
+ * <code>writeObject</code> or <code>readObject</code>, or that have a
+ * superclass with a custom <code>ValueCoder</code>, need the full
+ * serialization semantics; for those this class simply behaves as a
+ * <code>DefaultValueCoder</code>. Use {@link #isGenerated()} to tell the two
+ * cases apart.
+ * </p>
+ * <p>
+ * Register an instance with
+ * {@link com.persistit.encoding.CoderManager#registerValueCoder}, or set
+ * the <code>methodHandleCoders</code> configuration property (see
+ * {@link DefaultCoderManager#setMethodHandleCoders(boolean)}) to have
+ * <code>DefaultCoderManager</code> create one for every class that would
+ * otherwise get a <code>DefaultValueCoder</code>.
+ * </p>
+ */
+public class MethodHandleValueCoder extends DefaultValueCoder {
+
+    private final static MethodType ACCESSOR_TYPE = MethodType.methodType(void.class, Object.class, Value.class);
+
+    private final static MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final MethodHandle _writer;
+
+    private final MethodHandle _reader;
+
+    private final MethodHandle _constructor;
+
+    /**
+     * Construct a <code>MethodHandleValueCoder</code> for the specified
+     * <code>clientClass</code>. The fields to serialize are determined as by
+     * {@link DefaultValueCoder#DefaultValueCoder(Persistit, Class)}.
+     *
+     * @param persistit
+     *            the Persistit instance
+     * @param clientClass
+     *            A <code>java.io.Serializable</code> <code>Class</code>
+     * @throws ConversionException
+     *             if the <code>clientClass</code> is not serializable or has
+     *             no suitable constructor
+     */
+    public MethodHandleValueCoder(final Persistit persistit, final Class<?> clientClass) {
+        super(persistit, clientClass);
+        final List<Field> fields = generatableFields();
+        MethodHandle writer = null;
+        MethodHandle reader = null;
+        MethodHandle constructor = null;
+        if (fields != null) {
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.lookup();
+                writer = noop();
+                reader = noop();
+                for (int index = fields.size(); --index >= 0;) {
+                    final Field field = fields.get(index);
+                    writer = MethodHandles.foldArguments(writer, fieldWriter(lookup, field));
+                    reader = MethodHandles.foldArguments(reader, fieldReader(lookup, field));
+                }
+                final Constructor<?> c = getNewInstanceConstructor();
+                if (c != null) {
+                    constructor = lookup.unreflectConstructor(c).asType(CONSTRUCTOR_TYPE);
+                }
+            } catch (final IllegalAccessException e) {
+                // Fall back to DefaultValueCoder
+                writer = null;
+                reader = null;
+                constructor = null;
+            }
+        }
+        _writer = writer;
+        _reader = reader;
+        _constructor = constructor;
+    }
+
+    /**
+     * @return <code>true</code> if this coder uses composed method handles;
+     *         <code>false</code> if the client class requires the full
+     *         serialization semantics of <code>DefaultValueCoder</code>
+     */
+    public boolean isGenerated() {
+        return _writer != null;
+    }
+
+    @Override
+    public void put(final Value value, final Object object, final CoderContext context) throws ConversionException {
+        if (_writer == null) {
+            super.put(value, object, context);
+            return;
+        }
+        try {
+            _writer.invokeExact(object, value);
+        } catch (final Throwable t) {
+            throw new ConversionException("Encoding fields for " + getClientClass(), t);
+        }
+    }
+
+    @Override
+    public void render(final Value value, final Object target, final Class clazz, final CoderContext context)
+            throws ConversionException {
+        if (_reader == null) {
+            super.render(value, target, clazz, context);
+            return;
+        }
+        if (target == null) {
+            throw new IllegalArgumentException("Target object must not be null");
+        }
+        try {
+            _reader.invokeExact(target, value);
+        } catch (final Throwable t) {
+            throw new ConversionException("Decoding fields for " + getClientClass(), t);
+        }
+    }
+
+    @Override
+    Object newInstance() {
+        if (_constructor == null) {
+            return super.newInstance();
+        }
+        try {
+            return (Object) _constructor.invokeExact();
+        } catch (final Throwable t) {
+            throw new ConversionException("Instantiating " + getClientClass().getName(), t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MethodHandleValueCoder(" + getClientClass().getName() + "," + getValueBuilder()
+                + (isGenerated() ? ")" : ",reflective)");
+    }
+
+    /**
+     * @return the fields of the client class and its serializable
+     *         superclasses in serialization order, or <code>null</code> if any
+     *         class in the hierarchy needs more than default field
+     *         serialization
+     */
+    private List<Field> generatableFields() {
+        final LinkedList<DefaultValueCoder> hierarchy = new LinkedList<DefaultValueCoder>();
+        DefaultValueCoder coder = this;
+        while (coder != null) {
+            if (!coder.isDefaultFieldsOnly()) {
+                return null;
+            }
+            hierarchy.addFirst(coder);
+            final ValueRenderer renderer = coder.getSuperClassValueRenderer();
+            if (renderer != null && !(renderer instanceof DefaultValueCoder)) {
+                return null;
+            }
+            coder = (DefaultValueCoder) renderer;
+        }
+        final List<Field> fields = new ArrayList<Field>();
+        for (final DefaultValueCoder c : hierarchy) {
+            final Builder builder = c.getValueBuilder();
+            for (int index = 0; index < builder.getSize(); index++) {
+                final Field field = builder.getAccessor(index)._field;
+                if (field == null) {
+                    return null;
+                }
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return a handle of type (Object, Value)void that appends the field of
+     *         the object to the value
+     */
+    private static MethodHandle fieldWriter(final MethodHandles.Lookup lookup, final Field field)
+            throws IllegalAccessException {
+        final Class<?> type = field.getType();
+        final Class<?> putType = type.isPrimitive() ? type : Object.class;
+        final MethodHandle getter = lookup.unreflectGetter(field).asType(MethodType.methodType(putType, Object.class));
+        final MethodHandle put;
+        try {
+            put = lookup.findVirtual(Value.class, "put", MethodType.methodType(void.class, putType));
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        // (Value, Object)void
+        final MethodHandle write = MethodHandles.filterArguments(put, 1, getter);
+        return MethodHandles.permuteArguments(write, ACCESSOR_TYPE, 1, 0);
+    }
+
+    /**
+     * @return a handle of type (Object, Value)void that sets the field of the
+     *         object to the next item decoded from the value
+     */
+    private static MethodHandle fieldReader(final MethodHandles.Lookup lookup, final Field field)
+            throws IllegalAccessException {
+        final Class<?> type = field.getType();
+        MethodHandle get;
+        try {
+            if (type.isPrimitive()) {
+                final String name = "get" + Character.toUpperCase(type.getName().charAt(0))
+                        + type.getName().substring(1);
+                get = lookup.findVirtual(Value.class, name, MethodType.methodType(type));
+            } else {
+                get = lookup.findVirtual(Value.class, "get",
+                        MethodType.methodType(Object.class, Object.class, CoderContext.class));
+                get = MethodHandles.insertArguments(get, 1, null, null).asType(MethodType.methodType(type, Value.class));
+            }
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        final MethodHandle setter = lookup.unreflectSetter(field).asType(
+                MethodType.methodType(void.class, Object.class, type));
+        return MethodHandles.filterArguments(setter, 1, get);
+    }
+
+    private static MethodHandle noop() {
+        final MethodHandle nothing = MethodHandles.constant(Object.class, null).asType(MethodType.methodType(void.class));
+        return MethodHandles.dropArguments(nothing, 0, Object.class, Value.class);
+    }
+}
@@ -0,0 +1,492 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A second-level cache of page images held outside of the Java heap. Each
+ * {@link BufferPool} may own one <code>OffHeapPageCache</code>; when the pool
+ * evicts a valid, clean page image it deposits a copy here, and when the pool
+ * misses on a page it looks here before issuing a read against the volume or
+ * the journal.
+ * </p>
+ * <p>
+ * Page images are stored in fixed-size frames carved out of one or more large
+ * arenas. An arena is either a direct <code>ByteBuffer</code> or, when a
+ * directory is supplied, a memory-mapped file created in that directory and
+ * deleted on close. Arena memory is invisible to the garbage collector; the
+ * heap cost of this cache is a few bytes of bookkeeping per frame.
+ * </p>
+ * <p>
+ * The cache is exclusive: a page image is removed from its frame when it is
+ * loaded back into a <code>Buffer</code>. Every subsequent eviction of that
+ * page deposits the current image, so a frame never holds an image older than
+ * the one most recently evicted.
+ * </p>
+ * <p>
+ * Frames are divided among up to {@value #MAXIMUM_STRIPE_COUNT} stripes, each
+ * with its own hash table, clock hand and lock, and a page is always held in
+ * the stripe selected by its hash. Pool misses and evictions of different
+ * pages therefore rarely contend for the same lock.
+ * </p>
+ */
+class OffHeapPageCache {
+
+    /**
+     * Largest arena allocated as a single ByteBuffer or mapped region
+     */
+    private final static long MAXIMUM_ARENA_SIZE = 1024L * 1024L * 1024L;
+
+    /**
+     * The ratio of hash table slots per frame
+     */
+    private final static int HASH_MULTIPLE = 2;
+
+    /**
+     * Largest number of independently locked stripes
+     */
+    final static int MAXIMUM_STRIPE_COUNT = 16;
+
+    /**
+     * Smallest number of frames in a stripe
+     */
+    private final static int MINIMUM_STRIPE_FRAMES = 16;
+
+    private final static String MAPPED_FILE_PREFIX = "persistit_frames_";
+
+    private final int _pageSize;
+
+    private final int _frameCount;
+
+    private final int _framesPerArena;
+
+    private final ByteBuffer[] _arenas;
+
+    private final File[] _files;
+
+    /*
+     * Per-frame bookkeeping. A frame whose volume is null is free. Each frame
+     * belongs to exactly one stripe and is only accessed under its lock.
+     */
+    private final Volume[] _volumes;
+
+    private final long[] _pages;
+
+    private final int[] _next;
+
+    private final boolean[] _referenced;
+
+    private final Stripe[] _stripes;
+
+    private volatile boolean _closed;
+
+    private final AtomicLong _hitCounter = new AtomicLong();
+
+    private final AtomicLong _missCounter = new AtomicLong();
+
+    private final AtomicLong _storeCounter = new AtomicLong();
+
+    private final AtomicLong _evictCounter = new AtomicLong();
+
+    /**
+     * A contiguous range of frames with its own hash table and clock. All
+     * methods must be called while synchronized on the stripe.
+     */
+    private class Stripe {
+
+        private final int _firstFrame;
+
+        private final int _stripeFrameCount;
+
+        /*
+         * Hash table: each slot holds the index of the first frame on its
+         * chain, or -1.
+         */
+        private final int[] _hashTable;
+
+        /*
+         * Views of the shared arenas, so that stripes can set positions and
+         * limits concurrently.
+         */
+        private final ByteBuffer[] _views;
+
+        private int _clock;
+
+        private int _freeCount;
+
+        Stripe(final int firstFrame, final int frameCount) {
+            _firstFrame = firstFrame;
+            _stripeFrameCount = frameCount;
+            _hashTable = new int[frameCount * HASH_MULTIPLE];
+            Arrays.fill(_hashTable, -1);
+            _views = new ByteBuffer[_arenas.length];
+            for (int index = 0; index < _arenas.length; index++) {
+                _views[index] = _arenas[index].duplicate();
+            }
+            _clock = firstFrame;
+            _freeCount = frameCount;
+        }
+
+        ByteBuffer frame(final int frame) {
+            final ByteBuffer arena = _views[frame / _framesPerArena];
+            final int offset = (frame % _framesPerArena) * _pageSize;
+            arena.limit(offset + _pageSize).position(offset);
+            return arena;
+        }
+
+        int find(final int slot, final Volume volume, final long page) {
+            for (int frame = _hashTable[slot]; frame != -1; frame = _next[frame]) {
+                if (_pages[frame] == page && _volumes[frame] == volume) {
+                    return frame;
+                }
+            }
+            return -1;
+        }
+
+        void unlink(final int frame) {
+            final int slot = slotIndex(hash(_volumes[frame], _pages[frame]), _hashTable.length);
+            int prev = -1;
+            for (int f = _hashTable[slot]; f != frame; f = _next[f]) {
+                prev = f;
+            }
+            if (prev == -1) {
+                _hashTable[slot] = _next[frame];
+            } else {
+                _next[prev] = _next[frame];
+            }
+            _next[frame] = -1;
+            _volumes[frame] = null;
+            _pages[frame] = 0;
+            _referenced[frame] = false;
+            _freeCount++;
+        }
+
+        void link(final int slot, final int frame, final Volume volume, final long page) {
+            _volumes[frame] = volume;
+            _pages[frame] = page;
+            _next[frame] = _hashTable[slot];
+            _hashTable[slot] = frame;
+        }
+
+        /**
+         * Select a frame using the Clock algorithm, preferring free frames. The
+         * selected frame is unlinked from its hash chain.
+         */
+        int allocFrame() {
+            for (;;) {
+                final int frame = _clock;
+                _clock = frame + 1 == _firstFrame + _stripeFrameCount ? _firstFrame : frame + 1;
+                if (_volumes[frame] == null) {
+                    _freeCount--;
+                    return frame;
+                }
+                if (_freeCount == 0) {
+                    if (_referenced[frame]) {
+                        _referenced[frame] = false;
+                    } else {
+                        unlink(frame);
+                        _evictCounter.incrementAndGet();
+                        _freeCount--;
+                        return frame;
+                    }
+                }
+            }
+        }
+
+        void invalidate(final Volume volume) {
+            for (int frame = _firstFrame; frame < _firstFrame + _stripeFrameCount; frame++) {
+                if (_volumes[frame] != null && (volume == null || _volumes[frame] == volume)) {
+                    unlink(frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Construct an <code>OffHeapPageCache</code> with enough frames to fill
+     * approximately the specified amount of memory.
+     *
+     * @param memory
+     *            Number of bytes of off-heap memory to allocate
+     * @param pageSize
+     *            Size of each page image
+     * @param directory
+     *            Directory in which to create memory-mapped arena files, or
+     *            <code>null</code> to allocate direct ByteBuffers
+     * @throws IOException
+     *             if a memory-mapped arena could not be created
+     */
+    OffHeapPageCache(final long memory, final int pageSize, final String directory) throws IOException {
+        if (memory < pageSize) {
+            throw new IllegalArgumentException("Off-heap memory allocation too small: " + memory);
+        }
+        final long frames = memory / pageSize;
+        if (frames > Integer.MAX_VALUE / HASH_MULTIPLE) {
+            throw new IllegalArgumentException("Off-heap memory allocation too large: " + memory);
+        }
+        _pageSize = pageSize;
+        _frameCount = (int) frames;
+        _framesPerArena = (int) Math.min(_frameCount, MAXIMUM_ARENA_SIZE / pageSize);
+        final int arenaCount = (_frameCount + _framesPerArena - 1) / _framesPerArena;
+
+        _arenas = new ByteBuffer[arenaCount];
+        _files = new File[directory == null ? 0 : arenaCount];
+        _volumes = new Volume[_frameCount];
+        _pages = new long[_frameCount];
+        _next = new int[_frameCount];
+        _referenced = new boolean[_frameCount];
+
+        try {
+            for (int index = 0; index < arenaCount; index++) {
+                final int framesInArena = Math.min(_framesPerArena, _frameCount - index * _framesPerArena);
+                final int arenaSize = framesInArena * pageSize;
+                if (directory == null) {
+                    _arenas[index] = ByteBuffer.allocateDirect(arenaSize);
+                } else {
+                    _files[index] = File.createTempFile(MAPPED_FILE_PREFIX, null, new File(directory));
+                    _files[index].deleteOnExit();
+                    final RandomAccessFile raf = new RandomAccessFile(_files[index], "rw");
+                    try {
+                        raf.setLength(arenaSize);
+                        _arenas[index] = raf.getChannel().map(MapMode.READ_WRITE, 0, arenaSize);
+                    } finally {
+                        raf.close();
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            deleteFiles();
+            throw e;
+        }
+
+        final int stripeCount = Math.max(1, Math.min(MAXIMUM_STRIPE_COUNT, _frameCount / MINIMUM_STRIPE_FRAMES));
+        _stripes = new Stripe[stripeCount];
+        int firstFrame = 0;
+        for (int index = 0; index < stripeCount; index++) {
+            final int stripeFrames = _frameCount / stripeCount + (index < _frameCount % stripeCount ? 1 : 0);
+            _stripes[index] = new Stripe(firstFrame, stripeFrames);
+            firstFrame += stripeFrames;
+        }
+    }
+
+    /**
+     * @return Size in bytes of each page frame
+     */
+    int getPageSize() {
+        return _pageSize;
+    }
+
+    /**
+     * @return Number of page frames in this cache
+     */
+    int getFrameCount() {
+        return _frameCount;
+    }
+
+    /**
+     * @return Number of independently locked stripes
+     */
+    int getStripeCount() {
+        return _stripes.length;
+    }
+
+    /**
+     * @return Number of page frames currently holding a page image
+     */
+    int getOccupiedFrameCount() {
+        int free = 0;
+        for (final Stripe stripe : _stripes) {
+            synchronized (stripe) {
+                free += stripe._freeCount;
+            }
+        }
+        return _frameCount - free;
+    }
+
+    /**
+     * @return Number of pages loaded from this cache rather than from disk
+     */
+    long getHitCounter() {
+        return _hitCounter.get();
+    }
+
+    /**
+     * @return Number of lookups that did not find the page in this cache
+     */
+    long getMissCounter() {
+        return _missCounter.get();
+    }
+
+    /**
+     * @return Number of page images deposited in this cache
+     */
+    long getStoreCounter() {
+        return _storeCounter.get();
+    }
+
+    /**
+     * @return Number of page images discarded to make room for others
+     */
+    long getEvictCounter() {
+        return _evictCounter.get();
+    }
+
+    void resetCounters() {
+        _hitCounter.set(0);
+        _missCounter.set(0);
+        _storeCounter.set(0);
+        _evictCounter.set(0);
+    }
+
+    /**
+     * Copy the image of the page identified by the supplied Buffer's volume and
+     * page address into its backing bytes, if present, and release the frame
+     * that held it. The caller must hold a writer claim on the Buffer.
+     *
+     * @param buffer
+     *            The Buffer to fill
+     * @return <code>true</code> if the page image was found and copied
+     */
+    boolean load(final Buffer buffer) {
+        final Volume volume = buffer.getVolume();
+        final long page = buffer.getPageAddress();
+        if (_closed || volume == null) {
+            return false;
+        }
+        final int hash = hash(volume, page);
+        final Stripe stripe = _stripes[hash % _stripes.length];
+        synchronized (stripe) {
+            if (!_closed) {
+                final int frame = stripe.find(slotIndex(hash, stripe._hashTable.length), volume, page);
+                if (frame != -1) {
+                    final ByteBuffer bb = buffer.getByteBuffer();
+                    bb.position(0).limit(_pageSize);
+                    bb.put(stripe.frame(frame));
+                    bb.position(0);
+                    stripe.unlink(frame);
+                    _hitCounter.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+        _missCounter.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Deposit a copy of the page image held in the supplied Buffer, replacing
+     * any image of the same page already present and, if necessary, evicting
+     * the least recently deposited image of the same stripe. The caller must
+     * hold a writer claim on the Buffer and the Buffer must not be dirty.
+     *
+     * @param buffer
+     *            The Buffer to copy
+     */
+    void store(final Buffer buffer) {
+        final Volume volume = buffer.getVolume();
+        final long page = buffer.getPageAddress();
+        if (_closed || volume == null || buffer.getBufferSize() != _pageSize) {
+            return;
+        }
+        final int hash = hash(volume, page);
+        final Stripe stripe = _stripes[hash % _stripes.length];
+        synchronized (stripe) {
+            if (_closed) {
+                return;
+            }
+            final int slot = slotIndex(hash, stripe._hashTable.length);
+            int frame = stripe.find(slot, volume, page);
+            if (frame == -1) {
+                frame = stripe.allocFrame();
+                stripe.link(slot, frame, volume, page);
+            }
+            _referenced[frame] = true;
+            final ByteBuffer bb = buffer.getByteBuffer();
+            bb.position(0).limit(_pageSize);
+            stripe.frame(frame).put(bb);
+            bb.position(0);
+        }
+        _storeCounter.incrementAndGet();
+    }
+
+    /**
+     * Discard all page images belonging to the supplied Volume.
+     *
+     * @param volume
+     *            The Volume, or <code>null</code> to discard all images
+     */
+    void invalidate(final Volume volume) {
+        for (final Stripe stripe : _stripes) {
+            synchronized (stripe) {
+                stripe.invalidate(volume);
+            }
+        }
+    }
+
+    /**
+     * Release all frames. Memory-mapped arena files are deleted; direct arenas
+     * are released when collected.
+     */
+    synchronized void close() {
+        if (!_closed) {
+            _closed = true;
+            for (final Stripe stripe : _stripes) {
+                synchronized (stripe) {
+                    stripe.invalidate(null);
+                    Arrays.fill(stripe._views, null);
+                }
+            }
+            Arrays.fill(_arenas, null);
+            deleteFiles();
+        }
+    }
+
+    /**
+     * Non-negative hash of a page; the stripe is selected by its remainder
+     * and the slot within the stripe by its quotient.
+     */
+    private int hash(final Volume volume, final long page) {
+        final long h = (page ^ volume.hashCode()) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 33);
+    }
+
+    private int slotIndex(final int hash, final int tableLength) {
+        return (hash / _stripes.length) % tableLength;
+    }
+
+    private void deleteFiles() {
+        for (final File file : _files) {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapPageCache[" + _frameCount + "@" + _pageSize + (_files.length > 0 ? ":mapped" : ":direct")
+                + (_closed ? ":closed" : "") + "]";
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>
+ * Compression algorithms available for page images written to the journal.
+ * The algorithm is selected per volume with the <code>compression</code>
+ * attribute of its {@link VolumeSpecification}, for example
+ *
+ * <code><pre>
+ * volume.1=${datapath}/db,create,pageSize:16384,initialPages:1M,maximumPages:1G,compression:lz4
+ * </pre></code>
+ *
+ * </p>
+ * <p>
+ * Compression changes only the representation of pages in the journal. Pages
+ * in the buffer pool and in the volume file are unchanged, so a volume can be
+ * switched between algorithms at any time, and journals written with any
+ * mixture of algorithms can be recovered. A page is stored uncompressed
+ * whenever compression would not make it smaller.
+ * </p>
+ */
+public enum PageCompression {
+
+    /**
+     * Pages are written uncompressed
+     */
+    NONE(0) {
+        @Override
+        int compress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+                final int destOffset, final int destLimit) {
+            return -1;
+        }
+
+        @Override
+        int decompress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+                final int destOffset, final int destLimit) {
+            if (srcLength > destLimit) {
+                return -1;
+            }
+            System.arraycopy(src, srcOffset, dest, destOffset, srcLength);
+            return srcLength;
+        }
+    },
+
+    /**
+     * Pages are compressed with <code>java.util.zip.Deflater</code> at
+     * <code>BEST_SPEED</code>. Deflate usually yields smaller pages than
+     * {@link #LZ4} at a substantially higher CPU cost.
+     */
+    DEFLATE(1) {
+        @Override
+        int compress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+                final int destOffset, final int destLimit) {
+            final Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            deflater.setInput(src, srcOffset, srcLength);
+            deflater.finish();
+            final int size = deflater.deflate(dest, destOffset, destLimit);
+            return deflater.finished() ? size : -1;
+        }
+
+        @Override
+        int decompress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+                final int destOffset, final int destLimit) {
+            final Inflater inflater = INFLATER.get();
+            inflater.reset();
+            inflater.setInput(src, srcOffset, srcLength);
+            try {
+                final int size = inflater.inflate(dest, destOffset, destLimit);
+                return inflater.finished() ? size : -1;
+            } catch (final DataFormatException e) {
+                return -1;
+            }
+        }
+    },
+
+    /**
+     * Pages are compressed in the LZ4 block format; see {@link com.persistit.util.LZ4}.
+     */
+    LZ4(2) {
+        @Override
+        int compress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+                final int destOffset, final int destLimit) {
+            return com.persistit.util.LZ4.compress(src, srcOffset, srcLength, dest, destOffset, destLimit);
+        }
+
+        @Override
+        int decompress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+                final int destOffset, final int destLimit) {
+            return com.persistit.util.LZ4.decompress(src, srcOffset, srcLength, dest, destOffset, destLimit);
+        }
+    };
+
+    private final static ThreadLocal<Deflater> DEFLATER = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.BEST_SPEED);
+        }
+    };
+
+    private final static ThreadLocal<Inflater> INFLATER = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    private final int _code;
+
+    private PageCompression(final int code) {
+        _code = code;
+    }
+
+    /**
+     * @return the code identifying this algorithm in journal page records
+     */
+    int getCode() {
+        return _code;
+    }
+
+    /**
+     * Compress bytes.
+     *
+     * @return number of compressed bytes written to <code>dest</code>, or -1
+     *         if the compressed form does not fit within
+     *         <code>destLimit</code> bytes
+     */
+    abstract int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLimit);
+
+    /**
+     * Decompress bytes.
+     *
+     * @return number of bytes written to <code>dest</code>, or -1 if the
+     *         source is malformed or expands to more than
+     *         <code>destLimit</code> bytes
+     */
+    abstract int decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLimit);
+
+    /**
+     * @param code
+     *            a code previously returned by {@link #getCode()}
+     * @return the algorithm identified by the code, or <code>null</code> if
+     *         the code is unknown
+     */
+    static PageCompression forCode(final int code) {
+        for (final PageCompression compression : values()) {
+            if (compression._code == code) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse an algorithm name, ignoring case.
+     *
+     * @param name
+     *            one of "none", "deflate" or "lz4"
+     * @return the named algorithm
+     * @throws IllegalArgumentException
+     *             if the name is not recognized
+     */
+    public static PageCompression parse(final String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.persistit;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.persistit.JournalManager.PageNode;
+
+/**
+ * <p>
+ * Index of the page images held in the journal, mapping a volume handle and
+ * page address to the most recent {@link PageNode}. The index is split into
+ * one shard per volume handle, and each shard is a {@link ConcurrentHashMap},
+ * so {@link #lookup(int, long)} neither locks nor contends with other volumes.
+ * </p>
+ * <p>
+ * Structural changes to the index and to the <code>PageNode</code> chains it
+ * holds are still made by {@link JournalManager} under its own monitor, which
+ * also serializes them with journal writes. Lookups only read the map and
+ * copy the node, and must check {@link PageNode#isInvalid()} after copying.
+ * </p>
+ */
+class PageMap {
+
+    private final ConcurrentHashMap<Integer, Map<Long, PageNode>> _shards = new ConcurrentHashMap<>();
+
+    /**
+     * One lookup in this many is timed
+     */
+    private final static int LOOKUP_TIMING_SAMPLE = 64;
+
+    /*
+     * LongAdders rather than AtomicLongs so that lookups on different threads
+     * do not contend for the same cache line.
+     */
+    private final LongAdder _lookupCounter = new LongAdder();
+
+    private final LongAdder _sampledLookupCounter = new LongAdder();
+
+    private final LongAdder _sampledLookupTime = new LongAdder();
+
+    private final Collection<PageNode> _values = new AbstractCollection<PageNode>() {
+
+        @Override
+        public Iterator<PageNode> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public int size() {
+            return PageMap.this.size();
+        }
+    };
+
+    /**
+     * Look up a page without locking, counting the lookup and timing a sample
+     * of one lookup in {@value #LOOKUP_TIMING_SAMPLE}.
+     *
+     * @return the most recent PageNode for the page, or <code>null</code>
+     */
+    PageNode lookup(final int volumeHandle, final long pageAddress) {
+        _lookupCounter.increment();
+        if (ThreadLocalRandom.current().nextInt(LOOKUP_TIMING_SAMPLE) != 0) {
+            return get(volumeHandle, pageAddress);
+        }
+        final long start = System.nanoTime();
+        final PageNode pageNode = get(volumeHandle, pageAddress);
+        _sampledLookupTime.add(System.nanoTime() - start);
+        _sampledLookupCounter.increment();
+        return pageNode;
+    }
+
+    PageNode get(final int volumeHandle, final long pageAddress) {
+        final Map<Long, PageNode> shard = _shards.get(volumeHandle);
+        return shard == null ? null : shard.get(pageAddress);
+    }
+
+    PageNode get(final PageNode key) {
+        return get(key.getVolumeHandle(), key.getPageAddress());
+    }
+
+    /**
+     * Make the supplied PageNode the most recent one for its page.
+     *
+     * @return the PageNode it replaced, or <code>null</code>
+     */
+    PageNode put(final PageNode pageNode) {
+        return shard(pageNode.getVolumeHandle()).put(pageNode.getPageAddress(), pageNode);
+    }
+
+    void putAll(final Map<PageNode, PageNode> map) {
+        for (final PageNode pageNode : map.values()) {
+            put(pageNode);
+        }
+    }
+
+    PageNode remove(final PageNode key) {
+        final Map<Long, PageNode> shard = _shards.get(key.getVolumeHandle());
+        return shard == null ? null : shard.remove(key.getPageAddress());
+    }
+
+    void clear() {
+        _shards.clear();
+    }
+
+    /**
+     * @return Number of pages in the index
+     */
+    int size() {
+        int size = 0;
+        for (final Map<Long, PageNode> shard : _shards.values()) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return Number of pages of the volume with the supplied handle
+     */
+    int size(final int volumeHandle) {
+        final Map<Long, PageNode> shard = _shards.get(volumeHandle);
+        return shard == null ? 0 : shard.size();
+    }
+
+    /**
+     * @return The most recent PageNode of every page, volume by volume. The
+     *         iterator supports removal.
+     */
+    Collection<PageNode> values() {
+        return _values;
+    }
+
+    /**
+     * @return The most recent PageNode of every page of one volume
+     */
+    Collection<PageNode> values(final int volumeHandle) {
+        final Map<Long, PageNode> shard = _shards.get(volumeHandle);
+        return shard == null ? Collections.<PageNode> emptyList() : shard.values();
+    }
+
+    long getLookupCount() {
+        return _lookupCounter.sum();
+    }
+
+    /**
+     * @return Average time in nanoseconds of the sampled calls to
+     *         {@link #lookup(int, long)}, or 0 if none has been sampled
+     */
+    long getAverageLookupTime() {
+        final long count = _sampledLookupCounter.sum();
+        return count == 0 ? 0 : _sampledLookupTime.sum() / count;
+    }
+
+    private Map<Long, PageNode> shard(final int volumeHandle) {
+        Map<Long, PageNode> shard = _shards.get(volumeHandle);
+        if (shard == null) {
+            final Map<Long, PageNode> created = new ConcurrentHashMap<>();
+            shard = _shards.putIfAbsent(volumeHandle, created);
+            if (shard == null) {
+                shard = created;
+            }
+        }
+        return shard;
+    }
+
+    private class ValueIterator implements Iterator<PageNode> {
+
+        private final Iterator<Map<Long, PageNode>> _shardIterator = _shards.values().iterator();
+
+        private Iterator<PageNode> _iterator = Collections.<PageNode> emptyList().iterator();
+
+        private Iterator<PageNode> _last;
+
+        @Override
+        public boolean hasNext() {
+            while (!_iterator.hasNext()) {
+                if (!_shardIterator.hasNext()) {
+                    return false;
+                }
+                _iterator = _shardIterator.next().values().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public PageNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _last = _iterator;
+            return _iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (_last == null) {
+                throw new IllegalStateException();
+            }
+            _last.remove();
+            _last = null;
+        }
+    }
+
+    /**
+     * Every PageNode in the journal in the order the JOURNAL_COPIER visits
+     * them. Invalidated nodes are dropped in one pass by
+     * {@link #removeInvalid()} rather than one at a time.
+     */
+    static class PageList extends AbstractList<PageNode> implements RandomAccess {
+
+        private PageNode[] _nodes = new PageNode[16];
+
+        private int _size;
+
+        @Override
+        public PageNode get(final int index) {
+            if (index >= _size) {
+                throw new IndexOutOfBoundsException("Index: " + index + " Size: " + _size);
+            }
+            return _nodes[index];
+        }
+
+        @Override
+        public PageNode set(final int index, final PageNode pageNode) {
+            final PageNode previous = get(index);
+            _nodes[index] = pageNode;
+            return previous;
+        }
+
+        @Override
+        public boolean add(final PageNode pageNode) {
+            if (_size == _nodes.length) {
+                _nodes = Arrays.copyOf(_nodes, _size * 2);
+            }
+            _nodes[_size++] = pageNode;
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(_nodes, 0, _size, null);
+            _size = 0;
+            modCount++;
+        }
+
+        @Override
+        public void sort(final Comparator<? super PageNode> comparator) {
+            Arrays.sort(_nodes, 0, _size, comparator);
+            modCount++;
+        }
+
+        /**
+         * Remove every invalid PageNode, preserving the order of the others.
+         *
+         * @return Number of PageNode instances removed
+         */
+        int removeInvalid() {
+            int to = 0;
+            for (int from = 0; from < _size; from++) {
+                final PageNode pn = _nodes[from];
+                if (!pn.isInvalid()) {
+                    _nodes[to++] = pn;
+                }
+            }
+            final int removed = _size - to;
+            if (removed > 0) {
+                Arrays.fill(_nodes, to, _size, null);
+                _size = to;
+                modCount++;
+            }
+            return removed;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.persistit.encoding.KeyCoder;
 import com.persistit.encoding.ValueCoder;
 import com.persistit.exception.PersistitClosedException;
 import com.persistit.exception.PersistitException;
+import com.persistit.exception.PersistitIOException;
 import com.persistit.exception.PersistitInterruptedException;
 import com.persistit.exception.TestException;
 import com.persistit.exception.VolumeAlreadyExistsException;
@@ -40,6 +41,7 @@ import com.persistit.mxbeans.IOMeterMXBean;
 import com.persistit.mxbeans.JournalManagerMXBean;
 import com.persistit.mxbeans.MXBeanWrapper;
 import com.persistit.mxbeans.ManagementMXBean;
+import com.persistit.mxbeans.ReadAheadManagerMXBean;
 import com.persistit.mxbeans.RecoveryManagerMXBean;
 import com.persistit.mxbeans.TransactionIndexMXBean;
 import com.persistit.policy.JoinPolicy;
@@ -251,6 +253,8 @@ public class Persistit {
 
   private final CleanupManager _cleanupManager = new CleanupManager(this);
 
+  private final ReadAheadManager _readAheadManager = new ReadAheadManager(this);
+
   private final IOMeter _ioMeter = new IOMeter();
 
   private final AlertMonitor _alertMonitor = new AlertMonitor();
@@ -452,6 +456,7 @@ public class Persistit {
       _journalManager.pruneObsoleteTransactions();
       startCheckpointManager();
       startCleanupManager();
+      startReadAheadManager();
       _initialized.set(true);
     } finally {
       if (!isInitialized()) {
@@ -605,6 +610,7 @@ public class Persistit {
   private void initializeRecovery() throws PersistitException {
     final String journalPath = _configuration.getJournalPath();
     _recoveryManager.init(journalPath);
+    _recoveryManager.setRecoveryThreads(_configuration.getRecoveryThreads());
     _recoveryManager.buildRecoveryPlan();
   }
 
@@ -615,15 +621,28 @@ public class Persistit {
     _journalManager.init(_recoveryManager, journalPath, journalSize);
     _journalManager.setAppendOnly(_configuration.isAppendOnly());
     _journalManager.setIgnoreMissingVolumes(_configuration.isIgnoreMissingVolumes());
+    _journalManager.setCopierThreads(_configuration.getCopierThreads());
+    _journalManager.setCopierBudget(_configuration.getCopierBudget());
   }
 
-  private void initializeBufferPools() {
+  private void initializeBufferPools() throws PersistitException {
     for (final BufferPoolConfiguration config : _configuration.getBufferPoolMap().values()) {
       final int poolSize = config.computeBufferCount(getAvailableHeap());
       if (poolSize > 0) {
         final int bufferSize = config.getBufferSize();
         _logBase.allocateBuffers.log(poolSize, bufferSize);
-        final BufferPool pool = new BufferPool(poolSize, bufferSize, this);
+        OffHeapPageCache offHeapCache = null;
+        if (config.getOffHeapMemory() > 0) {
+          _logBase.allocateOffHeapFrames.log(config.getOffHeapMemory() / bufferSize, bufferSize);
+          try {
+            offHeapCache = new OffHeapPageCache(config.getOffHeapMemory(), bufferSize,
+              _configuration.getOffHeapDirectory());
+          } catch (final IOException e) {
+            throw new PersistitIOException(e);
+          }
+        }
+        final BufferPool pool = new BufferPool(poolSize, bufferSize, offHeapCache, config.getEvictionPolicy(),
+          this);
         _bufferPoolTable.put(bufferSize, pool);
         if (_configuration.isJmxEnabled()) {
           registerBufferPoolMXBean(bufferSize);
@@ -689,6 +708,10 @@ public class Persistit {
     _cleanupManager.start();
   }
 
+  void startReadAheadManager() {
+    _readAheadManager.start(_configuration.getReadAheadDepth());
+  }
+
   void startTransactionIndexPollTask() {
     _transactionIndex.start(this);
   }
@@ -745,6 +768,7 @@ public class Persistit {
       registerMBean(_ioMeter, IOMeterMXBean.class, IOMeterMXBean.MXBEAN_NAME);
       registerMBean(_checkpointManager, CheckpointManagerMXBean.class, CheckpointManagerMXBean.MXBEAN_NAME);
       registerMBean(_cleanupManager, CleanupManagerMXBean.class, CleanupManagerMXBean.MXBEAN_NAME);
+      registerMBean(_readAheadManager, ReadAheadManagerMXBean.class, ReadAheadManagerMXBean.MXBEAN_NAME);
       registerMBean(_transactionIndex, TransactionIndexMXBean.class, TransactionIndexMXBean.MXBEAN_NAME);
       registerMBean(_journalManager, JournalManagerMXBean.class, JournalManagerMXBean.MXBEAN_NAME);
       registerMBean(_recoveryManager, RecoveryManagerMXBean.class, RecoveryManagerMXBean.MXBEAN_NAME);
@@ -1646,6 +1670,8 @@ public class Persistit {
         }
       }
       recordBufferPoolInventory();
+      _readAheadManager.close(flush);
+      waitForIOTaskStop(_readAheadManager);
       _cleanupManager.close(flush);
       waitForIOTaskStop(_cleanupManager);
 
@@ -1779,6 +1805,7 @@ public class Persistit {
       }
     }
     _transactionIndex.crash();
+    _readAheadManager.crash();
     _cleanupManager.crash();
     _checkpointManager.crash();
     _closed.set(true);
@@ -1913,6 +1940,13 @@ public class Persistit {
     }
   }
 
+  void flushBloomFilters(final long checkpointTimestamp) throws PersistitException {
+    final List<Volume> volumes = getVolumes();
+    for (final Volume volume : volumes) {
+      volume.getStructure().flushBloomFilters(checkpointTimestamp);
+    }
+  }
+
   void waitForIOTaskStop(final IOTaskRunnable task) {
     if (_beginCloseTime == 0) {
       _beginCloseTime = System.nanoTime();
@@ -2242,6 +2276,10 @@ public class Persistit {
     return _cleanupManager;
   }
 
+  ReadAheadManager getReadAheadManager() {
+    return _readAheadManager;
+  }
+
   IOMeter getIOMeter() {
     return _ioMeter;
   }
@@ -100,7 +100,8 @@ import com.persistit.exception.PersistitException;
  * shares data among multiple threads should create a separate instance of
  * PersistitMap for each thread backed by the same tree rather than sharing a
  * single PersistitMap object. These <code>PersistitMap</code> instances can
- * concurrently modify and query the same collection of data.
+ * concurrently modify and query the same collection of data. Alternatively, a
+ * single {@link ConcurrentPersistitMap} may be shared by all threads.
  * </p>
  * <p>
  * Unlike an in-memory implementation of <code>SortedMap</code>, this
@@ -0,0 +1,289 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.persistit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.persistit.exception.InUseException;
+import com.persistit.exception.PersistitException;
+import com.persistit.mxbeans.ReadAheadManagerMXBean;
+import com.persistit.util.Util;
+
+/**
+ * <p>
+ * Reads leaf pages into the buffer pool ahead of an {@link Exchange} that is
+ * traversing a tree in ascending key order. An Exchange that steps from a data
+ * page to its right sibling {@value #SEQUENTIAL_THRESHOLD} times without
+ * searching the tree offers a request naming the page it is about to visit
+ * and the level-1 index page that points to it. The READ_AHEAD_MANAGER thread
+ * collects the addresses of the next {@link #getDepth()} data pages from that
+ * index page and its right siblings, sorts them by address, and loads each
+ * one that is not already resident with {@link BufferPool#prefetch}. The
+ * Exchange renews its request every half depth so that the window stays ahead
+ * of the traversal.
+ * </p>
+ * <p>
+ * Read-ahead is disabled when the depth is zero, which is the default.
+ * Requests are dropped rather than queued when the queue is full or when an
+ * index page cannot be claimed immediately; read-ahead never delays the
+ * traversal it serves.
+ * </p>
+ */
+class ReadAheadManager extends IOTaskRunnable implements ReadAheadManagerMXBean {
+
+    final static int MAXIMUM_DEPTH = 1024;
+
+    final static int SEQUENTIAL_THRESHOLD = 2;
+
+    final static long DEFAULT_READ_AHEAD_INTERVAL_MS = 1_000;
+
+    final static int DEFAULT_QUEUE_SIZE = 256;
+
+    /**
+     * Maximum number of right siblings of a stale index page examined to find
+     * the page a request starts from
+     */
+    private final static int MAXIMUM_PARENT_HOPS = 4;
+
+    private final BlockingQueue<Request> _queue = new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE);
+
+    private final AtomicBoolean _closed = new AtomicBoolean();
+
+    private final AtomicLong _accepted = new AtomicLong();
+
+    private final AtomicLong _refused = new AtomicLong();
+
+    private final AtomicLong _errors = new AtomicLong();
+
+    private volatile int _depth;
+
+    static class Request {
+
+        private final Volume _volume;
+
+        private final AtomicLong _parentPage;
+
+        private final long _page;
+
+        private final int _depth;
+
+        /**
+         * @param volume
+         *            Volume containing the tree
+         * @param parentPage
+         *            Holds the address of the level-1 index page believed to
+         *            point to <code>page</code>. The manager updates it with
+         *            the index page where <code>page</code> was actually
+         *            found, so that a long traversal does not need to walk
+         *            right from the index page it started under.
+         * @param page
+         *            The data page the traversal is about to visit
+         * @param depth
+         *            Number of pages following <code>page</code> to read
+         */
+        Request(final Volume volume, final AtomicLong parentPage, final long page, final int depth) {
+            _volume = volume;
+            _parentPage = parentPage;
+            _page = page;
+            _depth = depth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ReadAhead(%s,%,d,%,d+%d)", _volume, _parentPage.get(), _page, _depth);
+        }
+    }
+
+    ReadAheadManager(final Persistit persistit) {
+        super(persistit);
+    }
+
+    public void start(final int depth) {
+        setDepth(depth);
+        _closed.set(false);
+        start("READ_AHEAD_MANAGER", DEFAULT_READ_AHEAD_INTERVAL_MS);
+    }
+
+    public void close(final boolean flush) throws PersistitException {
+        _closed.set(true);
+        _queue.clear();
+        kick();
+    }
+
+    @Override
+    protected void runTask() throws Exception {
+        poll();
+    }
+
+    @Override
+    protected boolean shouldStop() {
+        return _closed.get();
+    }
+
+    @Override
+    protected long pollInterval() {
+        return _queue.isEmpty() ? super.pollInterval() : 0;
+    }
+
+    boolean offer(final Request request) {
+        final boolean accepted = _queue.offer(request);
+        if (accepted) {
+            _accepted.incrementAndGet();
+            kick();
+        } else {
+            _refused.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    void poll() {
+        final List<Request> workList = new ArrayList<>(DEFAULT_QUEUE_SIZE);
+        _queue.drainTo(workList);
+        for (final Request request : workList) {
+            if (_closed.get()) {
+                break;
+            }
+            try {
+                readAhead(request);
+            } catch (final InUseException e) {
+                // Another thread is busy with the index page; drop the request
+            } catch (final PersistitException e) {
+                lastException(e);
+                _errors.incrementAndGet();
+            }
+        }
+    }
+
+    private void readAhead(final Request request) throws PersistitException {
+        final long[] pages = new long[request._depth];
+        final int count = collect(request, pages);
+        Arrays.sort(pages, 0, count);
+        final BufferPool pool = request._volume.getPool();
+        for (int index = 0; index < count && !_closed.get(); index++) {
+            pool.prefetch(request._volume, pages[index]);
+        }
+    }
+
+    /**
+     * Fill the supplied array with the addresses of the data pages that follow
+     * the requested page, reading them from the level-1 index pages.
+     *
+     * @return the number of addresses collected
+     */
+    private int collect(final Request request, final long[] pages) throws PersistitException {
+        final Volume volume = request._volume;
+        final BufferPool pool = volume.getPool();
+        long parentPage = request._parentPage.get();
+        boolean found = false;
+        int count = 0;
+        for (int hops = 0; parentPage > 0 && count < pages.length && (found || hops <= MAXIMUM_PARENT_HOPS);
+                hops++) {
+            final Buffer parent = pool.get(volume, parentPage, false, true, Persistit.SHORT_DELAY);
+            try {
+                if (parent.getPageType() != Buffer.PAGE_TYPE_INDEX_MIN) {
+                    break;
+                }
+                for (int p = Buffer.KEY_BLOCK_START; p < parent.getKeyBlockEnd() && count < pages.length;
+                        p += Buffer.KEYBLOCK_LENGTH) {
+                    final long child = parent.getPointer(p);
+                    if (found) {
+                        if (child > 0) {
+                            pages[count++] = child;
+                        }
+                    } else if (child == request._page) {
+                        found = true;
+                        request._parentPage.set(parentPage);
+                    }
+                }
+                parentPage = parent.getRightSibling();
+            } finally {
+                parent.release();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getDepth() {
+        return _depth;
+    }
+
+    @Override
+    public void setDepth(final int depth) {
+        Util.rangeCheck(depth, 0, MAXIMUM_DEPTH);
+        _depth = depth;
+    }
+
+    @Override
+    public long getAcceptedCount() {
+        return _accepted.get();
+    }
+
+    @Override
+    public long getRefusedCount() {
+        return _refused.get();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return _errors.get();
+    }
+
+    @Override
+    public long getEnqueuedCount() {
+        return _queue.size();
+    }
+
+    @Override
+    public long getPrefetchCount() {
+        long count = 0;
+        for (final BufferPool pool : _persistit.getBufferPoolHashMap().values()) {
+            count += pool.getPrefetchCounter();
+        }
+        return count;
+    }
+
+    @Override
+    public long getPrefetchHitCount() {
+        long count = 0;
+        for (final BufferPool pool : _persistit.getBufferPoolHashMap().values()) {
+            count += pool.getPrefetchHitCounter();
+        }
+        return count;
+    }
+
+    @Override
+    public long getPrefetchWasteCount() {
+        long count = 0;
+        for (final BufferPool pool : _persistit.getBufferPoolHashMap().values()) {
+            count += pool.getPrefetchWasteCounter();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ReadAheadManager[depth=" + _depth + ",enqueued=" + _queue.size() + "]";
+    }
+}
@@ -33,13 +33,21 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.persistit.CheckpointManager.Checkpoint;
 import com.persistit.JournalManager.PageNode;
@@ -135,8 +143,17 @@ import com.persistit.util.Util;
  * are already present in the recovered B-Trees.
  * </p>
  * <p>
+ * When configured with more than one recovery thread, Phase 2 partitions the
+ * transaction map so that any two transactions that touch a common tree fall
+ * in the same partition, and replays the partitions concurrently. Each
+ * partition is replayed serially in commit timestamp order, so every tree
+ * sees its updates in the original serial order. The checkpoint transaction,
+ * which establishes Accumulator snapshot values, is applied before any other.
+ * </p>
+ * <p>
  * This class is not threadsafe; it is intended to be called only during the
- * single-threaded recovery process.
+ * single-threaded recovery process. The worker threads of a parallel Phase 2
+ * each have their own read buffer and TransactionPlayer.
  * </p>
  * 
  * @author peter
@@ -146,6 +163,8 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     final static int DEFAULT_BUFFER_SIZE = 1 * 1024 * 1024;
 
+    final static int MAXIMUM_RECOVERY_THREADS = 64;
+
     /**
      * Number of transactions to apply per progress log message
      */
@@ -192,6 +211,18 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     private volatile boolean _recoveryDisabledForTestMode;
 
+    private int _recoveryThreads = 1;
+
+    private volatile int _partitionCount;
+
+    private volatile int _transactionsToApply;
+
+    private volatile long _applyStartTime;
+
+    private volatile long _applyEndTime;
+
+    private final AtomicReference<Throwable> _workerFailure = new AtomicReference<Throwable>();
+
     private String _journalFilePath;
 
     private File _keystoneFile;
@@ -390,6 +421,43 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         }
     }
 
+    /**
+     * Support for a worker thread of a parallel recovery. Reads through a
+     * private buffer; long record conversion uses the shared buffer and is
+     * therefore serialized.
+     */
+    private class WorkerTransactionPlayerSupport implements TransactionPlayerSupport {
+
+        private final ByteBuffer _buffer = ByteBuffer.allocate(_readBufferSize);
+
+        private long _bufferAddress = -1;
+
+        @Override
+        public void read(final long address, final int size) throws PersistitIOException {
+            final long bufferAddress = _bufferAddress;
+            _bufferAddress = -1;
+            _bufferAddress = RecoveryManager.this.read(_buffer, bufferAddress, address, size);
+        }
+
+        @Override
+        public ByteBuffer getReadBuffer() {
+            return _buffer;
+        }
+
+        @Override
+        public void convertToLongRecord(final Value value, final int treeHandle, final long address,
+                final long commitTimestamp) throws PersistitException {
+            synchronized (RecoveryManager.this) {
+                RecoveryManager.this.convertToLongRecord(value, treeHandle, address, commitTimestamp);
+            }
+        }
+
+        @Override
+        public Persistit getPersistit() {
+            return _persistit;
+        }
+    }
+
     static File[] files(final String pathName) {
         final File directory;
         final File path = new File(pathName);
@@ -507,6 +575,56 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         return _errorCount;
     }
 
+    @Override
+    public int getRecoveryThreads() {
+        return _recoveryThreads;
+    }
+
+    /**
+     * Set the number of threads used to replay recovered transactions. Must be
+     * called before {@link #buildRecoveryPlan()} since the plan records the
+     * information needed to partition the transactions.
+     * 
+     * @param recoveryThreads
+     */
+    void setRecoveryThreads(final int recoveryThreads) {
+        _recoveryThreads = Util.rangeCheck(recoveryThreads, 1, MAXIMUM_RECOVERY_THREADS);
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return _partitionCount;
+    }
+
+    @Override
+    public int getRolledBackTransactionCount() {
+        return _abortedTransactionCount;
+    }
+
+    @Override
+    public int getRemainingTransactionCount() {
+        return Math.max(0, _transactionsToApply - _appliedTransactionCount - _abortedTransactionCount);
+    }
+
+    @Override
+    public long getApplyElapsedTime() {
+        final long start = _applyStartTime;
+        if (start == 0) {
+            return 0;
+        }
+        final long end = _applyEndTime;
+        return ((end == 0 ? System.nanoTime() : end) - start) / Util.NS_PER_MS;
+    }
+
+    @Override
+    public double getApplyRate() {
+        final long elapsed = getApplyElapsedTime();
+        if (elapsed == 0) {
+            return 0;
+        }
+        return (_appliedTransactionCount + _abortedTransactionCount) * 1000.0 / elapsed;
+    }
+
     public Checkpoint getLastValidCheckpoint() {
         return _lastValidCheckpoint;
     }
@@ -873,34 +991,54 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
     }
 
     private void read(final long address, final int size) throws PersistitIOException {
-        if (_readBufferAddress >= 0 && address >= _readBufferAddress
-                && size + address - _readBufferAddress <= _readBuffer.limit()) {
-            _readBuffer.position((int) (address - _readBufferAddress));
+        final long bufferAddress = _readBufferAddress;
+        // Buffer content is undefined if the read fails
+        _readBufferAddress = -1;
+        _readBufferAddress = read(_readBuffer, bufferAddress, address, size);
+    }
+
+    /**
+     * Position the supplied buffer at the record at <code>address</code>,
+     * refilling it from the journal if it does not already hold
+     * <code>size</code> bytes from that address.
+     * 
+     * @param buffer
+     *            the read buffer
+     * @param bufferAddress
+     *            journal address of the first byte in the buffer
+     * @return the journal address of the first byte in the buffer after
+     *         reading
+     */
+    private long read(final ByteBuffer buffer, final long bufferAddress, final long address, final int size)
+            throws PersistitIOException {
+        if (bufferAddress >= 0 && address >= bufferAddress && size + address - bufferAddress <= buffer.limit()) {
+            buffer.position((int) (address - bufferAddress));
+            return bufferAddress;
         } else {
             try {
                 final FileChannel fc = getFileChannel(address);
-                _readBuffer.clear();
+                buffer.clear();
 
-                int maxSize = _readBuffer.capacity();
+                int maxSize = buffer.capacity();
                 final long remainingInBlock = addressUp(address) - address;
                 if (remainingInBlock < maxSize) {
                     maxSize = (int) remainingInBlock;
                 }
 
-                _readBuffer.limit(maxSize);
+                buffer.limit(maxSize);
                 int offset = 0;
-                while (_readBuffer.remaining() > 0) {
-                    final int readSize = fc.read(_readBuffer, offset + address % _blockSize);
+                while (buffer.remaining() > 0) {
+                    final int readSize = fc.read(buffer, offset + address % _blockSize);
                     if (readSize < 0) {
                         break;
                     }
                     offset += readSize;
                 }
-                _readBufferAddress = address;
-                _readBuffer.flip();
-                if (_readBuffer.remaining() < size) {
+                buffer.flip();
+                if (buffer.remaining() < size) {
                     throw new CorruptJournalException("End of file at " + addressToString(address));
                 }
+                return address;
             } catch (final IOException e) {
                 throw new PersistitIOException("Reading from " + addressToString(address), e);
             }
@@ -1499,7 +1637,6 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         if (_recoveryDisabledForTestMode) {
             return;
         }
-        boolean started = false;
         /*
          * If there is a checkpoint Transaction record, reset its commit
          * timestamp to the checkpoint timestamp to ensure it gets applied
@@ -1520,35 +1657,322 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             assert last.getCommitTimestamp() <= _persistit.getTimestampAllocator().getCurrentTimestamp();
         }
 
-        for (final TransactionMapItem item : sorted) {
-            final TransactionPlayerListener listener = item.isCommitted() ? commitListener : rollbackListener;
-            try {
-                if (!started) {
-                    commitListener.startRecovery(item.getStartAddress(), item.getCommitTimestamp());
-                    started = true;
+        _transactionsToApply = sorted.size();
+        _applyStartTime = System.nanoTime();
+        try {
+            if (_recoveryThreads > 1 && sorted.size() > 1) {
+                applyInParallel(sorted, checkpointTransactionItem, commitListener, rollbackListener);
+            } else {
+                boolean started = false;
+                for (final TransactionMapItem item : sorted) {
+                    if (!started) {
+                        if (!startRecovery(item, commitListener)) {
+                            continue;
+                        }
+                        started = true;
+                    }
+                    apply(_player, item, commitListener, rollbackListener);
                 }
+            }
+        } finally {
+            _applyEndTime = System.nanoTime();
+        }
+        _branchMap.clear();
+    }
 
-                _player.applyTransaction(item, listener);
-                if (item.isCommitted()) {
-                    _appliedTransactionCount++;
-                } else {
-                    _abortedTransactionCount++;
+    /**
+     * Replay the transactions on a pool of threads. The checkpoint
+     * transaction is applied first on this thread; the remaining transactions
+     * are grouped into partitions such that transactions touching a common
+     * tree share a partition, and the partitions are applied concurrently,
+     * largest first, each in the order given by <code>sorted</code>. If a
+     * worker fails, the others stop after their current partition and the
+     * first failure is rethrown once all of them have finished.
+     */
+    private void applyInParallel(final SortedSet<TransactionMapItem> sorted,
+            final TransactionMapItem checkpointTransactionItem, final TransactionPlayerListener commitListener,
+            final TransactionPlayerListener rollbackListener) throws TestException {
+        /*
+         * As in serial recovery, a transaction for which the listener fails to
+         * start recovery is skipped.
+         */
+        final Set<TransactionMapItem> excluded = new HashSet<TransactionMapItem>();
+        for (final TransactionMapItem item : sorted) {
+            if (startRecovery(item, commitListener)) {
+                break;
+            }
+            excluded.add(item);
+        }
+        if (checkpointTransactionItem != null && !excluded.contains(checkpointTransactionItem)) {
+            apply(_player, checkpointTransactionItem, commitListener, rollbackListener);
+            excluded.add(checkpointTransactionItem);
+        }
+        final List<List<TransactionMapItem>> partitions = partition(sorted, excluded);
+        _partitionCount = partitions.size();
+        final AtomicInteger next = new AtomicInteger();
+        final Thread[] workers = new Thread[Math.min(_recoveryThreads, partitions.size())];
+        for (int index = 0; index < workers.length; index++) {
+            workers[index] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final TransactionPlayer player = new TransactionPlayer(new WorkerTransactionPlayerSupport());
+                        try {
+                            for (int partition; _workerFailure.get() == null
+                                    && (partition = next.getAndIncrement()) < partitions.size();) {
+                                for (final TransactionMapItem item : partitions.get(partition)) {
+                                    apply(player, item, commitListener, rollbackListener);
+                                }
+                            }
+                        } finally {
+                            try {
+                                _persistit.closeSession();
+                            } catch (final PersistitException e) {
+                                _persistit.getLogBase().exception.log(e);
+                            }
+                        }
+                    } catch (final Throwable t) {
+                        _workerFailure.compareAndSet(null, t);
+                    }
                 }
+            }, "RECOVERY_WORKER_" + index);
+            workers[index].start();
+        }
+        /*
+         * Recovery is not complete until every worker has finished, so keep
+         * waiting if interrupted and restore the interrupt afterwards.
+         */
+        boolean interrupted = false;
+        for (final Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (final InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final Throwable failure = _workerFailure.getAndSet(null);
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
 
-                if ((_appliedTransactionCount + _abortedTransactionCount) % APPLY_TRANSACTION_LOG_COUNT == 0) {
-                    _persistit.getLogBase().recoveryProgress.log(_appliedTransactionCount, _abortedTransactionCount,
-                            _recoveredTransactionMap.size() - _appliedTransactionCount - _abortedTransactionCount);
+    /**
+     * Group transactions into partitions that can be replayed independently.
+     * Two transactions belong to the same partition if they touch a common
+     * tree, directly or through a chain of other transactions.
+     * 
+     * @return the partitions, largest first
+     */
+    private List<List<TransactionMapItem>> partition(final SortedSet<TransactionMapItem> sorted,
+            final Set<TransactionMapItem> excluded) {
+        final Map<TransactionMapItem, int[]> itemHandles = new HashMap<TransactionMapItem, int[]>();
+        final Map<Integer, Integer> parents = new HashMap<Integer, Integer>();
+        for (final TransactionMapItem item : sorted) {
+            if (excluded.contains(item)) {
+                continue;
+            }
+            int[] handles;
+            try {
+                handles = treeHandles(item);
+            } catch (final PersistitException e) {
+                /*
+                 * Leave the transaction in a partition of its own; replaying
+                 * it will report the error.
+                 */
+                handles = null;
+            }
+            if (handles != null) {
+                itemHandles.put(item, handles);
+                for (int index = 1; index < handles.length; index++) {
+                    union(parents, handles[0], handles[index]);
                 }
-            } catch (final TestException te) {
-                // Exception thrown by a unit test to interrupt recovery
-                _persistit.getLogBase().recoveryException.log(te, item);
-                throw te;
-            } catch (final Exception pe) {
-                _persistit.getLogBase().recoveryException.log(pe, item);
-                _errorCount++;
             }
         }
-        _branchMap.clear();
+        final Map<Integer, List<TransactionMapItem>> partitionMap = new HashMap<Integer, List<TransactionMapItem>>();
+        final List<List<TransactionMapItem>> partitions = new ArrayList<List<TransactionMapItem>>();
+        for (final TransactionMapItem item : sorted) {
+            if (excluded.contains(item)) {
+                continue;
+            }
+            final int[] handles = itemHandles.get(item);
+            List<TransactionMapItem> partition = null;
+            if (handles != null) {
+                final Integer root = find(parents, handles[0]);
+                partition = partitionMap.get(root);
+                if (partition == null) {
+                    partition = new ArrayList<TransactionMapItem>();
+                    partitionMap.put(root, partition);
+                    partitions.add(partition);
+                }
+            } else {
+                partition = new ArrayList<TransactionMapItem>(1);
+                partitions.add(partition);
+            }
+            partition.add(item);
+        }
+        Collections.sort(partitions, new Comparator<List<TransactionMapItem>>() {
+            @Override
+            public int compare(final List<TransactionMapItem> a, final List<TransactionMapItem> b) {
+                return b.size() - a.size();
+            }
+        });
+        return partitions;
+    }
+
+    /**
+     * Read the TX records of a transaction and return the handles of the trees
+     * it updates.
+     * 
+     * @return the handles, or <code>null</code> if the transaction updates no
+     *         tree
+     */
+    private int[] treeHandles(final TransactionMapItem item) throws PersistitException {
+        int[] handles = null;
+        for (long address = item.getLastRecordAddress(); address != 0;) {
+            read(address, TX.OVERHEAD);
+            final int recordSize = TX.getLength(_readBuffer);
+            if (recordSize < TX.OVERHEAD || recordSize > Transaction.TRANSACTION_BUFFER_SIZE + TX.OVERHEAD
+                    || getType(_readBuffer) != TX.TYPE) {
+                throw new CorruptJournalException("Transaction record at " + addressToString(address)
+                        + " has invalid length " + recordSize);
+            }
+            read(address, recordSize);
+            address = TX.getBackchainAddress(_readBuffer);
+            handles = collectTreeHandles(handles, recordSize);
+        }
+        return handles;
+    }
+
+    /**
+     * Add the handles of the trees updated by the TX record in the read buffer
+     * to the supplied array.
+     */
+    private int[] collectTreeHandles(final int[] treeHandles, final int recordSize) {
+        int[] handles = treeHandles;
+        final int start = _readBuffer.position();
+        final int end = start + recordSize;
+        for (int position = start + TX.OVERHEAD; position < end;) {
+            _readBuffer.position(position);
+            final int innerSize = getLength(_readBuffer);
+            final int handle;
+            switch (getType(_readBuffer)) {
+            case SR.TYPE:
+                handle = SR.getTreeHandle(_readBuffer);
+                break;
+            case DR.TYPE:
+                handle = DR.getTreeHandle(_readBuffer);
+                break;
+            case DT.TYPE:
+                handle = DT.getTreeHandle(_readBuffer);
+                break;
+            case D0.TYPE:
+                handle = D0.getTreeHandle(_readBuffer);
+                break;
+            case D1.TYPE:
+                handle = D1.getTreeHandle(_readBuffer);
+                break;
+            default:
+                handle = -1;
+            }
+            if (handle != -1) {
+                handles = addHandle(handles, handle);
+            }
+            if (innerSize <= 0) {
+                break;
+            }
+            position += innerSize;
+        }
+        _readBuffer.position(start);
+        return handles;
+    }
+
+    private static int[] addHandle(final int[] handles, final int handle) {
+        if (handles == null) {
+            return new int[] { handle };
+        }
+        for (final int h : handles) {
+            if (h == handle) {
+                return handles;
+            }
+        }
+        final int[] result = Arrays.copyOf(handles, handles.length + 1);
+        result[handles.length] = handle;
+        return result;
+    }
+
+    private static Integer find(final Map<Integer, Integer> parents, final Integer handle) {
+        Integer root = handle;
+        for (Integer parent = parents.get(root); parent != null; parent = parents.get(root)) {
+            root = parent;
+        }
+        if (!root.equals(handle)) {
+            parents.put(handle, root);
+        }
+        return root;
+    }
+
+    private static void union(final Map<Integer, Integer> parents, final int a, final int b) {
+        final Integer rootA = find(parents, a);
+        final Integer rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootB, rootA);
+        }
+    }
+
+    private boolean startRecovery(final TransactionMapItem item, final TransactionPlayerListener commitListener)
+            throws TestException {
+        try {
+            commitListener.startRecovery(item.getStartAddress(), item.getCommitTimestamp());
+            return true;
+        } catch (final TestException te) {
+            _persistit.getLogBase().recoveryException.log(te, item);
+            throw te;
+        } catch (final Exception pe) {
+            _persistit.getLogBase().recoveryException.log(pe, item);
+            recordError();
+            return false;
+        }
+    }
+
+    private void apply(final TransactionPlayer player, final TransactionMapItem item,
+            final TransactionPlayerListener commitListener, final TransactionPlayerListener rollbackListener)
+            throws TestException {
+        final TransactionPlayerListener listener = item.isCommitted() ? commitListener : rollbackListener;
+        try {
+            player.applyTransaction(item, listener);
+            recordApplied(item.isCommitted());
+        } catch (final TestException te) {
+            // Exception thrown by a unit test to interrupt recovery
+            _persistit.getLogBase().recoveryException.log(te, item);
+            throw te;
+        } catch (final Exception pe) {
+            _persistit.getLogBase().recoveryException.log(pe, item);
+            recordError();
+        }
+    }
+
+    private synchronized void recordApplied(final boolean committed) {
+        if (committed) {
+            _appliedTransactionCount++;
+        } else {
+            _abortedTransactionCount++;
+        }
+        if ((_appliedTransactionCount + _abortedTransactionCount) % APPLY_TRANSACTION_LOG_COUNT == 0) {
+            _persistit.getLogBase().recoveryProgress.log(_appliedTransactionCount, _abortedTransactionCount,
+                    _recoveredTransactionMap.size() - _appliedTransactionCount - _abortedTransactionCount);
+        }
+    }
+
+    private synchronized void recordError() {
+        _errorCount++;
     }
 
     /**
@@ -1624,10 +2048,11 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             read(_currentAddress, PA.OVERHEAD);
             final int type = PA.getType(_readBuffer);
             final int recordSize = PA.getLength(_readBuffer);
-            final int payloadSize = recordSize - PA.OVERHEAD;
+            int payloadSize = recordSize - PA.OVERHEAD;
             final int leftSize = PA.getLeftSize(_readBuffer);
             final int bufferSize = PA.getBufferSize(_readBuffer);
             final long pageAddress = PA.getPageAddress(_readBuffer);
+            final int compression = PA.getCompression(_readBuffer);
             //
             // Verify that this is the valid and appropriate PA record
             //
@@ -1636,7 +2061,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         + " is not a PAGE record");
             }
 
-            if (leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
+            if (leftSize < 0 || payloadSize > bufferSize || compression == 0 && payloadSize < leftSize) {
                 throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
                         + " invalid sizes: recordSize= " + payloadSize + " leftSize=" + leftSize + " bufferSize="
                         + bufferSize);
@@ -1659,10 +2084,23 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         + addressToString(from, timestamp));
             }
 
+            byte[] payload = _readBuffer.array();
+            int payloadOffset = _readBuffer.position() + PA.OVERHEAD;
+            if (compression != 0) {
+                final byte[] expanded = new byte[bufferSize];
+                payloadSize = PA.expand(compression, payload, payloadOffset, payloadSize, expanded, 0, bufferSize);
+                if (payloadSize < 0) {
+                    throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                            + " has invalid compressed payload: compression=" + compression);
+                }
+                payload = expanded;
+                payloadOffset = 0;
+            }
+
             final int segmentSize = Math.min(remainingSize, payloadSize - Buffer.HEADER_SIZE);
 
-            System.arraycopy(_readBuffer.array(), _readBuffer.position() + PA.OVERHEAD + Buffer.HEADER_SIZE,
-                    value.getEncodedBytes(), offset, segmentSize);
+            System.arraycopy(payload, payloadOffset + Buffer.HEADER_SIZE, value.getEncodedBytes(), offset,
+                    segmentSize);
             offset += segmentSize;
             remainingSize -= segmentSize;
 
@@ -78,6 +78,12 @@ abstract class SharedResource {
      */
     final static int TOUCHED_MASK = 0x08000000;
 
+    /**
+     * Status field mask indicating a resource (a Buffer) was read ahead of a
+     * sequential traversal and has not yet been used.
+     */
+    final static int PREFETCHED_MASK = 0x10000000;
+
     /**
      * Mask for bit field indicating that resource (a Buffer) should not be
      * replaced. The buffer houses a Volume's head page.
@@ -363,6 +369,18 @@ abstract class SharedResource {
         _sync.clearBitsInState(TOUCHED_MASK);
     }
 
+    void setPrefetched() {
+        _sync.setBitsInState(PREFETCHED_MASK);
+    }
+
+    boolean clearPrefetched() {
+        return _sync.clearBitsInState(PREFETCHED_MASK);
+    }
+
+    boolean isPrefetched() {
+        return _sync.testBitsInState(PREFETCHED_MASK);
+    }
+
     void setFixed() {
         _sync.setBitsInState(FIXED_MASK);
     }
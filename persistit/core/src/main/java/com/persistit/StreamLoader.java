@@ -31,7 +31,9 @@ import com.persistit.util.Util;
 
 /**
  * Loads Persistit records from a file or other stream in a format generated by
- * a {@link StreamSaver}.
+ * a {@link StreamSaver}. A tree that is empty when its section of the stream
+ * begins is built bottom-up by a {@link TreeLoader}; its records become
+ * visible when the section ends.
  * 
  * @version 1.0
  */
@@ -113,6 +115,7 @@ public class StreamLoader extends Task {
     public void load(final ImportHandler handler) throws IOException, PersistitException {
         while (next(handler)) {
         }
+        handler.finishTreeLoader();
         postMessage(String.format("DONE - processed %,d data records and %,d other records", _dataRecordCount,
                 _otherRecordCount), Task.LOG_NORMAL);
     }
@@ -249,6 +252,8 @@ public class StreamLoader extends Task {
         protected boolean _createMissingTrees;
         protected String _volumeName = null;
         protected String _treeName = null;
+        protected TreeLoader _treeLoader;
+        protected boolean _treeLoaderChecked;
 
         protected ImportHandler(final Persistit persistit) {
             this(persistit, new TreeSelector(), true, true);
@@ -272,11 +277,39 @@ public class StreamLoader extends Task {
                 if (_exchange == null) {
                     _exchange = _persistit.getExchange(_volume, _tree.getName(), false);
                 }
-                key.copyTo(_exchange.getKey());
-                _exchange.setSplitPolicy(SplitPolicy.PACK_BIAS);
-                // Using this package-private method avoids copying
-                // the value field.
-                _exchange.store(_exchange.getKey(), value);
+                if (!_treeLoaderChecked) {
+                    // An empty tree is built bottom-up as long as the
+                    // stream delivers its keys in ascending order
+                    _treeLoaderChecked = true;
+                    if (TreeLoader.isEmpty(_tree)) {
+                        _treeLoader = new TreeLoader(_exchange);
+                    }
+                }
+                if (_treeLoader != null && !_treeLoader.canAppend(key)) {
+                    finishTreeLoader();
+                }
+                if (_treeLoader != null) {
+                    _treeLoader.append(key, value);
+                } else {
+                    key.copyTo(_exchange.getKey());
+                    _exchange.setSplitPolicy(SplitPolicy.PACK_BIAS);
+                    // Using this package-private method avoids copying
+                    // the value field.
+                    _exchange.store(_exchange.getKey(), value);
+                }
+            }
+        }
+
+        /**
+         * Install the records accumulated by the current {@link TreeLoader},
+         * if any. Records loaded into an empty tree become visible when this
+         * method is called at the end of the tree's section of the stream.
+         */
+        protected void finishTreeLoader() throws PersistitException {
+            if (_treeLoader != null) {
+                final TreeLoader loader = _treeLoader;
+                _treeLoader = null;
+                loader.finish();
             }
         }
 
@@ -286,6 +319,8 @@ public class StreamLoader extends Task {
         protected void handleVolumeIdRecord(final long volumeId, final long initialPages, final long extensionPages,
                 final long maximumPages, final int bufferSize, final String path, final String name)
                 throws PersistitException {
+            finishTreeLoader();
+            _treeLoaderChecked = false;
             final Exchange oldExchange = _exchange;
             _exchange = null;
             _volume = null;
@@ -310,6 +345,8 @@ public class StreamLoader extends Task {
         }
 
         protected void handleTreeIdRecord(final String treeName) throws PersistitException {
+            finishTreeLoader();
+            _treeLoaderChecked = false;
             final Exchange oldExchange = _exchange;
             _exchange = null;
             _tree = null;
@@ -350,12 +387,14 @@ public class StreamLoader extends Task {
         }
 
         protected void handleEndRecord() throws PersistitException {
+            finishTreeLoader();
         }
 
         protected void handleExceptionRecord(final String exceptionString) throws PersistitException {
         }
 
         protected void handleCompletionRecord() throws PersistitException {
+            finishTreeLoader();
         }
 
     }
@@ -112,13 +112,17 @@ import com.persistit.util.Util;
  * </p>
  * <p>
  * HARD and GROUP ensure each transaction is written durably to non-volatile
- * storage before the <code>commit</code> method returns. The difference is that
- * GROUP can improve throughput somewhat when many transactions are running
- * concurrently because the average number of I/O operations needed to commit N
- * transactions can be smaller than N. However, for one or a small number of
- * concurrent threads, GROUP reduces throughput because it works by introducing
- * a delay to allow other concurrent transactions to commit within a single I/O
- * operation.
+ * storage before the <code>commit</code> method returns. Both share a group
+ * commit pipeline: transactions that commit while a flush is in progress wait
+ * for it to finish and are then written together by one I/O operation, so the
+ * average number of I/O operations needed to commit N concurrent transactions
+ * can be much smaller than N. Before starting an I/O operation the committing
+ * thread may wait briefly for other transactions to join it. The length of
+ * that wait adapts to the rate at which transactions are committing and to the
+ * time the I/O operation takes; it is zero for a single committing thread. The
+ * difference between the policies is the upper bound on the wait: for HARD it
+ * is half the expected I/O time, while for GROUP it is the configured commit
+ * stall time.
  * </p>
  * <p>
  * SOFT commits are generally much faster than HARD or GROUP commits, especially
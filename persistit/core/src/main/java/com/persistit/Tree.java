@@ -92,6 +92,17 @@ public class Tree extends SharedResource {
 
     private final TimelyResource<TreeVersion> _timelyResource;
 
+    private final Object _bloomFilterLock = new Object();
+
+    /*
+     * Filter consulted by fetch once ready, or null if none is enabled
+     */
+    private volatile TreeBloomFilter _bloomFilter;
+
+    /*
+     * Filter being built by rebuildBloomFilter, or null
+     */
+    private volatile TreeBloomFilter _pendingBloomFilter;
     private final VersionCreator<TreeVersion> _creator = new VersionCreator<TreeVersion>() {
 
         @Override
@@ -552,6 +563,197 @@ public class Tree extends SharedResource {
         return accumulator;
     }
 
+    /**
+     * @return <code>true</code> if this <code>Tree</code> maintains a Bloom
+     *         filter of its keys
+     */
+    public boolean isBloomFilterEnabled() {
+        return _bloomFilter != null;
+    }
+
+    /**
+     * <p>
+     * Enable or disable a Bloom filter of the keys stored in this
+     * <code>Tree</code>. While enabled, {@link Exchange#fetch()} and
+     * {@link Exchange#isValueDefined()} for a key that was never stored
+     * usually complete without searching the tree. This is worthwhile when
+     * most lookups are for absent keys, for example when the tree is used to
+     * detect duplicates.
+     * </p>
+     * <p>
+     * Enabling the filter on a populated tree builds it by traversing all
+     * keys before this method returns. The filter is saved with each
+     * checkpoint and remains enabled across restarts until disabled.
+     * </p>
+     *
+     * @param enabled
+     *            whether to maintain the filter
+     * @throws PersistitException
+     */
+    public void setBloomFilterEnabled(final boolean enabled) throws PersistitException {
+        if (enabled) {
+            if (_bloomFilter == null) {
+                rebuildBloomFilter(true);
+                _volume.getStructure().addBloomFilterTree(this);
+            }
+        } else if (_bloomFilter != null) {
+            synchronized (_bloomFilterLock) {
+                _bloomFilter = null;
+                _pendingBloomFilter = null;
+            }
+            _volume.getStructure().removeBloomFilter(this);
+        }
+    }
+
+    TreeBloomFilter getBloomFilter() {
+        return _bloomFilter;
+    }
+
+    /**
+     * Install a filter loaded from the directory tree. If it is not ready,
+     * offer to rebuild it in the background.
+     *
+     * @param filter
+     *            the filter
+     */
+    void setBloomFilter(final TreeBloomFilter filter) {
+        _bloomFilter = filter;
+        if (!filter.isReady() && filter.requestRebuild()) {
+            _persistit.getCleanupManager().offer(new TreeBloomFilter.RebuildAction(this));
+        }
+    }
+
+    /**
+     * @return the monitor held while a Bloom filter is rebuilt. A caller that
+     *         also claims this <code>Tree</code> must acquire the monitor
+     *         first.
+     */
+    Object getBloomFilterLock() {
+        return _bloomFilterLock;
+    }
+
+    /**
+     * Replace the Bloom filter, if enabled, with an empty filter sized from
+     * {@link TreeStatistics} that is not consulted until it has been rebuilt
+     * in the background. Used by {@link TreeLoader}, which installs pages
+     * without adding their keys to the filter. The caller holds the monitor
+     * returned by {@link #getBloomFilterLock()}, so no rebuild that might
+     * install a filter built from the previous content is in progress.
+     */
+    void invalidateBloomFilter() {
+        if (_bloomFilter != null) {
+            final TreeStatistics stats = getStatistics();
+            setBloomFilter(TreeBloomFilter.forKeyCount(stats.getStoreCounter() - stats.getRemoveCounter()));
+        }
+    }
+
+    /**
+     * @param key
+     *            key about to be fetched
+     * @return <code>true</code> if the Bloom filter shows that no value has
+     *         been stored under <code>key</code>
+     */
+    boolean isExcludedByBloomFilter(final Key key) {
+        final TreeBloomFilter filter = _bloomFilter;
+        if (filter != null && filter.isReady() && !filter.mightContain(key)) {
+            getStatistics().bumpBloomFilterSkipCounter();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add a key about to be stored to the Bloom filter, if enabled. Called
+     * before the key is written to its page so that a filter saved at a
+     * checkpoint includes every key stored before the checkpoint timestamp.
+     *
+     * @param key
+     *            key being stored
+     * @return the filter the key was added to, or <code>null</code>
+     */
+    TreeBloomFilter addToBloomFilter(final Key key) {
+        final TreeBloomFilter filter = _bloomFilter;
+        if (filter != null && filter.add(key) && filter.isFull() && filter.isReady() && filter.requestRebuild()) {
+            _persistit.getCleanupManager().offer(new TreeBloomFilter.RebuildAction(this));
+        }
+        return filter;
+    }
+
+    /**
+     * Add a key just written to its page to a filter being rebuilt, and to
+     * the current filter if it has replaced the one the key was added to
+     * before the write. A concurrent rebuild that has already traversed past
+     * the key misses it, but it must then have started before the key was
+     * written, so this call sees the new filter: either still pending, or,
+     * since the rebuild installs the new filter before clearing the pending
+     * one, already current.
+     *
+     * @param key
+     *            key that was stored
+     * @param added
+     *            the filter returned by {@link #addToBloomFilter(Key)} before
+     *            the write
+     */
+    void addToPendingBloomFilter(final Key key, final TreeBloomFilter added) {
+        final TreeBloomFilter pending = _pendingBloomFilter;
+        if (pending != null) {
+            pending.add(key);
+        }
+        final TreeBloomFilter current = _bloomFilter;
+        if (current != null && current != added && current != pending) {
+            current.add(key);
+        }
+    }
+
+    /**
+     * Build a new Bloom filter by traversing all keys, sized from
+     * {@link TreeStatistics} or for twice the keys in the current filter,
+     * whichever is larger. Keys stored during the traversal are added to both
+     * filters. The current filter, if ready, continues to serve fetches until
+     * the new one replaces it.
+     *
+     * @param create
+     *            <code>true</code> to create the filter if none is enabled
+     * @throws PersistitException
+     */
+    void rebuildBloomFilter(final boolean create) throws PersistitException {
+        synchronized (_bloomFilterLock) {
+            final TreeBloomFilter current = _bloomFilter;
+            if (current == null ? !create : current.isReady() && !current.isFull()) {
+                return;
+            }
+            final TreeStatistics stats = getStatistics();
+            long keys = stats.getStoreCounter() - stats.getRemoveCounter();
+            if (current != null) {
+                keys = Math.max(keys, current.getPopulation() * 2);
+            }
+            final TreeBloomFilter filter = TreeBloomFilter.forKeyCount(keys);
+            if (current == null) {
+                _bloomFilter = filter;
+            }
+            _pendingBloomFilter = filter;
+            boolean built = false;
+            try {
+                final Exchange exchange = new Exchange(this);
+                exchange.ignoreMVCCFetch(true);
+                exchange.append(Key.BEFORE);
+                while (exchange.traverse(Key.GT, true, 0)) {
+                    filter.add(exchange.getKey());
+                }
+                filter.setReady();
+                if (_bloomFilter != null) {
+                    _bloomFilter = filter;
+                }
+                built = true;
+            } finally {
+                _pendingBloomFilter = null;
+                if (!built && current == null) {
+                    _bloomFilter = null;
+                }
+            }
+        }
+    }
+
     /**
      * Set the handle used to identify this Tree in the journal. May be invoked
      * only once.
@@ -0,0 +1,315 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.persistit.CleanupManager.CleanupAction;
+import com.persistit.exception.PersistitException;
+
+/**
+ * <p>
+ * Bloom filter over the encoded keys stored in a {@link Tree}. When enabled by
+ * {@link Tree#setBloomFilterEnabled(boolean)}, {@link Exchange#fetch()} and
+ * {@link Exchange#isValueDefined()} consult the filter before searching the
+ * tree, so that a lookup of a key that was never stored completes without
+ * reading any page.
+ * </p>
+ * <p>
+ * Every key stored in the tree is added to the filter. Removing a key leaves
+ * its bits set, so the filter only ever errs by admitting a key that is not
+ * present. A filter is sized from the tree's {@link TreeStatistics} for about
+ * one percent false positives; once the number of distinct keys added exceeds
+ * that size, a larger filter is built in the background by traversing the
+ * tree.
+ * </p>
+ * <p>
+ * Filters are saved in the volume's directory tree at each checkpoint. A saved
+ * filter is used after restart only when it was saved by the checkpoint that
+ * recovery started from and the journal ended cleanly; otherwise it is rebuilt
+ * by the CLEANUP_MANAGER thread when the tree is first opened, and the tree is
+ * searched normally until the rebuild completes.
+ * </p>
+ */
+class TreeBloomFilter {
+
+    final static int BITS_PER_KEY = 10;
+
+    final static int HASH_COUNT = 7;
+
+    final static long MINIMUM_KEY_COUNT = 1024;
+
+    final static long MAXIMUM_BIT_COUNT = 1L << 27;
+
+    /*
+     * Indexes of the fields of the header record saved in the directory tree
+     */
+    final static int HEADER_VERSION = 0;
+    final static int HEADER_TIMESTAMP = 1;
+    final static int HEADER_BIT_COUNT = 2;
+    final static int HEADER_HASH_COUNT = 3;
+    final static int HEADER_POPULATION = 4;
+    final static int HEADER_LENGTH = 5;
+
+    final static long FORMAT_VERSION = 1;
+
+    private final AtomicLongArray _words;
+
+    private final long _bitCount;
+
+    private final int _hashCount;
+
+    private final long _capacity;
+
+    private final AtomicLong _population = new AtomicLong();
+
+    private final AtomicBoolean _rebuildRequested = new AtomicBoolean();
+
+    private volatile boolean _ready;
+
+    private volatile boolean _dirty;
+
+    /**
+     * Construct an empty filter large enough for <code>keyCount</code>
+     * distinct keys.
+     *
+     * @param keyCount
+     *            expected number of distinct keys
+     * @return the filter
+     */
+    static TreeBloomFilter forKeyCount(final long keyCount) {
+        final long keys = Math.max(MINIMUM_KEY_COUNT, keyCount);
+        final long bits = Math.min(MAXIMUM_BIT_COUNT, keys * BITS_PER_KEY);
+        return new TreeBloomFilter(new long[(int) ((bits + 63) / 64)], HASH_COUNT, 0);
+    }
+
+    /**
+     * Construct a ready filter from bits saved in the directory tree.
+     *
+     * @param header
+     *            the saved header
+     * @param words
+     *            the saved bits
+     * @return the filter, or <code>null</code> if the header does not
+     *         describe the bits
+     */
+    static TreeBloomFilter fromSaved(final long[] header, final long[] words) {
+        if (header.length < HEADER_LENGTH || header[HEADER_VERSION] != FORMAT_VERSION
+                || header[HEADER_BIT_COUNT] != (long) words.length * 64) {
+            return null;
+        }
+        final TreeBloomFilter filter = new TreeBloomFilter(words, (int) header[HEADER_HASH_COUNT],
+                header[HEADER_POPULATION]);
+        filter._ready = true;
+        return filter;
+    }
+
+    TreeBloomFilter(final long[] words, final int hashCount, final long population) {
+        _words = new AtomicLongArray(words);
+        _bitCount = (long) words.length * 64;
+        _hashCount = hashCount;
+        _capacity = _bitCount / BITS_PER_KEY;
+        _population.set(population);
+    }
+
+    /**
+     * Add a key.
+     *
+     * @param key
+     *            the key
+     * @return <code>true</code> if the filter changed, which is almost always
+     *         the case for a key not previously added
+     */
+    boolean add(final Key key) {
+        final long hash = hash(key.getEncodedBytes(), key.getEncodedSize());
+        final long step = Long.rotateLeft(hash, 32) | 1;
+        long combined = hash;
+        boolean changed = false;
+        for (int i = 0; i < _hashCount; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % _bitCount;
+            final int index = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            long word = _words.get(index);
+            while ((word & mask) == 0) {
+                if (_words.compareAndSet(index, word, word | mask)) {
+                    changed = true;
+                    break;
+                }
+                word = _words.get(index);
+            }
+            combined += step;
+        }
+        if (changed) {
+            _population.incrementAndGet();
+            _dirty = true;
+        }
+        return changed;
+    }
+
+    /**
+     * @param key
+     *            the key
+     * @return <code>false</code> if the key was certainly never added
+     */
+    boolean mightContain(final Key key) {
+        final long hash = hash(key.getEncodedBytes(), key.getEncodedSize());
+        final long step = Long.rotateLeft(hash, 32) | 1;
+        long combined = hash;
+        for (int i = 0; i < _hashCount; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % _bitCount;
+            if ((_words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+
+    private static long hash(final byte[] bytes, final int size) {
+        long hash = 0x9E3779B97F4A7C15L ^ size;
+        int index = 0;
+        for (; index + 8 <= size; index += 8) {
+            long chunk = 0;
+            for (int i = 0; i < 8; i++) {
+                chunk = chunk << 8 | (bytes[index + i] & 0xFF);
+            }
+            hash = mix(hash ^ chunk);
+        }
+        long tail = 0;
+        for (; index < size; index++) {
+            tail = tail << 8 | (bytes[index] & 0xFF);
+        }
+        return mix(hash ^ tail);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    boolean isReady() {
+        return _ready;
+    }
+
+    void setReady() {
+        _ready = true;
+        _dirty = true;
+    }
+
+    boolean isFull() {
+        return _population.get() > _capacity;
+    }
+
+    /**
+     * @return <code>true</code> the first time this is called on a filter
+     *         that needs to be rebuilt
+     */
+    boolean requestRebuild() {
+        return _rebuildRequested.compareAndSet(false, true);
+    }
+
+    long getPopulation() {
+        return _population.get();
+    }
+
+    long getBitCount() {
+        return _bitCount;
+    }
+
+    /**
+     * Copy the bits to be saved and mark the filter clean. Bits set
+     * concurrently may or may not be in the copy, but they mark the filter
+     * dirty again so that the next checkpoint saves them.
+     *
+     * @return the bits, or <code>null</code> if nothing has changed since the
+     *         last call
+     */
+    long[] takeDirtyWords() {
+        if (!_dirty) {
+            return null;
+        }
+        _dirty = false;
+        final long[] words = new long[_words.length()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = _words.get(i);
+        }
+        return words;
+    }
+
+    /**
+     * Mark the filter dirty so that the next checkpoint saves its bits again,
+     * after bits taken by {@link #takeDirtyWords()} could not be saved.
+     */
+    void markDirty() {
+        _dirty = true;
+    }
+
+    long[] header(final long timestamp) {
+        final long[] header = new long[HEADER_LENGTH];
+        header[HEADER_VERSION] = FORMAT_VERSION;
+        header[HEADER_TIMESTAMP] = timestamp;
+        header[HEADER_BIT_COUNT] = _bitCount;
+        header[HEADER_HASH_COUNT] = _hashCount;
+        header[HEADER_POPULATION] = _population.get();
+        return header;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TreeBloomFilter(bits=%,d keys=%,d%s)", _bitCount, _population.get(), _ready ? ""
+                : " not ready");
+    }
+
+    /**
+     * Build a filter for a <code>Tree</code> by traversing it. Offered to the
+     * CleanupManager when a saved filter cannot be trusted after restart or
+     * when the current filter has outgrown its size.
+     */
+    static class RebuildAction implements CleanupAction {
+
+        private final Tree _tree;
+
+        RebuildAction(final Tree tree) {
+            _tree = tree;
+        }
+
+        @Override
+        public int compareTo(final CleanupAction other) {
+            return other instanceof RebuildAction ? 0 : 1;
+        }
+
+        @Override
+        public void performAction(final Persistit persistit, final List<CleanupAction> consequentActions)
+                throws PersistitException {
+            if (_tree.isLive()) {
+                _tree.rebuildBloomFilter(false);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "RebuildBloomFilter(" + _tree.getName() + ")";
+        }
+    }
+}
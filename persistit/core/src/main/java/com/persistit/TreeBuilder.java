@@ -34,10 +34,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.persistit.exception.DuplicateKeyException;
 import com.persistit.exception.PersistitException;
+import com.persistit.policy.SplitPolicy;
 import com.persistit.util.Util;
 
 /**
@@ -115,6 +126,33 @@ import com.persistit.util.Util;
  * sequence. By default that sequence is by alphabetical order of tree name, but
  * it is possible to customize TreeBuilder to change that order.
  * </p>
+ * <h3>Parallel loading</h3>
+ * <p>
+ * By default one thread does all the work: the threads that call
+ * {@link #store(Exchange)} insert into the sort trees, and the thread that
+ * calls {@link #merge()} builds the destination trees one after another. Call
+ * {@link #setThreadCount(int)} before storing the first record to spread the
+ * work over a pool of threads. Records are then partitioned by a hash of their
+ * keys. The calling thread only copies each record into a batch for its
+ * partition, and each partition's worker thread inserts the batches into its
+ * own sort volume. All copies of one key therefore reach the same partition
+ * in the order they were stored. Each partition's sort volumes are limited to
+ * an equal share of the buffer pool fraction. The merge then builds the
+ * destination trees concurrently, one k-way merge per <code>Tree</code>. The
+ * trees are handed to the pool in the order given by
+ * {@link #getTreeComparator()}.
+ * </p>
+ * <p>
+ * In this mode the methods listed below are called from the pool threads and
+ * must be thread-safe.
+ * </p>
+ * <p>
+ * Sort files hold a separate section for each destination tree. A merge
+ * reads only the sections of the tree it is building. A destination tree that
+ * is empty when the merge starts is built bottom-up by a {@link TreeLoader}:
+ * its pages are filled in key order and written once each, and the finished
+ * tree is installed when the merge of that tree completes.
+ * </p>
  * <p>
  * Loading a large data set may take a long time under the best of
  * circumstances. Therefore this class is designed to be extended by
@@ -148,6 +186,11 @@ public class TreeBuilder {
     private final static long REPORT_REPORT_MULTIPLE = 1000000;
     private final static String SDF = "yyyyMMddHHmm";
     private final static int STREAM_SIZE = 1024 * 1024;
+    private final static int MAXIMUM_THREAD_COUNT = 64;
+    private final static int BATCH_SIZE = 1024 * 1024;
+    private final static int BATCH_QUEUE_DEPTH = 4;
+    private final static int MINIMUM_PARTITION_PAGES = 64;
+    private final static long POLL_INTERVAL = 100;
 
     private final String _name;
     private final long _uniqueId;
@@ -158,15 +201,19 @@ public class TreeBuilder {
     private final AtomicLong _sortedKeyCount = new AtomicLong();
     private final AtomicLong _mergedKeyCount = new AtomicLong();
     private volatile long _reportKeyCountMultiple = REPORT_REPORT_MULTIPLE;
-    private Volume _sortVolume;
-    private File _sortFile;
+    private volatile int _threadCount = 1;
+    private SortVolume _sortVolume;
 
     private final List<Tree> _allTrees = new ArrayList<Tree>();
-    private final Map<String, Tree> _sortTreeMap = new HashMap<String, Tree>();
 
     private int _sortFileIndex;
+    private final List<File> _sortFiles = new ArrayList<File>();
     private final List<Node> _sortNodes = new ArrayList<Node>();
 
+    private volatile Partition[] _partitions;
+    private ExecutorService _executor;
+    private final Object _mergeLock = new Object();
+
     private final ThreadLocal<Map<Tree, Exchange>> _sortExchangeMapThreadLocal = new ThreadLocal<Map<Tree, Exchange>>() {
         @Override
         public Map<Tree, Exchange> initialValue() {
@@ -207,9 +254,12 @@ public class TreeBuilder {
         private final int _precedence;
 
         private final File _file;
+        private final Tree _target;
+        private final long _offset;
         private StreamLoader _loader;
         private Handler _handler;
         private boolean _next;
+        private boolean _end;
 
         private class Handler extends StreamLoader.ImportHandler {
 
@@ -224,15 +274,18 @@ public class TreeBuilder {
                 _value = value;
                 _next = true;
             }
-        }
 
-        private File getFile() {
-            return _file;
+            @Override
+            protected void handleEndRecord() throws PersistitException {
+                _end = true;
+            }
         }
 
-        private Node(final File file, final int index) {
+        private Node(final File file, final int index, final Tree target, final long offset) {
             _file = file;
             _precedence = index;
+            _target = target;
+            _offset = offset;
         }
 
         @Override
@@ -268,14 +321,21 @@ public class TreeBuilder {
         }
 
         private void createStreamLoader() throws Exception {
-            _loader = new StreamLoader(_persistit, new DataInputStream(new BufferedInputStream(new FileInputStream(
-                    _file), STREAM_SIZE)));
+            final FileInputStream fis = new FileInputStream(_file);
+            fis.getChannel().position(_offset);
+            _loader = new StreamLoader(_persistit, new DataInputStream(new BufferedInputStream(fis, STREAM_SIZE)));
             _handler = new Handler(_persistit);
         }
 
+        /**
+         * Read the next record of this node's section of the sort file.
+         * 
+         * @return <code>true</code> if there was another record
+         * @throws Exception
+         */
         private boolean next() throws Exception {
             _next = false;
-            while (_loader.next(_handler) && !_next)
+            while (!_end && _loader.next(_handler) && !_next)
                 ;
             if (!_next) {
                 _loader.close();
@@ -285,32 +345,205 @@ public class TreeBuilder {
 
     }
 
+    /**
+     * A temporary volume holding sort trees, and the file to which it will be
+     * saved when full.
+     */
+    private static class SortVolume {
+
+        private final Volume _volume;
+        private final File _file;
+        private final int _index;
+
+        private SortVolume(final Volume volume, final File file, final int index) {
+            _volume = volume;
+            _file = file;
+            _index = index;
+        }
+
+        private boolean isFull(final int pageLimit) {
+            return _volume.getNextAvailablePage() > pageLimit;
+        }
+    }
+
     private class SortStreamSaver extends StreamSaver {
 
-        Tree _sortTree = null;
+        private Tree _destination;
 
         SortStreamSaver(final Persistit persistit, final DataOutputStream stream) {
             super(persistit, stream);
         }
 
+        /**
+         * Begin a section holding the records of one destination tree. The
+         * section repeats the volume information and does not elide its first
+         * key so that it can be read on its own.
+         * 
+         * @param destination
+         *            the destination tree
+         */
+        void startSection(final Tree destination) {
+            _destination = destination;
+            _lastVolume = null;
+            _lastTree = null;
+            _lastKey.clear();
+        }
+
         @Override
         protected void writeData(final Exchange exchange) throws IOException {
-            if (exchange.getTree() != _sortTree) {
-                final Tree source = _sortTreeMap.get(exchange.getTree().getName());
-                if (_lastVolume != source.getVolume()) {
-                    writeVolumeInfo(source.getVolume());
-                    _lastVolume = source.getVolume();
-                }
-                if (_lastTree != source) {
-                    writeTreeInfo(source);
-                    _lastTree = source;
-                }
+            if (_lastVolume != _destination.getVolume()) {
+                writeVolumeInfo(_destination.getVolume());
+            }
+            if (_lastTree != _destination) {
+                writeTreeInfo(_destination);
             }
             writeData(exchange.getKey(), exchange.getValue());
             _recordCount++;
         }
     }
 
+    /**
+     * Records stored into one partition, encoded as a short key size, an int
+     * value size and the key and value bytes.
+     */
+    private static class Batch {
+
+        private Tree[] _trees;
+        private byte[] _bytes;
+        private int _count;
+        private int _size;
+
+        private Batch(final int capacity) {
+            _bytes = new byte[capacity];
+            _trees = new Tree[capacity / 1024];
+        }
+
+        private void add(final Tree tree, final Key key, final Value value) {
+            final int keySize = key.getEncodedSize();
+            final int valueSize = value.getEncodedSize();
+            final int length = keySize + valueSize + 6;
+            if (_size + length > _bytes.length) {
+                final byte[] bytes = new byte[Math.max(_bytes.length * 2, _size + length)];
+                System.arraycopy(_bytes, 0, bytes, 0, _size);
+                _bytes = bytes;
+            }
+            if (_count == _trees.length) {
+                final Tree[] trees = new Tree[_count * 2];
+                System.arraycopy(_trees, 0, trees, 0, _count);
+                _trees = trees;
+            }
+            _trees[_count++] = tree;
+            Util.putShort(_bytes, _size, keySize);
+            Util.putInt(_bytes, _size + 2, valueSize);
+            System.arraycopy(key.getEncodedBytes(), 0, _bytes, _size + 6, keySize);
+            System.arraycopy(value.getEncodedBytes(), 0, _bytes, _size + 6 + keySize, valueSize);
+            _size += length;
+        }
+
+        private boolean isFull() {
+            return _size >= BATCH_SIZE;
+        }
+
+        private boolean isEmpty() {
+            return _count == 0;
+        }
+    }
+
+    private final static Batch END_OF_BATCHES = new Batch(0);
+
+    /**
+     * One partition of a parallel sort. The threads calling
+     * {@link TreeBuilder#store(Tree, Key, Value)} add records to the pending
+     * batch; a pool thread inserts full batches into the partition's own sort
+     * volumes.
+     */
+    private class Partition implements Callable<Void> {
+
+        private final BlockingQueue<Batch> _queue = new ArrayBlockingQueue<Batch>(BATCH_QUEUE_DEPTH);
+        private final Map<Tree, Exchange> _exchanges = new HashMap<Tree, Exchange>();
+        private final int _pageLimit;
+        private Batch _pending = new Batch(BATCH_SIZE + 1024);
+        private SortVolume _sortVolume;
+        private Future<Void> _future;
+
+        private Partition(final int pageLimit) {
+            _pageLimit = pageLimit;
+        }
+
+        private synchronized void add(final Tree tree, final Key key, final Value value) throws Exception {
+            _pending.add(tree, key, value);
+            if (_pending.isFull()) {
+                submit(_pending);
+                _pending = new Batch(BATCH_SIZE + 1024);
+            }
+        }
+
+        private synchronized void finish() throws Exception {
+            if (!_pending.isEmpty()) {
+                submit(_pending);
+                _pending = new Batch(BATCH_SIZE + 1024);
+            }
+            submit(END_OF_BATCHES);
+        }
+
+        private void submit(final Batch batch) throws Exception {
+            while (!_queue.offer(batch, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (_future.isDone()) {
+                    join(Collections.<Future<?>> singletonList(_future));
+                }
+            }
+        }
+
+        @Override
+        public Void call() throws Exception {
+            final Key key = new Key(_persistit);
+            final Value value = new Value(_persistit);
+            for (;;) {
+                final Batch batch = _queue.take();
+                if (batch == END_OF_BATCHES) {
+                    break;
+                }
+                int offset = 0;
+                for (int index = 0; index < batch._count; index++) {
+                    final int keySize = Util.getShort(batch._bytes, offset);
+                    final int valueSize = Util.getInt(batch._bytes, offset + 2);
+                    System.arraycopy(batch._bytes, offset + 6, key.getEncodedBytes(), 0, keySize);
+                    key.setEncodedSize(keySize);
+                    value.ensureFit(valueSize);
+                    System.arraycopy(batch._bytes, offset + 6 + keySize, value.getEncodedBytes(), 0, valueSize);
+                    value.setEncodedSize(valueSize);
+                    offset += keySize + valueSize + 6;
+                    sort(batch._trees[index], key, value);
+                }
+            }
+            closeSortVolume();
+            return null;
+        }
+
+        private void sort(final Tree tree, final Key key, final Value value) throws Exception {
+            if (_sortVolume == null || _sortVolume.isFull(_pageLimit)) {
+                closeSortVolume();
+                _sortVolume = newSortVolume();
+            }
+            Exchange ex = _exchanges.get(tree);
+            if (ex == null) {
+                registerTree(tree);
+                ex = _persistit.getExchange(_sortVolume._volume, sortTreeName(tree), true);
+                _exchanges.put(tree, ex);
+            }
+            sortRecord(ex, key, value);
+        }
+
+        private void closeSortVolume() throws Exception {
+            _exchanges.clear();
+            if (_sortVolume != null) {
+                final SortVolume sortVolume = _sortVolume;
+                _sortVolume = null;
+                finishSortVolume(sortVolume);
+            }
+        }
+    }
+
     public TreeBuilder(final Persistit persistit) {
         this(persistit, new SimpleDateFormat(SDF).format(new Date()), -1, DEFAULT_BUFFER_POOL_FRACTION);
     }
@@ -363,6 +596,30 @@ public class TreeBuilder {
         return _reportKeyCountMultiple;
     }
 
+    /**
+     * Set the number of threads used to sort and merge records. With the
+     * default value of 1 records are inserted into sort trees by the threads
+     * that call {@link #store(Tree, Key, Value)} and the destination trees are
+     * built one at a time by the thread that calls {@link #merge()}. A larger
+     * value partitions the records among that many sort threads and builds up
+     * to that many destination trees concurrently. The value takes effect when
+     * the first record is stored after construction or after the previous
+     * merge.
+     *
+     * @param threadCount
+     *            number of threads, between 1 and 64
+     */
+    public final void setThreadCount(final int threadCount) {
+        _threadCount = Util.rangeCheck(threadCount, 1, MAXIMUM_THREAD_COUNT);
+    }
+
+    /**
+     * @return Number of threads used to sort and merge records
+     */
+    public final int getThreadCount() {
+        return _threadCount;
+    }
+
     /**
      * @return Count of sort trees that have been created while sorting keys
      */
@@ -493,20 +750,26 @@ public class TreeBuilder {
      * @throws Exception
      */
     public final void store(final Tree tree, final Key key, final Value value) throws Exception {
+        Partition[] partitions = _partitions;
+        if (partitions == null && _threadCount > 1) {
+            partitions = startPartitions();
+        }
+        if (partitions != null) {
+            partitions[partition(key, partitions.length)].add(tree, key, value);
+            return;
+        }
         final Map<Tree, Exchange> map = _sortExchangeMapThreadLocal.get();
         Exchange ex = map.get(tree);
         if (ex == null || ex.getTree().getVolume().getNextAvailablePage() > _pageLimit) {
             final Volume newSortVolume = getSortVolume();
-            final String tempTreeName = "_" + _persistit.getJournalManager().handleForTree(tree);
-            ex = _persistit.getExchange(newSortVolume, tempTreeName, true);
+            ex = _persistit.getExchange(newSortVolume, sortTreeName(tree), true);
             map.put(tree, ex);
-            synchronized (this) {
-                if (!_allTrees.contains(tree)) {
-                    _allTrees.add(tree);
-                    _sortTreeMap.put(tempTreeName, tree);
-                }
-            }
+            registerTree(tree);
         }
+        sortRecord(ex, key, value);
+    }
+
+    private void sortRecord(final Exchange ex, final Key key, final Value value) throws Exception {
         key.copyTo(ex.getKey());
         value.copyTo(ex.getValue());
 
@@ -526,6 +789,89 @@ public class TreeBuilder {
         }
     }
 
+    private String sortTreeName(final Tree tree) throws PersistitException {
+        return "_" + _persistit.getJournalManager().handleForTree(tree);
+    }
+
+    private synchronized void registerTree(final Tree tree) {
+        if (!_allTrees.contains(tree)) {
+            _allTrees.add(tree);
+        }
+    }
+
+    private static int partition(final Key key, final int partitions) {
+        final byte[] bytes = key.getEncodedBytes();
+        final int size = key.getEncodedSize();
+        int hash = 0;
+        for (int index = 0; index < size; index++) {
+            hash = hash * 31 + bytes[index];
+        }
+        return (hash & Integer.MAX_VALUE) % partitions;
+    }
+
+    /**
+     * Create the partitions for a parallel sort unless records have already
+     * been stored by a single thread.
+     * 
+     * @return the partitions, or <code>null</code> to continue sorting in the
+     *         calling thread
+     */
+    private synchronized Partition[] startPartitions() {
+        if (_partitions == null && _sortVolume == null && _sortNodes.isEmpty()) {
+            final int threadCount = _threadCount;
+            final int pageLimit = Math.max(_pageLimit / threadCount, MINIMUM_PARTITION_PAGES);
+            final Partition[] partitions = new Partition[threadCount];
+            final ExecutorService executor = executor();
+            for (int index = 0; index < threadCount; index++) {
+                partitions[index] = new Partition(pageLimit);
+                partitions[index]._future = executor.submit(partitions[index]);
+            }
+            _partitions = partitions;
+        }
+        return _partitions;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (_executor == null) {
+            final String name = "TREE_BUILDER_" + _uniqueId + "_";
+            _executor = Executors.newFixedThreadPool(_threadCount, new ThreadFactory() {
+                private final AtomicInteger _counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, name + _counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return _executor;
+    }
+
+    /**
+     * Wait for each of the supplied futures to complete.
+     * 
+     * @param futures
+     *            the futures
+     * @throws Exception
+     *             the first exception thrown by any of the tasks
+     */
+    private static void join(final List<Future<?>> futures) throws Exception {
+        Exception exception = null;
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final ExecutionException e) {
+                if (exception == null) {
+                    exception = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
     private void insertNode(final Map<Node, Node> sorted, final Node node) throws Exception {
         final Node other = sorted.put(node, node);
         if (other != null) {
@@ -552,83 +898,198 @@ public class TreeBuilder {
      * 
      * @throws Exception
      */
-    public synchronized void merge() throws Exception {
-        finishSortVolume();
-        if ((_mergedKeyCount.get() % _reportKeyCountMultiple) != 0) {
-            reportSorted(_mergedKeyCount.get());
+    public void merge() throws Exception {
+        synchronized (_mergeLock) {
+            finishSorting();
+            if ((_mergedKeyCount.get() % _reportKeyCountMultiple) != 0) {
+                reportSorted(_mergedKeyCount.get());
+            }
+            final List<Tree> trees;
+            final Map<Tree, List<Node>> nodes = new HashMap<Tree, List<Node>>();
+            synchronized (this) {
+                trees = new ArrayList<Tree>(_allTrees);
+                Collections.sort(trees, getTreeComparator());
+                for (final Node node : _sortNodes) {
+                    List<Node> list = nodes.get(node._target);
+                    if (list == null) {
+                        list = new ArrayList<Node>();
+                        nodes.put(node._target, list);
+                    }
+                    list.add(node);
+                }
+            }
+            if (_threadCount > 1 && trees.size() > 1) {
+                final ExecutorService executor = executor();
+                final List<Future<?>> futures = new ArrayList<Future<?>>();
+                for (final Tree tree : trees) {
+                    final List<Node> list = nodes.get(tree);
+                    if (list != null) {
+                        futures.add(executor.submit(new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                mergeTree(tree, list);
+                                return null;
+                            }
+                        }));
+                    }
+                }
+                join(futures);
+            } else {
+                for (final Tree tree : trees) {
+                    final List<Node> list = nodes.get(tree);
+                    if (list != null) {
+                        mergeTree(tree, list);
+                    }
+                }
+            }
+            if ((_mergedKeyCount.get() % _reportKeyCountMultiple) != 0) {
+                reportMerged(_mergedKeyCount.get());
+            }
+            reset();
+        }
+    }
+
+    /**
+     * Save the sort volumes still being filled: those of each partition of a
+     * parallel sort once its worker has drained its queue, or else the single
+     * current sort volume.
+     * 
+     * @throws Exception
+     */
+    private void finishSorting() throws Exception {
+        final Partition[] partitions = _partitions;
+        if (partitions != null) {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final Partition partition : partitions) {
+                partition.finish();
+                futures.add(partition._future);
+            }
+            join(futures);
+        }
+        final SortVolume sortVolume;
+        synchronized (this) {
+            sortVolume = _sortVolume;
+            _sortVolume = null;
+        }
+        if (sortVolume != null) {
+            finishSortVolume(sortVolume);
         }
-        Tree currentTree = null;
-        Exchange ex = null;
+    }
+
+    /**
+     * Merge the sections of the sort files holding records for one destination
+     * tree into that tree.
+     * 
+     * @param tree
+     *            the destination tree
+     * @param nodes
+     *            a <code>Node</code> for each sort file section
+     * @throws Exception
+     */
+    private void mergeTree(final Tree tree, final List<Node> nodes) throws Exception {
+        final Exchange ex = new Exchange(tree);
+        ex.setSplitPolicy(SplitPolicy.PACK_BIAS);
+        /*
+         * Records leave the merge in strictly ascending key order, so if the
+         * tree starts out empty no key can already be present and the tree
+         * can be built bottom-up by a TreeLoader.
+         */
+        TreeLoader loader = TreeLoader.isEmpty(tree) ? new TreeLoader(ex) : null;
         final SortedMap<Node, Node> sorted = new TreeMap<Node, Node>();
 
-        for (final Node node : _sortNodes) {
+        for (final Node node : nodes) {
             node.createStreamLoader();
             if (node.next()) {
                 insertNode(sorted, node);
             }
         }
 
-        for (;;) {
-            if (sorted.isEmpty()) {
-                break;
-            }
-            Node node = sorted.firstKey();
-            node = sorted.remove(node);
-            if (node._tree != currentTree) {
-                ex = new Exchange(node._tree);
-                currentTree = node._tree;
-            }
-            node._key.copyTo(ex.getKey());
-            node._value.copyTo(ex.getValue());
-
-            if (beforeMergeKey(ex)) {
-                ex.fetchAndStore();
-                boolean stored = true;
-                if (ex.getValue().isDefined()) {
-                    if (!duplicateKeyDetected(ex.getTree(), ex.getKey(), ex.getValue(), node._value)) {
-                        ex.store();
-                        stored = false;
+        boolean done = false;
+        try {
+            while (!sorted.isEmpty()) {
+                Node node = sorted.firstKey();
+                node = sorted.remove(node);
+                node._key.copyTo(ex.getKey());
+                node._value.copyTo(ex.getValue());
+
+                if (beforeMergeKey(ex)) {
+                    boolean stored = true;
+                    if (loader != null && !loader.canAppend(ex.getKey())) {
+                        /*
+                         * beforeMergeKey changed the key order; install what
+                         * has been loaded and continue with ordinary stores.
+                         */
+                        loader.finish();
+                        loader = null;
+                    }
+                    if (loader != null) {
+                        loader.append(ex.getKey(), ex.getValue());
+                    } else {
+                        ex.fetchAndStore();
+                        if (ex.getValue().isDefined()) {
+                            if (!duplicateKeyDetected(ex.getTree(), ex.getKey(), ex.getValue(), node._value)) {
+                                ex.store();
+                                stored = false;
+                            }
+                        }
+                    }
+                    if (stored) {
+                        afterMergeKey(ex);
+                        if ((_mergedKeyCount.incrementAndGet() % _reportKeyCountMultiple) == 0) {
+                            reportMerged(_mergedKeyCount.get());
+                        }
                     }
                 }
-                if (stored) {
-                    afterMergeKey(ex);
-                    if ((_mergedKeyCount.incrementAndGet() % _reportKeyCountMultiple) == 0) {
-                        reportMerged(_mergedKeyCount.get());
+                while (node != null) {
+                    final Node next = node._duplicate;
+                    node._duplicate = null;
+                    if (node.next()) {
+                        insertNode(sorted, node);
                     }
+                    node = next;
                 }
             }
-            while (node != null) {
-                final Node next = node._duplicate;
-                node._duplicate = null;
-                if (node.next()) {
-                    insertNode(sorted, node);
-                }
-                node = next;
+            if (loader != null) {
+                loader.finish();
+            }
+            done = true;
+        } finally {
+            if (!done && loader != null) {
+                loader.abort();
             }
         }
-        if ((_mergedKeyCount.get() % _reportKeyCountMultiple) != 0) {
-            reportMerged(_mergedKeyCount.get());
-        }
-        reset();
     }
 
     private synchronized void reset() throws Exception {
         Exception exception = null;
-        try {
-            if (_sortVolume != null) {
-                _sortVolume.close();
+        if (_executor != null) {
+            _executor.shutdownNow();
+            _executor = null;
+        }
+        final List<SortVolume> sortVolumes = new ArrayList<SortVolume>();
+        if (_sortVolume != null) {
+            sortVolumes.add(_sortVolume);
+        }
+        if (_partitions != null) {
+            for (final Partition partition : _partitions) {
+                if (partition._sortVolume != null) {
+                    sortVolumes.add(partition._sortVolume);
+                }
             }
-        } catch (final PersistitException e) {
-            if (exception == null) {
-                exception = e;
+        }
+        for (final SortVolume sortVolume : sortVolumes) {
+            try {
+                sortVolume._volume.close();
+            } catch (final PersistitException e) {
+                if (exception == null) {
+                    exception = e;
+                }
             }
         }
 
-        for (final Node node : _sortNodes) {
+        for (final File file : _sortFiles) {
             try {
-                if (node.getFile() != null) {
-                    node.getFile().delete();
-                }
+                file.delete();
             } catch (final Exception e) {
                 if (exception == null) {
                     exception = e;
@@ -636,8 +1097,10 @@ public class TreeBuilder {
             }
         }
         _allTrees.clear();
+        _sortFiles.clear();
         _sortNodes.clear();
         _sortVolume = null;
+        _partitions = null;
         _sortFileIndex = 0;
         _sortExchangeMapThreadLocal.get().clear();
         if (exception != null) {
@@ -652,59 +1115,80 @@ public class TreeBuilder {
     }
 
     private synchronized Volume getSortVolume() throws Exception {
-        if (_sortVolume != null && _sortVolume.getNextAvailablePage() > _pageLimit) {
-            finishSortVolume();
+        if (_sortVolume != null && _sortVolume.isFull(_pageLimit)) {
+            finishSortVolume(_sortVolume);
+            _sortVolume = null;
         }
         if (_sortVolume == null) {
-            final File directory;
-            if (_directories.isEmpty()) {
-                String directoryName = _persistit.getConfiguration().getTmpVolDir();
-                if (directoryName == null) {
-                    directoryName = System.getProperty("java.io.tmpdir");
-                }
-                directory = new File(directoryName);
-                if (!directory.exists()) {
-                    directory.mkdirs();
-                }
-                _directories.add(directory);
-            } else {
-                directory = _directories.get(_sortFileIndex % _directories.size());
+            _sortVolume = newSortVolume();
+        }
+        return _sortVolume._volume;
+    }
+
+    private synchronized SortVolume newSortVolume() throws Exception {
+        final File directory;
+        if (_directories.isEmpty()) {
+            String directoryName = _persistit.getConfiguration().getTmpVolDir();
+            if (directoryName == null) {
+                directoryName = System.getProperty("java.io.tmpdir");
+            }
+            directory = new File(directoryName);
+            if (!directory.exists()) {
+                directory.mkdirs();
             }
-            _sortVolume = Volume.createTemporaryVolume(_persistit, _pageSize, directory);
-            _sortFile = new File(directory, String.format("%s_%d.%06d", _name, _uniqueId, _sortFileIndex));
-            final Node node = new Node(_sortFile, _sortFileIndex);
-            _sortNodes.add(node);
-            _sortFileIndex++;
+            _directories.add(directory);
+        } else {
+            directory = _directories.get(_sortFileIndex % _directories.size());
         }
-        return _sortVolume;
+        final Volume volume = Volume.createTemporaryVolume(_persistit, _pageSize, directory);
+        final File file = new File(directory, String.format("%s_%d.%06d", _name, _uniqueId, _sortFileIndex));
+        _sortFiles.add(file);
+        return new SortVolume(volume, file, _sortFileIndex++);
     }
 
-    private void finishSortVolume() throws Exception {
-        if (_sortVolume != null) {
-            beforeSortVolumeClosed(_sortVolume, _sortFile);
-            saveSortVolume(_sortVolume, _sortFile);
-            afterSortVolumeClose(_sortVolume, _sortFile);
-            _sortVolume.close();
-            _sortVolume = null;
+    private void finishSortVolume(final SortVolume sortVolume) throws Exception {
+        beforeSortVolumeClosed(sortVolume._volume, sortVolume._file);
+        final List<Node> nodes = saveSortVolume(sortVolume);
+        afterSortVolumeClose(sortVolume._volume, sortVolume._file);
+        sortVolume._volume.close();
+        synchronized (this) {
+            _sortNodes.addAll(nodes);
         }
     }
 
-    private void saveSortVolume(final Volume volume, final File file) throws Exception {
-        final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file),
-                STREAM_SIZE));
-        final List<Tree> sorted = new ArrayList<Tree>(_allTrees);
-        Collections.sort(sorted, getTreeComparator());
-        final StreamSaver saver = new SortStreamSaver(_persistit, dos);
+    /**
+     * Write the sort trees of a sort volume to its file, one section per
+     * destination tree.
+     * 
+     * @param sortVolume
+     *            the sort volume
+     * @return a <code>Node</code> for each section
+     * @throws Exception
+     */
+    private List<Node> saveSortVolume(final SortVolume sortVolume) throws Exception {
+        final FileOutputStream fos = new FileOutputStream(sortVolume._file);
+        final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos, STREAM_SIZE));
+        final List<Tree> sorted;
+        synchronized (this) {
+            sorted = new ArrayList<Tree>(_allTrees);
+            Collections.sort(sorted, getTreeComparator());
+        }
+        final SortStreamSaver saver = new SortStreamSaver(_persistit, dos);
+        final List<Node> nodes = new ArrayList<Node>();
         for (final Tree tree : sorted) {
             final String sortTreeName = "_" + tree.getHandle();
-            final Tree sortTree = volume.getTree(sortTreeName, false);
+            final Tree sortTree = sortVolume._volume.getTree(sortTreeName, false);
             if (sortTree != null) {
+                dos.flush();
+                nodes.add(new Node(sortVolume._file, sortVolume._index, tree, fos.getChannel().position()));
+                saver.startSection(tree);
                 final Exchange exchange = new Exchange(sortTree);
                 saver.save(exchange, null);
             }
         }
-        file.deleteOnExit();
+        sortVolume._file.deleteOnExit();
         dos.close();
+        return nodes;
     }
 
     /**
@@ -792,7 +1276,10 @@ public class TreeBuilder {
      * This method may be extended to provide custom behavior after merging one
      * record. The default implementation does nothing. This method is called
      * only if the corresponding call to {@link #beforeMergeKey(Exchange)}
-     * returned <code>true</code>.
+     * returned <code>true</code>. When the destination tree was empty at the
+     * start of the merge it is built by a {@link TreeLoader}, and merged
+     * records become visible in the tree only once the merge of that tree is
+     * complete.
      * 
      * @param exchange
      *            represents the key-value pair that was merged.
@@ -845,8 +1332,14 @@ public class TreeBuilder {
     }
 
     void unitTestNextSortFile() throws Exception {
-        finishSortVolume();
+        final SortVolume sortVolume;
+        synchronized (this) {
+            sortVolume = _sortVolume;
+            _sortVolume = null;
+        }
+        if (sortVolume != null) {
+            finishSortVolume(sortVolume);
+        }
         _sortExchangeMapThreadLocal.get().clear();
-        _sortVolume = null;
     }
 }
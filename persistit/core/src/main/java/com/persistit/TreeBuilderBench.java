@@ -0,0 +1,140 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static com.persistit.util.Util.NS_PER_MS;
+import static com.persistit.util.Util.NS_PER_S;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.persistit.util.ArgParser;
+
+/**
+ * Benchmark for bulk loading with {@link TreeBuilder}. For each of the listed
+ * thread counts the benchmark creates a fresh Persistit instance in datapath,
+ * stores the requested number of keys in pseudo-random order into a
+ * <code>TreeBuilder</code> and merges them into one destination tree. It
+ * reports the time spent sorting and merging and the overall load rate.
+ *
+ * Parameters
+ *
+ * keys - number of keys to load (default = 1,000,000,000) threads - comma
+ * separated list of TreeBuilder thread counts (default = 1,4) datapath -
+ * directory holding the volume and journal (default =
+ * /tmp/persistit_test_data) tmpdir - directory for sort volumes and files
+ * (default = datapath) buffers - number of 16K buffers (default = 65536)
+ * valuesize - bytes per value (default = 16) -v - count the keys after the
+ * merge
+ *
+ * Keys are distinct longs generated by a multiplicative permutation of the
+ * sequence 0..keys-1, so the destination tree holds exactly keys records.
+ */
+public class TreeBuilderBench {
+
+    private final static long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final String[] ARG_TEMPLATE = new String[] {
+            "keys|long:1000000000:1:10000000000|Number of keys to load",
+            "threads|String:1,4|TreeBuilder thread counts to run",
+            "datapath|String:/tmp/persistit_test_data|Datapath property",
+            "tmpdir|String:|Directory for sort volumes (default is datapath)",
+            "buffers|int:65536:1024:16777216|Number of 16K buffers",
+            "valuesize|int:16:0:4096|Bytes per value", "_flag|v|Count keys after merging" };
+
+    final ArgParser ap;
+
+    public static void main(final String[] args) throws Exception {
+        new TreeBuilderBench(args).runTest();
+    }
+
+    private TreeBuilderBench(final String[] args) throws Exception {
+        ap = new ArgParser("TreeBuilderBench", args, ARG_TEMPLATE).strict();
+    }
+
+    private void runTest() throws Exception {
+        final long keys = ap.getLongValue("keys");
+        final File directory = new File(ap.getStringValue("datapath"), "TreeBuilderBench");
+        final String tmpdir = ap.getStringValue("tmpdir");
+        final byte[] bytes = new byte[ap.getIntValue("valuesize")];
+        for (final String threadCount : ap.getStringValue("threads").split(",")) {
+            final int threads = Integer.parseInt(threadCount.trim());
+            delete(directory);
+            directory.mkdirs();
+            final Properties properties = new Properties();
+            properties.setProperty("datapath", directory.getAbsolutePath());
+            properties.setProperty("tmpvoldir", tmpdir.isEmpty() ? directory.getAbsolutePath() : tmpdir);
+            properties.setProperty("buffer.count.16384", Integer.toString(ap.getIntValue("buffers")));
+            properties.setProperty("volume.1", "${datapath}/bench,create,pageSize:16384,initialPages:1000,"
+                    + "extensionPages:100000,maximumPages:1000000000");
+            properties.setProperty("journalpath", "${datapath}/persistit_journal");
+            properties.setProperty("logfile", "${datapath}/persistit.log");
+            properties.setProperty("appendonly", "true");
+            final Persistit persistit = new Persistit(properties);
+            try {
+                final AtomicInteger sortFiles = new AtomicInteger();
+                final TreeBuilder tb = new TreeBuilder(persistit) {
+                    @Override
+                    protected void afterSortVolumeClose(final Volume volume, final File file) {
+                        sortFiles.incrementAndGet();
+                    }
+                };
+                tb.setThreadCount(threads);
+                final Exchange exchange = persistit.getExchange("bench", "bench", true);
+                exchange.getValue().putByteArray(bytes);
+
+                final long start = System.nanoTime();
+                for (long index = 0; index < keys; index++) {
+                    exchange.clear().append(index * MULTIPLIER);
+                    tb.store(exchange);
+                }
+                final long sorted = System.nanoTime();
+                tb.merge();
+                final long merged = System.nanoTime();
+                persistit.checkpoint();
+                final long elapsed = System.nanoTime() - start;
+
+                long count = -1;
+                if (ap.isFlag('v')) {
+                    count = 0;
+                    exchange.clear().append(Key.BEFORE);
+                    while (exchange.next()) {
+                        count++;
+                    }
+                }
+                System.out.printf("threads=%,d keys=%,d sortfiles=%,d sort=%,dms merge=%,dms total=%,dms "
+                        + "rate=%,.0f/second%s\n", threads, keys, sortFiles.get(), (sorted - start) / NS_PER_MS,
+                        (merged - sorted) / NS_PER_MS, elapsed / NS_PER_MS, (double) keys * NS_PER_S / elapsed,
+                        count < 0 ? "" : String.format(" verified=%,d", count));
+            } finally {
+                persistit.close(false);
+            }
+        }
+        delete(directory);
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
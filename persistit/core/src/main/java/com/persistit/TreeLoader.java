@@ -0,0 +1,545 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static com.persistit.Buffer.HEADER_SIZE;
+import static com.persistit.Buffer.KEYBLOCK_LENGTH;
+import static com.persistit.Buffer.PAGE_TYPE_DATA;
+import static com.persistit.Buffer.PAGE_TYPE_INDEX_MIN;
+import static com.persistit.Buffer.TAILBLOCK_HDR_SIZE_DATA;
+import static com.persistit.Buffer.TAILBLOCK_HDR_SIZE_INDEX;
+import static com.persistit.Buffer.TAILBLOCK_MASK;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.persistit.ValueHelper.RawValueWriter;
+import com.persistit.exception.DuplicateKeyException;
+import com.persistit.exception.InUseException;
+import com.persistit.exception.PersistitException;
+
+/**
+ * <p>
+ * Builds the content of an empty {@link Tree} from key-value pairs supplied in
+ * strictly ascending key order. Unlike {@link Exchange#store()}, which descends
+ * the tree and possibly splits a page for every record, a
+ * <code>TreeLoader</code> constructs the B-Tree bottom-up: each data page is
+ * packed to the configured fill factor and then written, index pages are
+ * filled with the first key of each completed page on the level below, and
+ * every page is written exactly once as soon as it is complete. Because pages
+ * are allocated and written in key order, the journal receives one long
+ * sequential stream of page images.
+ * </p>
+ * <p>
+ * The pages built by a <code>TreeLoader</code> are not reachable until
+ * {@link #finish()} is called. At that point the loader verifies that the
+ * destination tree is still empty and atomically replaces its root page with
+ * the root of the new structure. If some other thread has stored a record in
+ * the tree in the meantime, <code>finish</code> de-allocates the new pages and
+ * throws an <code>IllegalStateException</code>. Pages written by a loader that
+ * is abandoned without calling <code>finish</code> or {@link #abort()} remain
+ * allocated but unreferenced until the volume is next rebuilt.
+ * </p>
+ * <p>
+ * Records are stored primordially, exactly as {@link Exchange#store()} stores
+ * them outside of a transaction; a <code>TreeLoader</code> does not participate
+ * in transactions. A <code>TreeLoader</code> is not thread-safe.
+ * </p>
+ * <p>
+ * Typical usage:
+ *
+ * <code><pre>
+ * TreeLoader loader = new TreeLoader(persistit.getExchange(&quot;vol&quot;, &quot;tree&quot;, true));
+ * loader.setFillFactor(0.9f);
+ * loader.load(sortedEntries.iterator());
+ * </pre></code>
+ *
+ * {@link StreamLoader} uses a <code>TreeLoader</code> when importing into an
+ * empty tree and {@link TreeBuilder} uses one when merging into an empty tree.
+ * </p>
+ */
+public class TreeLoader {
+
+    /**
+     * Default fraction of each page filled before a new page is started
+     */
+    public final static float DEFAULT_FILL_FACTOR = 0.9f;
+    /**
+     * Smallest permitted fill factor
+     */
+    public final static float MINIMUM_FILL_FACTOR = 0.5f;
+    /**
+     * Largest permitted fill factor
+     */
+    public final static float MAXIMUM_FILL_FACTOR = 1.0f;
+
+    private final Persistit _persistit;
+    private final Exchange _exchange;
+    private final Volume _volume;
+    private final Tree _tree;
+    private final int _bufferSize;
+    private final int _maxKeys;
+
+    private final List<Level> _levels = new ArrayList<Level>();
+    private final Key _lastKey;
+    private final Value _spareValue;
+    private final RawValueWriter _rawValueWriter = new RawValueWriter();
+
+    private float _fillFactor = DEFAULT_FILL_FACTOR;
+    private long _recordCount;
+    private long _pageCount;
+    private boolean _done;
+
+    /**
+     * One level of the B-Tree under construction. Holds the page currently
+     * being filled and one pending record: a record is added to the current
+     * page only once the following key is known, because the page must retain
+     * room for that key as its right edge key.
+     */
+    private class Level {
+        private final int _level;
+        private final Key _pendingKey;
+        private final Value _pendingValue;
+        private final Value _edgeValue;
+        private boolean _pending;
+        private Buffer _buffer;
+        private long _firstPage;
+
+        private Level(final int level) {
+            _level = level;
+            _pendingKey = new Key(_persistit);
+            _pendingValue = new Value(_persistit);
+            _edgeValue = new Value(_persistit);
+            _edgeValue.setPointerValue(-1);
+        }
+
+        private int tailHeaderSize() {
+            return _level == 0 ? TAILBLOCK_HDR_SIZE_DATA : TAILBLOCK_HDR_SIZE_INDEX;
+        }
+
+        /**
+         * Upper bound on the space consumed by one record, ignoring the savings
+         * of elided key bytes.
+         */
+        private int recordSize(final Key key, final int valueSize) {
+            return ((tailHeaderSize() + key.getEncodedSize() + valueSize + ~TAILBLOCK_MASK) & TAILBLOCK_MASK)
+                    + KEYBLOCK_LENGTH;
+        }
+
+        private int pendingSize() {
+            return recordSize(_pendingKey, _level == 0 ? _pendingValue.getEncodedSize() : 0);
+        }
+
+        /**
+         * Add a data record following all records previously added to this
+         * level. The value is copied as raw bytes so that a value already
+         * converted to a long record pointer is preserved.
+         */
+        private void add(final Key key, final Value value) throws PersistitException {
+            advance(key);
+            final int size = value.getEncodedSize();
+            _pendingValue.ensureFit(size);
+            System.arraycopy(value.getEncodedBytes(), 0, _pendingValue.getEncodedBytes(), 0, size);
+            _pendingValue.setEncodedSize(size);
+        }
+
+        /**
+         * Add an index record pointing to a child page.
+         */
+        private void addPointer(final Key key, final long pointer) throws PersistitException {
+            advance(key);
+            _pendingValue.setPointerValue(pointer);
+        }
+
+        private void advance(final Key key) throws PersistitException {
+            if (_pending) {
+                place(recordSize(key, 0));
+            }
+            key.copyTo(_pendingKey);
+            _pending = true;
+        }
+
+        /**
+         * Move the pending record into the current page, first starting a new
+         * page if the current one cannot hold both the pending record and an
+         * edge key of the supplied size.
+         */
+        private void place(final int edgeSize) throws PersistitException {
+            final int size = pendingSize();
+            if (_buffer == null) {
+                _buffer = newPage();
+                _firstPage = _buffer.getPageAddress();
+            } else if (!fits(size, edgeSize)) {
+                final Buffer next = newPage();
+                final long nextPage = next.getPageAddress();
+                complete(_pendingKey, nextPage);
+                _buffer = next;
+                parent(nextPage);
+            }
+            _rawValueWriter.init(_pendingValue);
+            if (_buffer.putValue(_pendingKey, _rawValueWriter) < 0) {
+                throw new IllegalStateException("Record does not fit in " + _buffer);
+            }
+            _pending = false;
+        }
+
+        private boolean fits(final int size, final int edgeSize) {
+            final int available = _buffer.getAvailableSize();
+            if (_buffer.getKeyCount() + 2 > _maxKeys || size + edgeSize > available) {
+                return false;
+            }
+            final int used = _bufferSize - HEADER_SIZE - available;
+            return used + size <= (_bufferSize - HEADER_SIZE) * _fillFactor;
+        }
+
+        /**
+         * Register a newly started page on this level with the level above,
+         * creating the level above when this level acquires its second page.
+         */
+        private void parent(final long page) throws PersistitException {
+            final Level parent;
+            if (_levels.size() == _level + 1) {
+                parent = new Level(_level + 1);
+                _levels.add(parent);
+                parent.addPointer(Key.LEFT_GUARD_KEY, _firstPage);
+            } else {
+                parent = _levels.get(_level + 1);
+            }
+            parent.addPointer(_pendingKey, page);
+        }
+
+        /**
+         * Terminate the current page with an edge key, link it to its right
+         * sibling and write it.
+         */
+        private void complete(final Key edgeKey, final long rightSibling) throws PersistitException {
+            final int result;
+            if (_level == 0) {
+                result = _buffer.putValue(edgeKey, ValueHelper.EMPTY_VALUE_WRITER);
+            } else {
+                _rawValueWriter.init(_edgeValue);
+                result = _buffer.putValue(edgeKey, _rawValueWriter);
+            }
+            if (result < 0) {
+                throw new IllegalStateException("Edge key does not fit in " + _buffer);
+            }
+            _buffer.setRightSibling(rightSibling);
+            _buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+            final Buffer buffer = _buffer;
+            _buffer = null;
+            try {
+                buffer.writePage();
+            } finally {
+                buffer.releaseTouched();
+            }
+        }
+
+        /**
+         * Place the pending record and complete the last page of this level
+         * with the right guard key.
+         */
+        private void finish() throws PersistitException {
+            if (_pending) {
+                place(recordSize(Key.RIGHT_GUARD_KEY, 0));
+            }
+            complete(Key.RIGHT_GUARD_KEY, 0);
+        }
+
+        private Buffer newPage() throws PersistitException {
+            final Buffer buffer = _volume.getStructure().allocPage();
+            buffer.init(_level == 0 ? PAGE_TYPE_DATA : PAGE_TYPE_INDEX_MIN + _level - 1);
+            _pageCount++;
+            return buffer;
+        }
+    }
+
+    /**
+     * Construct a <code>TreeLoader</code> that builds the content of the
+     * <code>Tree</code> of the supplied <code>Exchange</code>. The Exchange
+     * is used only to identify the tree and must not be used by another thread
+     * while loading is in progress.
+     *
+     * @param exchange
+     *            an <code>Exchange</code> on an empty tree
+     * @throws PersistitException
+     * @throws IllegalStateException
+     *             if the tree is not empty
+     */
+    public TreeLoader(final Exchange exchange) throws PersistitException {
+        _exchange = exchange;
+        _persistit = exchange.getPersistitInstance();
+        _volume = exchange.getVolume();
+        _tree = exchange.getTree();
+        _bufferSize = _volume.getPageSize();
+        _maxKeys = _volume.getPool().getMaxKeys();
+        _lastKey = new Key(_persistit);
+        _spareValue = new Value(_persistit);
+        if (!isEmpty(_tree)) {
+            throw new IllegalStateException("Tree " + _tree + " is not empty");
+        }
+    }
+
+    /**
+     * @return fraction of each page filled before starting a new page
+     */
+    public float getFillFactor() {
+        return _fillFactor;
+    }
+
+    /**
+     * Set the fraction of each page to fill before starting a new page. A
+     * value of 1.0 packs pages completely; smaller values leave room for
+     * subsequent inserts to be absorbed without splitting pages.
+     *
+     * @param fillFactor
+     *            value between {@value #MINIMUM_FILL_FACTOR} and
+     *            {@value #MAXIMUM_FILL_FACTOR}
+     */
+    public void setFillFactor(final float fillFactor) {
+        if (fillFactor < MINIMUM_FILL_FACTOR || fillFactor > MAXIMUM_FILL_FACTOR) {
+            throw new IllegalArgumentException("Fill factor " + fillFactor + " not in range "
+                    + MINIMUM_FILL_FACTOR + " to " + MAXIMUM_FILL_FACTOR);
+        }
+        _fillFactor = fillFactor;
+    }
+
+    /**
+     * @return the Tree being loaded
+     */
+    public Tree getTree() {
+        return _tree;
+    }
+
+    /**
+     * @return number of records appended so far
+     */
+    public long getRecordCount() {
+        return _recordCount;
+    }
+
+    /**
+     * @return number of index and data pages allocated so far
+     */
+    public long getPageCount() {
+        return _pageCount;
+    }
+
+    /**
+     * @param key
+     *            a key
+     * @return <code>true</code> if the supplied key sorts after every key
+     *         appended so far, i.e., if it can be appended
+     */
+    public boolean canAppend(final Key key) {
+        return _recordCount == 0 || key.compareTo(_lastKey) > 0;
+    }
+
+    /**
+     * Append a record. The key must sort after every key previously appended.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @throws DuplicateKeyException
+     *             if the key is equal to the previously appended key
+     * @throws IllegalArgumentException
+     *             if the key sorts before the previously appended key
+     * @throws PersistitException
+     */
+    public void append(final Key key, final Value value) throws PersistitException {
+        if (_done) {
+            throw new IllegalStateException("TreeLoader for " + _tree + " is already finished");
+        }
+        key.testValidForStoreAndFetch(_bufferSize);
+        if (_recordCount > 0) {
+            final int compare = key.compareTo(_lastKey);
+            if (compare == 0) {
+                throw new DuplicateKeyException("Duplicate key " + key);
+            } else if (compare < 0) {
+                throw new IllegalArgumentException("Key " + key + " is not greater than preceding key " + _lastKey);
+            }
+        }
+        _persistit.getJournalManager().throttle();
+        if (_levels.isEmpty()) {
+            final Level level = new Level(0);
+            _levels.add(level);
+            level.add(Key.LEFT_GUARD_KEY, _spareValue.clear());
+        }
+        final Level level = _levels.get(0);
+        if (value.getEncodedSize() > _exchange.maxValueSize(key.getEncodedSize())) {
+            value.copyTo(_spareValue);
+            new LongRecordHelper(_persistit, _volume).storeLongRecord(_spareValue, false);
+            level.add(key, _spareValue);
+            _spareValue.changeLongRecordMode(false);
+        } else {
+            level.add(key, value);
+        }
+        key.copyTo(_lastKey);
+        _recordCount++;
+    }
+
+    /**
+     * Append every entry delivered by the supplied Iterator and then
+     * {@link #finish()}.
+     *
+     * @param iterator
+     *            supplies entries in strictly ascending key order
+     * @throws PersistitException
+     */
+    public void load(final Iterator<? extends Map.Entry<Key, Value>> iterator) throws PersistitException {
+        boolean done = false;
+        try {
+            while (iterator.hasNext()) {
+                final Map.Entry<Key, Value> entry = iterator.next();
+                append(entry.getKey(), entry.getValue());
+            }
+            finish();
+            done = true;
+        } finally {
+            if (!done) {
+                abort();
+            }
+        }
+    }
+
+    /**
+     * Write the remaining pages and install the new structure as the content
+     * of the tree. If the tree has a Bloom filter, it is replaced by one that
+     * is rebuilt in the background; until then lookups search the tree. If
+     * the structure cannot be installed, the pages written so far are
+     * de-allocated and the tree is left unchanged.
+     *
+     * @throws IllegalStateException
+     *             if the tree was modified while loading
+     * @throws PersistitException
+     */
+    public void finish() throws PersistitException {
+        if (_done) {
+            return;
+        }
+        _done = true;
+        if (_levels.isEmpty()) {
+            return;
+        }
+        final long oldRoot;
+        boolean installed = false;
+        try {
+            for (int index = 0; index < _levels.size(); index++) {
+                _levels.get(index).finish();
+            }
+            final Level top = _levels.get(_levels.size() - 1);
+            /*
+             * The loaded keys were never added to the tree's Bloom filter.
+             * Holding the filter lock keeps a rebuild that traversed the empty
+             * tree from installing its filter after the new root is visible.
+             */
+            synchronized (_tree.getBloomFilterLock()) {
+                if (!_tree.claim(true)) {
+                    throw new InUseException("Unable to acquire writer claim on " + _tree);
+                }
+                try {
+                    if (!isEmpty(_tree)) {
+                        throw new IllegalStateException("Tree " + _tree + " was modified during loading");
+                    }
+                    _tree.getStatistics().bumpStoreCounter(_recordCount);
+                    _tree.invalidateBloomFilter();
+                    oldRoot = _tree.getRootPageAddr();
+                    _tree.changeRootPageAddr(top._firstPage, _levels.size() - _tree.getDepth());
+                    installed = true;
+                    _tree.bumpGeneration();
+                    _tree.bumpChangeCount();
+                    _volume.getStructure().updateDirectoryTree(_tree);
+                } finally {
+                    _tree.release();
+                }
+            }
+        } finally {
+            if (!installed) {
+                discard();
+            }
+        }
+        _volume.getStructure().deallocateGarbageChain(oldRoot, 0);
+    }
+
+    /**
+     * Abandon loading and de-allocate all pages written so far. The tree is
+     * left unchanged.
+     *
+     * @throws PersistitException
+     */
+    public void abort() throws PersistitException {
+        if (_done) {
+            return;
+        }
+        _done = true;
+        discard();
+    }
+
+    /**
+     * Release the pages still held by each level and de-allocate all pages
+     * written so far.
+     */
+    private void discard() throws PersistitException {
+        for (final Level level : _levels) {
+            if (level._buffer != null) {
+                level._buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+                level._buffer.releaseTouched();
+                level._buffer = null;
+            }
+        }
+        deallocate();
+    }
+
+    private void deallocate() throws PersistitException {
+        for (final Level level : _levels) {
+            if (level._firstPage != 0) {
+                _volume.getStructure().deallocateGarbageChain(level._firstPage, 0);
+                level._firstPage = 0;
+            }
+        }
+        _levels.clear();
+    }
+
+    /**
+     * @param tree
+     *            a Tree
+     * @return <code>true</code> if the tree consists of a single data page
+     *         containing no records
+     * @throws PersistitException
+     */
+    static boolean isEmpty(final Tree tree) throws PersistitException {
+        if (tree.getDepth() != 1) {
+            return false;
+        }
+        final Volume volume = tree.getVolume();
+        final Buffer buffer = volume.getPool().get(volume, tree.getRootPageAddr(), false, true);
+        try {
+            return buffer.isDataPage() && buffer.getKeyCount() == 2;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TreeLoader(%s records=%,d pages=%,d levels=%d fill=%.2f)", _tree, _recordCount,
+                _pageCount, _levels.size(), _fillFactor);
+    }
+}
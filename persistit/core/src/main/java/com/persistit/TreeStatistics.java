@@ -36,6 +36,7 @@ import com.persistit.util.Util;
  * <li>Traverse</li>
  * <li>Store</li>
  * <li>Remove</li>
+ * <li>Fetches answered by the Bloom filter</li>
  * </ul>
  * </p>
  * 
@@ -48,6 +49,7 @@ public class TreeStatistics {
     private final AtomicLong _traverseCounter = new AtomicLong();
     private final AtomicLong _storeCounter = new AtomicLong();
     private final AtomicLong _removeCounter = new AtomicLong();
+    private final AtomicLong _bloomFilterSkipCounter = new AtomicLong();
 
     private final AtomicBoolean _dirty = new AtomicBoolean();
     /*
@@ -58,10 +60,10 @@ public class TreeStatistics {
      * its position.
      */
     private final AtomicLong[] _statsArray = new AtomicLong[] { _fetchCounter, _traverseCounter, _storeCounter,
-            _removeCounter };
+            _removeCounter, _bloomFilterSkipCounter };
 
     private final static String[] _statsArrayNames = new String[] { "fetchCounter", "traverseCounter", "storeCounter",
-            "removeCounter" };
+            "removeCounter", "bloomFilterSkipCounter" };
 
     @Override
     public String toString() {
@@ -114,6 +116,15 @@ public class TreeStatistics {
         return _removeCounter.get();
     }
 
+    /**
+     * @return the count of {@link Exchange#fetch} and
+     *         {@link Exchange#isValueDefined} operations answered by the
+     *         <code>Tree</code>'s Bloom filter without searching the tree
+     */
+    public long getBloomFilterSkipCounter() {
+        return _bloomFilterSkipCounter.get();
+    }
+
     boolean isDirty() {
         return _dirty.get();
     }
@@ -132,6 +143,7 @@ public class TreeStatistics {
         _traverseCounter.set(0);
         _storeCounter.set(0);
         _removeCounter.set(0);
+        _bloomFilterSkipCounter.set(0);
         setDirty(true);
     }
 
@@ -150,11 +162,21 @@ public class TreeStatistics {
         setDirty(true);
     }
 
+    void bumpStoreCounter(final long count) {
+        _storeCounter.addAndGet(count);
+        setDirty(true);
+    }
+
     void bumpRemoveCounter() {
         _removeCounter.incrementAndGet();
         setDirty(true);
     }
 
+    void bumpBloomFilterSkipCounter() {
+        _bloomFilterSkipCounter.incrementAndGet();
+        setDirty(true);
+    }
+
     /**
      * <p>
      * Serialize the statistics value in a variable-length byte array. The
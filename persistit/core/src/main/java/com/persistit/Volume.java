@@ -147,6 +147,15 @@ public class Volume {
         return s;
     }
 
+    /**
+     * @return the algorithm used to compress this volume's page images in
+     *         the journal
+     */
+    PageCompression getPageCompression() {
+        final VolumeSpecification s = _specification;
+        return s == null ? PageCompression.NONE : s.getCompression();
+    }
+
     VolumeStorage getStorage() {
         final VolumeStorage s = _storage;
         checkNull(s, "VolumeStorage");
@@ -477,7 +486,8 @@ public class Volume {
         final boolean exists = VolumeHeader.verifyVolumeHeader(_specification, persistit.getCurrentTimestamp());
 
         _structure = new VolumeStructure(persistit, this, _specification.getPageSize());
-        _storage = new VolumeStorageV2(persistit, this);
+        _storage = _specification.isReadOnly() && _specification.isMapped() ? new VolumeStorageM2(persistit, this)
+                : new VolumeStorageV2(persistit, this);
         _statistics = new VolumeStatistics();
 
         boolean opened = false;
@@ -40,7 +40,9 @@ public class VolumeSpecification {
     private final static String ATTR_CREATE = "create";
     private final static String ATTR_READONLY = "readOnly";
     private final static String ATTR_CREATEONLY = "createOnly";
+    private final static String ATTR_MAPPED = "mapped";
     private final static String ATTR_PAGE_SIZE = "pageSize";
+    private final static String ATTR_COMPRESSION = "compression";
 
     private final static String ATTR_INITIAL_SIZE = "initialSize";
     private final static String ATTR_EXTENSION_SIZE = "extensionSize";
@@ -55,6 +57,7 @@ public class VolumeSpecification {
     private boolean readOnly = false;
     private boolean create = false;
     private boolean createOnly = false;
+    private boolean mapped = false;
     private boolean aliased = false;
 
     private int pageSize = -1;
@@ -68,6 +71,8 @@ public class VolumeSpecification {
     private long extensionSize = -1;
     private long maximumSize = -1;
 
+    private PageCompression compression = PageCompression.NONE;
+
     public static String nameFromFile(final File file) {
         final String name = file.getName();
         final int p = name.lastIndexOf('.');
@@ -131,6 +136,11 @@ public class VolumeSpecification {
      * <dt><code>readOnly</code></dt>
      * <dd>Open in Read-Only mode. (Incompatible with create mode.)</dd>
      * 
+     * <dt><code>mapped</code></dt>
+     * <dd>Read pages of a read-only volume from a memory-mapped image of the
+     * volume file rather than through its <code>FileChannel</code>. (Requires
+     * <code>readOnly</code>.)</dd>
+     * 
      * <dt><code>create</code></dt>
      * <dd>Creates the volume if it does not exist. Requires
      * <code>pageSize</code>, <code>initialPagesM</code>,
@@ -161,6 +171,11 @@ public class VolumeSpecification {
      * <dd><i>NNN</i> is the maximum number of pages to which this volume can
      * extend.</dd>
      * 
+     * <dt><code>compression:<i>ALG</i></code></dt>
+     * <dd>Compresses page images written to the journal with <i>ALG</i>, one
+     * of <code>none</code>, <code>lz4</code> or <code>deflate</code>. See
+     * {@link PageCompression}.</dd>
+     * 
      * </dl>
      * <p>
      * 
@@ -181,6 +196,8 @@ public class VolumeSpecification {
                 final String attr = innerTokenizer.nextToken().trim();
                 if (ATTR_READONLY.equals(attr)) {
                     readOnly = true;
+                } else if (ATTR_MAPPED.equals(attr)) {
+                    mapped = true;
                 } else if (ATTR_CREATE.equals(attr)) {
                     create = true;
                 } else if (ATTR_CREATEONLY.equals(attr)) {
@@ -190,6 +207,13 @@ public class VolumeSpecification {
                     if (valueString != null && !valueString.isEmpty()) {
                         setName(valueString);
                     }
+                } else if (ATTR_COMPRESSION.equals(attr)) {
+                    final String valueString = innerTokenizer.nextToken().trim();
+                    try {
+                        compression = PageCompression.parse(valueString);
+                    } catch (final IllegalArgumentException e) {
+                        throw new InvalidVolumeSpecificationException("Invalid compression " + specification);
+                    }
                 } else {
                     final String valueString = innerTokenizer.nextToken().trim();
                     boolean bad = false;
@@ -237,6 +261,9 @@ public class VolumeSpecification {
                 throw new InvalidVolumeSpecificationException(specification + ": readOnly, create and createOnly "
                         + "attributes are mutually exclusive");
             }
+            if (mapped && !readOnly) {
+                throw new InvalidVolumeSpecificationException(specification + ": mapped attribute requires readOnly");
+            }
             //
             // Allows size specification in bytes rather than pages.
             //
@@ -334,6 +361,18 @@ public class VolumeSpecification {
         this.readOnly = readOnly;
     }
 
+    /**
+     * @return <code>true</code> if pages of this read-only volume are read
+     *         from a memory-mapped image of the volume file
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    public void setMapped(final boolean mapped) {
+        this.mapped = mapped;
+    }
+
     public boolean isAliased() {
         return aliased;
     }
@@ -412,6 +451,21 @@ public class VolumeSpecification {
         this.maximumSize = roundSize(maximumSize);
     }
 
+    /**
+     * @return the algorithm used to compress this volume's page images in
+     *         the journal
+     */
+    public PageCompression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(final PageCompression compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression must not be null");
+        }
+        this.compression = compression;
+    }
+
     public int getVersion() {
         return version;
     }
@@ -435,9 +489,15 @@ public class VolumeSpecification {
         appendSize(sb, ATTR_MAXIMUM_SIZE, ATTR_MAXIMUM_PAGES, maximumSize, maximumPages);
         appendSize(sb, ATTR_EXTENSION_SIZE, ATTR_EXTENSION_PAGES, extensionSize, extensionPages);
 
+        if (compression != PageCompression.NONE) {
+            sb.append(',').append(ATTR_COMPRESSION).append(':').append(compression.name().toLowerCase());
+        }
         if (readOnly) {
             sb.append(',').append(ATTR_READONLY);
         }
+        if (mapped) {
+            sb.append(',').append(ATTR_MAPPED);
+        }
         if (createOnly) {
             sb.append(',').append(ATTR_CREATEONLY);
         } else if (create) {
@@ -468,10 +528,10 @@ public class VolumeSpecification {
         }
         final VolumeSpecification v = (VolumeSpecification) object;
         return path.equals(v.path) && name.equals(v.name) && readOnly == v.readOnly && create == v.create
-                && createOnly == v.createOnly && aliased == v.aliased && pageSize == v.pageSize && version == v.version
-                && id == v.id && initialPages == v.initialPages && initialSize == v.initialSize
+                && createOnly == v.createOnly && mapped == v.mapped && aliased == v.aliased && pageSize == v.pageSize
+                && version == v.version && id == v.id && initialPages == v.initialPages && initialSize == v.initialSize
                 && extensionPages == v.extensionPages && extensionSize == v.extensionSize
-                && maximumPages == v.maximumPages && maximumSize == v.maximumSize;
+                && maximumPages == v.maximumPages && maximumSize == v.maximumSize && compression == v.compression;
     }
 
     private String ds(final long s) {
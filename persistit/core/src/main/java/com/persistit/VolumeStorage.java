@@ -18,6 +18,7 @@ package com.persistit;
 
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.BitSet;
 import java.util.Random;
 
 import com.persistit.exception.InUseException;
@@ -37,6 +38,9 @@ abstract class VolumeStorage extends SharedResource {
     private final static Random ID_GENERATOR = new Random();
     protected Volume _volume;
 
+    private final BitSet _writtenPages = new BitSet();
+    private long _writeSession;
+
     /**
      * Generate a random positive (non-zero) long value to be used as a
      * validation of a Volume's identity.
@@ -52,6 +56,63 @@ abstract class VolumeStorage extends SharedResource {
         _volume = volume;
     }
 
+    /**
+     * Begin a new write-tracking session. Until the next call, every page
+     * written to the backing file is recorded so that an incremental backup
+     * can find the pages changed since an earlier backup taken in the same
+     * session without scanning the entire file. Called when the backing file
+     * is created or opened.
+     */
+    void startWriteSession() {
+        synchronized (_writtenPages) {
+            _writtenPages.clear();
+            _writeSession = generateId();
+        }
+    }
+
+    /**
+     * @return an identifier for the current write-tracking session, or zero
+     *         if no session has been started
+     */
+    long getWriteSession() {
+        synchronized (_writtenPages) {
+            return _writeSession;
+        }
+    }
+
+    /**
+     * Record that a run of pages has been written to the backing file.
+     * 
+     * @param page
+     *            the address of the first page
+     * @param count
+     *            the number of pages
+     */
+    void recordPagesWritten(final long page, final int count) {
+        synchronized (_writtenPages) {
+            _writtenPages.set((int) page, (int) page + count);
+        }
+    }
+
+    /**
+     * Return the addresses of the pages written to the backing file since the
+     * start of the specified write-tracking session.
+     * 
+     * @param session
+     *            the session identifier returned by {@link #getWriteSession()}
+     * @return a copy of the set of written page addresses, or
+     *         <code>null</code> if <code>session</code> is not the current
+     *         session
+     */
+    BitSet getPagesWritten(final long session) {
+        synchronized (_writtenPages) {
+            if (session == 0 || session != _writeSession) {
+                return null;
+            }
+            return (BitSet) _writtenPages.clone();
+        }
+    }
+
     /**
      * Returns the path name by which this volume was opened.
      * 
@@ -156,6 +217,23 @@ abstract class VolumeStorage extends SharedResource {
 
     abstract void writePage(final ByteBuffer bb, final long page) throws PersistitException;
 
+    /**
+     * Write a run of consecutive pages, one per buffer, starting at the
+     * supplied page address. Subclasses may write the run with a single
+     * gather operation.
+     * 
+     * @param buffers
+     *            the page images, each positioned and limited to one page
+     * @param page
+     *            the address of the first page
+     * @throws PersistitException
+     */
+    void writePages(final ByteBuffer[] buffers, final long page) throws PersistitException {
+        for (int index = 0; index < buffers.length; index++) {
+            writePage(buffers[index], page + index);
+        }
+    }
+
     abstract long allocNewPage() throws PersistitException;
 
     abstract void extend(final long pageAddr) throws PersistitException;
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.persistit.AlertMonitor.AlertLevel;
+import com.persistit.AlertMonitor.Event;
+import com.persistit.exception.InUseException;
+import com.persistit.exception.InvalidPageAddressException;
+import com.persistit.exception.PersistitException;
+import com.persistit.exception.PersistitIOException;
+import com.persistit.exception.PersistitInterruptedException;
+import com.persistit.exception.VolumeClosedException;
+
+/**
+ * <p>
+ * Version 2.xx storage for a read-only <code>Volume</code> whose backing file
+ * is memory-mapped. Selected by the <code>mapped</code> attribute of the
+ * {@link VolumeSpecification}. A page that is not held in the journal is
+ * copied into its <code>Buffer</code> directly from the mapped file rather
+ * than read through the <code>FileChannel</code>, so a page held in the
+ * operating system's page cache is loaded without a system call.
+ * </p>
+ * <p>
+ * The file is mapped in segments of at most one gigabyte after the volume
+ * header has been read. Mappings are released when they are garbage
+ * collected; the file itself is closed with the volume.
+ * </p>
+ */
+class VolumeStorageM2 extends VolumeStorageV2 {
+
+    /**
+     * Largest region mapped as a single MappedByteBuffer. A multiple of every
+     * valid page size.
+     */
+    private final static long MAXIMUM_SEGMENT_SIZE = 1024L * 1024L * 1024L;
+
+    private volatile ByteBuffer[] _segments;
+
+    private long _mappedSize;
+
+    VolumeStorageM2(final Persistit persistit, final Volume volume) {
+        super(persistit, volume);
+    }
+
+    @Override
+    synchronized void open() throws PersistitException {
+        if (!isReadOnly()) {
+            throw new IllegalStateException("Volume " + this + " must be read-only to be mapped");
+        }
+        super.open();
+        try {
+            map();
+        } catch (final IOException ioe) {
+            close();
+            throw new PersistitIOException(ioe);
+        }
+    }
+
+    private void map() throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(getPath(), "r");
+        try {
+            final long size = raf.length();
+            final int count = (int) ((size + MAXIMUM_SEGMENT_SIZE - 1) / MAXIMUM_SEGMENT_SIZE);
+            final ByteBuffer[] segments = new ByteBuffer[count];
+            for (int index = 0; index < count; index++) {
+                final long position = index * MAXIMUM_SEGMENT_SIZE;
+                segments[index] = raf.getChannel().map(MapMode.READ_ONLY, position,
+                        Math.min(MAXIMUM_SEGMENT_SIZE, size - position));
+            }
+            _mappedSize = size;
+            _segments = segments;
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Override
+    void close() throws PersistitException {
+        _segments = null;
+        super.close();
+    }
+
+    /**
+     * @return the number of bytes of the backing file that are mapped
+     */
+    long getMappedSize() {
+        return _segments == null ? 0 : _mappedSize;
+    }
+
+    @Override
+    void readPage(final Buffer buffer) throws PersistitIOException, InvalidPageAddressException, VolumeClosedException,
+            PersistitInterruptedException, InUseException {
+        final ByteBuffer[] segments = _segments;
+        if (segments == null) {
+            super.readPage(buffer);
+            return;
+        }
+        // non-exclusive claim here intended to conflict with exclusive claim in
+        // close
+        if (!claim(false)) {
+            throw new InUseException("Unable to acquire claim on " + this);
+        }
+        try {
+            final long page = buffer.getPageAddress();
+            final long nextAvailablePage = getNextAvailablePage();
+            if (page < 0 || page >= nextAvailablePage) {
+                throw new InvalidPageAddressException("Page " + page + " out of bounds [0-" + nextAvailablePage + "]");
+            }
+            if (_persistit.getJournalManager().readPageFromJournal(buffer)) {
+                return;
+            }
+            final int size = buffer.getBufferSize();
+            final long position = page * _volume.getStructure().getPageSize();
+            if (position + size > _mappedSize) {
+                final IOException ioe = new IOException("Unable to read bytes at position " + position + " in "
+                        + this);
+                _persistit.getAlertMonitor().post(
+                        new Event(AlertLevel.ERROR, _persistit.getLogBase().readException, ioe, _volume, page,
+                                buffer.getIndex()), AlertMonitor.READ_PAGE_CATEGORY);
+                throw new PersistitIOException(ioe);
+            }
+            /*
+             * Duplicate so that concurrent readers of the same segment do not
+             * share its position and limit.
+             */
+            final ByteBuffer segment = segments[(int) (position / MAXIMUM_SEGMENT_SIZE)].duplicate();
+            final int offset = (int) (position % MAXIMUM_SEGMENT_SIZE);
+            segment.limit(offset + size).position(offset);
+            final ByteBuffer bb = buffer.getByteBuffer();
+            bb.position(0).limit(size);
+            bb.put(segment);
+            bb.position(0);
+            _persistit.getIOMeter().chargeReadPageFromVolume(this._volume, buffer.getPageAddress(),
+                    buffer.getBufferSize(), buffer.getIndex());
+            _volume.getStatistics().bumpReadCounter();
+        } finally {
+            release();
+        }
+    }
+}
@@ -154,6 +154,7 @@ class VolumeStorageV2 extends VolumeStorage {
         try {
             _channel = new MediatedFileChannel(getPath(), "rw");
             lockChannel();
+            startWriteSession();
             truncate();
             _opened = true;
         } catch (final IOException ioe) {
@@ -194,6 +195,7 @@ class VolumeStorageV2 extends VolumeStorage {
         try {
             _channel = new MediatedFileChannel(getPath(), isReadOnly() ? "r" : "rw");
             lockChannel();
+            startWriteSession();
             _nextAvailablePage = 1; // correct value installed below
             _volume.setId(spec.getId());
 
@@ -507,6 +509,35 @@ class VolumeStorageV2 extends VolumeStorage {
 
         try {
             _channel.write(bb, page * _volume.getStructure().getPageSize());
+            recordPagesWritten(page, 1);
+        } catch (final IOException ioe) {
+            _persistit.getAlertMonitor().post(
+                    new Event(AlertLevel.ERROR, _persistit.getLogBase().writeException, ioe, _volume, page),
+                    AlertMonitor.WRITE_PAGE_CATEGORY);
+            throw new PersistitIOException(ioe);
+        }
+    }
+
+    @Override
+    void writePages(final ByteBuffer[] buffers, final long page) throws PersistitException {
+        final FileChannel channel = _channel;
+        if (!(channel instanceof MediatedFileChannel)) {
+            super.writePages(buffers, page);
+            return;
+        }
+        final long lastPage = page + buffers.length - 1;
+        if (page < 0 || lastPage >= _nextAvailablePage) {
+            throw new InvalidPageAddressException("Pages " + page + "-" + lastPage + " out of bounds [0-"
+                    + _nextAvailablePage + "]");
+        }
+
+        if (isReadOnly()) {
+            throw new ReadOnlyVolumeException(getPath());
+        }
+
+        try {
+            ((MediatedFileChannel) channel).write(buffers, page * _volume.getStructure().getPageSize());
+            recordPagesWritten(page, buffers.length);
         } catch (final IOException ioe) {
             _persistit.getAlertMonitor().post(
                     new Event(AlertLevel.ERROR, _persistit.getLogBase().writeException, ioe, _volume, page),
@@ -18,6 +18,7 @@ package com.persistit;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +41,13 @@ class VolumeStructure {
     final static String TREE_ROOT = "root";
     final static String TREE_STATS = "stats";
     final static String TREE_ACCUMULATOR = "totals";
+    final static String TREE_BLOOM_FILTER = "bloom";
+    final static String TREE_BLOOM_FILTER_BITS = "bits";
+    /*
+     * Bloom filter bits are saved in values of at most this many words, well
+     * within the default maximum size of a Value
+     */
+    final static int TREE_BLOOM_FILTER_CHUNK_WORDS = 1 << 16;
 
     final static long INVALID_PAGE_ADDRESS = -1;
 
@@ -52,6 +60,18 @@ class VolumeStructure {
     private volatile long _garbageRoot;
 
     private final Map<String, WeakReference<Tree>> _treeNameHashMap = new HashMap<String, WeakReference<Tree>>();
+    /*
+     * Trees with Bloom filters are held strongly so that keys added to a
+     * filter since the last checkpoint are not lost with the Tree.
+     */
+    private final Map<String, Tree> _bloomFilterTrees = new HashMap<String, Tree>();
+    /*
+     * Whether the directory tree is known to hold saved Bloom filters, and
+     * whether it has been searched for them. Checkpoints read the directory
+     * tree only in volumes known to hold saved filters.
+     */
+    private boolean _hasSavedBloomFilters;
+    private boolean _searchedBloomFilters;
     private Tree _directoryTree;
 
     static class Chain {
@@ -122,6 +142,8 @@ class VolumeStructure {
             }
         }
         _treeNameHashMap.clear();
+        _bloomFilterTrees.clear();
+        _hasSavedBloomFilters = false;
         _persistit.getJournalManager().truncate(_volume, timestamp);
     }
 
@@ -209,6 +231,7 @@ class VolumeStructure {
         if (value.isDefined()) {
             value.get(tree);
             loadTreeStatistics(tree);
+            loadBloomFilter(tree);
             tree.setPrimordial();
             tree.setValid();
         } else if (createIfNecessary) {
@@ -297,6 +320,7 @@ class VolumeStructure {
             ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_ROOT).append(tree.getName()).remove(Key.GTEQ);
             ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_STATS).append(tree.getName()).remove(Key.GTEQ);
             ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_ACCUMULATOR).append(tree.getName()).remove(Key.GTEQ);
+            ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append(tree.getName()).remove(Key.GTEQ);
             tree.delete();
         } finally {
             tree.release();
@@ -305,6 +329,182 @@ class VolumeStructure {
 
     synchronized void removed(final Tree tree) {
         _treeNameHashMap.remove(tree.getName());
+        _bloomFilterTrees.remove(tree.getName());
+    }
+
+    synchronized void addBloomFilterTree(final Tree tree) {
+        _bloomFilterTrees.put(tree.getName(), tree);
+        _hasSavedBloomFilters = true;
+    }
+
+    void removeBloomFilter(final Tree tree) throws PersistitException {
+        synchronized (this) {
+            _bloomFilterTrees.remove(tree.getName());
+        }
+        if (!_volume.isReadOnly()) {
+            final Exchange ex = directoryExchange();
+            ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append(tree.getName()).remove(Key.GTEQ);
+        }
+    }
+
+    /**
+     * Install the Bloom filter saved for a tree, if it has one. The saved
+     * filter holds every key stored before the checkpoint that saved it. It is
+     * complete only if recovery restored the volume to that checkpoint and
+     * replayed nothing after it, which is the case after a clean shutdown.
+     * Otherwise the tree gets an empty filter that is rebuilt in the
+     * background.
+     *
+     * @param tree
+     * @throws PersistitException
+     */
+    void loadBloomFilter(final Tree tree) throws PersistitException {
+        final Exchange ex = directoryExchange();
+        ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append(tree.getName()).fetch();
+        if (!ex.getValue().isDefined()) {
+            if (!_searchedBloomFilters) {
+                _searchedBloomFilters = true;
+                ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append(Key.BEFORE);
+                _hasSavedBloomFilters |= ex.next();
+            }
+            return;
+        }
+        final long[] header = (long[]) ex.getValue().get();
+        TreeBloomFilter filter = null;
+        if (_persistit.isInitialized() && isSavedAtRecovery(header)) {
+            final long[] words = loadBloomFilterBits(ex, header[TreeBloomFilter.HEADER_BIT_COUNT]);
+            if (words != null) {
+                filter = TreeBloomFilter.fromSaved(header, words);
+            }
+        }
+        if (filter == null) {
+            filter = TreeBloomFilter.forKeyCount(header[TreeBloomFilter.HEADER_POPULATION]);
+        }
+        _bloomFilterTrees.put(tree.getName(), tree);
+        _hasSavedBloomFilters = true;
+        tree.setBloomFilter(filter);
+    }
+
+    /**
+     * Read the bits of a saved Bloom filter, which are saved in chunks of
+     * {@link #TREE_BLOOM_FILTER_CHUNK_WORDS} words.
+     *
+     * @param ex
+     *            Exchange whose key identifies the saved filter
+     * @param bitCount
+     *            number of bits recorded in the header
+     * @return the bits, or <code>null</code> if they are missing or do not
+     *         match the header
+     * @throws PersistitException
+     */
+    private long[] loadBloomFilterBits(final Exchange ex, final long bitCount) throws PersistitException {
+        if (bitCount <= 0 || bitCount > TreeBloomFilter.MAXIMUM_BIT_COUNT || bitCount % 64 != 0) {
+            return null;
+        }
+        final long[] words = new long[(int) (bitCount / 64)];
+        ex.append(TREE_BLOOM_FILTER_BITS).append(0);
+        for (int from = 0, chunk = 0; from < words.length; from += TREE_BLOOM_FILTER_CHUNK_WORDS, chunk++) {
+            ex.to(chunk).fetch();
+            if (!ex.getValue().isDefined()) {
+                return null;
+            }
+            final long[] part = (long[]) ex.getValue().get();
+            if (part.length != Math.min(TREE_BLOOM_FILTER_CHUNK_WORDS, words.length - from)) {
+                return null;
+            }
+            System.arraycopy(part, 0, words, from, part.length);
+        }
+        return words;
+    }
+
+    private boolean isSavedAtRecovery(final long[] header) {
+        final RecoveryManager rm = _persistit.getRecoveryManager();
+        return header[TreeBloomFilter.HEADER_VERSION] == TreeBloomFilter.FORMAT_VERSION
+                && header[TreeBloomFilter.HEADER_TIMESTAMP] >= rm.getLastValidCheckpointTimestamp()
+                && rm.getRecoveryEndedException() == null && rm.getCommittedCount() == 0;
+    }
+
+    /**
+     * Save Bloom filters as of a checkpoint. Called within the checkpoint
+     * transaction, whose start timestamp is <code>timestamp</code>. Bits are
+     * saved only if they changed since the previous checkpoint, but the
+     * header of every complete filter is stamped with the checkpoint
+     * timestamp. That includes saved filters of trees not opened since
+     * startup, which cannot have changed, provided that some tree of the
+     * volume has been opened. Otherwise their saved filters are rebuilt when
+     * next opened. A filter that cannot be saved is logged and left to be
+     * rebuilt after restart; it never fails the checkpoint.
+     *
+     * @param timestamp
+     *            the checkpoint timestamp
+     * @throws PersistitException
+     */
+    void flushBloomFilters(final long timestamp) throws PersistitException {
+        if (_volume.isTemporary() || _volume.isReadOnly()) {
+            return;
+        }
+        final List<Tree> trees;
+        synchronized (this) {
+            if (!_hasSavedBloomFilters) {
+                return;
+            }
+            trees = new ArrayList<Tree>(_bloomFilterTrees.values());
+            final Exchange ex = directoryExchange();
+            ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append("");
+            while (ex.next()) {
+                final String treeName = ex.getKey().indexTo(-1).decodeString();
+                if (!_bloomFilterTrees.containsKey(treeName) && ex.getValue().isDefined()) {
+                    final long[] header = (long[]) ex.getValue().get();
+                    if (isSavedAtRecovery(header)) {
+                        header[TreeBloomFilter.HEADER_TIMESTAMP] = timestamp;
+                        ex.getValue().put(header);
+                        ex.store();
+                    }
+                }
+            }
+        }
+        for (final Tree tree : trees) {
+            final TreeBloomFilter filter = tree.getBloomFilter();
+            if (filter != null && filter.isReady()) {
+                try {
+                    saveBloomFilter(tree, filter, timestamp);
+                } catch (final Exception e) {
+                    _persistit.getLogBase().bloomFilterSaveException.log(e, tree);
+                }
+            }
+        }
+    }
+
+    /**
+     * Save the bits of a filter, if changed, and then its header stamped with
+     * the checkpoint timestamp. If saving fails part way, the header keeps
+     * the timestamp of an earlier checkpoint, so the bits are not trusted
+     * after restart.
+     */
+    private void saveBloomFilter(final Tree tree, final TreeBloomFilter filter, final long timestamp)
+            throws PersistitException {
+        final long[] words = filter.takeDirtyWords();
+        boolean saved = false;
+        try {
+            final Exchange ex = directoryExchange();
+            if (words != null) {
+                ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append(tree.getName())
+                        .append(TREE_BLOOM_FILTER_BITS).remove(Key.GTEQ);
+                ex.append(0);
+                for (int from = 0, chunk = 0; from < words.length; from += TREE_BLOOM_FILTER_CHUNK_WORDS, chunk++) {
+                    final int to = Math.min(words.length, from + TREE_BLOOM_FILTER_CHUNK_WORDS);
+                    ex.getValue().put(Arrays.copyOfRange(words, from, to));
+                    ex.to(chunk).store();
+                }
+            }
+            ex.getValue().put(filter.header(timestamp));
+            ex.clear().append(DIRECTORY_TREE_NAME).append(TREE_BLOOM_FILTER).append(tree.getName()).store();
+            saved = true;
+        } finally {
+            if (!saved && words != null) {
+                filter.markDirty();
+            }
+        }
     }
 
     void deallocateTree(final long treeRootPage, final int treeDepth) throws PersistitException {
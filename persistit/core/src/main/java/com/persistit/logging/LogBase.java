@@ -74,6 +74,9 @@ public class LogBase {
     @Message("INFO| Allocating %,d buffers of size %,d bytes")
     public final LogItem allocateBuffers = PersistitLogMessage.empty();
 
+    @Message("INFO| Allocating %,d off-heap page frames of size %,d bytes")
+    public final LogItem allocateOffHeapFrames = PersistitLogMessage.empty();
+
     @Message("INFO|Opening volume %s (%s)")
     public final LogItem openVolume = PersistitLogMessage.empty();
 
@@ -257,6 +260,9 @@ public class LogBase {
     @Message("WARNING|Exception while writing buffer pool inventory %s")
     public final LogItem bufferInventoryException = PersistitLogMessage.empty();
 
+    @Message("WARNING|Exception %s while saving Bloom filter of %s")
+    public final LogItem bloomFilterSaveException = PersistitLogMessage.empty();
+
     @Message("WARNING|Thread %s interrupted due to shutdown")
     public final LogItem interruptedAtClose = PersistitLogMessage.empty();
 
@@ -149,4 +149,77 @@ public interface BufferPoolMXBean {
     @Description("Earliest timestamp of any dirty page in this BufferPool.")
     public long getEarliestDirtyTimestamp();
 
+    /**
+     * @return The size in bytes of the off-heap page cache backing this
+     *         <code>BufferPool</code>, or zero if there is none
+     */
+    @Description("The size in bytes of the off-heap page cache backing this BufferPool.")
+    public long getOffHeapMemory();
+
+    /**
+     * Return the number of pool misses satisfied by copying a page image from
+     * the off-heap page cache rather than reading it from disk.
+     * 
+     * @return The off-heap hit count
+     */
+    @Description("The number of pool misses satisfied from the off-heap page cache.")
+    public long getOffHeapHitCount();
+
+    /**
+     * Return the number of pool misses that were not found in the off-heap
+     * page cache either.
+     * 
+     * @return The off-heap miss count
+     */
+    @Description("The number of pool misses not found in the off-heap page cache.")
+    public long getOffHeapMissCount();
+
+    /**
+     * @return The number of page images discarded from the off-heap page cache
+     *         to make room for more recently evicted pages
+     */
+    @Description("The number of page images discarded from the off-heap page cache.")
+    public long getOffHeapEvictCount();
+
+    /**
+     * @return The name of the policy that selects pages to evict: CLOCK or 2Q
+     */
+    @Description("The name of the policy that selects pages to evict: CLOCK or 2Q.")
+    public String getEvictionPolicy();
+
+    /**
+     * @return The number of hits recorded by the eviction policy
+     */
+    @Description("The number of hits recorded by the eviction policy.")
+    public long getPolicyHitCount();
+
+    /**
+     * @return The number of pages admitted to the pool by the eviction policy
+     */
+    @Description("The number of pages admitted to the pool by the eviction policy.")
+    public long getPolicyMissCount();
+
+    /**
+     * Return the number of hits on pages in the eviction policy's protected
+     * set. Always zero for the CLOCK policy.
+     * 
+     * @return The protected hit count
+     */
+    @Description("The number of hits on pages in the eviction policy's protected set.")
+    public long getPolicyProtectedHitCount();
+
+    /**
+     * @return The number of pages promoted to the eviction policy's protected
+     *         set
+     */
+    @Description("The number of pages promoted to the eviction policy's protected set.")
+    public long getPolicyPromoteCount();
+
+    /**
+     * @return The number of buffers currently in the eviction policy's
+     *         protected set
+     */
+    @Description("The number of buffers currently in the eviction policy's protected set.")
+    public int getPolicyProtectedCount();
+
 }
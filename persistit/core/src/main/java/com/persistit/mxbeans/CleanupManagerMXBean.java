@@ -106,4 +106,74 @@ public interface CleanupManagerMXBean {
     @Description("The minimum interval in milliseconds between attempts to enqueue a page needing to be pruned")
     public void setMinimumPruningDelay(long delay);
 
+    /**
+     * @return the number of pages currently enqueued because readers found
+     *         long version chains on them. These are pruned ahead of other
+     *         enqueued actions, longest chains first, and are included in
+     *         {@link #getEnqueuedCount()}.
+     */
+    @Description("The number of pages currently enqueued because readers found long version chains on them")
+    public long getHotPageCount();
+
+    /**
+     * @return counts of multi-version values read, by number of versions.
+     *         Element 0 is unused; element <i>i</i> counts values having from
+     *         2<sup><i>i</i>-1</sup> to 2<sup><i>i</i></sup>-1 versions, and
+     *         the last element also counts all longer chains.
+     */
+    @Description("Counts of multi-version values read, by number of versions: element i counts values "
+            + "having from 2^(i-1) to 2^i-1 versions")
+    public long[] getMvvLengthHistogram();
+
+    /**
+     * @return counts of completed page pruning actions, by milliseconds from
+     *         enqueue to completion. Element 0 counts lags under one
+     *         millisecond; element <i>i</i> counts lags from
+     *         2<sup><i>i</i>-1</sup> to 2<sup><i>i</i></sup>-1 milliseconds,
+     *         and the last element also counts all longer lags.
+     */
+    @Description("Counts of completed page pruning actions, by milliseconds from enqueue to completion: "
+            + "element i counts lags from 2^(i-1) to 2^i-1 ms")
+    public long[] getPruningLagHistogram();
+
+    /**
+     * @return the minimum number of versions an MVV read from a page must
+     *         have for the page to be enqueued for pruning
+     */
+    @Description("The minimum number of versions an MVV read from a page must have for the page to be enqueued for pruning")
+    public int getMinimumPrunableVersions();
+
+    /**
+     * Set the minimum number of versions an MVV read from a page must have for
+     * the page to be enqueued for pruning.
+     * 
+     * @param versions
+     */
+    @Description("The minimum number of versions an MVV read from a page must have for the page to be enqueued for pruning")
+    public void setMinimumPrunableVersions(int versions);
+
+    /**
+     * @return the maximum number of threads, including the CLEANUP_MANAGER
+     *         thread itself, that perform enqueued actions when the backlog
+     *         is large
+     */
+    @Description("The maximum number of threads that perform enqueued actions when the backlog is large")
+    public int getMaximumThreadCount();
+
+    /**
+     * Set the maximum number of threads, including the CLEANUP_MANAGER thread
+     * itself, that perform enqueued actions when the backlog is large.
+     * 
+     * @param count
+     */
+    @Description("The maximum number of threads that perform enqueued actions when the backlog is large")
+    public void setMaximumThreadCount(int count);
+
+    /**
+     * @return the number of threads that performed actions in the most recent
+     *         cycle
+     */
+    @Description("The number of threads that performed actions in the most recent cycle")
+    public int getThreadCount();
+
 }
@@ -127,4 +127,49 @@ public interface IOMeterMXBean {
      */
     @Description("Total number of operations performed for a specified type (see IOMeterMXBeans.OPERATIONS)")
     public long totalOperations(final String operation);
+
+    /**
+     * @return Number of page images written to the journal in compressed form
+     */
+    @Description("Number of page images written to the journal in compressed form")
+    public long getCompressedPageCount();
+
+    /**
+     * @return Total size of page images before compression, for pages
+     *         written in compressed form
+     */
+    @Description("Total bytes of page images before compression")
+    public long getCompressionInputBytes();
+
+    /**
+     * @return Total size of page images after compression
+     */
+    @Description("Total bytes of page images after compression")
+    public long getCompressionOutputBytes();
+
+    /**
+     * @return Ratio of uncompressed to compressed bytes for page images
+     *         written in compressed form, or 1.0 if none have been written
+     */
+    @Description("Ratio of uncompressed to compressed bytes of compressed page images")
+    public double getCompressionRatio();
+
+    /**
+     * @return Total time in nanoseconds spent compressing page images,
+     *         including attempts that did not make the page smaller
+     */
+    @Description("Total nanoseconds spent compressing page images")
+    public long getCompressionNanos();
+
+    /**
+     * @return Number of compressed page images read back from the journal
+     */
+    @Description("Number of compressed page images read back from the journal")
+    public long getDecompressedPageCount();
+
+    /**
+     * @return Total time in nanoseconds spent decompressing page images
+     */
+    @Description("Total nanoseconds spent decompressing page images")
+    public long getDecompressionNanos();
 }
@@ -96,6 +96,18 @@ public interface JournalManagerMXBean {
      */
     final static int DEFAULT_COPIES_PER_CYCLE = 1000;
 
+    /**
+     * Default and maximum number of threads writing copied pages to volumes.
+     */
+    final static int DEFAULT_COPIER_THREADS = 1;
+    final static int MAXIMUM_COPIER_THREADS = 64;
+
+    /**
+     * Maximum rate in MBytes/second at which copied pages may be written to
+     * volumes; zero means unlimited.
+     */
+    final static int MAXIMUM_COPIER_BUDGET = 1024 * 1024;
+
     /**
      * Default time interval (in milliseconds) for logging repetitive I/O
      * exceptions on attempts to write to the journal. Prevents excessively
@@ -133,6 +145,15 @@ public interface JournalManagerMXBean {
     @Description("Number of unique page versions currently stored in the journal")
     int getPageListSize();
 
+    @Description("Number of unique pages of one volume currently stored in the journal")
+    int getVolumePageMapSize(@PName("volumeName") @Description("Name of the volume") String volumeName);
+
+    @Description("Total number of page map lookups made to read pages from the journal")
+    long getPageMapLookupCount();
+
+    @Description("Average time in nanoseconds taken by a sampled page map lookup")
+    long getPageMapLookupTime();
+
     @Description("Address of first record in the journal required for recovery")
     long getBaseAddress();
 
@@ -172,6 +193,23 @@ public interface JournalManagerMXBean {
     @Description("Interval between page copying cycles")
     void setCopierInterval(long copierInterval);
 
+    @Description("Number of threads writing copied pages to volumes, each writing one volume at a time")
+    int getCopierThreads();
+
+    @Description("Number of threads writing copied pages to volumes, each writing one volume at a time")
+    void setCopierThreads(int copierThreads);
+
+    @Description("Maximum rate in MBytes/second at which pages are copied to volumes unless the journal is "
+            + "growing urgent; 0 for unlimited")
+    int getCopierBudget();
+
+    @Description("Maximum rate in MBytes/second at which pages are copied to volumes unless the journal is "
+            + "growing urgent; 0 for unlimited")
+    void setCopierBudget(int copierBudget);
+
+    @Description("Total number of runs of consecutive pages written to volumes by the JOURNAL_COPIER")
+    long getCopiedRunCount();
+
     @Description("True if the journal has been closed")
     boolean isClosed();
 
@@ -238,6 +276,15 @@ public interface JournalManagerMXBean {
     @Description("Total aggregate time spent waiting for durable commits in milliseconds")
     long getCommitCompletionWaitTime();
 
+    @Description("Total number of flush cycles performed on behalf of HARD or GROUP commits")
+    long getGroupCommitBatchCount();
+
+    @Description("Total number of HARD or GROUP commits made durable by those flush cycles")
+    long getGroupCommitBatchedCommitCount();
+
+    @Description("Most recent group commit gathering window in microseconds")
+    long getGroupCommitWindow();
+
     @Description("Threshold in  milliseconds for warnings of long duration flush cycles")
     long getSlowIoAlertThreshold();
 
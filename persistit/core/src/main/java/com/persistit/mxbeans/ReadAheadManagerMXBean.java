@@ -0,0 +1,97 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.persistit.mxbeans;
+
+import javax.management.MXBean;
+
+/**
+ * Management information about the READ_AHEAD_MANAGER, a thread that reads
+ * leaf pages into the buffer pool ahead of an Exchange traversing a tree in
+ * key order.
+ */
+@MXBean
+public interface ReadAheadManagerMXBean {
+
+    public final static String MXBEAN_NAME = "com.persistit:type=Persistit,class=ReadAheadManager";
+
+    /**
+     * @return the number of leaf pages read ahead of a sequential traversal,
+     *         or zero if read-ahead is disabled
+     */
+    @Description("The number of leaf pages read ahead of a sequential traversal")
+    public int getDepth();
+
+    /**
+     * Set the number of leaf pages read ahead of a sequential traversal. A
+     * value of zero disables read-ahead.
+     * 
+     * @param depth
+     *            the depth
+     */
+    @Description("The number of leaf pages read ahead of a sequential traversal")
+    public void setDepth(int depth);
+
+    /**
+     * @return the number of read-ahead requests enqueued since Persistit
+     *         started
+     */
+    @Description("The number of read-ahead requests enqueued since Persistit started")
+    public long getAcceptedCount();
+
+    /**
+     * @return the number of read-ahead requests rejected due to a full queue
+     *         since Persistit started
+     */
+    @Description("The number of read-ahead requests rejected due to a full queue since Persistit started")
+    public long getRefusedCount();
+
+    /**
+     * @return the number of read-ahead requests that failed due to errors
+     *         since Persistit started
+     */
+    @Description("The number of read-ahead requests that failed due to errors since Persistit started")
+    public long getErrorCount();
+
+    /**
+     * @return the number of read-ahead requests currently enqueued
+     */
+    @Description("The number of read-ahead requests currently enqueued")
+    public long getEnqueuedCount();
+
+    /**
+     * @return the number of pages read into a buffer pool by read-ahead since
+     *         Persistit started
+     */
+    @Description("The number of pages read into a buffer pool by read-ahead since Persistit started")
+    public long getPrefetchCount();
+
+    /**
+     * @return the number of pages read by read-ahead that were subsequently
+     *         used before being evicted
+     */
+    @Description("The number of pages read by read-ahead that were used before being evicted")
+    public long getPrefetchHitCount();
+
+    /**
+     * @return the number of pages read by read-ahead that were evicted before
+     *         being used
+     */
+    @Description("The number of pages read by read-ahead that were evicted before being used")
+    public long getPrefetchWasteCount();
+
+}
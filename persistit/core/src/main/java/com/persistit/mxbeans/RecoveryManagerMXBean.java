@@ -68,4 +68,40 @@ public interface RecoveryManagerMXBean {
 
     public int getPageMapSize();
 
+    /**
+     * @return the number of threads that replay recovered transactions
+     */
+    public int getRecoveryThreads();
+
+    /**
+     * @return the number of partitions of independent transactions replayed
+     *         concurrently, or zero if recovered transactions are replayed
+     *         serially
+     */
+    public int getPartitionCount();
+
+    /**
+     * @return the number of uncommitted transactions whose updates have been
+     *         rolled back
+     */
+    public int getRolledBackTransactionCount();
+
+    /**
+     * @return the number of recovered transactions not yet applied or rolled
+     *         back
+     */
+    public int getRemainingTransactionCount();
+
+    /**
+     * @return the elapsed time in milliseconds spent applying recovered
+     *         transactions, so far if recovery is still in progress
+     */
+    public long getApplyElapsedTime();
+
+    /**
+     * @return the number of recovered transactions applied or rolled back per
+     *         second
+     */
+    public double getApplyRate();
+
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * Comparison of byte array ranges, used by key comparison and in-page key
+ * search. Ranges of {@value #WORD_THRESHOLD} bytes or more are compared a word
+ * at a time:
+ * <ul>
+ * <li>On Java 9 and later, by <code>Arrays.mismatch</code>, which the JIT
+ * compiler turns into vector instructions.</li>
+ * <li>On Java 8, by assembling eight bytes at a time into a big-endian
+ * <code>long</code> and comparing the words.</li>
+ * </ul>
+ * Shorter ranges are compared one byte at a time, which is faster for the few
+ * bytes that typically separate adjacent keys in a page.
+ */
+public class Bytes {
+
+    /**
+     * Ranges shorter than this are compared one byte at a time
+     */
+    public final static int WORD_THRESHOLD = 16;
+
+    private final static MethodHandle ARRAYS_MISMATCH = arraysMismatch();
+
+    private Bytes() {
+    }
+
+    /**
+     * Find the first index at which two byte array ranges of equal length
+     * differ.
+     *
+     * @param a
+     *            first array
+     * @param aFrom
+     *            offset of the first byte of the range in <code>a</code>
+     * @param b
+     *            second array
+     * @param bFrom
+     *            offset of the first byte of the range in <code>b</code>
+     * @param length
+     *            number of bytes to compare
+     * @return the index, relative to the start of the ranges, of the first
+     *         byte that differs, or -1 if the ranges are equal
+     * @throws ArrayIndexOutOfBoundsException
+     *             if either range extends beyond its array
+     */
+    public static int mismatch(final byte[] a, final int aFrom, final byte[] b, final int bFrom, final int length) {
+        if (length >= WORD_THRESHOLD) {
+            if (ARRAYS_MISMATCH != null) {
+                return arraysMismatch(a, aFrom, b, bFrom, length);
+            }
+            return wordMismatch(a, aFrom, b, bFrom, length);
+        }
+        for (int i = 0; i < length; i++) {
+            if (a[aFrom + i] != b[bFrom + i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare two byte array ranges lexicographically as unsigned bytes.
+     *
+     * @return the difference between the first unequal bytes if there is one;
+     *         otherwise the difference in length
+     */
+    public static int compare(final byte[] a, final int aFrom, final int aLength, final byte[] b, final int bFrom,
+            final int bLength) {
+        final int index = mismatch(a, aFrom, b, bFrom, Math.min(aLength, bLength));
+        if (index >= 0) {
+            return (a[aFrom + index] & 0xFF) - (b[bFrom + index] & 0xFF);
+        }
+        return aLength - bLength;
+    }
+
+    private static int arraysMismatch(final byte[] a, final int aFrom, final byte[] b, final int bFrom,
+            final int length) {
+        try {
+            return (int) ARRAYS_MISMATCH.invokeExact(a, aFrom, aFrom + length, b, bFrom, bFrom + length);
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static int wordMismatch(final byte[] a, final int aFrom, final byte[] b, final int bFrom,
+            final int length) {
+        final int words = length & ~7;
+        int i = 0;
+        for (; i < words; i += 8) {
+            final long diff = getLong(a, aFrom + i) ^ getLong(b, bFrom + i);
+            if (diff != 0) {
+                return i + (Long.numberOfLeadingZeros(diff) >>> 3);
+            }
+        }
+        for (; i < length; i++) {
+            if (a[aFrom + i] != b[bFrom + i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read eight bytes as a big-endian long, so that the first differing byte
+     * of two words is found from the leading zeros of their exclusive or.
+     */
+    private static long getLong(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xFFL) << 56 | (bytes[index + 1] & 0xFFL) << 48 | (bytes[index + 2] & 0xFFL) << 40
+                | (bytes[index + 3] & 0xFFL) << 32 | (bytes[index + 4] & 0xFFL) << 24
+                | (bytes[index + 5] & 0xFFL) << 16 | (bytes[index + 6] & 0xFFL) << 8 | (bytes[index + 7] & 0xFFL);
+    }
+
+    private static MethodHandle arraysMismatch() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    Arrays.class,
+                    "mismatch",
+                    MethodType.methodType(int.class, byte[].class, int.class, int.class, byte[].class, int.class,
+                            int.class));
+        } catch (final Exception e) {
+            // Java 8
+            return null;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit.util;
+
+import java.util.Arrays;
+
+/**
+ * Compressor and decompressor for the LZ4 block format. The encoding is
+ * byte-for-byte compatible with the reference LZ4 block format: a sequence of
+ * tokens, each holding a literal run followed by a back-reference of at least
+ * four bytes at a distance of at most 65535 bytes. The compressor uses a
+ * single-probe hash table, which gives up a little compression ratio in return
+ * for speed. Both methods work on caller-supplied arrays and allocate nothing
+ * except the compressor's hash table, which is cached per thread.
+ */
+public class LZ4 {
+
+    private final static int MIN_MATCH = 4;
+    private final static int LAST_LITERALS = 5;
+    private final static int MF_LIMIT = 12;
+    private final static int MAX_DISTANCE = 65535;
+    private final static int HASH_LOG = 12;
+    private final static int RUN_MASK = 15;
+
+    private final static ThreadLocal<int[]> HASH_TABLE = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    private LZ4() {
+    }
+
+    /**
+     * Compress bytes into the LZ4 block format.
+     *
+     * @param src
+     *            source array
+     * @param srcOffset
+     *            offset of first byte to compress
+     * @param srcLength
+     *            number of bytes to compress
+     * @param dest
+     *            destination array
+     * @param destOffset
+     *            offset at which to write the compressed bytes
+     * @param destLimit
+     *            maximum number of compressed bytes to write
+     * @return number of compressed bytes written, or -1 if the result does not
+     *         fit within <code>destLimit</code> bytes
+     */
+    public static int compress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+            final int destOffset, final int destLimit) {
+        final int srcEnd = srcOffset + srcLength;
+        final int destEnd = Math.min(dest.length, destOffset + destLimit);
+        int anchor = srcOffset;
+        int dp = destOffset;
+
+        if (srcLength >= MF_LIMIT + 1) {
+            final int[] table = HASH_TABLE.get();
+            /*
+             * Table entries are positions relative to srcOffset plus one, so
+             * that zero means empty.
+             */
+            Arrays.fill(table, 0);
+            final int matchStartLimit = srcEnd - MF_LIMIT;
+            final int matchEndLimit = srcEnd - LAST_LITERALS;
+            int p = srcOffset;
+            while (p < matchStartLimit) {
+                final int sequence = readInt(src, p);
+                final int h = hash(sequence);
+                int ref = table[h] - 1 + srcOffset;
+                table[h] = p - srcOffset + 1;
+                if (ref < srcOffset || p - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    p++;
+                    continue;
+                }
+                while (p > anchor && ref > srcOffset && src[p - 1] == src[ref - 1]) {
+                    p--;
+                    ref--;
+                }
+                int length = MIN_MATCH;
+                while (p + length < matchEndLimit && src[p + length] == src[ref + length]) {
+                    length++;
+                }
+                dp = writeSequence(src, anchor, p - anchor, p - ref, length, dest, dp, destEnd);
+                if (dp < 0) {
+                    return -1;
+                }
+                p += length;
+                anchor = p;
+                if (p < matchStartLimit) {
+                    table[hash(readInt(src, p - 2))] = p - 2 - srcOffset + 1;
+                }
+            }
+        }
+        dp = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dest, dp, destEnd);
+        return dp < 0 ? -1 : dp - destOffset;
+    }
+
+    /**
+     * Decompress bytes in the LZ4 block format.
+     *
+     * @param src
+     *            source array
+     * @param srcOffset
+     *            offset of the first compressed byte
+     * @param srcLength
+     *            number of compressed bytes
+     * @param dest
+     *            destination array
+     * @param destOffset
+     *            offset at which to write the decompressed bytes
+     * @param destLimit
+     *            maximum number of bytes to write
+     * @return number of bytes written, or -1 if the source is malformed or
+     *         decompresses to more than <code>destLimit</code> bytes
+     */
+    public static int decompress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest,
+            final int destOffset, final int destLimit) {
+        final int srcEnd = srcOffset + srcLength;
+        final int destEnd = Math.min(dest.length, destOffset + destLimit);
+        int sp = srcOffset;
+        int dp = destOffset;
+        while (sp < srcEnd) {
+            final int token = src[sp++] & 0xFF;
+            int literals = token >>> 4;
+            if (literals == RUN_MASK) {
+                int b;
+                do {
+                    if (sp >= srcEnd) {
+                        return -1;
+                    }
+                    b = src[sp++] & 0xFF;
+                    literals += b;
+                } while (b == 255);
+            }
+            if (literals > srcEnd - sp || literals > destEnd - dp) {
+                return -1;
+            }
+            System.arraycopy(src, sp, dest, dp, literals);
+            sp += literals;
+            dp += literals;
+            if (sp == srcEnd) {
+                break;
+            }
+            if (sp + 2 > srcEnd) {
+                return -1;
+            }
+            final int distance = (src[sp] & 0xFF) | (src[sp + 1] & 0xFF) << 8;
+            sp += 2;
+            if (distance == 0 || dp - distance < destOffset) {
+                return -1;
+            }
+            int length = token & RUN_MASK;
+            if (length == RUN_MASK) {
+                int b;
+                do {
+                    if (sp >= srcEnd) {
+                        return -1;
+                    }
+                    b = src[sp++] & 0xFF;
+                    length += b;
+                } while (b == 255);
+            }
+            length += MIN_MATCH;
+            if (length > destEnd - dp) {
+                return -1;
+            }
+            final int from = dp - distance;
+            if (distance >= length) {
+                System.arraycopy(dest, from, dest, dp, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    dest[dp + i] = dest[from + i];
+                }
+            }
+            dp += length;
+        }
+        return dp - destOffset;
+    }
+
+    /**
+     * @param length
+     *            number of bytes to compress
+     * @return largest number of bytes the compressed form can occupy
+     */
+    public static int maxCompressedLength(final int length) {
+        return length + length / 255 + 16;
+    }
+
+    private static int writeSequence(final byte[] src, final int literalOffset, final int literals,
+            final int distance, final int length, final byte[] dest, int dp, final int destEnd) {
+        if (dp + 1 + literals + literals / 255 + 1 + (length == 0 ? 0 : 2 + length / 255 + 1) > destEnd) {
+            return -1;
+        }
+        final int tokenAt = dp++;
+        int token;
+        if (literals >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            dp = writeLength(dest, dp, literals - RUN_MASK);
+        } else {
+            token = literals << 4;
+        }
+        System.arraycopy(src, literalOffset, dest, dp, literals);
+        dp += literals;
+        if (length > 0) {
+            dest[dp++] = (byte) distance;
+            dest[dp++] = (byte) (distance >>> 8);
+            final int extra = length - MIN_MATCH;
+            if (extra >= RUN_MASK) {
+                token |= RUN_MASK;
+                dp = writeLength(dest, dp, extra - RUN_MASK);
+            } else {
+                token |= extra;
+            }
+        }
+        dest[tokenAt] = (byte) token;
+        return dp;
+    }
+
+    private static int writeLength(final byte[] dest, int dp, int remaining) {
+        while (remaining >= 255) {
+            dest[dp++] = (byte) 255;
+            remaining -= 255;
+        }
+        dest[dp++] = (byte) remaining;
+        return dp;
+    }
+
+    private static int readInt(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xFF) | (bytes[index + 1] & 0xFF) << 8 | (bytes[index + 2] & 0xFF) << 16
+                | (bytes[index + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(final int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
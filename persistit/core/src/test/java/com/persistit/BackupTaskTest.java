@@ -20,7 +20,12 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
@@ -28,6 +33,8 @@ import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class BackupTaskTest extends PersistitUnitTestCase {
@@ -125,6 +132,144 @@ public class BackupTaskTest extends PersistitUnitTestCase {
     assertTrue(tw.commitTransactions.isEmpty());
   }
 
+  @Test
+  public void testIncrementalBackup() throws Exception {
+    final PersistitMap<Integer, String> pmap1 = new PersistitMap<Integer, String>(_persistit.getExchange(
+      "persistit", "BackupTest", true));
+    for (int index = 0; index < 50000; index++) {
+      pmap1.put(new Integer(index), "This is the record for index=" + index);
+    }
+    final File full = temp.newFile("full.zip");
+    backup("backup -y -c file=" + full.getAbsolutePath());
+
+    for (int index = 1000; index < 1200; index++) {
+      pmap1.put(new Integer(index), "This is the first update for index=" + index);
+    }
+    final File delta1 = temp.newFile("delta1.zip");
+    assertSmall(backup("backup -y -c since=" + full.getAbsolutePath() + " file=" + delta1.getAbsolutePath()));
+
+    for (int index = 40000; index < 40200; index++) {
+      pmap1.put(new Integer(index), "This is the second update for index=" + index);
+    }
+    pmap1.put(new Integer(60000), "This is a new record");
+    final File delta2 = temp.newFile("delta2.zip");
+    assertSmall(backup("backup -y -c -a since=" + delta1.getAbsolutePath() + " file=" + delta2.getAbsolutePath()));
+    assertTrue(delta1.length() < full.length());
+    assertTrue(delta2.length() < full.length());
+
+    final TreeMap<Integer, String> tmap = new TreeMap<Integer, String>(pmap1);
+    final Configuration config = _persistit.getConfiguration();
+    final List<String> paths = volumePaths();
+    _persistit.close();
+    final Map<String, byte[]> volumes = volumeImages(paths);
+    cleanUpDirectory(new File(DATA_PATH));
+
+    final BackupTask restore = new BackupTask();
+    restore.setMessageWriter(new PrintWriter(System.out));
+    restore.setPersistit(_persistit);
+    restore.doRestore(full.getAbsolutePath());
+    restore.doRestore(delta1.getAbsolutePath());
+    restore.doRestore(delta2.getAbsolutePath());
+    assertVolumeImages(volumes);
+
+    _persistit = new Persistit(config);
+    _persistit.checkAllVolumes();
+    final PersistitMap<Integer, String> pmap2 = new PersistitMap<Integer, String>(_persistit.getExchange(
+      "persistit", "BackupTest", false));
+    assertEquals(tmap, new TreeMap<Integer, String>(pmap2));
+  }
+
+  @Test
+  public void testIncrementalBackupAfterRestart() throws Exception {
+    final PersistitMap<Integer, String> pmap1 = new PersistitMap<Integer, String>(_persistit.getExchange(
+      "persistit", "BackupTest", true));
+    for (int index = 0; index < 50000; index++) {
+      pmap1.put(new Integer(index), "This is the record for index=" + index);
+    }
+    final File full = temp.newFile("full.zip");
+    backup("backup -y -c file=" + full.getAbsolutePath());
+    final Configuration config = _persistit.getConfiguration();
+    _persistit.close();
+
+    /*
+     * The volume has been reopened since the full backup, so the incremental
+     * backup must scan the volume file for changed pages.
+     */
+    _persistit = new Persistit(config);
+    final PersistitMap<Integer, String> pmap2 = new PersistitMap<Integer, String>(_persistit.getExchange(
+      "persistit", "BackupTest", false));
+    for (int index = 20000; index < 20100; index++) {
+      pmap2.remove(new Integer(index));
+    }
+    final File delta = temp.newFile("delta.zip");
+    assertSmall(backup("backup -y -c -a since=" + full.getAbsolutePath() + " file=" + delta.getAbsolutePath()));
+    assertTrue(delta.length() < full.length());
+
+    final TreeMap<Integer, String> tmap = new TreeMap<Integer, String>(pmap2);
+    final List<String> paths = volumePaths();
+    _persistit.close();
+    final Map<String, byte[]> volumes = volumeImages(paths);
+    cleanUpDirectory(new File(DATA_PATH));
+
+    final BackupTask restore = new BackupTask();
+    restore.setMessageWriter(new PrintWriter(System.out));
+    restore.setPersistit(_persistit);
+    restore.doRestore(full.getAbsolutePath());
+    restore.doRestore(delta.getAbsolutePath());
+    assertVolumeImages(volumes);
+
+    _persistit = new Persistit(config);
+    _persistit.checkAllVolumes();
+    final PersistitMap<Integer, String> pmap3 = new PersistitMap<Integer, String>(_persistit.getExchange(
+      "persistit", "BackupTest", false));
+    assertEquals(tmap, new TreeMap<Integer, String>(pmap3));
+  }
+
+  private BackupTask backup(final String command) throws Exception {
+    final BackupTask backup = (BackupTask) CLI.parseTask(_persistit, command);
+    backup.setMessageWriter(new PrintWriter(System.out));
+    backup.setup(1, command, "cli", 0, 5);
+    backup.run();
+    assertTrue(backup.getStatus(), backup.getStatus().endsWith("completed"));
+    return backup;
+  }
+
+  private void assertSmall(final BackupTask backup) throws Exception {
+    final long pages = _persistit.getVolume("persistit").getNextAvailablePage();
+    final long changed = backup.getChangedPageCount();
+    assertTrue("Incremental backup wrote " + changed + " of " + pages + " pages", changed > 0 && changed * 10 < pages);
+  }
+
+  /*
+   * The last backup leaves Persistit in appendOnly mode, so the volume files
+   * are not modified after it is taken, and restoring the backups must
+   * reproduce them exactly.
+   */
+  private List<String> volumePaths() {
+    final List<String> paths = new ArrayList<String>();
+    for (final Volume volume : _persistit.getVolumes()) {
+      if (!volume.isTemporary()) {
+        paths.add(volume.getPath());
+      }
+    }
+    return paths;
+  }
+
+  private Map<String, byte[]> volumeImages(final List<String> paths) throws Exception {
+    final Map<String, byte[]> images = new HashMap<String, byte[]>();
+    for (final String path : paths) {
+      images.put(path, Files.readAllBytes(new File(path).toPath()));
+    }
+    assertEquals(3, images.size());
+    return images;
+  }
+
+  private void assertVolumeImages(final Map<String, byte[]> images) throws Exception {
+    for (final Map.Entry<String, byte[]> entry : images.entrySet()) {
+      assertArrayEquals(entry.getKey(), entry.getValue(), Files.readAllBytes(new File(entry.getKey()).toPath()));
+    }
+  }
+
   private class TransactionWriter implements Runnable {
 
     final Set<Integer> commitTransactions = new HashSet<Integer>();
@@ -168,6 +313,8 @@ public class BackupTaskTest extends PersistitUnitTestCase {
   public void runAllTests() throws Exception {
     testSimpleBackup();
     testBackupWithConcurrentTransactions();
+    testIncrementalBackup();
+    testIncrementalBackupAfterRestart();
   }
 
 }
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -184,4 +185,74 @@ public class BufferPoolTest extends PersistitUnitTestCase {
         }
     }
 
+
+    @Test
+    public void testUnlockedLookup() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "BufferPoolTest", true);
+        ex.append("k").store();
+        final Volume vol = ex.getVolume();
+        final BufferPool pool = vol.getPool();
+        final long page = ex.fetchBufferCopy(0).getPageAddress();
+        assertTrue(pool.isUnlockedLookup());
+
+        final long hits = pool.getHitCounter();
+        final Buffer buffer = pool.get(vol, page, false, true);
+        assertEquals(page, buffer.getPageAddress());
+        final Buffer again = pool.get(vol, page, false, true);
+        assertTrue(again == buffer);
+        again.release();
+        buffer.release();
+        assertEquals(hits + 2, pool.getHitCounter());
+
+        pool.setUnlockedLookup(false);
+        try {
+            final Buffer locked = pool.get(vol, page, false, true);
+            assertTrue(locked == buffer);
+            locked.release();
+            assertEquals(hits + 3, pool.getHitCounter());
+        } finally {
+            pool.setUnlockedLookup(true);
+        }
+    }
+
+    @Test
+    public void testUnlockedLookupUnderEviction() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "BufferPoolTest", true);
+        final int records = 20000;
+        for (int i = 0; i < records; i++) {
+            ex.getValue().put(RED_FOX + i);
+            ex.to(i).store();
+        }
+        final AtomicInteger errors = new AtomicInteger();
+        final Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final Random random = new Random(seed);
+                    try {
+                        final Exchange exchange = _persistit.getExchange(VOLUME_NAME, "BufferPoolTest", false);
+                        for (int i = 0; i < 5000; i++) {
+                            final int k = random.nextInt(records);
+                            exchange.to(k).fetch();
+                            if (!(RED_FOX + k).equals(exchange.getValue().getString())) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        _persistit.releaseExchange(exchange);
+                    } catch (final Exception e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, errors.get());
+    }
+
 }
@@ -102,6 +102,90 @@ public class CleanupManagerTest extends PersistitUnitTestCase {
         assertEquals(0, cm().getEnqueuedCount());
     }
 
+    @Test
+    public void testLongVersionChainsArePrunedFirst() throws Exception {
+        cm().setPollInterval(-1);
+        cm().setMinimumPruningDelay(1);
+        final Exchange ex = _persistit.getExchange("persistit", "CleanupManagerTest", true);
+        final Transaction txn = ex.getTransaction();
+        for (int i = 0; i < 8; i++) {
+            txn.begin();
+            try {
+                ex.getValue().put(i);
+                ex.to("chain").store();
+                ex.to(i).store();
+                txn.commit();
+            } finally {
+                txn.end();
+            }
+        }
+        final long[] before = cm().getMvvLengthHistogram();
+        final long accepted = cm().getAcceptedCount();
+
+        ex.to("chain").fetch();
+        assertEquals(7, ex.getValue().getInt());
+
+        final long[] after = cm().getMvvLengthHistogram();
+        assertEquals(CleanupManager.HISTOGRAM_BUCKETS, after.length);
+        assertEquals(before[4] + 1, after[4]);
+        assertEquals(accepted + 1, cm().getAcceptedCount());
+        assertEquals(1, cm().getHotPageCount());
+
+        /*
+         * A chain too short to qualify does not enqueue the page again
+         */
+        cm().setMinimumPrunableVersions(100);
+        cm().clear();
+        Thread.sleep(10);
+        ex.to("chain").fetch();
+        assertEquals(0, cm().getHotPageCount());
+        cm().setMinimumPrunableVersions(CleanupManager.DEFAULT_MINIMUM_PRUNABLE_VERSIONS);
+
+        Thread.sleep(10);
+        ex.to("chain").fetch();
+        assertEquals(1, cm().getHotPageCount());
+        final long lagged = sum(cm().getPruningLagHistogram());
+        cm().poll();
+        assertEquals(0, cm().getHotPageCount());
+        assertEquals(lagged + 1, sum(cm().getPruningLagHistogram()));
+
+        final long[] pruned = cm().getMvvLengthHistogram();
+        ex.to("chain").fetch();
+        assertEquals(7, ex.getValue().getInt());
+        assertEquals(sum(pruned), sum(cm().getMvvLengthHistogram()));
+    }
+
+    @Test
+    public void testThreadCountScalesWithBacklog() throws Exception {
+        cm().setPollInterval(-1);
+        cm().setMaximumThreadCount(3);
+        assertEquals(3, cm().getMaximumThreadCount());
+        for (int i = 1; i <= 100; i++) {
+            cm().offer(new CleanupManager.CleanupPruneAction(Integer.MAX_VALUE, i));
+        }
+        cm().poll();
+        assertEquals(1, cm().getThreadCount());
+
+        final long performed = cm().getPerformedCount();
+        final int backlog = CleanupManager.BACKLOG_PER_THREAD * 3;
+        for (int i = 1; i <= backlog; i++) {
+            cm().offer(new CleanupManager.CleanupPruneAction(Integer.MAX_VALUE, i));
+        }
+        cm().poll();
+        assertEquals(3, cm().getThreadCount());
+        assertEquals(performed + 3 * 2_000, cm().getPerformedCount());
+        assertEquals(backlog - 3 * 2_000, cm().getEnqueuedCount());
+        cm().clear();
+    }
+
+    private static long sum(final long[] counts) {
+        long sum = 0;
+        for (final long count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
     @Test
     public void testMemoryReleasedOnCrash() throws Exception {
         final WeakReference<Persistit> ref = new WeakReference<Persistit>(_persistit);
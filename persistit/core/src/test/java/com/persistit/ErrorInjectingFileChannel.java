@@ -45,6 +45,8 @@ class ErrorInjectingFileChannel extends FileChannel implements TestChannelInject
     volatile String _injectedIOExceptionFlags;
     volatile long _injectedDiskFullLimit = Long.MAX_VALUE;
 
+    private long _position;
+
     @Override
     public void setChannel(final FileChannel channel) {
         _channel = channel;
@@ -161,6 +163,34 @@ class ErrorInjectingFileChannel extends FileChannel implements TestChannelInject
         }
     }
 
+    /*
+     * The gather write used to copy runs of pages is performed as a sequence
+     * of positional writes so that injected failures apply to it too.
+     */
+    @Override
+    public long position() throws IOException {
+        return _position;
+    }
+
+    @Override
+    public FileChannel position(final long position) throws IOException {
+        _position = position;
+        return this;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] byteBuffers, final int offset, final int length) throws IOException {
+        long written = 0;
+        for (int index = offset; index < offset + length; index++) {
+            while (byteBuffers[index].hasRemaining()) {
+                final int count = write(byteBuffers[index], _position);
+                _position += count;
+                written += count;
+            }
+        }
+        return written;
+    }
+
     /*
      * --------------------------------
      * 
@@ -182,15 +212,7 @@ class ErrorInjectingFileChannel extends FileChannel implements TestChannelInject
         throw new UnsupportedOperationException();
     }
 
-    @Override
-    public long position() throws IOException {
-        throw new UnsupportedOperationException();
-    }
 
-    @Override
-    public FileChannel position(final long arg0) throws IOException {
-        throw new UnsupportedOperationException();
-    }
 
     @Override
     public int read(final ByteBuffer byteBuffer) throws IOException {
@@ -217,9 +239,5 @@ class ErrorInjectingFileChannel extends FileChannel implements TestChannelInject
         throw new UnsupportedOperationException();
     }
 
-    @Override
-    public long write(final ByteBuffer[] arg0, final int arg1, final int arg2) throws IOException {
-        throw new UnsupportedOperationException();
-    }
 
 }
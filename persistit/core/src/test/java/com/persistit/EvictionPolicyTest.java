@@ -0,0 +1,118 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class EvictionPolicyTest extends PersistitUnitTestCase {
+
+    private final static int HOT_TREES = 8;
+
+    private final static int SCAN_RECORDS = 50000;
+
+    private String _policy = EvictionPolicy.TWO_QUEUE;
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getProperties(cleanup);
+        p.setProperty("buffer.count.16384", "100");
+        p.setProperty("buffer.policy.16384", _policy);
+        return p;
+    }
+
+    @Test
+    public void twoQueueKeepsWorkingSetThroughScan() throws Exception {
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        assertEquals(EvictionPolicy.TWO_QUEUE, pool.getEvictionPolicy());
+        assertEquals(0, scanAndCountHotMisses());
+        assertTrue(pool.getPolicyPromoteCounter() > 0);
+        assertTrue(pool.getPolicyProtectedHitCounter() > 0);
+        assertTrue(pool.getPolicyProtectedCount() <= 75);
+    }
+
+    @Test
+    public void clockLosesWorkingSetThroughScan() throws Exception {
+        _persistit.close();
+        _persistit = new Persistit();
+        _policy = "clock";
+        setUp();
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        assertEquals(EvictionPolicy.CLOCK, pool.getEvictionPolicy());
+        assertTrue(scanAndCountHotMisses() > 0);
+        assertEquals(0, pool.getPolicyPromoteCounter());
+    }
+
+    @Test
+    public void configurationRoundTrip() throws Exception {
+        final Configuration configuration = new Configuration();
+        final String spec = "16384,count=1000,offHeap=20G,policy=2Q";
+        configuration.setBufferPoolConfiguration(spec);
+        assertEquals(EvictionPolicy.TWO_QUEUE, configuration.getBufferPoolMap().get(16384).getEvictionPolicy());
+        assertEquals(spec, configuration.getBufferPoolConfiguration());
+        configuration.setBufferPoolConfiguration("16384,count=1000,policy=clock");
+        assertEquals("16384,count=1000,policy=CLOCK", configuration.getBufferPoolConfiguration());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPolicy() throws Exception {
+        new Configuration().setBufferPoolConfiguration("16384,count=1000,policy=LRU");
+    }
+
+    /**
+     * Establish a working set of small trees, then scan a tree several times
+     * larger than the pool and count the pool misses incurred by revisiting
+     * the working set.
+     */
+    private long scanAndCountHotMisses() throws Exception {
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        final Exchange scan = _persistit.getExchange(VOLUME_NAME, "scan", true);
+        for (int i = 0; i < SCAN_RECORDS; i++) {
+            scan.getValue().put(RED_FOX + RED_FOX + RED_FOX + i);
+            scan.to(i).store();
+        }
+        final Exchange[] hot = new Exchange[HOT_TREES];
+        for (int t = 0; t < HOT_TREES; t++) {
+            hot[t] = _persistit.getExchange(VOLUME_NAME, "hot" + t, true);
+            hot[t].getValue().put(RED_FOX);
+            hot[t].to(t).store();
+        }
+        for (int i = 0; i < SCAN_RECORDS; i++) {
+            scan.to(i).fetch();
+            if (i % 50 == 0) {
+                fetchAll(hot);
+            }
+        }
+        scan.clear().append(Key.BEFORE);
+        while (scan.next()) {
+        }
+        final long misses = pool.getMissCounter();
+        fetchAll(hot);
+        return pool.getMissCounter() - misses;
+    }
+
+    private void fetchAll(final Exchange[] hot) throws Exception {
+        for (int t = 0; t < HOT_TREES; t++) {
+            hot[t].to(t).fetch();
+            assertEquals(RED_FOX, hot[t].getValue().getString());
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.PrintWriter;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -221,6 +222,119 @@ public class IntegrityCheckTest extends PersistitUnitTestCase {
         assertTrue(icheck.getFaults().length > 0);
     }
 
+    @Test
+    public void testParallelCheckMatchesSequential() throws PersistitException {
+        disableBackgroundCleanup();
+        final Exchange ex = _persistit.getExchange(_volumeName, "wide", true);
+        wideKeyStore(ex);
+        assertTrue(ex.getTree().getDepth() > 2);
+        nonTransactionalStore(_persistit.getExchange(_volumeName, "primordial", true));
+        transactionalStore(_persistit.getExchange(_volumeName, "mvv", true));
+
+        final IntegrityCheck sequential = icheck();
+        assertTrue(sequential.checkVolume(ex.getVolume()));
+        final IntegrityCheck parallel = icheck();
+        parallel.setThreadCount(4);
+        assertTrue(parallel.checkVolume(ex.getVolume()));
+        assertSameCounts(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelCheckFindsFaults() throws PersistitException {
+        final Exchange ex = _persistit.getExchange(_volumeName, "wide", true);
+        wideKeyStore(ex);
+        corrupt1(ex);
+
+        final IntegrityCheck sequential = icheck();
+        sequential.checkTree(ex.getTree());
+        final IntegrityCheck parallel = icheck();
+        parallel.setThreadCount(4);
+        parallel.checkTree(ex.getTree());
+        assertTrue(parallel.getFaults().length > 0);
+        assertEquals(sequential.getFaults().length, parallel.getFaults().length);
+        assertSameCounts(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelCheckFindsIndexHoles() throws PersistitException {
+        final Exchange ex = _persistit.getExchange(_volumeName, "wide", true);
+        wideKeyStore(ex);
+        /*
+         * Remove keys from the root page so that the pages they pointed to are
+         * found only by walking right, across the boundary between
+         * partitions.
+         */
+        final int rootLevel = ex.getTree().getDepth() - 1;
+        final Buffer buffer = ex.getBufferPool().get(ex.getVolume(), ex.getTree().getRootPageAddr(), true, true);
+        final Key key = new Key(_persistit);
+        buffer.nextKey(key, buffer.toKeyBlock(0));
+        final int count = buffer.getKeyCount();
+        assertTrue(count >= 3);
+        final int p = Buffer.KEY_BLOCK_START + (count / 2) * Buffer.KEYBLOCK_LENGTH;
+        buffer.removeKeys(p, p + Buffer.KEYBLOCK_LENGTH, key);
+        buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+        buffer.release();
+        assertEquals(rootLevel, ex.getTree().getDepth() - 1);
+
+        final IntegrityCheck sequential = icheck();
+        sequential.checkTree(ex.getTree());
+        assertTrue(sequential.getIndexHoleCount() > 0);
+        final IntegrityCheck parallel = icheck();
+        parallel.setThreadCount(3);
+        parallel.checkTree(ex.getTree());
+        assertEquals(sequential.getFaults().length, parallel.getFaults().length);
+        assertSameCounts(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelCheckTask() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            nonTransactionalStore(_persistit.getExchange(_volumeName, "tree" + i, true));
+        }
+        wideKeyStore(_persistit.getExchange(_volumeName, "wide", true));
+        final IntegrityCheck icheck = IntegrityCheck.icheck("persistit:*", false, false, false, false, false, true,
+                false, 4);
+        icheck.setPersistit(_persistit);
+        icheck.setMessageWriter(new PrintWriter(System.out));
+        icheck.runTask();
+        assertEquals(4, icheck.getThreadCount());
+        assertEquals(0, icheck.getFaults().length);
+
+        final IntegrityCheck sequential = icheck();
+        for (final Tree tree : _persistit.getSelectedTrees(TreeSelector.parseSelector("persistit:*", false, '\\'))) {
+            sequential.checkTree(tree);
+        }
+        assertSameCounts(sequential, icheck);
+    }
+
+    private void assertSameCounts(final IntegrityCheck expected, final IntegrityCheck actual) {
+        assertEquals(expected.getIndexPageCount(), actual.getIndexPageCount());
+        assertEquals(expected.getIndexByteCount(), actual.getIndexByteCount());
+        assertEquals(expected.getDataPageCount(), actual.getDataPageCount());
+        assertEquals(expected.getDataByteCount(), actual.getDataByteCount());
+        assertEquals(expected.getLongRecordPageCount(), actual.getLongRecordPageCount());
+        assertEquals(expected.getLongRecordByteCount(), actual.getLongRecordByteCount());
+        assertEquals(expected.getMvvCount(), actual.getMvvCount());
+        assertEquals(expected.getMvvOverhead(), actual.getMvvOverhead());
+        assertEquals(expected.getMvvAntiValues(), actual.getMvvAntiValues());
+        assertEquals(expected.getIndexHoleCount(), actual.getIndexHoleCount());
+        assertEquals(expected.getGarbagePageCount(), actual.getGarbagePageCount());
+    }
+
+    /**
+     * Stores records with long keys so that index pages hold few keys and the
+     * tree is several levels deep
+     */
+    private void wideKeyStore(final Exchange ex) throws PersistitException {
+        final char[] filler = new char[1000];
+        Arrays.fill(filler, 'x');
+        ex.getValue().put(RED_FOX);
+        for (int i = 0; i < SIZE * 4; i++) {
+            ex.clear().append(key((i * 7919) % (SIZE * 4))).append(new String(filler)).append(i);
+            ex.store();
+        }
+    }
+
     private String key(final int i) {
         return String.format("%05d%s", i, RED_FOX);
     }
@@ -664,6 +664,138 @@ public class JournalManagerTest extends PersistitUnitTestCase {
         disableSequencer();
     }
 
+    @Test
+    public void parallelCopyBack() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        jman.setCopierThreads(4);
+        final String[] specs = new String[3];
+        for (int index = 0; index < specs.length; index++) {
+            specs[index] = "${datapath}/copy" + index + ",create,"
+                    + "pageSize:16384,initialPages:1,extensionPages:100,maximumPages:25000";
+            final Volume volume = new Volume(_config.volumeSpecification(specs[index]));
+            volume.open(_persistit);
+            final Exchange exchange = _persistit.getExchange(volume, "copy", true);
+            for (int i = 0; i < 5000; i++) {
+                exchange.getValue().put(RED_FOX);
+                exchange.to(i).store();
+            }
+        }
+        store1();
+        _persistit.flush();
+        _persistit.checkpoint();
+        final long copiedBefore = jman.getCopiedPageCount();
+        jman.copyBack();
+        final long copied = jman.getCopiedPageCount() - copiedBefore;
+        assertTrue(copied > 0);
+        assertTrue("Consecutive pages should be coalesced", jman.getCopiedRunCount() < copied);
+
+        _persistit.close();
+        _persistit = new Persistit(_config);
+        for (int index = 0; index < specs.length; index++) {
+            final Volume volume = new Volume(_config.volumeSpecification(specs[index]));
+            volume.open(_persistit);
+            final Exchange exchange = _persistit.getExchange(volume, "copy", false);
+            int count = 0;
+            exchange.clear().append(Key.BEFORE);
+            while (exchange.next()) {
+                count++;
+            }
+            assertEquals(5000, count);
+        }
+        assertEquals(50000, countKeys(false));
+    }
+
+    @Test
+    public void copierSettingsAreRangeChecked() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        jman.setCopierBudget(10);
+        assertEquals(10, jman.getCopierBudget());
+        try {
+            jman.setCopierThreads(0);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            jman.setCopierBudget(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void pageMapLookupsAfterRecovery() throws Exception {
+        _persistit.getJournalManager().setAppendOnly(true);
+        store1();
+        _persistit.checkpoint();
+        safeCrashAndRestoreProperties();
+        final JournalManager jman = _persistit.getJournalManager();
+        final int volumePages = jman.getVolumePageMapSize(_volumeName);
+        assertTrue(volumePages > 0);
+        assertTrue(volumePages <= jman.getPageMapSize());
+        assertEquals(0, jman.getVolumePageMapSize("no_such_volume"));
+
+        final long lookups = jman.getPageMapLookupCount();
+        assertEquals(50000, countKeys(false));
+        assertTrue(jman.getPageMapLookupCount() > lookups);
+        assertTrue(jman.getPageMapLookupTime() >= 0);
+    }
+
+    @Test
+    public void groupCommitOfConcurrentHardCommits() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        final int threadCount = 8;
+        final int commitsPerThread = 200;
+        final long commitsBefore = jman.getTotalCompletedCommits();
+        final Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int id = t;
+            threads[t] = createThread("COMMITTER_" + t, new ThrowingRunnable() {
+                @Override
+                public void run() throws Exception {
+                    final Exchange exchange = _persistit.getExchange(_volumeName, "JournalManagerTest1", true);
+                    final Transaction txn = _persistit.getTransaction();
+                    for (int i = 0; i < commitsPerThread; i++) {
+                        txn.begin();
+                        try {
+                            exchange.getValue().put(RED_FOX);
+                            exchange.clear().append(id * commitsPerThread + i).store();
+                            txn.commit(Transaction.CommitPolicy.HARD);
+                        } finally {
+                            txn.end();
+                        }
+                    }
+                    _persistit.releaseExchange(exchange);
+                }
+            });
+        }
+        startAndJoinAssertSuccess(60000, threads);
+
+        assertEquals(threadCount * commitsPerThread, jman.getTotalCompletedCommits() - commitsBefore);
+        assertTrue(jman.getGroupCommitBatchCount() > 0);
+        assertTrue(jman.getGroupCommitBatchedCommitCount() >= jman.getGroupCommitBatchCount());
+        assertEquals(threadCount * commitsPerThread, countKeys(false));
+    }
+
+    @Test
+    public void groupCommitDoesNotDelayLoneCommitter() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        final Exchange exchange = _persistit.getExchange(_volumeName, "JournalManagerTest1", true);
+        final Transaction txn = _persistit.getTransaction();
+        for (int i = 0; i < 100; i++) {
+            txn.begin();
+            try {
+                exchange.getValue().put(RED_FOX);
+                exchange.to(i).store();
+                txn.commit(Transaction.CommitPolicy.HARD);
+            } finally {
+                txn.end();
+            }
+            assertEquals(0, jman.getGroupCommitWindow());
+        }
+    }
+
     private int countKeys(final boolean mvcc) throws PersistitException {
         final Exchange exchange = _persistit.getExchange(_volumeName, "JournalManagerTest1", false);
         exchange.ignoreMVCCFetch(!mvcc);
@@ -0,0 +1,260 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.persistit.util.Bytes;
+
+public class KeyComparisonTest extends PersistitUnitTestCase {
+
+    private final static Comparator<byte[]> BYTEWISE = new Comparator<byte[]>() {
+        @Override
+        public int compare(final byte[] a, final byte[] b) {
+            return signum(bytewiseCompare(a, 0, a.length, b, 0, b.length));
+        }
+    };
+
+    private final Random _random = new Random(42);
+
+    @Test
+    public void mismatchMatchesBytewise() throws Exception {
+        for (int trial = 0; trial < 20000; trial++) {
+            final int length = _random.nextInt(trial % 10 == 0 ? 300 : 40);
+            final byte[] a = new byte[length + 20];
+            _random.nextBytes(a);
+            final byte[] b = new byte[length + 20];
+            final int aFrom = _random.nextInt(10);
+            final int bFrom = _random.nextInt(10);
+            System.arraycopy(a, aFrom, b, bFrom, length);
+            int expected = -1;
+            if (length > 0 && _random.nextBoolean()) {
+                expected = _random.nextInt(length);
+                b[bFrom + expected] ^= 1 << _random.nextInt(8);
+            }
+            assertEquals(expected, Bytes.mismatch(a, aFrom, b, bFrom, length));
+            final int aLength = length - (length > 0 ? _random.nextInt(2) : 0);
+            assertEquals(signum(bytewiseCompare(a, aFrom, aLength, b, bFrom, length)),
+                    signum(Bytes.compare(a, aFrom, aLength, b, bFrom, length)));
+        }
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void mismatchChecksBounds() throws Exception {
+        Bytes.mismatch(new byte[64], 8, new byte[64], 0, 57);
+    }
+
+    @Test
+    public void keyComparisonsMatchBytewise() throws Exception {
+        final List<Key> keys = new ArrayList<Key>();
+        for (int i = 0; i < 300; i++) {
+            keys.add(uuidKey());
+            keys.add(compositeKey());
+            keys.add(prefixKey());
+        }
+        for (int i = 0; i < 2000; i++) {
+            final Key k1 = keys.get(_random.nextInt(keys.size()));
+            final Key k2 = _random.nextInt(10) == 0 ? new Key(k1) : keys.get(_random.nextInt(keys.size()));
+            final byte[] b1 = Arrays.copyOf(k1.getEncodedBytes(), k1.getEncodedSize());
+            final byte[] b2 = Arrays.copyOf(k2.getEncodedBytes(), k2.getEncodedSize());
+            assertEquals(BYTEWISE.compare(b1, b2), signum(k1.compareTo(k2)));
+
+            int unique = 0;
+            while (unique < b1.length && unique < b2.length && b1[unique] == b2[unique]) {
+                unique++;
+            }
+            assertEquals(unique, k1.firstUniqueByteIndex(k2));
+
+            final int start = _random.nextInt(Math.min(b1.length, b2.length));
+            final int size = _random.nextInt(40);
+            assertEquals(signum(referenceFragmentCompare(b1, b2, start, size)),
+                    signum(k1.compareKeyFragment(k2, start, size)));
+
+            for (int depth = 0; depth < Math.min(k1.getDepth(), k2.getDepth()); depth++) {
+                k1.indexTo(depth);
+                k2.indexTo(depth);
+                assertEquals(signum(referenceSegmentCompare(k1, k2)), signum(k1.compareKeySegment(k2)));
+            }
+        }
+    }
+
+    @Test
+    public void uuidKeys() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "uuid", true);
+        final List<Key> keys = new ArrayList<Key>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add(uuidKey());
+        }
+        storeAndSearch(ex, keys);
+    }
+
+    @Test
+    public void compositeKeys() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "composite", true);
+        final List<Key> keys = new ArrayList<Key>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add(compositeKey());
+        }
+        storeAndSearch(ex, keys);
+    }
+
+    @Test
+    public void longCommonPrefixKeys() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "prefix", true);
+        final List<Key> keys = new ArrayList<Key>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add(prefixKey());
+        }
+        storeAndSearch(ex, keys);
+    }
+
+    @Test
+    public void longRunsOfEqualEbc() throws Exception {
+        /*
+         * Keys differing only in their last byte form long runs of key blocks
+         * with the same ebc, which findKey searches by bisection.
+         */
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "runs", true);
+        final List<Key> keys = new ArrayList<Key>();
+        for (int i = 0; i < 40; i++) {
+            for (int c = 1; c < 240; c += 1 + _random.nextInt(3)) {
+                keys.add(new Key(_persistit).append(i).append(RED_FOX + (char) c));
+            }
+        }
+        storeAndSearch(ex, keys);
+    }
+
+    private void storeAndSearch(final Exchange ex, final List<Key> keys) throws Exception {
+        final TreeSet<byte[]> sorted = new TreeSet<byte[]>(BYTEWISE);
+        for (final Key key : keys) {
+            key.copyTo(ex.getKey());
+            ex.getValue().put(sorted.size());
+            ex.store();
+            sorted.add(Arrays.copyOf(key.getEncodedBytes(), key.getEncodedSize()));
+        }
+        for (final Key key : keys) {
+            key.copyTo(ex.getKey());
+            assertTrue(ex.isValueDefined());
+        }
+        /*
+         * Probe with keys between and beyond the stored ones and compare the
+         * successor with the reference.
+         */
+        final Key probe = new Key(_persistit);
+        for (final Key key : keys) {
+            for (int variant = 0; variant < 3; variant++) {
+                key.copyTo(probe);
+                switch (variant) {
+                case 0:
+                    probe.append(0);
+                    break;
+                case 1:
+                    probe.setEncodedSize(Math.max(1, probe.getEncodedSize() - 1));
+                    break;
+                default:
+                    probe.getEncodedBytes()[_random.nextInt(probe.getEncodedSize())] ^= 0x10;
+                }
+                final byte[] probeBytes = Arrays.copyOf(probe.getEncodedBytes(), probe.getEncodedSize());
+                final byte[] expected = sorted.higher(probeBytes);
+                probe.copyTo(ex.getKey());
+                final boolean found = ex.traverse(Key.GT, true);
+                if (expected == null) {
+                    assertFalse(found);
+                } else {
+                    assertTrue(found);
+                    assertEquals(0, BYTEWISE.compare(expected,
+                            Arrays.copyOf(ex.getKey().getEncodedBytes(), ex.getKey().getEncodedSize())));
+                }
+            }
+        }
+    }
+
+    private Key uuidKey() {
+        final UUID uuid = new UUID(_random.nextLong(), _random.nextLong());
+        return new Key(_persistit).append(uuid.toString());
+    }
+
+    private Key compositeKey() {
+        return new Key(_persistit).append("customer").append("region" + _random.nextInt(8))
+                .append(_random.nextLong() & 0xFFFFFFFFL).append(_random.nextInt(100));
+    }
+
+    private Key prefixKey() {
+        return new Key(_persistit).append("/var/lib/persistit/volumes/data/segments/partition-0007/")
+                .append(_random.nextInt(100000));
+    }
+
+    private static int bytewiseCompare(final byte[] a, final int aFrom, final int aLength, final byte[] b,
+            final int bFrom, final int bLength) {
+        final int size = Math.min(aLength, bLength);
+        for (int i = 0; i < size; i++) {
+            final int d = (a[aFrom + i] & 0xFF) - (b[bFrom + i] & 0xFF);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static int referenceFragmentCompare(final byte[] a, final byte[] b, final int start, final int size) {
+        final int end = Math.min(Math.min(a.length, b.length), start + size);
+        for (int i = start; i < end; i++) {
+            final int d = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (d != 0) {
+                return d;
+            }
+        }
+        if (end == start + size) {
+            return 0;
+        }
+        return a.length - b.length;
+    }
+
+    private static int referenceSegmentCompare(final Key k1, final Key k2) {
+        final byte[] a = k1.getEncodedBytes();
+        final byte[] b = k2.getEncodedBytes();
+        final int count1 = k1.getEncodedSize() - k1.getIndex();
+        final int count2 = k2.getEncodedSize() - k2.getIndex();
+        for (int i = 0; i < Math.min(count1, count2); i++) {
+            final int b1 = a[k1.getIndex() + i] & 0xFF;
+            final int b2 = b[k2.getIndex() + i] & 0xFF;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+            if (b1 == 0) {
+                return 0;
+            }
+        }
+        return count1 - count2;
+    }
+
+    private static int signum(final int value) {
+        return value < 0 ? -1 : value > 0 ? 1 : 0;
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.persistit.encoding.CoderManager;
+import com.persistit.encoding.ValueCoder;
+
+public class MethodHandleValueCoderTest extends PersistitUnitTestCase {
+
+    static class Base implements Serializable {
+        private static final long serialVersionUID = 1L;
+        long _id;
+        String _label;
+    }
+
+    static class Record extends Base {
+        private static final long serialVersionUID = 1L;
+        boolean _flag;
+        byte _b;
+        short _s;
+        char _c;
+        int _i;
+        float _f;
+        double _d;
+        final String _finalString;
+        int[] _array;
+        List<String> _list;
+        Record _next;
+        transient int _transient;
+
+        Record() {
+            _finalString = "unset";
+        }
+
+        Record(final int seed) {
+            _finalString = "final" + seed;
+            _id = seed * 1000L;
+            _label = seed % 3 == 0 ? null : "label" + seed;
+            _flag = seed % 2 == 0;
+            _b = (byte) seed;
+            _s = (short) -seed;
+            _c = (char) ('a' + seed % 26);
+            _i = seed * 7;
+            _f = seed / 3f;
+            _d = seed / 7d;
+            _array = new int[] { seed, seed + 1 };
+            _list = new ArrayList<String>(Arrays.asList("x" + seed, "y" + seed));
+            _transient = seed;
+        }
+
+        void assertEqualTo(final Record r) {
+            assertEquals(_id, r._id);
+            assertEquals(_label, r._label);
+            assertEquals(_flag, r._flag);
+            assertEquals(_b, r._b);
+            assertEquals(_s, r._s);
+            assertEquals(_c, r._c);
+            assertEquals(_i, r._i);
+            assertEquals(_f, r._f, 0f);
+            assertEquals(_d, r._d, 0d);
+            assertEquals(_finalString, r._finalString);
+            assertArrayEquals(_array, r._array);
+            assertEquals(_list, r._list);
+            assertEquals(0, r._transient);
+        }
+    }
+
+    static class Custom implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int _value;
+
+        private void writeObject(final ObjectOutputStream out) throws IOException {
+            out.writeInt(_value * 2);
+        }
+
+        private void readObject(final ObjectInputStream in) throws IOException {
+            _value = in.readInt() / 2;
+        }
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final MethodHandleValueCoder coder = register(Record.class);
+        assertTrue(coder.isGenerated());
+        final Value value = new Value(_persistit);
+        for (int seed = 0; seed < 100; seed++) {
+            final Record record = new Record(seed);
+            value.put(record);
+            final Record copy = (Record) value.get();
+            record.assertEqualTo(copy);
+        }
+    }
+
+    @Test
+    public void serializedFormMatchesDefaultValueCoder() throws Exception {
+        final CoderManager cm = _persistit.getCoderManager();
+        final Value value = new Value(_persistit);
+        final Record record = new Record(5);
+        record._next = new Record(6);
+
+        cm.registerValueCoder(Record.class, new DefaultValueCoder(_persistit, Record.class));
+        value.put(record);
+        final byte[] reflective = Arrays.copyOf(value.getEncodedBytes(), value.getEncodedSize());
+
+        register(Record.class);
+        value.put(record);
+        final byte[] generated = Arrays.copyOf(value.getEncodedBytes(), value.getEncodedSize());
+        assertArrayEquals(reflective, generated);
+
+        value.putEncodedBytes(reflective, 0, reflective.length);
+        final Record copy = (Record) value.get();
+        record.assertEqualTo(copy);
+        record._next.assertEqualTo(copy._next);
+    }
+
+    @Test
+    public void sharedReferences() throws Exception {
+        register(Record.class);
+        final Value value = new Value(_persistit);
+        final Record record = new Record(1);
+        record._next = record;
+        value.put(record);
+        final Record copy = (Record) value.get();
+        assertSame(copy, copy._next);
+        record.assertEqualTo(copy);
+    }
+
+    @Test
+    public void nullFields() throws Exception {
+        register(Record.class);
+        final Value value = new Value(_persistit);
+        final Record record = new Record();
+        value.put(record);
+        final Record copy = (Record) value.get();
+        assertNull(copy._label);
+        assertNull(copy._array);
+        assertNull(copy._list);
+    }
+
+    @Test
+    public void customSerializationFallsBack() throws Exception {
+        final MethodHandleValueCoder coder = register(Custom.class);
+        assertFalse(coder.isGenerated());
+        final Value value = new Value(_persistit);
+        final Custom custom = new Custom();
+        custom._value = 21;
+        value.put(custom);
+        assertEquals(21, ((Custom) value.get())._value);
+    }
+
+    @Test
+    public void coderManagerCreatesMethodHandleCoders() throws Exception {
+        final DefaultCoderManager cm = (DefaultCoderManager) _persistit.getCoderManager();
+        assertFalse(cm.isMethodHandleCoders());
+        assertFalse(cm.getValueCoder(Base.class) instanceof MethodHandleValueCoder);
+        cm.setMethodHandleCoders(true);
+        final ValueCoder coder = cm.getValueCoder(Record.class);
+        assertTrue(coder instanceof MethodHandleValueCoder);
+        assertTrue(((MethodHandleValueCoder) coder).isGenerated());
+
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "records", true);
+        for (int seed = 0; seed < 1000; seed++) {
+            ex.getValue().put(new Record(seed));
+            ex.to(seed).store();
+        }
+        for (int seed = 0; seed < 1000; seed++) {
+            new Record(seed).assertEqualTo((Record) ex.to(seed).fetch().getValue().get());
+        }
+    }
+
+    @Test
+    public void configurationProperty() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty(Configuration.METHOD_HANDLE_CODERS_PROPERTY_NAME, "true");
+        final Configuration configuration = new Configuration(properties);
+        assertTrue(configuration.isMethodHandleCoders());
+        assertFalse(new Configuration(new Properties()).isMethodHandleCoders());
+    }
+
+    private MethodHandleValueCoder register(final Class<?> clazz) {
+        final MethodHandleValueCoder coder = new MethodHandleValueCoder(_persistit, clazz);
+        _persistit.getCoderManager().registerValueCoder(clazz, coder);
+        return coder;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class OffHeapPageCacheTest extends PersistitUnitTestCase {
+
+    private final static int RECORDS = 20000;
+
+    private boolean _mapped;
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getProperties(cleanup);
+        p.setProperty("buffer.offheap.16384", "8M");
+        if (_mapped) {
+            p.setProperty("offheapdir", DATA_PATH);
+        }
+        return p;
+    }
+
+    @Test
+    public void evictedPagesAreReloadedFromOffHeapCache() throws Exception {
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        assertEquals(8L * 1024 * 1024, pool.getOffHeapMemory());
+        storeAndVerify();
+        assertTrue("Expected off-heap hits", pool.getOffHeapHitCounter() > 0);
+    }
+
+    @Test
+    public void memoryMappedFrames() throws Exception {
+        _persistit.close();
+        _persistit = new Persistit();
+        _mapped = true;
+        setUp();
+        final OffHeapPageCache cache = _persistit.getBufferPool(16384).getOffHeapCache();
+        assertTrue(cache.toString().contains("mapped"));
+        storeAndVerify();
+        assertTrue("Expected off-heap hits", cache.getHitCounter() > 0);
+        _persistit.close();
+        for (final File file : new File(DATA_PATH).listFiles()) {
+            assertFalse("Arena file not deleted: " + file, file.getName().startsWith("persistit_frames_"));
+        }
+    }
+
+    @Test
+    public void truncateInvalidatesOffHeapFrames() throws Exception {
+        final Volume volume = _persistit.getVolume(VOLUME_NAME);
+        final OffHeapPageCache cache = volume.getPool().getOffHeapCache();
+        storeAndVerify();
+        assertTrue(cache.getOccupiedFrameCount() > 0);
+        volume.truncate();
+        assertEquals(0, cache.getOccupiedFrameCount());
+        final Exchange ex = _persistit.getExchange(volume, "OffHeapPageCacheTest", true);
+        ex.clear().append(Key.BEFORE);
+        assertFalse(ex.next());
+    }
+
+    @Test
+    public void framesAreDividedAmongStripes() throws Exception {
+        final OffHeapPageCache cache = _persistit.getBufferPool(16384).getOffHeapCache();
+        assertEquals(OffHeapPageCache.MAXIMUM_STRIPE_COUNT, cache.getStripeCount());
+        storeAndVerify();
+        assertTrue(cache.getOccupiedFrameCount() > 0);
+        assertTrue(cache.getOccupiedFrameCount() <= cache.getFrameCount());
+        assertEquals(1, new OffHeapPageCache(16384 * 4, 16384, null).getStripeCount());
+    }
+
+    @Test
+    public void configurationRoundTrip() throws Exception {
+        final Configuration configuration = new Configuration();
+        final String spec = "16384,count=1000,offHeap=20G";
+        configuration.setBufferPoolConfiguration(spec);
+        assertEquals(20L * Configuration.GIGA, configuration.getBufferPoolMap().get(16384).getOffHeapMemory());
+        assertEquals(spec, configuration.getBufferPoolConfiguration());
+    }
+
+    private void storeAndVerify() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "OffHeapPageCacheTest", true);
+        for (int i = 0; i < RECORDS; i++) {
+            ex.getValue().put(RED_FOX + i);
+            ex.to(i).store();
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            ex.clear().append(Key.BEFORE);
+            int count = 0;
+            while (ex.next()) {
+                assertEquals(RED_FOX + count, ex.getValue().getString());
+                count++;
+            }
+            assertEquals(RECORDS, count);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.persistit.exception.InvalidVolumeSpecificationException;
+
+public class PageCompressionTest extends PersistitUnitTestCase {
+
+    private final static int COUNT = 20000;
+
+    private String _compression = "lz4";
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getProperties(cleanup);
+        p.setProperty("volume.1", p.getProperty("volume.1") + ",compression:" + _compression);
+        return p;
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final Random random = new Random(1);
+        final byte[] repetitive = new byte[16384];
+        for (int i = 0; i < repetitive.length; i++) {
+            repetitive[i] = (byte) RED_FOX.charAt(i % RED_FOX.length());
+        }
+        final byte[] sparse = new byte[16384];
+        for (int i = 0; i < sparse.length; i += 97) {
+            sparse[i] = (byte) random.nextInt();
+        }
+        final byte[] noise = new byte[16384];
+        random.nextBytes(noise);
+        final byte[] tiny = { 1, 2, 3 };
+
+        for (final PageCompression compression : PageCompression.values()) {
+            if (compression == PageCompression.NONE) {
+                continue;
+            }
+            for (final byte[] source : new byte[][] { repetitive, sparse, noise, tiny, new byte[0] }) {
+                final byte[] compressed = new byte[source.length * 2 + 64];
+                final int size = compression.compress(source, 0, source.length, compressed, 5, compressed.length - 5);
+                assertTrue(compression + " failed on " + source.length + " bytes", size >= 0);
+                final byte[] expanded = new byte[source.length + 7];
+                assertEquals(source.length, compression.decompress(compressed, 5, size, expanded, 7, source.length));
+                assertArrayEquals(source, Arrays.copyOfRange(expanded, 7, expanded.length));
+            }
+            final byte[] small = new byte[400];
+            assertTrue(compression.compress(repetitive, 0, repetitive.length, small, 0, small.length) > 0);
+            assertEquals("Incompressible input must not fit", -1,
+                    compression.compress(noise, 0, noise.length, new byte[noise.length], 0, noise.length - 1));
+        }
+    }
+
+    @Test
+    public void malformedInput() throws Exception {
+        final byte[] repetitive = new byte[4096];
+        for (int i = 0; i < repetitive.length; i++) {
+            repetitive[i] = (byte) (i % 13);
+        }
+        for (final PageCompression compression : new PageCompression[] { PageCompression.LZ4,
+                PageCompression.DEFLATE }) {
+            final byte[] compressed = new byte[8192];
+            final int size = compression.compress(repetitive, 0, repetitive.length, compressed, 0, compressed.length);
+            final byte[] expanded = new byte[repetitive.length];
+            assertEquals("Too small a destination", -1,
+                    compression.decompress(compressed, 0, size, expanded, 0, repetitive.length - 1));
+            assertEquals("Truncated", -1, compression.decompress(compressed, 0, size / 2, expanded, 0,
+                    repetitive.length));
+        }
+        final byte[] badDistance = { 0x04, 1, 2, 3, 4, 0x00, 0x00 };
+        assertEquals(-1, PageCompression.LZ4.decompress(badDistance, 0, badDistance.length, new byte[64], 0, 64));
+        assertEquals(-1, PageCompression.DEFLATE.decompress(badDistance, 0, badDistance.length, new byte[64], 0, 64));
+    }
+
+    @Test
+    public void volumeSpecification() throws Exception {
+        final VolumeSpecification vs = new VolumeSpecification("/tmp/vol,create,pageSize:16K,initialPages:1,"
+                + "extensionPages:1,maximumPages:1M,compression:Deflate");
+        assertEquals(PageCompression.DEFLATE, vs.getCompression());
+        assertTrue(vs.toString().contains("compression:deflate"));
+        assertEquals(PageCompression.DEFLATE, new VolumeSpecification(vs.toString()).getCompression());
+        assertEquals(PageCompression.NONE, new VolumeSpecification("/tmp/vol,create,pageSize:16K,initialPages:1,"
+                + "extensionPages:1,maximumPages:1M").getCompression());
+        try {
+            new VolumeSpecification("/tmp/vol,create,pageSize:16K,compression:zip");
+            fail("Expected InvalidVolumeSpecificationException");
+        } catch (final InvalidVolumeSpecificationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void lz4PagesSurviveRecoveryAndCopyBack() throws Exception {
+        storeAndRecover();
+    }
+
+    @Test
+    public void deflatePagesSurviveRecoveryAndCopyBack() throws Exception {
+        _persistit.close();
+        _compression = "deflate";
+        _persistit = new Persistit(doGetProperties(true));
+        storeAndRecover();
+    }
+
+    @Test
+    public void longRecordRecovery() throws Exception {
+        final String longValue = createString(100000);
+        final Transaction txn = _persistit.getTransaction();
+        txn.begin();
+        try {
+            final Exchange ex = _persistit.getExchange(VOLUME_NAME, "long", true);
+            ex.getValue().put(longValue);
+            ex.to(1).store();
+            txn.commit();
+        } finally {
+            txn.end();
+        }
+        _persistit.flush();
+        _persistit.getJournalManager().force();
+        assertTrue(_persistit.getIOMeter().getCompressedPageCount() > 0);
+        crashWithoutFlushAndRestoreProperties();
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "long", false);
+        assertEquals(longValue, ex.to(1).fetch().getValue().getString());
+    }
+
+    private void storeAndRecover() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "compressed", true);
+        for (int i = 0; i < COUNT; i++) {
+            ex.getValue().put(RED_FOX + i);
+            ex.clear().append(i).append(RED_FOX).store();
+        }
+        _persistit.flush();
+        assertTrue(_persistit.getIOMeter().getCompressedPageCount() > 0);
+        assertTrue("Compression ratio " + _persistit.getIOMeter().getCompressionRatio(), _persistit.getIOMeter()
+                .getCompressionRatio() > 1.5);
+        /*
+         * The buffer pool is much smaller than the tree, so verification reads
+         * compressed page images back from the journal.
+         */
+        verify(_persistit.getExchange(VOLUME_NAME, "compressed", false));
+        assertTrue(_persistit.getIOMeter().getDecompressedPageCount() > 0);
+
+        _persistit.checkpoint();
+        safeCrashAndRestoreProperties();
+        verify(_persistit.getExchange(VOLUME_NAME, "compressed", false));
+
+        drainJournal();
+        assertEquals(0, _persistit.getJournalManager().getPageMapSize());
+        _persistit.close();
+        _persistit = new Persistit(_config);
+        verify(_persistit.getExchange(VOLUME_NAME, "compressed", false));
+    }
+
+    private void verify(final Exchange ex) throws Exception {
+        int count = 0;
+        ex.clear().append(Key.BEFORE);
+        while (ex.next(true)) {
+            assertEquals(RED_FOX + count, ex.getValue().getString());
+            count++;
+        }
+        assertEquals(COUNT, count);
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkTree(ex.getTree());
+        assertEquals(0, icheck.getFaults().length);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class ReadAheadTest extends PersistitUnitTestCase {
+
+    private final static int RECORDS = 50000;
+
+    private int _depth = 16;
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getProperties(cleanup);
+        p.setProperty("buffer.count.16384", "200");
+        p.setProperty("readahead", Integer.toString(_depth));
+        return p;
+    }
+
+    @Test
+    public void sequentialScanIsReadAhead() throws Exception {
+        final ReadAheadManager manager = _persistit.getReadAheadManager();
+        assertEquals(16, manager.getDepth());
+        store();
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        pool.resetCounters();
+        scan();
+        assertTrue("Expected read-ahead requests", manager.getAcceptedCount() > 0);
+        assertTrue("Expected prefetched pages", manager.getPrefetchCount() > 0);
+        assertTrue("Expected prefetch hits", manager.getPrefetchHitCount() > 0);
+        assertEquals(0, manager.getErrorCount());
+        assertTrue(pool.getPrefetchHitCounter() + pool.getPrefetchWasteCounter() <= pool.getPrefetchCounter());
+    }
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        _persistit.close();
+        _persistit = new Persistit();
+        _depth = 0;
+        setUp();
+        final ReadAheadManager manager = _persistit.getReadAheadManager();
+        store();
+        scan();
+        assertEquals(0, manager.getAcceptedCount());
+        assertEquals(0, manager.getPrefetchCount());
+        manager.setDepth(8);
+        scan();
+        assertTrue(manager.getAcceptedCount() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void depthIsRangeChecked() throws Exception {
+        _persistit.getReadAheadManager().setDepth(ReadAheadManager.MAXIMUM_DEPTH + 1);
+    }
+
+    private void store() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "ReadAheadTest", true);
+        for (int i = 0; i < RECORDS; i++) {
+            ex.getValue().put(RED_FOX + RED_FOX + RED_FOX + i);
+            ex.to(i).store();
+        }
+        _persistit.releaseExchange(ex);
+    }
+
+    private void scan() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "ReadAheadTest", false);
+        ex.clear().append(Key.BEFORE);
+        int count = 0;
+        while (ex.next()) {
+            assertEquals(RED_FOX + RED_FOX + RED_FOX + count, ex.getValue().getString());
+            count++;
+        }
+        assertEquals(RECORDS, count);
+        _persistit.releaseExchange(ex);
+    }
+}
@@ -39,6 +39,8 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.junit.Assert.assertTrue;
 
 public class RecoveryTest extends PersistitUnitTestCase {
@@ -256,6 +258,62 @@ public class RecoveryTest extends PersistitUnitTestCase {
   // in the correct state after recovery. Tests fix for bug 719319.
   @Test
   public void testRecoveredTransactionsAreCorrect() throws Exception {
+    recoverTransactionsAndVerify();
+  }
+
+  @Test
+  public void testParallelRecoveredTransactionsAreCorrect() throws Exception {
+    _config.setRecoveryThreads(4);
+    recoverTransactionsAndVerify();
+    final RecoveryManager rman = _persistit.getRecoveryManager();
+    assertEquals(4, rman.getRecoveryThreads());
+    assertTrue(rman.getAppliedTransactionCount() > 0);
+    assertTrue(rman.getPartitionCount() > 1);
+    assertEquals(0, rman.getRemainingTransactionCount());
+    assertEquals(0, rman.getErrorCount());
+  }
+
+  @Test
+  public void testParallelLongRecordTransactionRecovery() throws Exception {
+    _config.setRecoveryThreads(4);
+    testLongRecordTransactionRecovery();
+    assertEquals(0, _persistit.getRecoveryManager().getErrorCount());
+  }
+
+  @Test
+  public void testParallelRecoveryRethrowsWorkerFailure() throws Exception {
+    _config.setRecoveryThreads(4);
+    _persistit.getJournalManager().setAppendOnly(true);
+    store2();
+    _persistit.getJournalManager().flush();
+    _persistit.crash();
+    _persistit = new Persistit();
+    _persistit.getJournalManager().setAppendOnly(true);
+    final RecoveryManager plan = _persistit.getRecoveryManager();
+    plan.setRecoveryDisabledForTestMode(true);
+    _persistit.setConfiguration(_config);
+    _persistit.initialize();
+    plan.setRecoveryDisabledForTestMode(false);
+    final Error failure = new Error("failure in recovery worker");
+    final TransactionPlayerListener actor = new RecoveryManager.DefaultRecoveryListener() {
+      @Override
+      public void store(final long address, final long timestamp, final Exchange exchange)
+        throws PersistitException {
+        if (Thread.currentThread().getName().startsWith("RECOVERY_WORKER_")) {
+          throw failure;
+        }
+        super.store(address, timestamp, exchange);
+      }
+    };
+    try {
+      plan.applyAllRecoveredTransactions(actor, plan.getDefaultRollbackListener());
+      fail("Worker failure was not rethrown");
+    } catch (final Error e) {
+      assertSame(failure, e);
+    }
+  }
+
+  private void recoverTransactionsAndVerify() throws Exception {
     final SortedSet<String> keys = new TreeSet<String>();
     Exchange[] exchanges = new Exchange[5];
     for (int index = 0; index < 5; index++) {
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.persistit.Transaction.CommitPolicy;
+
+public class TreeBloomFilterTest extends PersistitUnitTestCase {
+
+    private final static String TREE_NAME = "TreeBloomFilterTest";
+
+    private final static int COUNT = 2_000;
+
+    private Exchange exchange() throws Exception {
+        return _persistit.getExchange("persistit", TREE_NAME, true);
+    }
+
+    private void storeEven(final Exchange ex, final int from, final int to) throws Exception {
+        for (int i = from; i < to; i += 2) {
+            ex.getValue().put("value" + i);
+            ex.to(i).store();
+        }
+    }
+
+    /**
+     * Verify that every stored key is found and return the number of absent
+     * keys answered by the filter.
+     */
+    private long verify(final Exchange ex, final int to) throws Exception {
+        final long skipped = ex.getTree().getStatistics().getBloomFilterSkipCounter();
+        for (int i = 0; i < to; i++) {
+            ex.to(i).fetch();
+            if (i % 2 == 0) {
+                assertEquals("value" + i, ex.getValue().getString());
+                assertTrue(ex.isValueDefined());
+            } else {
+                assertFalse(ex.getValue().isDefined());
+                assertFalse(ex.isValueDefined());
+            }
+        }
+        return ex.getTree().getStatistics().getBloomFilterSkipCounter() - skipped;
+    }
+
+    private void waitUntilReady(final Tree tree) throws Exception {
+        for (int i = 0; i < 100 && !tree.getBloomFilter().isReady(); i++) {
+            _persistit.getCleanupManager().poll();
+            Thread.sleep(10);
+        }
+        assertTrue(tree.getBloomFilter().isReady());
+    }
+
+    @Test
+    public void negativeLookupsSkipSearch() throws Exception {
+        final Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        assertTrue(ex.getTree().isBloomFilterEnabled());
+        storeEven(ex, 0, COUNT);
+        /*
+         * Each absent key is checked by fetch and isValueDefined
+         */
+        assertTrue(verify(ex, COUNT) > COUNT * 9 / 10);
+    }
+
+    @Test
+    public void enableOnPopulatedTree() throws Exception {
+        final Exchange ex = exchange();
+        storeEven(ex, 0, COUNT);
+        ex.getTree().setBloomFilterEnabled(true);
+        assertTrue(ex.getTree().getBloomFilter().isReady());
+        assertTrue(verify(ex, COUNT) > COUNT * 9 / 10);
+    }
+
+    @Test
+    public void treeLoaderInvalidatesFilter() throws Exception {
+        final Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        final TreeLoader loader = new TreeLoader(ex);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int i = 0; i < COUNT; i += 2) {
+            key.clear().append(i);
+            value.put("value" + i);
+            loader.append(key, value);
+        }
+        loader.finish();
+        assertEquals(COUNT / 2, ex.getTree().getStatistics().getStoreCounter());
+        verify(ex, COUNT);
+        waitUntilReady(ex.getTree());
+        assertTrue(verify(ex, COUNT) > COUNT * 9 / 10);
+    }
+
+    @Test
+    public void removedAndTransactionalKeys() throws Exception {
+        final Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        storeEven(ex, 0, COUNT);
+        ex.to(10).remove();
+        assertFalse(ex.to(10).isValueDefined());
+        ex.getValue().put("value10");
+        ex.to(10).store();
+
+        final Transaction txn = ex.getTransaction();
+        txn.begin();
+        try {
+            ex.getValue().put("inside");
+            ex.to(COUNT + 1).store();
+            assertEquals("inside", ex.to(COUNT + 1).fetch().getValue().getString());
+            txn.commit();
+        } finally {
+            txn.end();
+        }
+        assertTrue(ex.to(COUNT + 1).isValueDefined());
+        ex.to(COUNT + 1).remove();
+        assertFalse(ex.to(COUNT + 1).isValueDefined());
+        verify(ex, COUNT);
+    }
+
+    @Test
+    public void filterGrows() throws Exception {
+        final Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        final long bits = ex.getTree().getBloomFilter().getBitCount();
+        storeEven(ex, 0, COUNT * 10);
+        for (int i = 0; i < 100 && ex.getTree().getBloomFilter().getBitCount() == bits; i++) {
+            _persistit.getCleanupManager().poll();
+            Thread.sleep(10);
+        }
+        assertTrue(ex.getTree().getBloomFilter().getBitCount() > bits);
+        assertTrue(verify(ex, COUNT * 10) > COUNT * 9);
+    }
+
+    @Test
+    public void storesConcurrentWithRebuildsAreNotLost() throws Exception {
+        final Tree tree = exchange().getTree();
+        tree.setBloomFilterEnabled(true);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread rebuilder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!done.get()) {
+                        synchronized (tree.getBloomFilterLock()) {
+                            tree.invalidateBloomFilter();
+                            tree.rebuildBloomFilter(false);
+                        }
+                    }
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        });
+        final Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            final int offset = w * 2;
+            writers[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final Exchange ex = exchange();
+                        for (int i = offset; i < COUNT * 20; i += writers.length * 2) {
+                            ex.getValue().put("value" + i);
+                            ex.to(i).store();
+                        }
+                        _persistit.releaseExchange(ex);
+                    } catch (final Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            });
+        }
+        rebuilder.start();
+        for (final Thread writer : writers) {
+            writer.start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        done.set(true);
+        rebuilder.join();
+        assertEquals(null, failure.get());
+        assertTrue(tree.getBloomFilter().isReady());
+        verify(exchange(), COUNT * 20);
+    }
+
+    @Test
+    public void savedFilterSurvivesCleanRestart() throws Exception {
+        Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        storeEven(ex, 0, COUNT);
+        _persistit.checkpoint();
+        storeEven(ex, COUNT, COUNT * 2);
+        _persistit.releaseExchange(ex);
+        _persistit.close();
+
+        _persistit = new Persistit(_config);
+        ex = exchange();
+        final TreeBloomFilter filter = ex.getTree().getBloomFilter();
+        assertNotNull(filter);
+        assertTrue(filter.isReady());
+        assertTrue(verify(ex, COUNT * 2) > COUNT * 9 / 5);
+    }
+
+    @Test
+    public void largeSavedFilterSurvivesCleanRestart() throws Exception {
+        Exchange ex = exchange();
+        storeEven(ex, 0, COUNT);
+        /*
+         * Size the filter for more keys than a single Value can hold the bits
+         * of
+         */
+        ex.getTree().getStatistics().bumpStoreCounter(5_000_000);
+        ex.getTree().setBloomFilterEnabled(true);
+        final long bits = ex.getTree().getBloomFilter().getBitCount();
+        assertTrue(bits / 8 > Value.DEFAULT_MAXIMUM_SIZE);
+        _persistit.checkpoint();
+        _persistit.releaseExchange(ex);
+        _persistit.close();
+
+        _persistit = new Persistit(_config);
+        ex = exchange();
+        final TreeBloomFilter filter = ex.getTree().getBloomFilter();
+        assertNotNull(filter);
+        assertTrue(filter.isReady());
+        assertEquals(bits, filter.getBitCount());
+        assertTrue(verify(ex, COUNT) > COUNT * 9 / 10);
+    }
+
+    @Test
+    public void filterRebuiltAfterCrash() throws Exception {
+        Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        storeEven(ex, 0, COUNT);
+        _persistit.checkpoint();
+        final Transaction txn = ex.getTransaction();
+        txn.begin();
+        try {
+            storeEven(ex, COUNT, COUNT * 2);
+            txn.commit(CommitPolicy.HARD);
+        } finally {
+            txn.end();
+        }
+        _persistit.releaseExchange(ex);
+        _persistit.crash();
+
+        _persistit = new Persistit(_config);
+        ex = exchange();
+        assertTrue(ex.getTree().isBloomFilterEnabled());
+        waitUntilReady(ex.getTree());
+        assertTrue(verify(ex, COUNT * 2) > COUNT * 9 / 5);
+    }
+
+    @Test
+    public void disabledFilterIsForgotten() throws Exception {
+        Exchange ex = exchange();
+        ex.getTree().setBloomFilterEnabled(true);
+        storeEven(ex, 0, COUNT);
+        _persistit.checkpoint();
+        ex.getTree().setBloomFilterEnabled(false);
+        assertFalse(ex.getTree().isBloomFilterEnabled());
+        assertEquals(0, verify(ex, COUNT));
+        _persistit.releaseExchange(ex);
+        _persistit.close();
+
+        _persistit = new Persistit(_config);
+        ex = exchange();
+        assertFalse(ex.getTree().isBloomFilterEnabled());
+    }
+}
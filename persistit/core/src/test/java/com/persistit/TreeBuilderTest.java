@@ -102,6 +102,63 @@ public class TreeBuilderTest extends PersistitUnitTestCase {
         assertEquals(0, a.getBufferPool().getDirtyPageCount());
     }
 
+    @Test
+    public void parallelSortAndMerge() throws Exception {
+        final TreeBuilder tb = getBasicTreeBuilder();
+        tb.setThreadCount(4);
+
+        final Exchange a = _persistit.getExchange(VOLUME_NAME, "a", true);
+        final Exchange b = _persistit.getExchange(VOLUME_NAME, "b", true);
+        /*
+         * Tree b already holds every tenth key, which the merge must report as
+         * duplicates
+         */
+        for (int i = 0; i < COUNT; i += 10) {
+            b.to(i).getValue().put(-1);
+            b.store();
+        }
+        final List<Integer> shuffled = new ArrayList<Integer>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            shuffled.add(i);
+        }
+        Collections.shuffle(shuffled);
+        for (int i = 0; i < COUNT; i++) {
+            final int k = shuffled.get(i);
+            a.to(k).getValue().put(RED_FOX + "," + k);
+            tb.store(a);
+            b.to(k).getValue().put(k);
+            tb.store(b);
+        }
+        /*
+         * Store every hundredth key of tree a a second time
+         */
+        for (int i = 0; i < COUNT; i += 100) {
+            a.to(i).getValue().put("second");
+            tb.store(a);
+        }
+        tb.merge();
+
+        assertEquals(COUNT / 100 + COUNT / 10, _duplicates.get());
+        assertEquals(2 * COUNT - COUNT / 10, tb.getMergedKeyCount());
+        a.to(Key.BEFORE);
+        b.to(Key.BEFORE);
+        int count = 0;
+        while (a.next() && b.next()) {
+            assertEquals(count, a.getKey().decodeInt());
+            assertEquals(RED_FOX + "," + count, a.getValue().getString());
+            assertEquals(count, b.getKey().decodeInt());
+            assertEquals(count % 10 == 0 ? -1 : count, b.getValue().getInt());
+            count++;
+        }
+        assertEquals(COUNT, count);
+        assertEquals(0, tb.getSortFileCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void threadCountIsRangeChecked() throws Exception {
+        new TreeBuilder(_persistit).setThreadCount(0);
+    }
+
     @Test
     public void customizationMethods() throws Exception {
         final AtomicBoolean doReplace = new AtomicBoolean();
@@ -0,0 +1,282 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.persistit.exception.DuplicateKeyException;
+
+public class TreeLoaderTest extends PersistitUnitTestCase {
+
+    private final static int COUNT = 50000;
+
+    @Test
+    public void loadSortedRecords() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "loaded", true);
+        final TreeLoader loader = new TreeLoader(ex);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int i = 0; i < COUNT; i++) {
+            key.clear().append(i).append(RED_FOX);
+            value.put(RED_FOX + i);
+            loader.append(key, value);
+        }
+        assertEquals(COUNT, loader.getRecordCount());
+        assertFalse("Records are not visible before finish", ex.to(Key.BEFORE).next());
+        loader.finish();
+
+        assertTrue("Expect index levels", ex.getTree().getDepth() > 1);
+        int count = 0;
+        ex.clear().append(Key.BEFORE);
+        while (ex.next(true)) {
+            assertEquals(count, ex.getKey().indexTo(0).decodeInt());
+            assertEquals(RED_FOX + count, ex.getValue().getString());
+            count++;
+        }
+        assertEquals(COUNT, count);
+        assertEquals(RED_FOX + 12345, ex.clear().append(12345).append(RED_FOX).fetch().getValue().getString());
+        assertFalse(ex.clear().append(COUNT).append(RED_FOX).fetch().getValue().isDefined());
+        check(ex.getTree());
+
+        /*
+         * The loaded tree must behave like any other tree
+         */
+        for (int i = 0; i < COUNT; i += 2) {
+            ex.clear().append(i).append(RED_FOX).remove();
+        }
+        for (int i = COUNT; i < COUNT * 2; i++) {
+            ex.getValue().put(i);
+            ex.clear().append(i).append(RED_FOX).store();
+        }
+        check(ex.getTree());
+        count = 0;
+        ex.clear().append(Key.BEFORE);
+        while (ex.next(true)) {
+            count++;
+        }
+        assertEquals(COUNT / 2 + COUNT, count);
+    }
+
+    @Test
+    public void loadFromIterator() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "iterated", true);
+        final List<Map.Entry<Key, Value>> entries = new ArrayList<Map.Entry<Key, Value>>();
+        for (int i = 0; i < 1000; i++) {
+            final Key key = new Key(_persistit).append("k").append(i);
+            final Value value = new Value(_persistit);
+            value.put(i);
+            entries.add(new AbstractMap.SimpleEntry<Key, Value>(key, value));
+        }
+        new TreeLoader(ex).load(entries.iterator());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, ex.clear().append("k").append(i).fetch().getValue().getInt());
+        }
+        check(ex.getTree());
+    }
+
+    @Test
+    public void fillFactor() throws Exception {
+        final long packed = pagesForFill(1.0f);
+        final long half = pagesForFill(0.5f);
+        assertTrue("Half-full pages: " + half + " packed: " + packed, half > packed * 3 / 2);
+        try {
+            new TreeLoader(_persistit.getExchange(VOLUME_NAME, "fill", true)).setFillFactor(0.1f);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void longRecords() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "long", true);
+        final TreeLoader loader = new TreeLoader(ex);
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < ex.getVolume().getPageSize() * 3) {
+            sb.append(RED_FOX);
+        }
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int i = 0; i < 100; i++) {
+            key.clear().append(i);
+            value.put((i % 2) == 0 ? sb.toString() + i : RED_FOX);
+            loader.append(key, value);
+        }
+        loader.finish();
+        for (int i = 0; i < 100; i++) {
+            ex.clear().append(i).fetch();
+            assertEquals((i % 2) == 0 ? sb.toString() + i : RED_FOX, ex.getValue().getString());
+        }
+        check(ex.getTree());
+    }
+
+    @Test
+    public void emptyLoadLeavesEmptyTree() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "empty", true);
+        final long root = ex.getTree().getRootPageAddr();
+        new TreeLoader(ex).finish();
+        assertEquals(root, ex.getTree().getRootPageAddr());
+        assertFalse(ex.to(Key.BEFORE).next());
+    }
+
+    @Test
+    public void keysMustAscend() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "order", true);
+        final TreeLoader loader = new TreeLoader(ex);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        loader.append(key.clear().append(2), value);
+        assertTrue(loader.canAppend(key.clear().append(3)));
+        assertFalse(loader.canAppend(key.clear().append(1)));
+        try {
+            loader.append(key.clear().append(1), value);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            loader.append(key.clear().append(2), value);
+            fail("Expected DuplicateKeyException");
+        } catch (final DuplicateKeyException e) {
+            // expected
+        }
+        loader.abort();
+        assertFalse(ex.to(Key.BEFORE).next());
+    }
+
+    @Test
+    public void treeMustBeEmpty() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "nonempty", true);
+        ex.getValue().put(RED_FOX);
+        ex.to(1).store();
+        try {
+            new TreeLoader(ex);
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void concurrentStoreAbortsLoad() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "conflict", true);
+        final TreeLoader loader = new TreeLoader(ex);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        value.put(RED_FOX);
+        for (int i = 0; i < COUNT; i++) {
+            loader.append(key.clear().append(i), value);
+        }
+        ex.getValue().put("interloper");
+        ex.to(-1).store();
+        try {
+            loader.finish();
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        ex.to(Key.BEFORE);
+        assertTrue(ex.next());
+        assertEquals(-1, ex.getKey().decodeInt());
+        assertFalse(ex.next());
+        check(ex.getTree());
+    }
+
+    @Test
+    public void failedLoadReleasesPages() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "released", true);
+        final List<Map.Entry<Key, Value>> entries = new ArrayList<Map.Entry<Key, Value>>();
+        for (int i = 0; i < COUNT; i++) {
+            final Value value = new Value(_persistit);
+            value.put(RED_FOX);
+            entries.add(new AbstractMap.SimpleEntry<Key, Value>(new Key(_persistit).append(i), value));
+        }
+        final TreeLoader failed = new TreeLoader(ex);
+        ex.getValue().put("interloper");
+        ex.to(-1).store();
+        try {
+            failed.load(entries.iterator());
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        final long nextAvailablePage = ex.getVolume().getNextAvailablePage();
+        ex.to(-1).remove();
+        new TreeLoader(ex).load(entries.iterator());
+        assertEquals(nextAvailablePage, ex.getVolume().getNextAvailablePage());
+        check(ex.getTree());
+    }
+
+    @Test
+    public void streamLoaderBuildsEmptyTree() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "saved", true);
+        for (int i = 0; i < COUNT; i++) {
+            ex.getValue().put(RED_FOX + i);
+            ex.clear().append(i).store();
+        }
+        final File saveFile = File.createTempFile("TreeLoaderTest", ".sav");
+        saveFile.deleteOnExit();
+        final StreamSaver saver = new StreamSaver(_persistit, saveFile);
+        saver.saveTrees(VOLUME_NAME, new String[] { "saved" });
+        saver.close();
+        ex.removeTree();
+
+        final StreamLoader loader = new StreamLoader(_persistit, saveFile);
+        loader.load();
+        final Exchange loaded = _persistit.getExchange(VOLUME_NAME, "saved", false);
+        int count = 0;
+        loaded.clear().append(Key.BEFORE);
+        while (loaded.next()) {
+            assertEquals(RED_FOX + count, loaded.getValue().getString());
+            count++;
+        }
+        assertEquals(COUNT, count);
+        check(loaded.getTree());
+    }
+
+    private long pagesForFill(final float fillFactor) throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "fill" + fillFactor, true);
+        final TreeLoader loader = new TreeLoader(ex);
+        loader.setFillFactor(fillFactor);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        value.put(RED_FOX);
+        for (int i = 0; i < COUNT; i++) {
+            loader.append(key.clear().append(i), value);
+        }
+        loader.finish();
+        check(ex.getTree());
+        return loader.getPageCount();
+    }
+
+    private void check(final Tree tree) throws Exception {
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkTree(tree);
+        assertEquals("Faults: " + icheck.getFaults().length, 0, icheck.getFaults().length);
+    }
+}
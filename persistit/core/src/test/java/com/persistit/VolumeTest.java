@@ -192,6 +192,40 @@ public class VolumeTest extends PersistitUnitTestCase {
 
   }
 
+  @Test
+  public void mappedReadOnlyVolume() throws Exception {
+    final Volume volume1 = _persistit.loadVolume(validVolumeSpecification("${datapath}/vtest, pageSize:16k, initialSize:1m, maximumSize:10m, extensionSize:1m, create"));
+    Exchange ex = _persistit.getExchange(volume1, "mapped", true);
+    for (int i = 0; i < 10000; i++) {
+      ex.getValue().put("value" + i);
+      ex.to(i).store();
+    }
+    _persistit.releaseExchange(ex);
+    _persistit.flush();
+    _persistit.copyBackPages();
+    volume1.close();
+    _persistit.removeVolume(volume1);
+
+    final VolumeSpecification vs = validVolumeSpecification("${datapath}/vtest, pageSize:16k, readOnly, mapped");
+    assertTrue(vs.isMapped());
+    assertEquals("Parse of toString should be equal", vs, validVolumeSpecification(vs.toString()));
+    final Volume volume2 = _persistit.loadVolume(vs);
+    assertTrue(volume2.isReadOnly());
+    assertTrue(volume2.getStorage() instanceof VolumeStorageM2);
+    final VolumeStorageM2 storage = (VolumeStorageM2) volume2.getStorage();
+    assertTrue(storage.getMappedSize() > 0);
+    ex = _persistit.getExchange(volume2, "mapped", false);
+    for (int i = 0; i < 10000; i++) {
+      assertEquals("value" + i, ex.to(i).fetch().getValue().getString());
+    }
+    assertTrue(volume2.getStatistics().getReadCounter() > 0);
+    _persistit.releaseExchange(ex);
+    volume2.close();
+    assertEquals(0, storage.getMappedSize());
+
+    invalidVolumeSpecification("${datapath}/vtest, mapped");
+  }
+
   @Test
   public void volumeLoadAndSaveGlobalTimestamp() throws Exception {
     final long MARKER = 123456789L;
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2026 Open Identity Platform Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.persistit.ConcurrentPersistitMap;
+import com.persistit.Exchange;
+import com.persistit.PersistitMap;
+import com.persistit.PersistitUnitTestCase;
+
+public class ConcurrentPersistitMapTest extends PersistitUnitTestCase {
+
+    private final static int THREAD_COUNT = 8;
+
+    private final List<ConcurrentPersistitMap<?, ?>> _maps = new ArrayList<ConcurrentPersistitMap<?, ?>>();
+
+    private ConcurrentPersistitMap<Integer, String> newMap() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", "ConcurrentPersistitMapTest", true);
+        ex.clear().append("prefix");
+        final ConcurrentPersistitMap<Integer, String> map = new ConcurrentPersistitMap<Integer, String>(ex);
+        _maps.add(map);
+        return map;
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        for (final ConcurrentPersistitMap<?, ?> map : _maps) {
+            map.releaseExchange();
+        }
+        _maps.clear();
+        super.tearDown();
+    }
+
+    @Test
+    public void mapOperations() throws Exception {
+        final ConcurrentPersistitMap<Integer, String> map = newMap();
+        final TreeMap<Integer, String> tmap = new TreeMap<Integer, String>();
+        assertTrue(map.isEmpty());
+        for (int index = 0; index < 1000; index += 3) {
+            assertNull(map.put(index, "v" + index));
+            tmap.put(index, "v" + index);
+        }
+        assertEquals("v3", map.put(3, "w3"));
+        tmap.put(3, "w3");
+        assertEquals("v6", map.remove(6));
+        tmap.remove(6);
+        assertNull(map.remove(7));
+        assertEquals(tmap.size(), map.size());
+        assertFalse(map.isEmpty());
+        assertTrue(map.containsKey(9));
+        assertFalse(map.containsKey(10));
+        assertEquals("v9", map.get(9));
+        assertNull(map.get(10));
+        assertEquals(tmap, map);
+        assertEquals(new ArrayList<Integer>(tmap.keySet()), new ArrayList<Integer>(map.keySet()));
+
+        final Iterator<Map.Entry<Integer, String>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Integer, String> entry = iterator.next();
+            if (entry.getKey() % 2 == 0) {
+                iterator.remove();
+                tmap.remove(entry.getKey());
+            } else if (entry.getKey() % 5 == 0) {
+                entry.setValue("x" + entry.getKey());
+                tmap.put(entry.getKey(), "x" + entry.getKey());
+            }
+        }
+        assertEquals(tmap, map);
+
+        /*
+         * Records outside the map's prefix are not part of the map
+         */
+        final PersistitMap<Integer, String> others = new PersistitMap<Integer, String>(_persistit.getExchange(
+                "persistit", "ConcurrentPersistitMapTest", false));
+        others.put(1, "not in the map");
+        assertEquals(tmap, map);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(1, others.size());
+    }
+
+    @Test
+    public void conditionalOperations() throws Exception {
+        final ConcurrentPersistitMap<Integer, String> map = newMap();
+        assertNull(map.putIfAbsent(1, "a"));
+        assertEquals("a", map.putIfAbsent(1, "b"));
+        assertEquals("a", map.get(1));
+        assertFalse(map.replace(1, "b", "c"));
+        assertTrue(map.replace(1, "a", "c"));
+        assertEquals("c", map.get(1));
+        assertNull(map.replace(2, "x"));
+        assertFalse(map.containsKey(2));
+        assertEquals("c", map.replace(1, "d"));
+        assertFalse(map.remove(1, "c"));
+        assertTrue(map.remove(1, "d"));
+        assertFalse(map.containsKey(1));
+        try {
+            map.put(1, null);
+            fail();
+        } catch (final NullPointerException e) {
+            // expected
+        }
+        try {
+            map.get(null);
+            fail();
+        } catch (final NullPointerException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void batchOperations() throws Exception {
+        final ConcurrentPersistitMap<Integer, String> map = newMap();
+        final Map<Integer, String> batch = new java.util.HashMap<Integer, String>();
+        for (int index = 0; index < 5000; index++) {
+            batch.put(index * 7919 % 10007, "value" + index);
+        }
+        map.putAll(batch);
+        assertEquals(batch, map);
+
+        final List<Integer> keys = Arrays.asList(9000, 17, -1, 3, 10008, 17);
+        final Map<Integer, String> result = map.getAll(keys);
+        final List<Integer> expected = new ArrayList<Integer>();
+        for (final Integer key : new java.util.TreeSet<Integer>(keys)) {
+            if (batch.containsKey(key)) {
+                expected.add(key);
+                assertEquals(batch.get(key), result.get(key));
+            }
+        }
+        assertEquals(expected, new ArrayList<Integer>(result.keySet()));
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        final ConcurrentPersistitMap<Integer, String> map = newMap();
+        final int keys = 16;
+        final int increments = 500;
+        for (int key = 0; key < keys; key++) {
+            map.put(key, "0");
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread[] threads = new Thread[THREAD_COUNT];
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < increments; i++) {
+                            final int key = (seed + i) % keys;
+                            while (true) {
+                                final String value = map.get(key);
+                                if (map.replace(key, value, Integer.toString(Integer.parseInt(value) + 1))) {
+                                    break;
+                                }
+                            }
+                            map.putIfAbsent(keys + seed * increments + i, "x");
+                        }
+                    } catch (final Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }, "ConcurrentPersistitMapTest_" + t);
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        int total = 0;
+        for (int key = 0; key < keys; key++) {
+            total += Integer.parseInt(map.get(key));
+        }
+        assertEquals(THREAD_COUNT * increments, total);
+        assertEquals(keys + THREAD_COUNT * increments, map.size());
+    }
+
+    @Test
+    public void stripeCount() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", "ConcurrentPersistitMapTest", true);
+        assertEquals(ConcurrentPersistitMap.DEFAULT_STRIPE_COUNT,
+                new ConcurrentPersistitMap<Integer, String>(ex).getStripeCount());
+        assertEquals(5, new ConcurrentPersistitMap<Integer, String>(ex, 5).getStripeCount());
+        try {
+            new ConcurrentPersistitMap<Integer, String>(ex, 0);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+}